@@ -64,6 +64,9 @@ public class CalculatedFieldEntityActor extends AbstractCalculatedFieldActor {
             case CF_STATE_RESTORE_MSG:
                 processor.process((CalculatedFieldStateRestoreMsg) msg);
                 break;
+            case CF_STATE_EVICT_MSG:
+                processor.process((CalculatedFieldStateEvictMsg) msg);
+                break;
             case CF_STATE_PARTITION_RESTORE_MSG:
                 processor.process((CalculatedFieldStatePartitionRestoreMsg) msg);
                 break;
@@ -85,6 +88,9 @@ public class CalculatedFieldEntityActor extends AbstractCalculatedFieldActor {
             case CF_REEVALUATE_MSG:
                 processor.process((CalculatedFieldReevaluateMsg) msg);
                 break;
+            case CF_COALESCED_EVALUATION_MSG:
+                processor.process((CalculatedFieldCoalescedEvaluationMsg) msg);
+                break;
             case CF_ALARM_ACTION_MSG:
                 processor.process((CalculatedFieldAlarmActionMsg) msg);
                 break;
@@ -42,6 +42,7 @@ import org.thingsboard.server.common.msg.CalculatedFieldStatePartitionRestoreMsg
 import org.thingsboard.server.common.msg.cf.CalculatedFieldPartitionChangeMsg;
 import org.thingsboard.server.common.msg.queue.ServiceType;
 import org.thingsboard.server.common.msg.queue.TbCallback;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
 import org.thingsboard.server.common.util.ProtoUtils;
 import org.thingsboard.server.gen.transport.TransportProtos.AttributeScopeProto;
 import org.thingsboard.server.gen.transport.TransportProtos.AttributeValueProto;
@@ -49,6 +50,7 @@ import org.thingsboard.server.gen.transport.TransportProtos.CalculatedFieldTelem
 import org.thingsboard.server.gen.transport.TransportProtos.TsKvProto;
 import org.thingsboard.server.service.cf.CalculatedFieldProcessingService;
 import org.thingsboard.server.service.cf.CalculatedFieldResult;
+import org.thingsboard.server.service.cf.CalculatedFieldStateMemoryService;
 import org.thingsboard.server.service.cf.CalculatedFieldStateService;
 import org.thingsboard.server.service.cf.ctx.CalculatedFieldEntityCtxId;
 import org.thingsboard.server.service.cf.ctx.state.ArgumentEntry;
@@ -68,6 +70,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -92,9 +95,13 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
     final EntityId entityId;
     final CalculatedFieldProcessingService cfService;
     final CalculatedFieldStateService cfStateService;
+    final CalculatedFieldStateMemoryService cfStateMemoryService;
 
     TbActorCtx actorCtx;
     Map<CalculatedFieldId, CalculatedFieldState> states = new HashMap<>();
+    Map<CalculatedFieldId, CoalescedEvaluation> coalescedEvaluations = new HashMap<>();
+    // partitions of the states unloaded from memory; the states are loaded back from the storage on demand
+    Map<CalculatedFieldId, TopicPartitionInfo> evictedStates = new HashMap<>();
 
     CalculatedFieldEntityMessageProcessor(ActorSystemContext systemContext, TenantId tenantId, EntityId entityId) {
         super(systemContext);
@@ -102,6 +109,7 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
         this.entityId = entityId;
         this.cfService = systemContext.getCalculatedFieldProcessingService();
         this.cfStateService = systemContext.getCalculatedFieldStateService();
+        this.cfStateMemoryService = systemContext.getCalculatedFieldStateMemoryService();
     }
 
     void init(TbActorCtx ctx) {
@@ -113,8 +121,13 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
                         "[{}][{}] Stopping entity actor due to change partition event." :
                         "[{}][{}] Stopping entity actor.",
                 tenantId, entityId);
-        states.values().forEach(this::closeState);
+        states.forEach((cfId, state) -> {
+            closeState(state);
+            cfStateMemoryService.onStateUnloaded(new CalculatedFieldEntityCtxId(tenantId, cfId, entityId));
+        });
         states.clear();
+        coalescedEvaluations.clear();
+        evictedStates.clear();
         actorCtx.stop(actorCtx.getSelf());
     }
 
@@ -132,12 +145,32 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
             state.setCtx(msg.getCtx(), actorCtx);
             state.setPartition(msg.getPartition());
             states.put(cfId, state);
+            evictedStates.remove(cfId);
         } else {
             removeState(cfId);
         }
         msg.getCallback().onSuccess();
     }
 
+    public void process(CalculatedFieldStateEvictMsg msg) {
+        CalculatedFieldEntityCtxId ctxId = msg.getId();
+        CalculatedFieldId cfId = ctxId.cfId();
+        CalculatedFieldState state = states.get(cfId);
+        if (state == null) {
+            if (!evictedStates.containsKey(cfId)) {
+                // the state was removed without being accounted
+                cfStateMemoryService.onStateUnloaded(ctxId);
+            }
+        } else if (state.isSizeOk() && !coalescedEvaluations.containsKey(cfId)) {
+            log.debug("[{}][{}] Evicting CF state", entityId, cfId);
+            states.remove(cfId);
+            closeState(state);
+            evictedStates.put(cfId, state.getPartition());
+            cfStateMemoryService.onStateEvicted(ctxId);
+        }
+        msg.getCallback().onSuccess();
+    }
+
     public void process(CalculatedFieldStatePartitionRestoreMsg msg) {
         log.debug("Processing CF state partition restore msg: {}", msg);
         for (CalculatedFieldState state : states.values()) {
@@ -155,7 +188,7 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
             removeState(ctx.getCfId());
             state = null;
         } else {
-            state = states.get(ctx.getCfId());
+            state = getState(ctx);
         }
         try {
             if (state == null) {
@@ -168,13 +201,15 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
                 state.setCtx(ctx, actorCtx);
             }
             if (msg.getStateAction() != StateAction.REFRESH_CTX) {
+                // the evaluation below covers the pending coalesced updates
+                coalescedEvaluations.remove(ctx.getCfId());
                 if (state.isSizeOk()) {
                     processStateIfReady(state, Collections.emptyMap(), ctx, Collections.singletonList(ctx.getCfId()), null, msg.getEventType().name(), msg.getCallback());
                 } else {
                     throw CalculatedFieldException.builder().ctx(ctx).eventEntity(entityId).errorMessage(ctx.getSizeExceedsLimitMessage()).build();
                 }
             } else {
-                msg.getCallback().onSuccess();
+                refreshCoalescedEvaluation(state, ctx, msg.getCallback());
             }
         } catch (Exception e) {
             log.debug("[{}][{}] Failed to initialize CF state", entityId, ctx.getCfId(), e);
@@ -205,17 +240,19 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
     public void process(CalculatedFieldEntityDeleteMsg msg) throws CalculatedFieldException {
         log.debug("[{}] Processing CF entity delete msg.", msg.getEntityId());
         if (this.entityId.equals(msg.getEntityId())) {
-            if (states.isEmpty()) {
+            if (states.isEmpty() && evictedStates.isEmpty()) {
                 msg.getCallback().onSuccess();
             } else {
-                MultipleTbCallback multipleTbCallback = new MultipleTbCallback(states.size(), msg.getCallback());
+                MultipleTbCallback multipleTbCallback = new MultipleTbCallback(states.size() + evictedStates.size(), msg.getCallback());
                 states.forEach((cfId, state) -> cfStateService.deleteState(new CalculatedFieldEntityCtxId(tenantId, cfId, entityId), multipleTbCallback));
+                evictedStates.forEach((cfId, partition) -> cfStateService.deleteState(new CalculatedFieldEntityCtxId(tenantId, cfId, entityId), multipleTbCallback));
                 actorCtx.stop(actorCtx.getSelf());
             }
         } else {
             var cfId = new CalculatedFieldId(msg.getEntityId().getId());
+            boolean evicted = evictedStates.containsKey(cfId);
             var state = removeState(cfId);
-            if (state != null) {
+            if (state != null || evicted) {
                 cfStateService.deleteState(new CalculatedFieldEntityCtxId(tenantId, cfId, entityId), msg.getCallback());
             } else {
                 msg.getCallback().onSuccess();
@@ -234,7 +271,7 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
 
     private void handleRelationUpdate(CalculatedFieldRelationActionMsg msg) throws CalculatedFieldException {
         CalculatedFieldCtx ctx = msg.getCalculatedField();
-        var state = states.get(ctx.getCfId());
+        var state = getState(ctx);
         try {
             Map<String, ArgumentEntry> updatedArgs = null;
             if (state == null) {
@@ -387,7 +424,7 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
     public void process(CalculatedFieldReevaluateMsg msg) throws CalculatedFieldException {
         CalculatedFieldCtx ctx = msg.getCtx();
         CalculatedFieldId cfId = ctx.getCfId();
-        CalculatedFieldState state = states.get(cfId);
+        CalculatedFieldState state = getState(ctx);
         if (state == null) {
             log.warn("[{}][{}] Failed to find CF state (probably wasn't restored properly) for entity to handle {}", entityId, cfId, msg);
             state = createState(ctx);
@@ -400,6 +437,24 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
         }
     }
 
+    public void process(CalculatedFieldCoalescedEvaluationMsg msg) throws CalculatedFieldException {
+        CalculatedFieldId cfId = msg.getCfId();
+        CoalescedEvaluation evaluation = coalescedEvaluations.remove(cfId);
+        CalculatedFieldState state = states.get(cfId);
+        if (evaluation == null || state == null) {
+            log.debug("[{}][{}] No pending updates to evaluate", entityId, cfId);
+            msg.getCallback().onSuccess();
+            return;
+        }
+        CalculatedFieldCtx ctx = evaluation.ctx;
+        if (state.isSizeOk()) {
+            log.debug("[{}][{}] Evaluating CF state after {} coalesced updates", entityId, cfId, evaluation.updatesCount);
+            processStateIfReady(state, evaluation.updatedArgs, ctx, new ArrayList<>(evaluation.cfIds), evaluation.tbMsgId, evaluation.tbMsgType, msg.getCallback());
+        } else {
+            throw CalculatedFieldException.builder().ctx(ctx).eventEntity(entityId).errorMessage(ctx.getSizeExceedsLimitMessage()).build();
+        }
+    }
+
     public void process(CalculatedFieldAlarmActionMsg msg) {
         log.debug("[{}] Processing alarm action event msg: {}", entityId, msg);
         for (CalculatedFieldState state : states.values()) {
@@ -435,7 +490,7 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
             log.debug("[{}] No new argument values to process for CF.", ctx.getCfId());
             callback.onSuccess();
         }
-        CalculatedFieldState state = states.get(ctx.getCfId());
+        CalculatedFieldState state = getState(ctx);
         boolean justRestored = false;
         if (state == null) {
             state = createState(ctx);
@@ -468,7 +523,11 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
             if (!updatedArgs.isEmpty() || justRestored) {
                 cfIdList = new ArrayList<>(cfIdList);
                 cfIdList.add(ctx.getCfId());
-                processStateIfReady(state, updatedArgs, ctx, cfIdList, tbMsgId, msgType, callback);
+                if (ctx.isCoalescingEnabled()) {
+                    coalesceEvaluation(state, updatedArgs, ctx, cfIdList, tbMsgId, msgType, callback);
+                } else {
+                    processStateIfReady(state, updatedArgs, ctx, cfIdList, tbMsgId, msgType, callback);
+                }
             } else {
                 callback.onSuccess();
             }
@@ -553,9 +612,81 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
         }
     }
 
+    // Only the evaluation is deferred: the updated state is persisted right away, so the message is acknowledged
+    // without waiting for the coalescing interval. The first update schedules the evaluation, the following ones
+    // are merged into it until the scheduled message is processed.
+    private void coalesceEvaluation(CalculatedFieldState state, Map<String, ArgumentEntry> updatedArgs, CalculatedFieldCtx ctx,
+                                    List<CalculatedFieldId> cfIdList, UUID tbMsgId, String tbMsgType, TbCallback callback) throws CalculatedFieldException {
+        CalculatedFieldId cfId = ctx.getCfId();
+        CoalescedEvaluation evaluation = coalescedEvaluations.get(cfId);
+        if (evaluation == null) {
+            evaluation = new CoalescedEvaluation();
+            coalescedEvaluations.put(cfId, evaluation);
+            log.trace("[{}][{}] Scheduling coalesced evaluation in {} ms", entityId, cfId, ctx.getCoalescingIntervalMillis());
+            systemContext.scheduleMsgWithDelay(actorCtx, new CalculatedFieldCoalescedEvaluationMsg(tenantId, cfId), ctx.getCoalescingIntervalMillis());
+        } else {
+            systemContext.getCfCoalescedEvaluationsCounter().increment();
+        }
+        evaluation.add(ctx, updatedArgs, cfIdList, tbMsgId, tbMsgType);
+
+        CalculatedFieldEntityCtxId ctxId = new CalculatedFieldEntityCtxId(tenantId, cfId, entityId);
+        state.checkStateSize(ctxId, ctx.getMaxStateSize());
+        if (state.isSizeOk()) {
+            cfStateService.persistState(ctxId, state, callback);
+        } else {
+            coalescedEvaluations.remove(cfId);
+            deleteStateAndRaiseSizeException(ctxId, CalculatedFieldException.builder().ctx(ctx).eventEntity(entityId).errorMessage(ctx.getSizeExceedsLimitMessage()).build(), callback);
+        }
+    }
+
+    // The replaced ctx is closed after the CF update, so the pending evaluation switches to the new one,
+    // or is performed right away if the coalescing was disabled by the update.
+    private void refreshCoalescedEvaluation(CalculatedFieldState state, CalculatedFieldCtx ctx, TbCallback callback) throws CalculatedFieldException {
+        CalculatedFieldId cfId = ctx.getCfId();
+        CoalescedEvaluation evaluation = coalescedEvaluations.get(cfId);
+        if (evaluation == null) {
+            callback.onSuccess();
+        } else if (ctx.isCoalescingEnabled()) {
+            evaluation.ctx = ctx;
+            callback.onSuccess();
+        } else {
+            coalescedEvaluations.remove(cfId);
+            if (state.isSizeOk()) {
+                log.debug("[{}][{}] Coalescing disabled, evaluating {} pending updates", entityId, cfId, evaluation.updatesCount);
+                processStateIfReady(state, evaluation.updatedArgs, ctx, new ArrayList<>(evaluation.cfIds), evaluation.tbMsgId, evaluation.tbMsgType, callback);
+            } else {
+                callback.onSuccess();
+            }
+        }
+    }
+
+    private CalculatedFieldState getState(CalculatedFieldCtx ctx) {
+        CalculatedFieldId cfId = ctx.getCfId();
+        CalculatedFieldState state = states.get(cfId);
+        if (state == null && evictedStates.containsKey(cfId)) {
+            TopicPartitionInfo partition = evictedStates.remove(cfId);
+            state = cfStateService.loadState(new CalculatedFieldEntityCtxId(tenantId, cfId, entityId));
+            if (state != null) {
+                log.debug("[{}][{}] Reloaded evicted CF state", entityId, cfId);
+                state.setCtx(ctx, actorCtx);
+                state.setPartition(partition);
+                state.init(true);
+                states.put(cfId, state);
+            } else {
+                log.debug("[{}][{}] Evicted CF state not found in the storage", entityId, cfId);
+            }
+        }
+        return state;
+    }
+
     private CalculatedFieldState removeState(CalculatedFieldId cfId) {
+        coalescedEvaluations.remove(cfId);
+        evictedStates.remove(cfId);
         CalculatedFieldState state = states.remove(cfId);
-        closeState(state);
+        if (state != null) {
+            closeState(state);
+            cfStateMemoryService.onStateUnloaded(new CalculatedFieldEntityCtxId(tenantId, cfId, entityId));
+        }
         return state;
     }
 
@@ -798,4 +929,24 @@ public class CalculatedFieldEntityMessageProcessor extends AbstractContextAwareM
         return null;
     }
 
+    static class CoalescedEvaluation {
+
+        private final Map<String, ArgumentEntry> updatedArgs = new HashMap<>();
+        private final Set<CalculatedFieldId> cfIds = new LinkedHashSet<>();
+        private CalculatedFieldCtx ctx;
+        private UUID tbMsgId;
+        private String tbMsgType;
+        private int updatesCount;
+
+        void add(CalculatedFieldCtx ctx, Map<String, ArgumentEntry> updatedArgs, List<CalculatedFieldId> cfIds, UUID tbMsgId, String tbMsgType) {
+            this.ctx = ctx;
+            this.updatedArgs.putAll(updatedArgs);
+            this.cfIds.addAll(cfIds);
+            this.tbMsgId = tbMsgId;
+            this.tbMsgType = tbMsgType;
+            this.updatesCount++;
+        }
+
+    }
+
 }
@@ -26,6 +26,7 @@ import org.thingsboard.server.actors.TbCalculatedFieldEntityActorId;
 import org.thingsboard.server.actors.calculatedField.EntityInitCalculatedFieldMsg.StateAction;
 import org.thingsboard.server.actors.service.DefaultActorService;
 import org.thingsboard.server.actors.shared.AbstractContextAwareMsgProcessor;
+import org.thingsboard.server.common.data.AttributeScope;
 import org.thingsboard.server.common.data.Customer;
 import org.thingsboard.server.common.data.DataConstants;
 import org.thingsboard.server.common.data.DeviceProfile;
@@ -38,7 +39,9 @@ import org.thingsboard.server.common.data.cf.CalculatedField;
 import org.thingsboard.server.common.data.cf.CalculatedFieldEventType;
 import org.thingsboard.server.common.data.cf.CalculatedFieldLink;
 import org.thingsboard.server.common.data.cf.CalculatedFieldType;
+import org.thingsboard.server.common.data.cf.configuration.ArgumentType;
 import org.thingsboard.server.common.data.cf.configuration.HasRelationPathLevel;
+import org.thingsboard.server.common.data.cf.configuration.ReferencedEntityKey;
 import org.thingsboard.server.common.data.cf.configuration.aggregation.RelatedEntitiesAggregationCalculatedFieldConfiguration;
 import org.thingsboard.server.common.data.id.AssetId;
 import org.thingsboard.server.common.data.id.CalculatedFieldId;
@@ -65,6 +68,7 @@ import org.thingsboard.server.dao.cf.CalculatedFieldService;
 import org.thingsboard.server.dao.customer.CustomerService;
 import org.thingsboard.server.dao.device.DeviceService;
 import org.thingsboard.server.dao.relation.RelationService;
+import org.thingsboard.server.gen.transport.TransportProtos.CalculatedFieldTelemetryMsgProto;
 import org.thingsboard.server.queue.settings.TbQueueCalculatedFieldSettings;
 import org.thingsboard.server.service.cf.CalculatedFieldProcessingService;
 import org.thingsboard.server.service.cf.CalculatedFieldStateService;
@@ -80,6 +84,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -104,6 +109,8 @@ public class CalculatedFieldManagerMessageProcessor extends AbstractContextAware
     private final Map<EntityId, List<CalculatedFieldCtx>> entityIdCalculatedFields = new HashMap<>();
     private final Map<EntityId, List<CalculatedFieldLink>> entityIdCalculatedFieldLinks = new HashMap<>();
     private final Map<EntityId, Set<EntityId>> ownerEntities = new HashMap<>();
+    // Related entities aggregation CFs by the argument keys they consume. Updates of any related entity are resolved by key lookups instead of scanning all CFs.
+    private final Map<ReferencedEntityKey, Set<CalculatedFieldId>> relatedEntityArgumentsIndex = new HashMap<>();
     private ScheduledFuture<?> cfsReevaluationTask;
 
     private final CalculatedFieldProcessingService cfExecService;
@@ -151,6 +158,7 @@ public class CalculatedFieldManagerMessageProcessor extends AbstractContextAware
         calculatedFields.clear();
         entityIdCalculatedFields.clear();
         entityIdCalculatedFieldLinks.clear();
+        relatedEntityArgumentsIndex.clear();
         cancelReevaluationTask();
         ctx.stop(ctx.getSelf());
     }
@@ -432,6 +440,7 @@ public class CalculatedFieldManagerMessageProcessor extends AbstractContextAware
                 // Alternative approach would be to use any list but avoid modifications to the list (change the complete map value instead)
                 entityIdCalculatedFields.computeIfAbsent(cf.getEntityId(), id -> new CopyOnWriteArrayList<>()).add(cfCtx);
                 addLinks(cf);
+                addRelatedEntityArguments(cfCtx);
                 applyToTargetCfEntityActors(cfCtx, callback, (id, cb) -> initCfForEntity(id, cfCtx, StateAction.INIT, CalculatedFieldEventType.INITIALIZED, cb));
             }
         }
@@ -478,6 +487,8 @@ public class CalculatedFieldManagerMessageProcessor extends AbstractContextAware
                     entityIdCalculatedFields.put(newCf.getEntityId(), newCfList);
                     deleteLinks(oldCfCtx);
                     addLinks(newCf);
+                    deleteRelatedEntityArguments(oldCfCtx);
+                    addRelatedEntityArguments(newCfCtx);
                 }
 
                 StateAction stateAction;
@@ -521,6 +532,7 @@ public class CalculatedFieldManagerMessageProcessor extends AbstractContextAware
         }
         entityIdCalculatedFields.get(cfCtx.getEntityId()).remove(cfCtx);
         deleteLinks(cfCtx);
+        deleteRelatedEntityArguments(cfCtx);
         applyToTargetCfEntityActors(cfCtx, new TbCallback() {
             @Override
             public void onSuccess() {
@@ -579,12 +591,56 @@ public class CalculatedFieldManagerMessageProcessor extends AbstractContextAware
     }
 
     private List<CalculatedFieldEntityCtxId> filterAggregationCfs(CalculatedFieldTelemetryMsg msg) {
+        if (relatedEntityArgumentsIndex.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<CalculatedFieldId> cfIds = findRelatedEntityArgumentsCfIds(msg.getProto());
+        if (cfIds.isEmpty()) {
+            return Collections.emptyList();
+        }
         EntityId entityId = msg.getEntityId();
-        return calculatedFields.values().stream()
-                .filter(cf -> CalculatedFieldType.RELATED_ENTITIES_AGGREGATION.equals(cf.getCfType()))
-                .filter(cf -> cf.relatedEntityMatches(msg.getProto()))
-                .flatMap(cf -> findRelationsForCf(entityId, cf).stream())
-                .toList();
+        List<CalculatedFieldEntityCtxId> result = new ArrayList<>();
+        for (CalculatedFieldId cfId : cfIds) {
+            CalculatedFieldCtx cf = calculatedFields.get(cfId);
+            if (cf != null) {
+                result.addAll(findRelationsForCf(entityId, cf));
+            }
+        }
+        return result;
+    }
+
+    private Set<CalculatedFieldId> findRelatedEntityArgumentsCfIds(CalculatedFieldTelemetryMsgProto proto) {
+        Set<CalculatedFieldId> result = new LinkedHashSet<>();
+        if (proto.getTsDataCount() > 0) {
+            findTsKeysCfIds(CalculatedFieldCtx.getTsKeys(proto), result);
+        } else if (proto.getAttrDataCount() > 0) {
+            findAttrKeysCfIds(CalculatedFieldCtx.getAttrKeys(proto), AttributeScope.valueOf(proto.getScope().name()), result);
+        } else if (proto.getRemovedTsKeysCount() > 0) {
+            findTsKeysCfIds(proto.getRemovedTsKeysList(), result);
+        } else if (proto.getRemovedAttrKeysCount() > 0) {
+            findAttrKeysCfIds(proto.getRemovedAttrKeysList(), AttributeScope.valueOf(proto.getScope().name()), result);
+        }
+        return result;
+    }
+
+    private void findTsKeysCfIds(List<String> keys, Set<CalculatedFieldId> result) {
+        for (String key : keys) {
+            addIndexedCfIds(new ReferencedEntityKey(key, ArgumentType.TS_LATEST, null), result);
+            addIndexedCfIds(new ReferencedEntityKey(key, ArgumentType.TS_ROLLING, null), result);
+        }
+    }
+
+    private void findAttrKeysCfIds(List<String> keys, AttributeScope scope, Set<CalculatedFieldId> result) {
+        for (String key : keys) {
+            addIndexedCfIds(new ReferencedEntityKey(key, ArgumentType.ATTRIBUTE, scope), result);
+        }
+    }
+
+    private void addIndexedCfIds(ReferencedEntityKey key, Set<CalculatedFieldId> result) {
+        Set<CalculatedFieldId> cfIds = relatedEntityArgumentsIndex.get(key);
+        if (cfIds != null) {
+            result.addAll(cfIds);
+        }
     }
 
     private List<CalculatedFieldEntityCtxId> findRelationsForCf(EntityId entityId, CalculatedFieldCtx cf) {
@@ -797,6 +853,24 @@ public class CalculatedFieldManagerMessageProcessor extends AbstractContextAware
         oldLinks.forEach(link -> entityIdCalculatedFieldLinks.computeIfAbsent(link.entityId(), id -> new CopyOnWriteArrayList<>()).remove(link));
     }
 
+    private void addRelatedEntityArguments(CalculatedFieldCtx cfCtx) {
+        if (CalculatedFieldType.RELATED_ENTITIES_AGGREGATION.equals(cfCtx.getCfType())) {
+            cfCtx.getRelatedEntityArguments().keySet().forEach(key -> relatedEntityArgumentsIndex.computeIfAbsent(key, k -> new HashSet<>()).add(cfCtx.getCfId()));
+        }
+    }
+
+    private void deleteRelatedEntityArguments(CalculatedFieldCtx cfCtx) {
+        cfCtx.getRelatedEntityArguments().keySet().forEach(key -> {
+            Set<CalculatedFieldId> cfIds = relatedEntityArgumentsIndex.get(key);
+            if (cfIds != null) {
+                cfIds.remove(cfCtx.getCfId());
+                if (cfIds.isEmpty()) {
+                    relatedEntityArgumentsIndex.remove(key);
+                }
+            }
+        });
+    }
+
     public void onPartitionChange(CalculatedFieldPartitionChangeMsg msg) {
         ctx.broadcastToChildren(msg, true);
     }
@@ -825,6 +899,7 @@ public class CalculatedFieldManagerMessageProcessor extends AbstractContextAware
             // We use copy on write lists to safely pass the reference to another actor for the iteration.
             // Alternative approach would be to use any list but avoid modifications to the list (change the complete map value instead)
             entityIdCalculatedFields.computeIfAbsent(cf.getEntityId(), id -> new CopyOnWriteArrayList<>()).add(cfCtx);
+            addRelatedEntityArguments(cfCtx);
         }
     }
 
@@ -37,6 +37,8 @@ import org.thingsboard.server.common.data.query.AlarmData;
 import org.thingsboard.server.common.data.query.AlarmDataQuery;
 import org.thingsboard.server.common.data.query.AvailableEntityKeys;
 import org.thingsboard.server.common.data.query.AvailableEntityKeysV2;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityData;
 import org.thingsboard.server.common.data.query.EntityDataPageLink;
@@ -48,6 +50,7 @@ import org.thingsboard.server.queue.util.TbCoreComponent;
 import org.thingsboard.server.service.query.EntityQueryService;
 import org.thingsboard.server.service.security.permission.Operation;
 
+import java.util.List;
 import java.util.Set;
 
 import static org.thingsboard.server.controller.ControllerConstants.ALARM_DATA_QUERY_DESCRIPTION;
@@ -88,6 +91,21 @@ public class EntityQueryController extends BaseController {
         return entityQueryService.findEntityDataByQuery(getCurrentUser(), query);
     }
 
+    @ApiOperation(value = "Aggregate Entities by Query (aggregateEntitiesByQuery)",
+            notes = "Groups the entities that match the entity filter and key filters by the optional 'groupByKey' " +
+                    "and computes the requested aggregations (MIN, MAX, AVG, SUM, COUNT) of entity fields, attributes or latest time series for each group. " +
+                    "Returns the list of groups with the number of entities and the aggregated values in the order of the query aggregations."
+                    + TENANT_OR_CUSTOMER_AUTHORITY_PARAGRAPH)
+    @PreAuthorize("hasAnyAuthority('TENANT_ADMIN', 'CUSTOMER_USER')")
+    @PostMapping("/entitiesQuery/aggregate")
+    public List<EntityAggregationData> aggregateEntitiesByQuery(
+            @Parameter(description = "A JSON value representing the entity aggregation query.")
+            @RequestBody EntityAggregationQuery query) throws ThingsboardException {
+        checkNotNull(query);
+        resolveQuery(query);
+        return entityQueryService.aggregateEntitiesByQuery(getCurrentUser(), query);
+    }
+
     @ApiOperation(value = "Find Alarms by Query", notes = ALARM_DATA_QUERY_DESCRIPTION)
     @PreAuthorize("hasAnyAuthority('TENANT_ADMIN', 'CUSTOMER_USER')")
     @PostMapping("/alarmsQuery/find")
@@ -21,4 +21,8 @@ public class CalculatedFieldStateException extends RuntimeException {
         super(message);
     }
 
+    public CalculatedFieldStateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
 }
@@ -15,9 +15,12 @@
  */
 package org.thingsboard.server.service.cf;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.thingsboard.common.util.ThingsBoardExecutors;
 import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.calculatedField.CalculatedFieldStateRestoreMsg;
 import org.thingsboard.server.common.data.DataConstants;
@@ -26,6 +29,9 @@ import org.thingsboard.server.common.msg.CalculatedFieldStatePartitionRestoreMsg
 import org.thingsboard.server.common.msg.queue.ServiceType;
 import org.thingsboard.server.common.msg.queue.TbCallback;
 import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.common.stats.StatsTimer;
 import org.thingsboard.server.exception.CalculatedFieldStateException;
 import org.thingsboard.server.gen.transport.TransportProtos.CalculatedFieldStateProto;
 import org.thingsboard.server.gen.transport.TransportProtos.ToCalculatedFieldMsg;
@@ -36,7 +42,14 @@ import org.thingsboard.server.service.cf.ctx.CalculatedFieldEntityCtxId;
 import org.thingsboard.server.service.cf.ctx.state.CalculatedFieldState;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static org.thingsboard.server.utils.CalculatedFieldUtils.fromProto;
@@ -45,29 +58,167 @@ import static org.thingsboard.server.utils.CalculatedFieldUtils.toProto;
 @Slf4j
 public abstract class AbstractCalculatedFieldStateService implements CalculatedFieldStateService {
 
+    private static final int MAX_FLUSH_BACKOFF_SHIFT = 5;
+    private static final int MAX_FLUSH_BACKOFF_FACTOR = 1 << MAX_FLUSH_BACKOFF_SHIFT;
+
     @Autowired
     @Lazy
     private ActorSystemContext actorSystemContext;
+    @Autowired
+    private StatsFactory statsFactory;
+    @Autowired
+    private CalculatedFieldStateMemoryService stateMemoryService;
+
+    @Value("${queue.calculated_fields.state_flush_interval:0}")
+    private long stateFlushInterval;
+    @Value("${queue.calculated_fields.state_flush_max_size:1000}")
+    private int stateFlushMaxSize;
 
     protected QueueStateService<TbProtoQueueMsg<ToCalculatedFieldMsg>, TbProtoQueueMsg<CalculatedFieldStateProto>> stateService;
 
+    // latest not yet persisted state by id with the callbacks of all its updates; the state proto is null if the state was deleted
+    private final ConcurrentMap<CalculatedFieldEntityCtxId, PendingState> pendingStates = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private ScheduledExecutorService flushScheduler;
+    private StatsTimer flushTimer;
+    private StatsCounter flushFailuresCounter;
+    private StatsCounter restoredStatesCounter;
+    // guarded by the flush lock
+    private int consecutiveFlushFailures;
+    private long nextFlushTs;
+
+    @PostConstruct
+    private void initStats() {
+        restoredStatesCounter = statsFactory.createStatsCounter("cfStateCounters", "restoredStates");
+        if (stateFlushInterval > 0) {
+            flushScheduler = ThingsBoardExecutors.newSingleThreadScheduledExecutor("cf-state-flush");
+            flushScheduler.scheduleWithFixedDelay(this::flushPendingStates, stateFlushInterval, stateFlushInterval, TimeUnit.MILLISECONDS);
+            flushTimer = statsFactory.createStatsTimer("cfStateTimers", "flushTime");
+            flushFailuresCounter = statsFactory.createStatsCounter("cfStateCounters", "flushFailures");
+            statsFactory.createGauge("cfStateGauges", "pendingStates", pendingStates, Map::size);
+        }
+    }
+
     @Override
     public final void persistState(CalculatedFieldEntityCtxId stateId, CalculatedFieldState state, TbCallback callback) {
         if (state.isSizeExceedsLimit()) {
             throw new CalculatedFieldStateException("State size exceeds the maximum allowed limit. The state will not be persisted to RocksDB.");
         }
-        doPersist(stateId, toProto(stateId, state), callback);
+        CalculatedFieldStateProto stateMsgProto = toProto(stateId, state);
+        stateMemoryService.onStateUpdated(stateId, state.getType(), stateMsgProto.getSerializedSize());
+        if (flushScheduler != null) {
+            addPendingState(stateId, stateMsgProto, callback);
+        } else {
+            doPersist(stateId, stateMsgProto, callback);
+        }
     }
 
     protected abstract void doPersist(CalculatedFieldEntityCtxId stateId, CalculatedFieldStateProto stateMsgProto, TbCallback callback);
 
     @Override
     public final void deleteState(CalculatedFieldEntityCtxId stateId, TbCallback callback) {
-        doRemove(stateId, callback);
+        stateMemoryService.onStateUnloaded(stateId);
+        if (flushScheduler != null) {
+            addPendingState(stateId, null, callback);
+        } else {
+            doRemove(stateId, callback);
+        }
     }
 
     protected abstract void doRemove(CalculatedFieldEntityCtxId stateId, TbCallback callback);
 
+    @Override
+    public final CalculatedFieldState loadState(CalculatedFieldEntityCtxId stateId) {
+        PendingState pendingState = pendingStates.get(stateId);
+        CalculatedFieldStateProto stateMsgProto = pendingState != null ? pendingState.stateMsgProto() : doLoad(stateId);
+        if (stateMsgProto == null) {
+            return null;
+        }
+        CalculatedFieldState state = fromProto(stateId, stateMsgProto);
+        stateMemoryService.onStateReloaded(stateId, state.getType(), stateMsgProto.getSerializedSize());
+        return state;
+    }
+
+    /**
+     * Returns null if the state is not found or the storage does not support reading states by id.
+     */
+    protected CalculatedFieldStateProto doLoad(CalculatedFieldEntityCtxId stateId) {
+        return null;
+    }
+
+    /**
+     * Persists the states in one batch. The state proto is null if the state should be removed.
+     */
+    protected void doPersistBatch(Map<CalculatedFieldEntityCtxId, CalculatedFieldStateProto> states) {
+        states.forEach((stateId, stateMsgProto) -> {
+            if (stateMsgProto != null) {
+                doPersist(stateId, stateMsgProto, TbCallback.EMPTY);
+            } else {
+                doRemove(stateId, TbCallback.EMPTY);
+            }
+        });
+    }
+
+    /**
+     * The callback is completed only after the state, or a later version of it, is persisted.
+     */
+    private void addPendingState(CalculatedFieldEntityCtxId stateId, CalculatedFieldStateProto stateMsgProto, TbCallback callback) {
+        pendingStates.compute(stateId, (id, previous) -> new PendingState(stateMsgProto, new PendingCallback(callback, previous != null ? previous.callbacks() : null)));
+        if (pendingStates.size() >= stateFlushMaxSize && !flushScheduler.isShutdown() && flushScheduled.compareAndSet(false, true)) {
+            flushScheduler.execute(() -> {
+                flushScheduled.set(false);
+                flushPendingStates();
+            });
+        }
+    }
+
+    private void flushPendingStates() {
+        flushPendingStates(false);
+    }
+
+    /**
+     * Persists the pending states. If the persistence fails, the states stay pending and the next scheduled flushes
+     * are delayed exponentially, up to {@link #MAX_FLUSH_BACKOFF_FACTOR} flush intervals; a forced flush ignores
+     * the delay. The callbacks of the persisted states are completed after the persistence; the callbacks of a state
+     * updated during the flush are carried over to its new version.
+     */
+    protected synchronized void flushPendingStates(boolean force) {
+        if (pendingStates.isEmpty() || (!force && System.currentTimeMillis() < nextFlushTs)) {
+            return;
+        }
+        long startTs = System.nanoTime();
+        Map<CalculatedFieldEntityCtxId, PendingState> flushed = new HashMap<>(pendingStates);
+        Map<CalculatedFieldEntityCtxId, CalculatedFieldStateProto> states = new HashMap<>(flushed.size());
+        flushed.forEach((stateId, pendingState) -> states.put(stateId, pendingState.stateMsgProto()));
+        try {
+            doPersistBatch(states);
+        } catch (Throwable t) {
+            consecutiveFlushFailures++;
+            long backoff = stateFlushInterval << Math.min(consecutiveFlushFailures, MAX_FLUSH_BACKOFF_SHIFT);
+            nextFlushTs = System.currentTimeMillis() + backoff;
+            if (flushFailuresCounter != null) {
+                flushFailuresCounter.increment();
+            }
+            log.error("Failed to persist {} CF states, will retry in {} ms", states.size(), backoff, t);
+            return;
+        }
+        consecutiveFlushFailures = 0;
+        nextFlushTs = 0;
+        // the states are removed only after the persistence, so they can be loaded at any time;
+        // the states updated during the flush stay pending
+        flushed.forEach((stateId, pendingState) -> {
+            if (pendingStates.remove(stateId, pendingState)) {
+                for (PendingCallback callback = pendingState.callbacks(); callback != null; callback = callback.next()) {
+                    callback.callback().onSuccess();
+                }
+            }
+        });
+        if (flushTimer != null) {
+            flushTimer.record(System.nanoTime() - startTs, TimeUnit.NANOSECONDS);
+        }
+        log.debug("Persisted {} CF states in {} ms", states.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTs));
+    }
+
     protected void processRestoredState(CalculatedFieldStateProto stateMsg, TopicPartitionInfo partition, TbCallback callback) {
         var id = fromProto(stateMsg.getId());
         if (partition == null) {
@@ -79,7 +230,11 @@ public abstract class AbstractCalculatedFieldStateService implements CalculatedF
             }
         }
         var state = fromProto(id, stateMsg);
+        stateMemoryService.onStateUpdated(id, state.getType(), stateMsg.getSerializedSize());
         processRestoredState(id, state, partition, callback);
+        if (restoredStatesCounter != null) {
+            restoredStatesCounter.increment();
+        }
     }
 
     protected void processRestoredState(CalculatedFieldEntityCtxId id, CalculatedFieldState state, TopicPartitionInfo partition, TbCallback callback) {
@@ -89,6 +244,7 @@ public abstract class AbstractCalculatedFieldStateService implements CalculatedF
 
     @Override
     public void restore(QueueKey queueKey, Set<TopicPartitionInfo> partitions) {
+        flushPendingStates(true);
         stateService.update(queueKey, partitions, new QueueStateService.RestoreCallback() {
             @Override
             public void onAllPartitionsRestored() {
@@ -104,6 +260,7 @@ public abstract class AbstractCalculatedFieldStateService implements CalculatedF
 
     @Override
     public void delete(Set<TopicPartitionInfo> partitions) {
+        flushPendingStates(true);
         stateService.delete(partitions);
     }
 
@@ -114,7 +271,36 @@ public abstract class AbstractCalculatedFieldStateService implements CalculatedF
 
     @Override
     public void stop() {
+        if (flushScheduler != null) {
+            flushScheduler.shutdown();
+        }
+        flushPendingStates(true);
         stateService.stop();
     }
 
+    // compared by identity, so the state updated during the flush is never mistaken for the flushed one
+    private static final class PendingState {
+
+        private final CalculatedFieldStateProto stateMsgProto;
+        private final PendingCallback callbacks;
+
+        private PendingState(CalculatedFieldStateProto stateMsgProto, PendingCallback callbacks) {
+            this.stateMsgProto = stateMsgProto;
+            this.callbacks = callbacks;
+        }
+
+        private CalculatedFieldStateProto stateMsgProto() {
+            return stateMsgProto;
+        }
+
+        private PendingCallback callbacks() {
+            return callbacks;
+        }
+
+    }
+
+    // linked list of the callbacks of the updates merged into one pending state, so merging an update is O(1)
+    private record PendingCallback(TbCallback callback, PendingCallback next) {
+    }
+
 }
@@ -0,0 +1,43 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cf;
+
+import org.thingsboard.server.common.data.cf.CalculatedFieldType;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.service.cf.ctx.CalculatedFieldEntityCtxId;
+
+/**
+ * Accounts the memory used by the calculated field states loaded to the entity actors.
+ * The size of a state is estimated by the size of its serialized form, which is known after every persistence.
+ */
+public interface CalculatedFieldStateMemoryService {
+
+    void onStateUpdated(CalculatedFieldEntityCtxId stateId, CalculatedFieldType type, long size);
+
+    /**
+     * Called when the state is removed from the actor memory, either deleted or unloaded.
+     */
+    void onStateUnloaded(CalculatedFieldEntityCtxId stateId);
+
+    void onStateEvicted(CalculatedFieldEntityCtxId stateId);
+
+    void onStateReloaded(CalculatedFieldEntityCtxId stateId, CalculatedFieldType type, long size);
+
+    long getTenantStatesSize(TenantId tenantId);
+
+    long getStatesSize(CalculatedFieldType type);
+
+}
@@ -35,6 +35,16 @@ public interface CalculatedFieldStateService {
 
     void deleteState(CalculatedFieldEntityCtxId stateId, TbCallback callback);
 
+    /**
+     * Loads the latest persisted version of the state, e.g. after it was evicted from the actor memory.
+     * Returns null if the state is not found or the storage does not support reading states by id.
+     */
+    CalculatedFieldState loadState(CalculatedFieldEntityCtxId stateId);
+
+    default boolean isStateReloadSupported() {
+        return false;
+    }
+
     void restore(QueueKey queueKey, Set<TopicPartitionInfo> partitions);
 
     void delete(Set<TopicPartitionInfo> partitions);
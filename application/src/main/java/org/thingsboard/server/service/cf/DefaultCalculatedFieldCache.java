@@ -46,6 +46,7 @@ import org.thingsboard.server.service.profile.TbDeviceProfileCache;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -75,6 +76,7 @@ public class DefaultCalculatedFieldCache implements CalculatedFieldCache {
     private final ConcurrentMap<CalculatedFieldId, List<CalculatedFieldLink>> calculatedFieldLinks = new ConcurrentHashMap<>();
     private final ConcurrentMap<EntityId, List<CalculatedFieldLink>> entityIdCalculatedFieldLinks = new ConcurrentHashMap<>();
     private final ConcurrentMap<CalculatedFieldId, CalculatedFieldCtx> calculatedFieldsCtx = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CalculatedFieldType, Set<CalculatedFieldId>> calculatedFieldIdsByType = new ConcurrentHashMap<>();
 
     private final ConcurrentMap<EntityId, Set<EntityId>> ownerEntities = new ConcurrentHashMap<>();
 
@@ -94,6 +96,7 @@ public class DefaultCalculatedFieldCache implements CalculatedFieldCache {
         });
         calculatedFields.values().forEach(cf -> {
             entityIdCalculatedFields.computeIfAbsent(cf.getEntityId(), id -> new CopyOnWriteArrayList<>()).add(cf);
+            addCalculatedFieldIdByType(cf);
         });
         calculatedFieldLinks.values().stream()
                 .flatMap(List::stream)
@@ -153,9 +156,13 @@ public class DefaultCalculatedFieldCache implements CalculatedFieldCache {
 
     @Override
     public Stream<CalculatedFieldCtx> getCalculatedFieldCtxsByType(CalculatedFieldType cfType) {
-        return calculatedFields.values().stream()
-                .filter(cf -> cfType.equals(cf.getType()))
-                .map(cf -> getCalculatedFieldCtx(cf.getId()));
+        Set<CalculatedFieldId> cfIds = calculatedFieldIdsByType.get(cfType);
+        if (cfIds == null || cfIds.isEmpty()) {
+            return Stream.empty();
+        }
+        return cfIds.stream()
+                .map(this::getCalculatedFieldCtx)
+                .filter(Objects::nonNull);
     }
 
     @Override
@@ -197,6 +204,7 @@ public class DefaultCalculatedFieldCache implements CalculatedFieldCache {
             calculatedFields.put(calculatedFieldId, calculatedField);
 
             entityIdCalculatedFields.computeIfAbsent(cfEntityId, entityId -> new CopyOnWriteArrayList<>()).add(calculatedField);
+            addCalculatedFieldIdByType(calculatedField);
 
             CalculatedFieldConfiguration configuration = calculatedField.getConfiguration();
             calculatedFieldLinks.put(calculatedFieldId, configuration.buildCalculatedFieldLinks(tenantId, cfEntityId, calculatedFieldId));
@@ -223,6 +231,12 @@ public class DefaultCalculatedFieldCache implements CalculatedFieldCache {
         CalculatedField oldCalculatedField = calculatedFields.remove(calculatedFieldId);
         log.debug("[{}] evict calculated field from cache: {}", calculatedFieldId, oldCalculatedField);
         calculatedFieldLinks.remove(calculatedFieldId);
+        if (oldCalculatedField != null) {
+            Set<CalculatedFieldId> cfIds = calculatedFieldIdsByType.get(oldCalculatedField.getType());
+            if (cfIds != null) {
+                cfIds.remove(calculatedFieldId);
+            }
+        }
         log.debug("[{}] evict calculated field from cached calculated fields by entity id: {}", calculatedFieldId, oldCalculatedField);
         entityIdCalculatedFields.forEach((entityId, calculatedFields) -> calculatedFields.removeIf(cf -> cf.getId().equals(calculatedFieldId)));
         log.debug("[{}] evict calculated field links from cache: {}", calculatedFieldId, oldCalculatedField);
@@ -290,6 +304,10 @@ public class DefaultCalculatedFieldCache implements CalculatedFieldCache {
         });
     }
 
+    private void addCalculatedFieldIdByType(CalculatedField calculatedField) {
+        calculatedFieldIdsByType.computeIfAbsent(calculatedField.getType(), type -> ConcurrentHashMap.newKeySet()).add(calculatedField.getId());
+    }
+
     private Lock getFetchLock(CalculatedFieldId id) {
         return calculatedFieldFetchLocks.computeIfAbsent(id, __ -> new ReentrantLock());
     }
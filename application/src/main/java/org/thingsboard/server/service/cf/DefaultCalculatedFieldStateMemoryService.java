@@ -0,0 +1,212 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cf;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.thingsboard.common.util.ThingsBoardExecutors;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.TbActorNotRegisteredException;
+import org.thingsboard.server.actors.TbCalculatedFieldEntityActorId;
+import org.thingsboard.server.actors.calculatedField.CalculatedFieldStateEvictMsg;
+import org.thingsboard.server.common.data.cf.CalculatedFieldType;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.queue.util.TbRuleEngineComponent;
+import org.thingsboard.server.service.cf.ctx.CalculatedFieldEntityCtxId;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@TbRuleEngineComponent
+@Service
+@Slf4j
+public class DefaultCalculatedFieldStateMemoryService implements CalculatedFieldStateMemoryService {
+
+    // states of other types have scheduled reevaluations or changes that are not persisted, so they are never evicted
+    private static final Set<CalculatedFieldType> EVICTABLE_TYPES = EnumSet.of(CalculatedFieldType.SIMPLE, CalculatedFieldType.SCRIPT, CalculatedFieldType.GEOFENCING);
+
+    @Autowired
+    @Lazy
+    private ActorSystemContext actorSystemContext;
+    @Autowired
+    private StatsFactory statsFactory;
+
+    @Value("${queue.calculated_fields.tenant_state_memory_limit:0}")
+    private long tenantStateMemoryLimitMb;
+    @Value("${queue.calculated_fields.state_memory_check_interval:10000}")
+    private long stateMemoryCheckInterval;
+
+    private final ConcurrentMap<TenantId, TenantStates> tenantStates = new ConcurrentHashMap<>();
+    private final Map<CalculatedFieldType, AtomicLong> typeStatesSize = new EnumMap<>(CalculatedFieldType.class);
+    private ScheduledExecutorService memoryCheckScheduler;
+    private StatsCounter evictedStatesCounter;
+    private StatsCounter reloadedStatesCounter;
+
+    @PostConstruct
+    private void init() {
+        for (CalculatedFieldType type : CalculatedFieldType.values()) {
+            AtomicLong size = new AtomicLong();
+            statsFactory.createGauge("cfStateMemory", "typeStatesSize", size, "cfType", type.name());
+            typeStatesSize.put(type, size);
+        }
+        // per tenant gauges would grow with the number of tenants, so only the aggregates are exposed
+        statsFactory.createGauge("cfStateMemory", "tenantsWithStates", tenantStates, Map::size);
+        statsFactory.createGauge("cfStateMemory", "maxTenantStatesSize", tenantStates,
+                states -> states.values().stream().mapToLong(tenant -> tenant.statesSize.get()).max().orElse(0));
+        evictedStatesCounter = statsFactory.createStatsCounter("cfStateCounters", "evictedStates");
+        reloadedStatesCounter = statsFactory.createStatsCounter("cfStateCounters", "reloadedStates");
+        if (tenantStateMemoryLimitMb > 0) {
+            memoryCheckScheduler = ThingsBoardExecutors.newSingleThreadScheduledExecutor("cf-state-memory-check");
+            memoryCheckScheduler.scheduleWithFixedDelay(this::checkMemoryLimits, stateMemoryCheckInterval, stateMemoryCheckInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    private void destroy() {
+        if (memoryCheckScheduler != null) {
+            memoryCheckScheduler.shutdownNow();
+        }
+    }
+
+    // the states of a tenant are updated under the lock of its entry, so the entry removed
+    // when the last state is unloaded never loses a concurrent update
+    @Override
+    public void onStateUpdated(CalculatedFieldEntityCtxId stateId, CalculatedFieldType type, long size) {
+        tenantStates.compute(stateId.tenantId(), (tenantId, tenant) -> {
+            if (tenant == null) {
+                tenant = new TenantStates();
+            }
+            StateInfo oldInfo = tenant.states.put(stateId, new StateInfo(type, size, System.currentTimeMillis()));
+            if (oldInfo != null) {
+                release(tenant, oldInfo);
+            }
+            tenant.statesSize.addAndGet(size);
+            typeStatesSize.get(type).addAndGet(size);
+            return tenant;
+        });
+    }
+
+    @Override
+    public void onStateUnloaded(CalculatedFieldEntityCtxId stateId) {
+        tenantStates.computeIfPresent(stateId.tenantId(), (tenantId, tenant) -> {
+            StateInfo info = tenant.states.remove(stateId);
+            if (info != null) {
+                release(tenant, info);
+            }
+            return tenant.states.isEmpty() ? null : tenant;
+        });
+    }
+
+    @Override
+    public void onStateEvicted(CalculatedFieldEntityCtxId stateId) {
+        onStateUnloaded(stateId);
+        evictedStatesCounter.increment();
+    }
+
+    @Override
+    public void onStateReloaded(CalculatedFieldEntityCtxId stateId, CalculatedFieldType type, long size) {
+        onStateUpdated(stateId, type, size);
+        reloadedStatesCounter.increment();
+    }
+
+    @Override
+    public long getTenantStatesSize(TenantId tenantId) {
+        TenantStates tenant = tenantStates.get(tenantId);
+        return tenant != null ? tenant.statesSize.get() : 0;
+    }
+
+    @Override
+    public long getStatesSize(CalculatedFieldType type) {
+        return typeStatesSize.get(type).get();
+    }
+
+    void checkMemoryLimits() {
+        long limit = tenantStateMemoryLimitMb * 1024 * 1024;
+        try {
+            tenantStates.forEach((tenantId, tenant) -> {
+                long size = tenant.statesSize.get();
+                if (size > limit) {
+                    evictColdStates(tenantId, tenant, size - limit);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to check CF states memory limits", e);
+        }
+    }
+
+    private void evictColdStates(TenantId tenantId, TenantStates tenant, long bytesToFree) {
+        CalculatedFieldStateService stateService = actorSystemContext.getCalculatedFieldStateService();
+        if (stateService == null || !stateService.isStateReloadSupported()) {
+            log.warn("[{}] CF states use {} bytes more than the memory limit. Eviction is not supported by the state storage", tenantId, bytesToFree);
+            return;
+        }
+        List<Map.Entry<CalculatedFieldEntityCtxId, StateInfo>> candidates = tenant.states.entrySet().stream()
+                .filter(entry -> EVICTABLE_TYPES.contains(entry.getValue().type()))
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUpdateTs()))
+                .toList();
+        long freed = 0;
+        int evicted = 0;
+        for (Map.Entry<CalculatedFieldEntityCtxId, StateInfo> entry : candidates) {
+            if (freed >= bytesToFree) {
+                break;
+            }
+            CalculatedFieldEntityCtxId stateId = entry.getKey();
+            try {
+                actorSystemContext.getActorSystem().tell(new TbCalculatedFieldEntityActorId(stateId.entityId()), new CalculatedFieldStateEvictMsg(stateId));
+                evicted++;
+            } catch (TbActorNotRegisteredException e) {
+                // the actor was stopped, so the state is not in memory anymore
+                onStateUnloaded(stateId);
+            }
+            freed += entry.getValue().size();
+        }
+        if (freed < bytesToFree) {
+            log.warn("[{}] CF states use {} bytes more than the memory limit, only {} bytes can be evicted", tenantId, bytesToFree, freed);
+        }
+        log.debug("[{}] Evicting {} cold CF states to free {} bytes", tenantId, evicted, freed);
+    }
+
+    private void release(TenantStates tenant, StateInfo info) {
+        tenant.statesSize.addAndGet(-info.size());
+        typeStatesSize.get(info.type()).addAndGet(-info.size());
+    }
+
+    private static class TenantStates {
+
+        private final ConcurrentMap<CalculatedFieldEntityCtxId, StateInfo> states = new ConcurrentHashMap<>();
+        private final AtomicLong statesSize = new AtomicLong();
+
+    }
+
+    private record StateInfo(CalculatedFieldType type, long size, long lastUpdateTs) {}
+
+}
@@ -18,8 +18,8 @@ package org.thingsboard.server.service.cf.ctx.state;
 import com.google.common.util.concurrent.ListenableFuture;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
-import net.objecthunter.exp4j.Expression;
 import org.mvel2.MVEL;
+import org.thingsboard.common.util.CompiledExpression;
 import org.thingsboard.common.util.ExpressionUtils;
 import org.thingsboard.script.api.tbel.TbelCfArg;
 import org.thingsboard.script.api.tbel.TbelCfCtx;
@@ -39,6 +39,7 @@ import org.thingsboard.server.common.data.cf.configuration.Argument;
 import org.thingsboard.server.common.data.cf.configuration.ArgumentType;
 import org.thingsboard.server.common.data.cf.configuration.ArgumentsBasedCalculatedFieldConfiguration;
 import org.thingsboard.server.common.data.cf.configuration.ExpressionBasedCalculatedFieldConfiguration;
+import org.thingsboard.server.common.data.cf.configuration.HasCoalescingIntervalConfig;
 import org.thingsboard.server.common.data.cf.configuration.HasUseLatestTsConfig;
 import org.thingsboard.server.common.data.cf.configuration.Output;
 import org.thingsboard.server.common.data.cf.configuration.PropagationCalculatedFieldConfiguration;
@@ -57,7 +58,6 @@ import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 import org.thingsboard.server.common.data.kv.BasicKvEntry;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
 import org.thingsboard.server.common.data.util.CollectionsUtil;
-import org.thingsboard.server.common.util.ProtoUtils;
 import org.thingsboard.server.dao.relation.RelationService;
 import org.thingsboard.server.dao.util.TimeUtils;
 import org.thingsboard.server.gen.transport.TransportProtos.CalculatedFieldTelemetryMsgProto;
@@ -113,7 +113,7 @@ public class CalculatedFieldCtx implements Closeable {
     private CalculatedFieldProcessingService cfProcessingService;
 
     private Map<String, CalculatedFieldScriptEngine> tbelExpressions;
-    private Map<String, ThreadLocal<Expression>> simpleExpressions;
+    private Map<String, CompiledExpression> simpleExpressions;
 
     private boolean initialized;
 
@@ -127,6 +127,7 @@ public class CalculatedFieldCtx implements Closeable {
     private List<String> relatedEntityArgumentNames;
 
     private long scheduledUpdateIntervalMillis;
+    private long coalescingIntervalMillis;
     private long cfCheckReevaluationIntervalMillis;
     private long alarmReevaluationIntervalMillis;
     private long maxRelatedEntitiesPerCfArgument;
@@ -212,6 +213,9 @@ public class CalculatedFieldCtx implements Closeable {
         if (calculatedField.getConfiguration() instanceof HasUseLatestTsConfig hasUseLatestTsConfig) {
             this.useLatestTs = hasUseLatestTsConfig.isUseLatestTs();
         }
+        if (calculatedField.getConfiguration() instanceof HasCoalescingIntervalConfig coalescingConfig) {
+            this.coalescingIntervalMillis = coalescingConfig.getCoalescingIntervalMs();
+        }
         this.systemContext = systemContext;
         this.tbelInvokeService = systemContext.getTbelInvokeService();
         this.relationService = systemContext.getRelationService();
@@ -319,22 +323,29 @@ public class CalculatedFieldCtx implements Closeable {
         });
     }
 
-    public double evaluateSimpleExpression(Expression expression, CalculatedFieldState state) {
-        for (Map.Entry<String, ArgumentEntry> entry : state.getArguments().entrySet()) {
+    public double evaluateSimpleExpression(CompiledExpression expression, CalculatedFieldState state) {
+        Map<String, ArgumentEntry> arguments = state.getArguments();
+        List<String> variables = expression.getVariables();
+        double[] values = new double[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            String argName = variables.get(i);
+            ArgumentEntry entry = arguments.get(argName);
+            if (entry == null) {
+                throw new IllegalArgumentException("No value has been set for the argument '" + argName + "'.");
+            }
             try {
-                BasicKvEntry kvEntry = ((SingleValueArgumentEntry) entry.getValue()).getKvEntryValue();
-                double value = switch (kvEntry.getDataType()) {
+                BasicKvEntry kvEntry = ((SingleValueArgumentEntry) entry).getKvEntryValue();
+                values[i] = switch (kvEntry.getDataType()) {
                     case LONG -> kvEntry.getLongValue().map(Long::doubleValue).orElseThrow();
                     case DOUBLE -> kvEntry.getDoubleValue().orElseThrow();
                     case BOOLEAN -> kvEntry.getBooleanValue().map(b -> b ? 1.0 : 0.0).orElseThrow();
                     case STRING, JSON -> Double.parseDouble(kvEntry.getValueAsString());
                 };
-                expression.setVariable(entry.getKey(), value);
             } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Argument '" + entry.getKey() + "' is not a number.");
+                throw new IllegalArgumentException("Argument '" + argName + "' is not a number.");
             }
         }
-        return expression.evaluate();
+        return expression.evaluate(values);
     }
 
     public ListenableFuture<Object> evaluateTbelExpression(String expression, CalculatedFieldState state) {
@@ -398,10 +409,7 @@ public class CalculatedFieldCtx implements Closeable {
             return;
         }
         if (isValidExpression(expression)) {
-            ThreadLocal<Expression> compiledExpression = ThreadLocal.withInitial(() ->
-                    ExpressionUtils.createExpression(expression, this.arguments.keySet())
-            );
-            simpleExpressions.put(expression, compiledExpression);
+            simpleExpressions.put(expression, ExpressionUtils.compileExpression(expression, argNames));
         } else {
             initialized = false;
             throw new RuntimeException("Failed to initialize CF context. The expression has invalid syntax or unknown variables. Ensure all mathematical operators are correct.");
@@ -574,16 +582,9 @@ public class CalculatedFieldCtx implements Closeable {
 
     public boolean relatedEntityMatches(CalculatedFieldTelemetryMsgProto proto) {
         if (!proto.getTsDataList().isEmpty()) {
-            List<TsKvEntry> updatedTelemetry = proto.getTsDataList().stream()
-                    .map(ProtoUtils::fromProto)
-                    .toList();
-            return relatedEntityMatches(updatedTelemetry);
+            return matchesRelatedEntityKeys(getTsKeys(proto));
         } else if (!proto.getAttrDataList().isEmpty()) {
-            AttributeScope scope = AttributeScope.valueOf(proto.getScope().name());
-            List<AttributeKvEntry> updatedTelemetry = proto.getAttrDataList().stream()
-                    .map(ProtoUtils::fromProto)
-                    .toList();
-            return relatedEntityMatches(updatedTelemetry, scope);
+            return matchesRelatedEntityKeys(getAttrKeys(proto), AttributeScope.valueOf(proto.getScope().name()));
         } else if (!proto.getRemovedTsKeysList().isEmpty()) {
             return matchesRelatedEntityKeys(proto.getRemovedTsKeysList());
         } else {
@@ -593,16 +594,9 @@ public class CalculatedFieldCtx implements Closeable {
 
     public boolean dynamicSourceMatches(CalculatedFieldTelemetryMsgProto proto) {
         if (!proto.getTsDataList().isEmpty()) {
-            List<TsKvEntry> updatedTelemetry = proto.getTsDataList().stream()
-                    .map(ProtoUtils::fromProto)
-                    .toList();
-            return dynamicSourceMatches(updatedTelemetry);
+            return matchesDynamicSourceKeys(getTsKeys(proto));
         } else if (!proto.getAttrDataList().isEmpty()) {
-            AttributeScope scope = AttributeScope.valueOf(proto.getScope().name());
-            List<AttributeKvEntry> updatedTelemetry = proto.getAttrDataList().stream()
-                    .map(ProtoUtils::fromProto)
-                    .toList();
-            return dynamicSourceMatches(updatedTelemetry, scope);
+            return matchesDynamicSourceKeys(getAttrKeys(proto), AttributeScope.valueOf(proto.getScope().name()));
         } else if (!proto.getRemovedTsKeysList().isEmpty()) {
             return matchesDynamicSourceKeys(proto.getRemovedTsKeysList());
         } else {
@@ -612,16 +606,9 @@ public class CalculatedFieldCtx implements Closeable {
 
     public boolean linkMatches(EntityId entityId, CalculatedFieldTelemetryMsgProto proto) {
         if (!proto.getTsDataList().isEmpty()) {
-            List<TsKvEntry> updatedTelemetry = proto.getTsDataList().stream()
-                    .map(ProtoUtils::fromProto)
-                    .toList();
-            return linkMatches(entityId, updatedTelemetry);
+            return linkMatchesTsKeys(entityId, getTsKeys(proto));
         } else if (!proto.getAttrDataList().isEmpty()) {
-            AttributeScope scope = AttributeScope.valueOf(proto.getScope().name());
-            List<AttributeKvEntry> updatedTelemetry = proto.getAttrDataList().stream()
-                    .map(ProtoUtils::fromProto)
-                    .toList();
-            return linkMatches(entityId, updatedTelemetry, scope);
+            return linkMatchesAttrKeys(entityId, getAttrKeys(proto), AttributeScope.valueOf(proto.getScope().name()));
         } else if (!proto.getRemovedTsKeysList().isEmpty()) {
             return linkMatchesTsKeys(entityId, proto.getRemovedTsKeysList());
         } else {
@@ -629,6 +616,23 @@ public class CalculatedFieldCtx implements Closeable {
         }
     }
 
+    // only the keys are needed to match the arguments, so the values are not converted from proto
+    public static List<String> getTsKeys(CalculatedFieldTelemetryMsgProto proto) {
+        List<String> keys = new ArrayList<>(proto.getTsDataCount());
+        for (var tsKv : proto.getTsDataList()) {
+            keys.add(tsKv.getKv().getKey());
+        }
+        return keys;
+    }
+
+    public static List<String> getAttrKeys(CalculatedFieldTelemetryMsgProto proto) {
+        List<String> keys = new ArrayList<>(proto.getAttrDataCount());
+        for (var attrKv : proto.getAttrDataList()) {
+            keys.add(attrKv.getKey());
+        }
+        return keys;
+    }
+
     public Map<ReferencedEntityKey, Set<String>> getLinkedAndDynamicArgs(EntityId entityId) {
         var argNames = new HashMap<ReferencedEntityKey, Set<String>>();
         var linkedArgNames = linkedEntityArguments.get(entityId);
@@ -694,6 +698,9 @@ public class CalculatedFieldCtx implements Closeable {
         if (scheduledUpdateIntervalMillis != other.scheduledUpdateIntervalMillis) {
             return true;
         }
+        if (coalescingIntervalMillis != other.coalescingIntervalMillis) {
+            return true;
+        }
         if (calculatedField.getConfiguration() instanceof RelatedEntitiesAggregationCalculatedFieldConfiguration thisConfig
                 && other.getCalculatedField().getConfiguration() instanceof RelatedEntitiesAggregationCalculatedFieldConfiguration otherConfig
                 && (thisConfig.getDeduplicationIntervalInSec() != otherConfig.getDeduplicationIntervalInSec()
@@ -773,6 +780,10 @@ public class CalculatedFieldCtx implements Closeable {
         return cfHasRelationPathQuerySource;
     }
 
+    public boolean isCoalescingEnabled() {
+        return cfType != CalculatedFieldType.ALARM && coalescingIntervalMillis > 0;
+    }
+
     public boolean shouldFetchRelatedEntities(CalculatedFieldState state) {
         if (!cfHasRelationPathQuerySource) {
             return false;
@@ -796,7 +807,7 @@ public class CalculatedFieldCtx implements Closeable {
                 tbelExpressions.values().forEach(CalculatedFieldScriptEngine::destroy);
             }
             if (simpleExpressions != null) {
-                simpleExpressions.values().forEach(ThreadLocal::remove);
+                simpleExpressions.values().forEach(CompiledExpression::destroy);
             }
         } catch (Exception e) {
             log.warn("Failed to stop {}", this, e);
@@ -28,6 +28,7 @@ import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.msg.queue.ServiceType;
 import org.thingsboard.server.common.msg.queue.TbCallback;
 import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.exception.CalculatedFieldStateException;
 import org.thingsboard.server.gen.transport.TransportProtos.CalculatedFieldStateProto;
 import org.thingsboard.server.gen.transport.TransportProtos.ToCalculatedFieldMsg;
 import org.thingsboard.server.queue.TbQueueCallback;
@@ -43,9 +44,11 @@ import org.thingsboard.server.queue.provider.TbRuleEngineQueueFactory;
 import org.thingsboard.server.service.cf.AbstractCalculatedFieldStateService;
 import org.thingsboard.server.service.cf.ctx.CalculatedFieldEntityCtxId;
 
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.thingsboard.server.queue.common.AbstractTbQueueTemplate.bytesToString;
 import static org.thingsboard.server.queue.common.AbstractTbQueueTemplate.bytesToUuid;
@@ -128,12 +131,7 @@ public class KafkaCalculatedFieldStateService extends AbstractCalculatedFieldSta
 
     @Override
     protected void doPersist(CalculatedFieldEntityCtxId stateId, CalculatedFieldStateProto stateMsgProto, TbCallback callback) {
-        TopicPartitionInfo tpi = partitionService.resolve(ServiceType.TB_RULE_ENGINE, DataConstants.CF_STATES_QUEUE_NAME, stateId.tenantId(), stateId.entityId());
-        TbProtoQueueMsg<CalculatedFieldStateProto> msg = new TbProtoQueueMsg<>(stateId.entityId().getId(), stateMsgProto);
-        if (stateMsgProto == null) {
-            putStateId(msg.getHeaders(), stateId);
-        }
-        stateProducer.send(tpi, stateId.toKey(), msg, new TbQueueCallback() {
+        send(stateId, stateMsgProto, new TbQueueCallback() {
             @Override
             public void onSuccess(TbQueueMsgMetadata metadata) {
             }
@@ -146,6 +144,48 @@ public class KafkaCalculatedFieldStateService extends AbstractCalculatedFieldSta
         callback.onSuccess();
     }
 
+    /**
+     * Sends all states and waits for the acknowledgements, so a failed send keeps the states pending for the next flush.
+     */
+    @Override
+    protected void doPersistBatch(Map<CalculatedFieldEntityCtxId, CalculatedFieldStateProto> states) {
+        CountDownLatch completionLatch = new CountDownLatch(states.size());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        states.forEach((stateId, stateMsgProto) -> send(stateId, stateMsgProto, new TbQueueCallback() {
+            @Override
+            public void onSuccess(TbQueueMsgMetadata metadata) {
+                completionLatch.countDown();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                failure.compareAndSet(null, t);
+                completionLatch.countDown();
+            }
+        }));
+        try {
+            if (!completionLatch.await(packProcessingTimeout, TimeUnit.MILLISECONDS)) {
+                throw new CalculatedFieldStateException("Timeout to send " + states.size() + " CF state messages");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CalculatedFieldStateException("Interrupted while sending CF state messages", e);
+        }
+        Throwable t = failure.get();
+        if (t != null) {
+            throw new CalculatedFieldStateException("Failed to send CF state messages", t);
+        }
+    }
+
+    private void send(CalculatedFieldEntityCtxId stateId, CalculatedFieldStateProto stateMsgProto, TbQueueCallback callback) {
+        TopicPartitionInfo tpi = partitionService.resolve(ServiceType.TB_RULE_ENGINE, DataConstants.CF_STATES_QUEUE_NAME, stateId.tenantId(), stateId.entityId());
+        TbProtoQueueMsg<CalculatedFieldStateProto> msg = new TbProtoQueueMsg<>(stateId.entityId().getId(), stateMsgProto);
+        if (stateMsgProto == null) {
+            putStateId(msg.getHeaders(), stateId);
+        }
+        stateProducer.send(tpi, stateId.toKey(), msg, callback);
+    }
+
     @Override
     protected void doRemove(CalculatedFieldEntityCtxId stateId, TbCallback callback) {
         doPersist(stateId, null, callback);
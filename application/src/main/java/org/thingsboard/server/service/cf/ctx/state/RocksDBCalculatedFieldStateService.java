@@ -17,8 +17,10 @@ package org.thingsboard.server.service.cf.ctx.state;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
+import org.thingsboard.common.util.ThingsBoardExecutors;
 import org.thingsboard.server.common.msg.queue.TbCallback;
 import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
 import org.thingsboard.server.gen.transport.TransportProtos.CalculatedFieldStateProto;
@@ -31,7 +33,14 @@ import org.thingsboard.server.service.cf.AbstractCalculatedFieldStateService;
 import org.thingsboard.server.service.cf.CfRocksDb;
 import org.thingsboard.server.service.cf.ctx.CalculatedFieldEntityCtxId;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
@@ -41,6 +50,11 @@ public class RocksDBCalculatedFieldStateService extends AbstractCalculatedFieldS
 
     private final CfRocksDb cfRocksDb;
 
+    @Value("${queue.calculated_fields.restore_threads:4}")
+    private int restoreThreads;
+    @Value("${queue.calculated_fields.restore_batch_size:1000}")
+    private int restoreBatchSize;
+
     @Override
     public void init(PartitionedQueueConsumerManager<TbProtoQueueMsg<ToCalculatedFieldMsg>> eventConsumer) {
         super.stateService = new DefaultQueueStateService<>(eventConsumer);
@@ -58,29 +72,106 @@ public class RocksDBCalculatedFieldStateService extends AbstractCalculatedFieldS
         callback.onSuccess();
     }
 
+    @Override
+    protected CalculatedFieldStateProto doLoad(CalculatedFieldEntityCtxId stateId) {
+        byte[] value = cfRocksDb.get(stateId.toKey());
+        if (value == null) {
+            return null;
+        }
+        try {
+            return CalculatedFieldStateProto.parseFrom(value);
+        } catch (Exception e) {
+            log.error("Failed to parse CalculatedFieldStateProto for key {}", stateId.toKey(), e);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isStateReloadSupported() {
+        return true;
+    }
+
+    @Override
+    protected void doPersistBatch(Map<CalculatedFieldEntityCtxId, CalculatedFieldStateProto> states) {
+        Map<String, byte[]> values = new HashMap<>(states.size());
+        states.forEach((stateId, stateMsgProto) -> values.put(stateId.toKey(), stateMsgProto != null ? stateMsgProto.toByteArray() : null));
+        cfRocksDb.write(values);
+    }
+
     @Override
     public void restore(QueueKey queueKey, Set<TopicPartitionInfo> partitions) {
         if (stateService.getPartitions().isEmpty()) {
+            restoreFromRocksDb();
+        }
+        super.restore(queueKey, partitions);
+    }
+
+    /*
+     * RocksDB holds only the latest state per key, and states are independent of each other,
+     * so parsing and dispatching are done in batches on a bounded pool. All states are dispatched
+     * before the partitions are reported as restored.
+     */
+    private void restoreFromRocksDb() {
+        long startTs = System.currentTimeMillis();
+        int threads = Math.max(1, restoreThreads);
+        int batchSize = Math.max(1, restoreBatchSize);
+        ExecutorService executor = ThingsBoardExecutors.newWorkStealingPool(threads, "cf-state-restore");
+        Semaphore pendingBatches = new Semaphore(threads * 2);
+        AtomicLong restored = new AtomicLong();
+        try {
+            List<RestoredEntry> batch = new ArrayList<>(batchSize);
             cfRocksDb.forEach((key, value) -> {
-                CalculatedFieldStateProto stateMsg;
-                try {
-                    stateMsg = CalculatedFieldStateProto.parseFrom(value);
-                } catch (Exception e) {
-                    log.error("Failed to parse CalculatedFieldStateProto for key {}", key, e);
-                    return;
+                batch.add(new RestoredEntry(key, value));
+                if (batch.size() >= batchSize) {
+                    submitRestoreBatch(executor, pendingBatches, new ArrayList<>(batch), restored);
+                    batch.clear();
                 }
-                processRestoredState(stateMsg, null, new TbCallback() {
-                    @Override
-                    public void onSuccess() {}
-
-                    @Override
-                    public void onFailure(Throwable t) {
-                        log.error("Failed to process CF state message: {}", stateMsg, t);
-                    }
-                });
             });
+            if (!batch.isEmpty()) {
+                submitRestoreBatch(executor, pendingBatches, batch, restored);
+            }
+            pendingBatches.acquireUninterruptibly(threads * 2);
+        } finally {
+            executor.shutdownNow();
         }
-        super.restore(queueKey, partitions);
+        long timeSpent = System.currentTimeMillis() - startTs;
+        log.info("Restored {} CF states from RocksDB in {} ms ({} states/s)", restored.get(), timeSpent,
+                timeSpent > 0 ? restored.get() * 1000 / timeSpent : restored.get());
     }
 
+    private void submitRestoreBatch(ExecutorService executor, Semaphore pendingBatches, List<RestoredEntry> batch, AtomicLong restored) {
+        pendingBatches.acquireUninterruptibly();
+        executor.execute(() -> {
+            try {
+                for (RestoredEntry entry : batch) {
+                    CalculatedFieldStateProto stateMsg;
+                    try {
+                        stateMsg = CalculatedFieldStateProto.parseFrom(entry.value());
+                    } catch (Exception e) {
+                        log.error("Failed to parse CalculatedFieldStateProto for key {}", entry.key(), e);
+                        continue;
+                    }
+                    try {
+                        processRestoredState(stateMsg, null, new TbCallback() {
+                            @Override
+                            public void onSuccess() {}
+
+                            @Override
+                            public void onFailure(Throwable t) {
+                                log.error("Failed to process CF state message: {}", stateMsg, t);
+                            }
+                        });
+                        restored.incrementAndGet();
+                    } catch (Exception e) {
+                        log.error("Failed to restore CF state for key {}", entry.key(), e);
+                    }
+                }
+            } finally {
+                pendingBatches.release();
+            }
+        });
+    }
+
+    private record RestoredEntry(String key, byte[] value) {}
+
 }
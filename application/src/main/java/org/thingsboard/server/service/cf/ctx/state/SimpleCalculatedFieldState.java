@@ -20,7 +20,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import lombok.EqualsAndHashCode;
-import net.objecthunter.exp4j.Expression;
+import org.thingsboard.common.util.CompiledExpression;
 import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.common.util.NumberUtils;
 import org.thingsboard.server.actors.TbActorRef;
@@ -35,7 +35,7 @@ import java.util.Map;
 @EqualsAndHashCode(callSuper = true)
 public class SimpleCalculatedFieldState extends BaseCalculatedFieldState {
 
-    private ThreadLocal<Expression> expression;
+    private CompiledExpression expression;
 
     public SimpleCalculatedFieldState(EntityId entityId) {
         super(entityId);
@@ -49,7 +49,7 @@ public class SimpleCalculatedFieldState extends BaseCalculatedFieldState {
 
     @Override
     public ListenableFuture<CalculatedFieldResult> performCalculation(Map<String, ArgumentEntry> updatedArgs, CalculatedFieldCtx ctx) {
-        double expressionResult = ctx.evaluateSimpleExpression(expression.get(), this);
+        double expressionResult = ctx.evaluateSimpleExpression(expression, this);
 
         Output output = ctx.getOutput();
         Object result = NumberUtils.roundResult(expressionResult, output.getDecimalsByDefault());
@@ -0,0 +1,472 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cf.ctx.state;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.thingsboard.script.api.tbel.TbelCfTsDoubleValList;
+import org.thingsboard.script.api.tbel.TbelCfTsRollingStats;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Time series values sorted by timestamp and stored in primitive circular arrays.
+ * <p>
+ * Appending a newer value and removing the oldest ones are amortized O(1).
+ * A late value is inserted at its sorted position, a value with an existing timestamp replaces the old one.
+ * <p>
+ * Sum, mean and variance (Welford) of the values are updated on every insert and removal.
+ * Running sums drift after many removals, so they are recalculated from scratch once the number of removals
+ * exceeds the buffer size, which keeps the updates amortized O(1). Min and max are kept in monotonic queues
+ * once the stats are requested, so removing the current extremum does not rescan the values. A late insert or
+ * a replacement drops the queues, they are rebuilt on the next stats request.
+ * <p>
+ * {@link #toTbelCfValues()} returns a read-only view over the arrays. The arrays are copied on the next write
+ * only if the write would overwrite a slot that is visible to a view, so appending to a buffer with spare
+ * capacity does not copy.
+ * Not thread-safe.
+ */
+public class TsDoubleRingBuffer {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private long[] ts;
+    private double[] values;
+    private int head;
+    private int size;
+    // sequence number of the first value; the sequence number of a value does not change until a late insert
+    private long firstSeq;
+
+    // sequence numbers of the values visible to the views over the current arrays
+    private boolean shared;
+    private long sharedFromSeq;
+    private long sharedToSeq;
+
+    private int nanCount;
+    private double sum;
+    private double mean;
+    private double m2;
+    private int removalsSinceRecalculation;
+
+    // monotonic queues of the sequence numbers of min and max candidates, null until the stats are requested
+    private SeqQueue minSeqs;
+    private SeqQueue maxSeqs;
+
+    public TsDoubleRingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TsDoubleRingBuffer(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.ts = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Creates a buffer for a window of the given size with spare capacity on top of it. A view covers the whole
+     * window, so without spare slots the first append after a view copies the arrays. With the headroom the
+     * arrays are copied once per headroom appends, which keeps the copying amortized O(1) per append.
+     */
+    public static TsDoubleRingBuffer forWindow(int windowSize) {
+        return new TsDoubleRingBuffer(windowSize + Math.max(DEFAULT_CAPACITY, windowSize / 2));
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static TsDoubleRingBuffer of(Map<Long, Double> records) {
+        TsDoubleRingBuffer buffer = new TsDoubleRingBuffer(records.size());
+        records.forEach(buffer::put);
+        return buffer;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTs(int index) {
+        return ts[physicalIndex(index)];
+    }
+
+    public double getValue(int index) {
+        return values[physicalIndex(index)];
+    }
+
+    public long getLastTs() {
+        return getTs(size - 1);
+    }
+
+    public Double get(long ts) {
+        int index = indexOf(ts);
+        return index >= 0 ? getValue(index) : null;
+    }
+
+    public void put(long ts, double value) {
+        if (size == 0 || ts > getLastTs()) {
+            ensureCapacity(size + 1);
+            long seq = firstSeq + size;
+            if (isShared(seq)) {
+                reallocate(this.ts.length);
+            }
+            int idx = physicalIndex(size);
+            this.ts[idx] = ts;
+            this.values[idx] = value;
+            size++;
+            onAdded(value);
+            onAppended(seq, value);
+            return;
+        }
+        int index = indexOf(ts);
+        if (index >= 0) {
+            if (isShared(firstSeq + index)) {
+                reallocate(this.ts.length);
+            }
+            int idx = physicalIndex(index);
+            size--;
+            onRemoved(values[idx]);
+            values[idx] = value;
+            size++;
+            onAdded(value);
+            invalidateExtremes();
+        } else {
+            insert(-(index + 1), ts, value);
+        }
+    }
+
+    public void putAll(TsDoubleRingBuffer other) {
+        ensureCapacity(size + other.size);
+        for (int i = 0; i < other.size; i++) {
+            put(other.getTs(i), other.getValue(i));
+        }
+    }
+
+    public void removeFirst() {
+        if (size == 0) {
+            return;
+        }
+        double value = values[head];
+        if (minSeqs != null) {
+            minSeqs.removeFirst(firstSeq);
+            maxSeqs.removeFirst(firstSeq);
+        }
+        head = (head + 1) % ts.length;
+        firstSeq++;
+        size--;
+        onRemoved(value);
+        if (++removalsSinceRecalculation > size) {
+            recalculate();
+        }
+    }
+
+    public void removeOlderThan(long minTs) {
+        while (size > 0 && ts[head] < minTs) {
+            removeFirst();
+        }
+    }
+
+    public void retainLast(int maxSize) {
+        while (size > maxSize) {
+            removeFirst();
+        }
+    }
+
+    public void forEach(TsDoubleConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            int idx = physicalIndex(i);
+            consumer.accept(ts[idx], values[idx]);
+        }
+    }
+
+    public TbelCfTsRollingStats getStats() {
+        if (minSeqs == null) {
+            rebuildExtremes();
+        }
+        double min = minSeqs.isEmpty() ? Double.NaN : valueOf(minSeqs.first());
+        double max = maxSeqs.isEmpty() ? Double.NaN : valueOf(maxSeqs.first());
+        return new TbelCfTsRollingStats(size - nanCount, nanCount, sum, Math.max(0.0, m2), min, max);
+    }
+
+    /**
+     * Returns a read-only view of the current values. The view does not observe further updates of the buffer:
+     * a write to a slot visible to the view copies the arrays first.
+     */
+    public TbelCfTsDoubleValList toTbelCfValues() {
+        if (size == 0) {
+            return new TbelCfTsDoubleValList(new long[0], new double[0]);
+        }
+        if (shared) {
+            sharedFromSeq = Math.min(sharedFromSeq, firstSeq);
+            sharedToSeq = Math.max(sharedToSeq, firstSeq + size);
+        } else {
+            shared = true;
+            sharedFromSeq = firstSeq;
+            sharedToSeq = firstSeq + size;
+        }
+        return new TbelCfTsDoubleValList(ts, values, head, size);
+    }
+
+    @JsonValue
+    public TreeMap<Long, Double> toMap() {
+        TreeMap<Long, Double> map = new TreeMap<>();
+        forEach(map::put);
+        return map;
+    }
+
+    private void insert(int index, long ts, double value) {
+        ensureCapacity(size + 1);
+        if (shared) {
+            reallocate(this.ts.length);
+        }
+        for (int i = size; i > index; i--) {
+            int to = physicalIndex(i);
+            int from = physicalIndex(i - 1);
+            this.ts[to] = this.ts[from];
+            this.values[to] = this.values[from];
+        }
+        int idx = physicalIndex(index);
+        this.ts[idx] = ts;
+        this.values[idx] = value;
+        size++;
+        onAdded(value);
+        invalidateExtremes();
+    }
+
+    private void onAdded(double value) {
+        if (Double.isNaN(value)) {
+            nanCount++;
+            return;
+        }
+        int count = size - nanCount;
+        sum += value;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    private void onRemoved(double value) {
+        if (Double.isNaN(value)) {
+            nanCount--;
+            return;
+        }
+        int count = size - nanCount;
+        if (count == 0) {
+            sum = 0.0;
+            mean = 0.0;
+            m2 = 0.0;
+            return;
+        }
+        sum -= value;
+        double delta = value - mean;
+        mean -= delta / count;
+        m2 -= delta * (value - mean);
+    }
+
+    private void onAppended(long seq, double value) {
+        if (minSeqs == null || Double.isNaN(value)) {
+            return;
+        }
+        while (!minSeqs.isEmpty() && valueOf(minSeqs.last()) >= value) {
+            minSeqs.removeLast();
+        }
+        minSeqs.add(seq);
+        while (!maxSeqs.isEmpty() && valueOf(maxSeqs.last()) <= value) {
+            maxSeqs.removeLast();
+        }
+        maxSeqs.add(seq);
+    }
+
+    private void invalidateExtremes() {
+        minSeqs = null;
+        maxSeqs = null;
+    }
+
+    private void rebuildExtremes() {
+        minSeqs = new SeqQueue();
+        maxSeqs = new SeqQueue();
+        for (int i = 0; i < size; i++) {
+            onAppended(firstSeq + i, getValue(i));
+        }
+    }
+
+    private double valueOf(long seq) {
+        return values[physicalIndex((int) (seq - firstSeq))];
+    }
+
+    private void recalculate() {
+        int count = 0;
+        double newSum = 0.0;
+        double newMean = 0.0;
+        double newM2 = 0.0;
+        for (int i = 0; i < size; i++) {
+            double value = getValue(i);
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            count++;
+            newSum += value;
+            double delta = value - newMean;
+            newMean += delta / count;
+            newM2 += delta * (value - newMean);
+        }
+        sum = newSum;
+        mean = newMean;
+        m2 = newM2;
+        removalsSinceRecalculation = 0;
+    }
+
+    private int indexOf(long ts) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midTs = getTs(mid);
+            if (midTs < ts) {
+                low = mid + 1;
+            } else if (midTs > ts) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Whether the slot of the sequence number is visible to a view over the current arrays.
+     */
+    private boolean isShared(long seq) {
+        if (!shared) {
+            return false;
+        }
+        long sharedCount = sharedToSeq - sharedFromSeq;
+        return sharedCount >= ts.length || Math.floorMod(seq - sharedFromSeq, (long) ts.length) < sharedCount;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= ts.length) {
+            return;
+        }
+        reallocate(Math.max(minCapacity, ts.length * 2));
+    }
+
+    private void reallocate(int capacity) {
+        long[] newTs = new long[capacity];
+        double[] newValues = new double[capacity];
+        int firstPart = Math.min(size, ts.length - head);
+        System.arraycopy(ts, head, newTs, 0, firstPart);
+        System.arraycopy(values, head, newValues, 0, firstPart);
+        System.arraycopy(ts, 0, newTs, firstPart, size - firstPart);
+        System.arraycopy(values, 0, newValues, firstPart, size - firstPart);
+        ts = newTs;
+        values = newValues;
+        head = 0;
+        shared = false;
+    }
+
+    private int physicalIndex(int index) {
+        int idx = head + index;
+        return idx < ts.length ? idx : idx - ts.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TsDoubleRingBuffer that) || size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (getTs(i) != that.getTs(i) || Double.compare(getValue(i), that.getValue(i)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + Long.hashCode(getTs(i));
+            result = 31 * result + Double.hashCode(getValue(i));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    @FunctionalInterface
+    public interface TsDoubleConsumer {
+
+        void accept(long ts, double value);
+
+    }
+
+    /**
+     * Queue of sequence numbers in a growable circular array.
+     */
+    private static class SeqQueue {
+
+        private long[] seqs = new long[4];
+        private int head;
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long first() {
+            return seqs[head];
+        }
+
+        long last() {
+            return seqs[(head + size - 1) % seqs.length];
+        }
+
+        void add(long seq) {
+            if (size == seqs.length) {
+                long[] newSeqs = new long[seqs.length * 2];
+                for (int i = 0; i < size; i++) {
+                    newSeqs[i] = seqs[(head + i) % seqs.length];
+                }
+                seqs = newSeqs;
+                head = 0;
+            }
+            seqs[(head + size) % seqs.length] = seq;
+            size++;
+        }
+
+        void removeFirst(long seq) {
+            if (size > 0 && seqs[head] == seq) {
+                head = (head + 1) % seqs.length;
+                size--;
+            }
+        }
+
+        void removeLast() {
+            size--;
+        }
+
+    }
+
+}
@@ -21,15 +21,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.script.api.tbel.TbelCfArg;
-import org.thingsboard.script.api.tbel.TbelCfTsDoubleVal;
 import org.thingsboard.script.api.tbel.TbelCfTsRollingArg;
 import org.thingsboard.server.common.data.kv.KvEntry;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 import static org.thingsboard.server.service.cf.ctx.state.BaseCalculatedFieldState.DEFAULT_LAST_UPDATE_TS;
 
@@ -41,29 +37,30 @@ public class TsRollingArgumentEntry implements ArgumentEntry, HasLatestTs {
 
     private Integer limit;
     private Long timeWindow;
-    private TreeMap<Long, Double> tsRecords = new TreeMap<>();
+    private TsDoubleRingBuffer tsRecords = new TsDoubleRingBuffer();
 
     private boolean forceResetPrevious;
 
     public TsRollingArgumentEntry(List<TsKvEntry> kvEntries, int limit, long timeWindow) {
+        this.tsRecords = TsDoubleRingBuffer.forWindow(Math.min(kvEntries.size(), limit));
         this.limit = limit;
         this.timeWindow = timeWindow;
         kvEntries.forEach(tsKvEntry -> addTsRecord(tsKvEntry.getTs(), tsKvEntry));
     }
 
-    public TsRollingArgumentEntry(TreeMap<Long, Double> tsRecords, int limit, long timeWindow) {
+    public TsRollingArgumentEntry(TsDoubleRingBuffer tsRecords, int limit, long timeWindow) {
         this.tsRecords = tsRecords;
         this.limit = limit;
         this.timeWindow = timeWindow;
     }
 
     public TsRollingArgumentEntry(int limit, long timeWindow) {
-        this.tsRecords = new TreeMap<>();
+        this.tsRecords = new TsDoubleRingBuffer();
         this.limit = limit;
         this.timeWindow = timeWindow;
     }
 
-    public TsRollingArgumentEntry(Integer limit, Long timeWindow, TreeMap<Long, Double> tsRecords) {
+    public TsRollingArgumentEntry(Integer limit, Long timeWindow, TsDoubleRingBuffer tsRecords) {
         this.limit = limit;
         this.timeWindow = timeWindow;
         this.tsRecords = tsRecords;
@@ -86,17 +83,12 @@ public class TsRollingArgumentEntry implements ArgumentEntry, HasLatestTs {
     }
 
     public long getLatestTs() {
-        var lastEntry = tsRecords.lastEntry();
-        return (lastEntry != null) ? lastEntry.getKey() : DEFAULT_LAST_UPDATE_TS;
+        return !tsRecords.isEmpty() ? tsRecords.getLastTs() : DEFAULT_LAST_UPDATE_TS;
     }
 
     @Override
     public TbelCfArg toTbelCfArg() {
-        List<TbelCfTsDoubleVal> values = new ArrayList<>(tsRecords.size());
-        for (var e : tsRecords.entrySet()) {
-            values.add(new TbelCfTsDoubleVal(e.getKey(), e.getValue()));
-        }
-        return new TbelCfTsRollingArg(timeWindow, values);
+        return new TbelCfTsRollingArg(timeWindow, tsRecords.toTbelCfValues(), tsRecords.getStats());
     }
 
     @Override
@@ -112,16 +104,15 @@ public class TsRollingArgumentEntry implements ArgumentEntry, HasLatestTs {
     }
 
     private void updateTsRollingEntry(TsRollingArgumentEntry tsRollingEntry) {
-        for (Map.Entry<Long, Double> tsRecordEntry : tsRollingEntry.getTsRecords().entrySet()) {
-            addTsRecord(tsRecordEntry.getKey(), tsRecordEntry.getValue());
-        }
+        tsRecords.putAll(tsRollingEntry.getTsRecords());
+        cleanupExpiredRecords();
     }
 
     private void updateSingleValueEntry(SingleValueArgumentEntry singleValueEntry) {
         addTsRecord(singleValueEntry.getTs(), singleValueEntry.getKvEntryValue());
     }
 
-    private void addTsRecord(Long ts, KvEntry value) {
+    private void addTsRecord(long ts, KvEntry value) {
         Double recordValue = getValueForTsRecord(value);
         if (recordValue != null) {
             tsRecords.put(ts, recordValue);
@@ -129,16 +120,9 @@ public class TsRollingArgumentEntry implements ArgumentEntry, HasLatestTs {
         cleanupExpiredRecords();
     }
 
-    private void addTsRecord(Long ts, double value) {
-        tsRecords.put(ts, value);
-        cleanupExpiredRecords();
-    }
-
     private void cleanupExpiredRecords() {
-        if (tsRecords.size() > limit) {
-            tsRecords.pollFirstEntry();
-        }
-        tsRecords.entrySet().removeIf(tsRecord -> tsRecord.getKey() < System.currentTimeMillis() - timeWindow);
+        tsRecords.retainLast(limit);
+        tsRecords.removeOlderThan(System.currentTimeMillis() - timeWindow);
     }
 
     public static Double getValueForTsRecord(KvEntry value) {
@@ -37,18 +37,23 @@ import org.thingsboard.server.common.data.relation.EntitySearchDirection;
 import org.thingsboard.server.dao.entity.EntityService;
 import org.thingsboard.server.service.cf.CalculatedFieldResult;
 import org.thingsboard.server.service.cf.TelemetryCalculatedFieldResult;
+import org.thingsboard.server.service.cf.ctx.CalculatedFieldEntityCtxId;
 import org.thingsboard.server.service.cf.ctx.state.ArgumentEntry;
 import org.thingsboard.server.service.cf.ctx.state.ArgumentEntryType;
 import org.thingsboard.server.service.cf.ctx.state.BaseCalculatedFieldState;
 import org.thingsboard.server.service.cf.ctx.state.CalculatedFieldCtx;
+import org.thingsboard.server.service.cf.ctx.state.SingleValueArgumentEntry;
 import org.thingsboard.server.service.cf.ctx.state.aggregation.function.AggEntry;
 import org.thingsboard.server.service.cf.ctx.state.geofencing.ScheduledRefreshSupported;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
 import java.util.stream.Collectors;
 
@@ -69,6 +74,11 @@ public class RelatedEntitiesAggregationCalculatedFieldState extends BaseCalculat
     private long deduplicationIntervalMs = DISABLED_INTERVAL_VALUE;
     private Map<String, AggMetric> metrics;
 
+    // per metric contributions of the related entities, maintained incrementally for the entities updated since the last evaluation
+    private final Map<String, MetricAggregation> metricAggregations = new LinkedHashMap<>();
+    private final Set<EntityId> updatedEntities = new HashSet<>();
+    private boolean fullResyncRequired = true;
+
     private ScheduledFuture<?> reevaluationFuture;
 
     private EntityService entityService;
@@ -84,11 +94,13 @@ public class RelatedEntitiesAggregationCalculatedFieldState extends BaseCalculat
         metrics = configuration.getMetrics();
         deduplicationIntervalMs = SECONDS.toMillis(configuration.getDeduplicationIntervalInSec());
         entityService = ctx.getSystemContext().getEntityService();
+        requireFullResync();
     }
 
     @Override
     public void init(boolean restored) {
         super.init(restored);
+        requireFullResync();
         if (restored) {
             scheduleReevaluation();
         }
@@ -110,6 +122,7 @@ public class RelatedEntitiesAggregationCalculatedFieldState extends BaseCalculat
         lastArgsRefreshTs = DEFAULT_LAST_UPDATE_TS;
         lastMetricsEvalTs = DEFAULT_LAST_UPDATE_TS;
         metrics = null;
+        requireFullResync();
     }
 
     @Override
@@ -135,9 +148,26 @@ public class RelatedEntitiesAggregationCalculatedFieldState extends BaseCalculat
     @Override
     public Map<String, ArgumentEntry> update(Map<String, ArgumentEntry> argumentValues, CalculatedFieldCtx ctx) {
         lastArgsRefreshTs = System.currentTimeMillis();
+        for (ArgumentEntry argumentEntry : argumentValues.values()) {
+            if (argumentEntry instanceof RelatedEntitiesArgumentEntry relatedEntitiesArgumentEntry) {
+                updatedEntities.addAll(relatedEntitiesArgumentEntry.getEntityInputs().keySet());
+            } else if (argumentEntry instanceof SingleValueArgumentEntry singleValueArgumentEntry && singleValueArgumentEntry.getEntityId() != null) {
+                updatedEntities.add(singleValueArgumentEntry.getEntityId());
+            } else {
+                requireFullResync();
+            }
+        }
         return super.update(argumentValues, ctx);
     }
 
+    @Override
+    public void checkStateSize(CalculatedFieldEntityCtxId ctxId, long maxStateSize) {
+        super.checkStateSize(ctxId, maxStateSize);
+        if (sizeExceedsLimit) {
+            requireFullResync();
+        }
+    }
+
     public List<EntityId> checkRelatedEntities(List<EntityId> relatedEntities) {
         Map<EntityId, Map<String, ArgumentEntry>> entityInputs = prepareInputs();
         findOutdatedEntities(entityInputs, relatedEntities).forEach(this::cleanupEntityData);
@@ -177,6 +207,7 @@ public class RelatedEntitiesAggregationCalculatedFieldState extends BaseCalculat
             RelatedEntitiesArgumentEntry aggEntry = (RelatedEntitiesArgumentEntry) argEntry;
             aggEntry.getEntityInputs().remove(relatedEntityId);
         });
+        updatedEntities.add(relatedEntityId);
         lastMetricsEvalTs = DEFAULT_LAST_UPDATE_TS;
         lastArgsRefreshTs = System.currentTimeMillis();
         readinessStatus = checkReadiness();
@@ -192,6 +223,9 @@ public class RelatedEntitiesAggregationCalculatedFieldState extends BaseCalculat
     @Override
     public ListenableFuture<CalculatedFieldResult> performCalculation(Map<String, ArgumentEntry> updatedArgs, CalculatedFieldCtx ctx) throws Exception {
         boolean cfUpdated = updatedArgs != null && updatedArgs.isEmpty();
+        if (cfUpdated) {
+            requireFullResync();
+        }
         if (shouldRecalculate() || cfUpdated) {
             Output output = ctx.getOutput();
             ObjectNode aggResult = aggregateMetrics(output);
@@ -231,30 +265,72 @@ public class RelatedEntitiesAggregationCalculatedFieldState extends BaseCalculat
     }
 
     private ObjectNode aggregateMetrics(Output output) throws Exception {
+        try {
+            if (fullResyncRequired) {
+                resyncMetrics();
+            } else {
+                updateMetrics();
+            }
+        } catch (Exception e) {
+            requireFullResync();
+            throw e;
+        }
         ObjectNode aggResult = JacksonUtil.newObjectNode();
+        for (Entry<String, MetricAggregation> entry : metricAggregations.entrySet()) {
+            entry.getValue().getAggEntry().result(output.getDecimalsByDefault()).ifPresent(result -> {
+                aggResult.set(entry.getKey(), JacksonUtil.valueToTree(result));
+            });
+        }
+        return aggResult;
+    }
+
+    private void resyncMetrics() throws Exception {
+        metricAggregations.clear();
+        updatedEntities.clear();
         Map<EntityId, Map<String, ArgumentEntry>> inputs = prepareInputs();
         for (Entry<String, AggMetric> entry : metrics.entrySet()) {
-            String metricKey = entry.getKey();
             AggMetric metric = entry.getValue();
+            MetricAggregation metricAggregation = new MetricAggregation(AggEntry.createAggFunction(metric.getFunction()));
+            for (Entry<EntityId, Map<String, ArgumentEntry>> entityInputs : inputs.entrySet()) {
+                metricAggregation.put(entityInputs.getKey(), resolveEntityContribution(metric, entityInputs.getValue()));
+            }
+            metricAggregations.put(entry.getKey(), metricAggregation);
+        }
+        fullResyncRequired = false;
+    }
 
-            AggEntry aggMetricEntry = AggEntry.createAggFunction(metric.getFunction());
-            aggregateMetric(metric, aggMetricEntry, inputs);
-            aggMetricEntry.result(output.getDecimalsByDefault()).ifPresent(result -> {
-                aggResult.set(metricKey, JacksonUtil.valueToTree(result));
-            });
+    private void updateMetrics() throws Exception {
+        for (EntityId entityId : updatedEntities) {
+            Map<String, ArgumentEntry> entityInputs = getEntityInputs(entityId);
+            for (Entry<String, AggMetric> entry : metrics.entrySet()) {
+                Object contribution = entityInputs.isEmpty() ? null : resolveEntityContribution(entry.getValue(), entityInputs);
+                metricAggregations.get(entry.getKey()).put(entityId, contribution);
+            }
         }
-        return aggResult;
+        updatedEntities.clear();
     }
 
-    private void aggregateMetric(AggMetric metric, AggEntry aggEntry, Map<EntityId, Map<String, ArgumentEntry>> inputs) throws Exception {
-        for (Map<String, ArgumentEntry> entityInputs : inputs.values()) {
-            if (applyAggregation(metric.getFilter(), entityInputs)) {
-                Object arg = resolveAggregationInput(metric.getInput(), entityInputs);
-                if (arg != null) {
-                    aggEntry.update(arg);
-                }
+    private Object resolveEntityContribution(AggMetric metric, Map<String, ArgumentEntry> entityInputs) throws Exception {
+        if (applyAggregation(metric.getFilter(), entityInputs)) {
+            return resolveAggregationInput(metric.getInput(), entityInputs);
+        }
+        return null;
+    }
+
+    private Map<String, ArgumentEntry> getEntityInputs(EntityId entityId) {
+        Map<String, ArgumentEntry> entityInputs = new HashMap<>();
+        for (Map.Entry<String, ArgumentEntry> argEntry : arguments.entrySet()) {
+            ArgumentEntry argumentEntry = ((RelatedEntitiesArgumentEntry) argEntry.getValue()).getEntityInputs().get(entityId);
+            if (argumentEntry != null) {
+                entityInputs.put(argEntry.getKey(), argumentEntry);
             }
         }
+        return entityInputs;
+    }
+
+    private void requireFullResync() {
+        fullResyncRequired = true;
+        updatedEntities.clear();
     }
 
     private boolean applyAggregation(String filter, Map<String, ArgumentEntry> entityInputs) throws Exception {
@@ -291,6 +367,28 @@ public class RelatedEntitiesAggregationCalculatedFieldState extends BaseCalculat
         return JacksonUtil.valueToTree(new RelatedEntitiesArgument(ArgumentEntryType.RELATED_ENTITIES, entitiesArguments));
     }
 
+    @Getter
+    private static class MetricAggregation {
+
+        private final AggEntry aggEntry;
+        private final Map<EntityId, Object> contributions = new HashMap<>();
+
+        MetricAggregation(AggEntry aggEntry) {
+            this.aggEntry = aggEntry;
+        }
+
+        void put(EntityId entityId, Object contribution) {
+            Object previous = contribution != null ? contributions.put(entityId, contribution) : contributions.remove(entityId);
+            if (previous != null) {
+                aggEntry.remove(previous);
+            }
+            if (contribution != null) {
+                aggEntry.update(contribution);
+            }
+        }
+
+    }
+
     record RelatedEntitiesArgument(ArgumentEntryType type, List<EntityArgument> entitiesArguments) {}
 
     record EntityArgument(EntityInfo entity, JsonNode entityArguments) {}
@@ -42,6 +42,11 @@ public interface AggEntry {
 
     void update(Object value);
 
+    /**
+     * Removes the value previously added by {@link #update(Object)}, so the result can be maintained incrementally.
+     */
+    void remove(Object value);
+
     Optional<Object> result(Integer precision);
 
     static AggEntry createAggFunction(AggFunction function) {
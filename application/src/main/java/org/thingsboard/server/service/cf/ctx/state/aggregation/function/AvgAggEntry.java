@@ -20,23 +20,41 @@ import org.thingsboard.common.util.NumberUtils;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class AvgAggEntry extends BaseAggEntry {
 
     private BigDecimal sum = BigDecimal.ZERO;
     private long count = 0L;
+    // the division is done with the scale of the values sum, which must not depend on the removed values
+    private final TreeMap<Integer, Integer> scales = new TreeMap<>();
 
     @Override
     protected void doUpdate(double value) {
         if (value != 0.0) {
-            sum = sum.add(BigDecimal.valueOf(value));
+            BigDecimal decimal = BigDecimal.valueOf(value);
+            sum = sum.add(decimal);
+            scales.merge(decimal.scale(), 1, Integer::sum);
         }
         this.count++;
     }
 
+    @Override
+    protected void doRemove(double value) {
+        if (value != 0.0) {
+            BigDecimal decimal = BigDecimal.valueOf(value);
+            sum = sum.subtract(decimal);
+            scales.computeIfPresent(decimal.scale(), (scale, scaleCount) -> scaleCount > 1 ? scaleCount - 1 : null);
+        }
+        this.count--;
+    }
+
     @Override
     protected Object prepareResult(Integer precision) {
-        double result = sum.divide(BigDecimal.valueOf(count), RoundingMode.HALF_UP).doubleValue();
+        Map.Entry<Integer, Integer> maxScale = scales.lastEntry();
+        BigDecimal scaledSum = sum.setScale(maxScale != null ? Math.max(maxScale.getKey(), 0) : 0, RoundingMode.HALF_UP);
+        double result = scaledSum.divide(BigDecimal.valueOf(count), RoundingMode.HALF_UP).doubleValue();
         return NumberUtils.roundResult(result, precision);
     }
 
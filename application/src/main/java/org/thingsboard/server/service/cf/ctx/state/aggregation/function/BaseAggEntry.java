@@ -19,18 +19,23 @@ import java.util.Optional;
 
 public abstract class BaseAggEntry implements AggEntry {
 
-    private boolean hasResult = false;
+    private long valuesCount = 0L;
 
     @Override
     public void update(Object value) {
         doUpdate(extractDoubleValue(value));
-        hasResult = true;
+        valuesCount++;
+    }
+
+    @Override
+    public void remove(Object value) {
+        doRemove(extractDoubleValue(value));
+        valuesCount--;
     }
 
     @Override
     public Optional<Object> result(Integer precision) {
-        if (hasResult) {
-            hasResult = false;
+        if (valuesCount > 0) {
             return Optional.of(prepareResult(precision));
         } else {
             return Optional.empty();
@@ -39,6 +44,8 @@ public abstract class BaseAggEntry implements AggEntry {
 
     protected abstract void doUpdate(double value);
 
+    protected abstract void doRemove(double value);
+
     protected abstract Object prepareResult(Integer precision);
 
     protected double extractDoubleValue(Object value) {
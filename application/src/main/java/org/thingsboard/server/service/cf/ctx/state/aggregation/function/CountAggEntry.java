@@ -28,6 +28,11 @@ public class CountAggEntry implements AggEntry {
         count++;
     }
 
+    @Override
+    public void remove(Object value) {
+        count--;
+    }
+
     @Override
     public Optional<Object> result(Integer precision) {
         return Optional.of(count);
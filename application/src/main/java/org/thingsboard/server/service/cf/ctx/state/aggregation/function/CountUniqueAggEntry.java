@@ -17,18 +17,30 @@ package org.thingsboard.server.service.cf.ctx.state.aggregation.function;
 
 import org.thingsboard.server.common.data.cf.configuration.aggregation.AggFunction;
 
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 
 public class CountUniqueAggEntry implements AggEntry {
 
-    private final Set<String> items = new HashSet<>();
+    // item -> number of occurrences; the counters are mutable to avoid boxing on every update
+    private final Map<String, int[]> items = new HashMap<>();
 
     @Override
     public void update(Object value) {
         if (value != null) {
-            items.add(String.valueOf(value));
+            items.computeIfAbsent(String.valueOf(value), item -> new int[1])[0]++;
+        }
+    }
+
+    @Override
+    public void remove(Object value) {
+        if (value != null) {
+            String item = String.valueOf(value);
+            int[] count = items.get(item);
+            if (count != null && --count[0] <= 0) {
+                items.remove(item);
+            }
         }
     }
 
@@ -18,19 +18,32 @@ package org.thingsboard.server.service.cf.ctx.state.aggregation.function;
 import org.thingsboard.server.common.data.cf.configuration.aggregation.AggFunction;
 import org.thingsboard.common.util.NumberUtils;
 
+import java.util.TreeMap;
+
 public class MaxAggEntry extends BaseAggEntry {
 
-    private double max = Double.MIN_VALUE;
+    private static final double INITIAL_VALUE = Double.MIN_VALUE;
+
+    // value -> number of occurrences, so that the max can be found after the current one is removed
+    private final TreeMap<Double, Integer> values = new TreeMap<>();
 
     @Override
     protected void doUpdate(double value) {
-        if (value > max) {
-            max = value;
+        if (!Double.isNaN(value)) {
+            values.merge(value, 1, Integer::sum);
+        }
+    }
+
+    @Override
+    protected void doRemove(double value) {
+        if (!Double.isNaN(value)) {
+            values.computeIfPresent(value, (v, count) -> count > 1 ? count - 1 : null);
         }
     }
 
     @Override
     protected Object prepareResult(Integer precision) {
+        double max = values.isEmpty() ? INITIAL_VALUE : Math.max(values.lastKey(), INITIAL_VALUE);
         return NumberUtils.roundResult(max, precision);
     }
 
@@ -18,19 +18,32 @@ package org.thingsboard.server.service.cf.ctx.state.aggregation.function;
 import org.thingsboard.server.common.data.cf.configuration.aggregation.AggFunction;
 import org.thingsboard.common.util.NumberUtils;
 
+import java.util.TreeMap;
+
 public class MinAggEntry extends BaseAggEntry {
 
-    private double min = Double.MAX_VALUE;
+    private static final double INITIAL_VALUE = Double.MAX_VALUE;
+
+    // value -> number of occurrences, so that the min can be found after the current one is removed
+    private final TreeMap<Double, Integer> values = new TreeMap<>();
 
     @Override
     protected void doUpdate(double value) {
-        if (value < min) {
-            min = value;
+        if (!Double.isNaN(value)) {
+            values.merge(value, 1, Integer::sum);
+        }
+    }
+
+    @Override
+    protected void doRemove(double value) {
+        if (!Double.isNaN(value)) {
+            values.computeIfPresent(value, (v, count) -> count > 1 ? count - 1 : null);
         }
     }
 
     @Override
     protected Object prepareResult(Integer precision) {
+        double min = values.isEmpty() ? INITIAL_VALUE : Math.min(values.firstKey(), INITIAL_VALUE);
         return NumberUtils.roundResult(min, precision);
     }
 
@@ -31,6 +31,13 @@ public class SumAggEntry extends BaseAggEntry {
         }
     }
 
+    @Override
+    protected void doRemove(double value) {
+        if (value != 0.0) {
+            sum = sum.subtract(BigDecimal.valueOf(value));
+        }
+    }
+
     @Override
     protected Object prepareResult(Integer precision) {
         return NumberUtils.roundResult(sum.doubleValue(), precision);
@@ -238,6 +238,7 @@ public class EntityStateSourcingListener {
                 if (event.getEntityId().getEntityType() == EntityType.DEVICE && event.getEntity() instanceof DeviceCredentials deviceCredentials) {
                     tbClusterService.pushMsgToCore(new DeviceCredentialsUpdateNotificationMsg(tenantId,
                             (DeviceId) event.getEntityId(), deviceCredentials), null);
+                    tbClusterService.onDeviceCredentialsUpdated(tenantId, deviceCredentials, null);
                 } else if (event.getEntityId().getEntityType() == EntityType.USER) {
                     tbClusterService.broadcastEntityStateChangeEvent(event.getTenantId(), event.getEntityId(), ComponentLifecycleEvent.UPDATED);
 
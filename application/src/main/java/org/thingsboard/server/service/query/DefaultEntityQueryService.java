@@ -45,6 +45,8 @@ import org.thingsboard.server.common.data.query.AvailableEntityKeysV2.KeyInfo;
 import org.thingsboard.server.common.data.query.AvailableEntityKeysV2.KeySample;
 import org.thingsboard.server.common.data.query.ComplexFilterPredicate;
 import org.thingsboard.server.common.data.query.DynamicValue;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityData;
 import org.thingsboard.server.common.data.query.EntityDataPageLink;
@@ -120,6 +122,19 @@ public class DefaultEntityQueryService implements EntityQueryService {
         return entityService.findEntityDataByQuery(securityUser.getTenantId(), securityUser.getCustomerId(), query);
     }
 
+    @Override
+    public List<EntityAggregationData> aggregateEntitiesByQuery(SecurityUser securityUser, EntityAggregationQuery query) {
+        if (query.getKeyFilters() != null) {
+            resolveDynamicValuesInPredicates(
+                    query.getKeyFilters().stream()
+                            .map(KeyFilter::getPredicate)
+                            .collect(Collectors.toList()),
+                    securityUser
+            );
+        }
+        return entityService.aggregateEntitiesByQuery(securityUser.getTenantId(), securityUser.getCustomerId(), query);
+    }
+
     private void resolveDynamicValuesInPredicates(List<KeyFilterPredicate> predicates, SecurityUser user) {
         predicates.forEach(predicate -> {
             if (predicate.getType() == FilterPredicateType.COMPLEX) {
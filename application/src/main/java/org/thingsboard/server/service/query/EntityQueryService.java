@@ -24,11 +24,14 @@ import org.thingsboard.server.common.data.query.AlarmData;
 import org.thingsboard.server.common.data.query.AlarmDataQuery;
 import org.thingsboard.server.common.data.query.AvailableEntityKeys;
 import org.thingsboard.server.common.data.query.AvailableEntityKeysV2;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityData;
 import org.thingsboard.server.common.data.query.EntityDataQuery;
 import org.thingsboard.server.service.security.model.SecurityUser;
 
+import java.util.List;
 import java.util.Set;
 
 public interface EntityQueryService {
@@ -37,6 +40,8 @@ public interface EntityQueryService {
 
     PageData<EntityData> findEntityDataByQuery(SecurityUser securityUser, EntityDataQuery query);
 
+    List<EntityAggregationData> aggregateEntitiesByQuery(SecurityUser securityUser, EntityAggregationQuery query);
+
     PageData<AlarmData> findAlarmDataByQuery(SecurityUser securityUser, AlarmDataQuery query);
 
     long countAlarmsByQuery(SecurityUser securityUser, AlarmCountQuery query);
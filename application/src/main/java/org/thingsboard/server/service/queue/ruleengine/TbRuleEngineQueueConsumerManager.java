@@ -34,6 +34,7 @@ import org.thingsboard.server.common.util.ProtoUtils;
 import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
 import org.thingsboard.server.queue.TbQueueConsumer;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.common.TbQueueBatchingProducer;
 import org.thingsboard.server.queue.common.consumer.MainQueueConsumerManager;
 import org.thingsboard.server.queue.common.consumer.TbQueueConsumerManagerTask;
 import org.thingsboard.server.queue.common.consumer.TbQueueConsumerManagerTask.DeleteQueueTask;
@@ -136,6 +137,7 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
                                Queue queue) throws Exception {
         TbRuleEngineSubmitStrategy submitStrategy = getSubmitStrategy(queue);
         TbRuleEngineProcessingStrategy ackStrategy = getProcessingStrategy(queue);
+        msgs = TbQueueBatchingProducer.unpack(msgs, ToRuleEngineMsg::getPackedMsgsList);
         submitStrategy.init(msgs);
         while (!stopped && !consumer.isStopped()) {
             TbMsgPackProcessingContext packCtx = packProcessingContextFactory.create(queue.getName(), submitStrategy, ackStrategy.isSkipTimeoutMsgs());
@@ -241,6 +243,7 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
                     if (msgs.isEmpty()) {
                         continue;
                     }
+                    msgs = TbQueueBatchingProducer.unpack(msgs, ToRuleEngineMsg::getPackedMsgsList);
                     for (TbProtoQueueMsg<ToRuleEngineMsg> msg : msgs) {
                         try {
                             MsgProtos.TbMsgProto tbMsgProto = ProtoUtils.getTbMsgProto(msg.getValue());
@@ -46,6 +46,7 @@ import org.thingsboard.server.service.cf.ctx.state.CalculatedFieldState;
 import org.thingsboard.server.service.cf.ctx.state.ScriptCalculatedFieldState;
 import org.thingsboard.server.service.cf.ctx.state.SimpleCalculatedFieldState;
 import org.thingsboard.server.service.cf.ctx.state.SingleValueArgumentEntry;
+import org.thingsboard.server.service.cf.ctx.state.TsDoubleRingBuffer;
 import org.thingsboard.server.service.cf.ctx.state.TsRollingArgumentEntry;
 import org.thingsboard.server.service.cf.ctx.state.aggregation.RelatedEntitiesAggregationCalculatedFieldState;
 import org.thingsboard.server.service.cf.ctx.state.aggregation.RelatedEntitiesArgumentEntry;
@@ -65,7 +66,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -198,7 +198,15 @@ public class CalculatedFieldUtils {
                 .setLimit(entry.getLimit())
                 .setTimeWindow(entry.getTimeWindow());
 
-        entry.getTsRecords().forEach((ts, value) -> builder.addTsValue(TsDoubleValProto.newBuilder().setTs(ts).setValue(value).build()));
+        TsDoubleRingBuffer tsRecords = entry.getTsRecords();
+        for (int i = 0; i < tsRecords.size(); i++) {
+            long ts = tsRecords.getTs(i);
+            double value = tsRecords.getValue(i);
+            builder.addTs(ts);
+            builder.addValue(value);
+            // still written for the nodes that read only the legacy field during a rolling upgrade
+            builder.addTsValue(TsDoubleValProto.newBuilder().setTs(ts).setValue(value).build());
+        }
 
         return builder.build();
     }
@@ -318,8 +326,20 @@ public class CalculatedFieldUtils {
     }
 
     public static TsRollingArgumentEntry fromRollingArgumentProto(TsRollingArgumentProto proto) {
-        TreeMap<Long, Double> tsRecords = new TreeMap<>();
-        proto.getTsValueList().forEach(tsValueProto -> tsRecords.put(tsValueProto.getTs(), tsValueProto.getValue()));
+        TsDoubleRingBuffer tsRecords;
+        int count = Math.min(proto.getTsCount(), proto.getValueCount());
+        if (count > 0) {
+            tsRecords = TsDoubleRingBuffer.forWindow(count);
+            for (int i = 0; i < count; i++) {
+                tsRecords.put(proto.getTs(i), proto.getValue(i));
+            }
+        } else {
+            // states written by older versions have only the tsValue field
+            tsRecords = TsDoubleRingBuffer.forWindow(proto.getTsValueCount());
+            for (TsDoubleValProto tsValueProto : proto.getTsValueList()) {
+                tsRecords.put(tsValueProto.getTs(), tsValueProto.getValue());
+            }
+        }
         return new TsRollingArgumentEntry(tsRecords, proto.getLimit(), proto.getTimeWindow());
     }
 
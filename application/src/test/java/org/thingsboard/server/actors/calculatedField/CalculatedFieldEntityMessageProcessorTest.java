@@ -0,0 +1,267 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.calculatedField;
+
+import com.google.common.util.concurrent.Futures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.TbActorCtx;
+import org.thingsboard.server.actors.calculatedField.EntityInitCalculatedFieldMsg.StateAction;
+import org.thingsboard.server.common.data.cf.CalculatedField;
+import org.thingsboard.server.common.data.cf.CalculatedFieldEventType;
+import org.thingsboard.server.common.data.cf.configuration.ArgumentType;
+import org.thingsboard.server.common.data.cf.configuration.ReferencedEntityKey;
+import org.thingsboard.server.common.data.id.CalculatedFieldId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.queue.TbCallback;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.gen.transport.TransportProtos.CalculatedFieldTelemetryMsgProto;
+import org.thingsboard.server.gen.transport.TransportProtos.KeyValueProto;
+import org.thingsboard.server.gen.transport.TransportProtos.KeyValueType;
+import org.thingsboard.server.gen.transport.TransportProtos.TsKvProto;
+import org.thingsboard.server.service.cf.CalculatedFieldProcessingService;
+import org.thingsboard.server.service.cf.CalculatedFieldResult;
+import org.thingsboard.server.service.cf.CalculatedFieldStateMemoryService;
+import org.thingsboard.server.service.cf.CalculatedFieldStateService;
+import org.thingsboard.server.service.cf.ctx.state.ArgumentEntry;
+import org.thingsboard.server.service.cf.ctx.state.CalculatedFieldCtx;
+import org.thingsboard.server.service.cf.ctx.state.CalculatedFieldState;
+import org.thingsboard.server.service.cf.ctx.state.SingleValueArgumentEntry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CalculatedFieldEntityMessageProcessorTest {
+
+    private static final long COALESCING_INTERVAL_MS = 1000;
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+    private final CalculatedFieldId cfId = new CalculatedFieldId(UUID.randomUUID());
+
+    private ActorSystemContext systemContext;
+    private CalculatedFieldProcessingService cfService;
+    private CalculatedFieldStateService cfStateService;
+    private StatsCounter coalescedEvaluationsCounter;
+    private TbActorCtx actorCtx;
+    private CalculatedFieldCtx ctx;
+    private CalculatedFieldState state;
+
+    private CalculatedFieldEntityMessageProcessor processor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        systemContext = mock(ActorSystemContext.class);
+        cfService = mock(CalculatedFieldProcessingService.class);
+        cfStateService = mock(CalculatedFieldStateService.class);
+        coalescedEvaluationsCounter = mock(StatsCounter.class);
+        actorCtx = mock(TbActorCtx.class);
+        when(systemContext.getCalculatedFieldProcessingService()).thenReturn(cfService);
+        when(systemContext.getCalculatedFieldStateService()).thenReturn(cfStateService);
+        when(systemContext.getCalculatedFieldStateMemoryService()).thenReturn(mock(CalculatedFieldStateMemoryService.class));
+        when(systemContext.getCfCoalescedEvaluationsCounter()).thenReturn(coalescedEvaluationsCounter);
+        when(systemContext.getCfCalculationResultTimeout()).thenReturn(5L);
+        doAnswer(inv -> {
+            inv.<TbCallback>getArgument(2).onSuccess();
+            return null;
+        }).when(cfStateService).persistState(any(), any(), any());
+        doAnswer(inv -> {
+            inv.<TbCallback>getArgument(5).onSuccess();
+            return null;
+        }).when(cfService).processResult(any(), any(), any(), any(), anyList(), any());
+
+        ctx = mock(CalculatedFieldCtx.class);
+        when(ctx.getCfId()).thenReturn(cfId);
+        when(ctx.getCfName()).thenReturn("Coalesced CF");
+        when(ctx.getCalculatedField()).thenReturn(new CalculatedField());
+        when(ctx.getMainEntityArguments()).thenReturn(Map.of(
+                new ReferencedEntityKey("temperature", ArgumentType.TS_LATEST, null), Set.of("t"),
+                new ReferencedEntityKey("humidity", ArgumentType.TS_LATEST, null), Set.of("h")));
+        when(ctx.isInitialized()).thenReturn(true);
+        when(ctx.isCoalescingEnabled()).thenReturn(true);
+        when(ctx.getCoalescingIntervalMillis()).thenReturn(COALESCING_INTERVAL_MS);
+
+        state = mock(CalculatedFieldState.class);
+        when(state.isSizeOk()).thenReturn(true);
+        when(state.isReady()).thenReturn(true);
+        when(state.update(anyMap(), eq(ctx))).thenAnswer(inv -> new HashMap<>(inv.<Map<String, ArgumentEntry>>getArgument(0)));
+        CalculatedFieldResult result = mock(CalculatedFieldResult.class);
+        when(state.performCalculation(anyMap(), eq(ctx))).thenReturn(Futures.immediateFuture(result));
+
+        processor = new CalculatedFieldEntityMessageProcessor(systemContext, tenantId, deviceId);
+        processor.init(actorCtx);
+        processor.states.put(cfId, state);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUpdatesAreMergedIntoSingleEvaluation() throws Exception {
+        TbCallback firstCallback = mock(TbCallback.class);
+        TbCallback secondCallback = mock(TbCallback.class);
+        TbCallback thirdCallback = mock(TbCallback.class);
+
+        processor.process(telemetryMsg("temperature", 20.0, firstCallback));
+        processor.process(telemetryMsg("humidity", 50.0, secondCallback));
+        processor.process(telemetryMsg("temperature", 21.0, thirdCallback));
+
+        // the updates are acknowledged once the state is persisted, before the evaluation
+        verify(firstCallback).onSuccess();
+        verify(secondCallback).onSuccess();
+        verify(thirdCallback).onSuccess();
+        verify(cfStateService, times(3)).persistState(any(), eq(state), any());
+        verify(state, never()).performCalculation(anyMap(), any());
+
+        ArgumentCaptor<CalculatedFieldCoalescedEvaluationMsg> scheduledMsg = ArgumentCaptor.forClass(CalculatedFieldCoalescedEvaluationMsg.class);
+        verify(systemContext, times(1)).scheduleMsgWithDelay(eq(actorCtx), scheduledMsg.capture(), eq(COALESCING_INTERVAL_MS));
+        verify(coalescedEvaluationsCounter, times(2)).increment();
+        assertThat(scheduledMsg.getValue().getCfId()).isEqualTo(cfId);
+
+        CalculatedFieldCoalescedEvaluationMsg evaluationMsg = spy(scheduledMsg.getValue());
+        TbCallback evaluationCallback = mock(TbCallback.class);
+        when(evaluationMsg.getCallback()).thenReturn(evaluationCallback);
+        processor.process(evaluationMsg);
+
+        ArgumentCaptor<Map<String, ArgumentEntry>> updatedArgs = ArgumentCaptor.forClass(Map.class);
+        verify(state, times(1)).performCalculation(updatedArgs.capture(), eq(ctx));
+        assertThat(updatedArgs.getValue()).containsOnlyKeys("t", "h");
+        assertThat(((SingleValueArgumentEntry) updatedArgs.getValue().get("t")).getKvEntryValue().getValue()).isEqualTo(21.0);
+        assertThat(((SingleValueArgumentEntry) updatedArgs.getValue().get("h")).getKvEntryValue().getValue()).isEqualTo(50.0);
+        verify(cfService, times(1)).processResult(eq(tenantId), eq(deviceId), anyString(), any(), eq(List.of(cfId)), any());
+        verify(evaluationCallback).onSuccess();
+        assertThat(processor.coalescedEvaluations).isEmpty();
+    }
+
+    @Test
+    void testNextUpdateAfterEvaluationSchedulesNewEvaluation() throws Exception {
+        processor.process(telemetryMsg("temperature", 20.0, TbCallback.EMPTY));
+        processor.process(new CalculatedFieldCoalescedEvaluationMsg(tenantId, cfId));
+        processor.process(telemetryMsg("temperature", 21.0, TbCallback.EMPTY));
+
+        verify(systemContext, times(2)).scheduleMsgWithDelay(eq(actorCtx), any(CalculatedFieldCoalescedEvaluationMsg.class), anyLong());
+        verify(coalescedEvaluationsCounter, never()).increment();
+        assertThat(processor.coalescedEvaluations).containsOnlyKeys(cfId);
+    }
+
+    @Test
+    void testEvaluationWithoutPendingUpdatesIsSkipped() throws Exception {
+        CalculatedFieldCoalescedEvaluationMsg evaluationMsg = spy(new CalculatedFieldCoalescedEvaluationMsg(tenantId, cfId));
+        TbCallback evaluationCallback = mock(TbCallback.class);
+        when(evaluationMsg.getCallback()).thenReturn(evaluationCallback);
+
+        processor.process(evaluationMsg);
+
+        verify(state, never()).performCalculation(anyMap(), any());
+        verify(evaluationCallback).onSuccess();
+    }
+
+    @Test
+    void testPendingEvaluationUsesCtxOfUpdatedCalculatedField() throws Exception {
+        processor.process(telemetryMsg("temperature", 20.0, TbCallback.EMPTY));
+
+        CalculatedFieldCtx updatedCtx = updatedCtx(true);
+        TbCallback refreshCallback = mock(TbCallback.class);
+        processor.process(new EntityInitCalculatedFieldMsg(tenantId, updatedCtx, StateAction.REFRESH_CTX, CalculatedFieldEventType.UPDATED, refreshCallback));
+
+        verify(refreshCallback).onSuccess();
+        verify(state, never()).performCalculation(anyMap(), any());
+        assertThat(processor.coalescedEvaluations).containsOnlyKeys(cfId);
+
+        processor.process(new CalculatedFieldCoalescedEvaluationMsg(tenantId, cfId));
+
+        verify(state).performCalculation(anyMap(), eq(updatedCtx));
+        verify(state, never()).performCalculation(anyMap(), eq(ctx));
+        assertThat(processor.coalescedEvaluations).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPendingEvaluationIsPerformedWhenCoalescingIsDisabled() throws Exception {
+        processor.process(telemetryMsg("temperature", 20.0, TbCallback.EMPTY));
+
+        CalculatedFieldCtx updatedCtx = updatedCtx(false);
+        TbCallback refreshCallback = mock(TbCallback.class);
+        processor.process(new EntityInitCalculatedFieldMsg(tenantId, updatedCtx, StateAction.REFRESH_CTX, CalculatedFieldEventType.UPDATED, refreshCallback));
+
+        ArgumentCaptor<Map<String, ArgumentEntry>> updatedArgs = ArgumentCaptor.forClass(Map.class);
+        verify(state).performCalculation(updatedArgs.capture(), eq(updatedCtx));
+        assertThat(updatedArgs.getValue()).containsOnlyKeys("t");
+        verify(refreshCallback).onSuccess();
+        assertThat(processor.coalescedEvaluations).isEmpty();
+
+        processor.process(new CalculatedFieldCoalescedEvaluationMsg(tenantId, cfId));
+
+        verify(state, times(1)).performCalculation(anyMap(), any());
+    }
+
+    @Test
+    void testPendingEvaluationIsDroppedOnInit() throws Exception {
+        processor.process(telemetryMsg("temperature", 20.0, TbCallback.EMPTY));
+
+        CalculatedFieldCtx updatedCtx = updatedCtx(true);
+        processor.process(new EntityInitCalculatedFieldMsg(tenantId, updatedCtx, StateAction.INIT, CalculatedFieldEventType.UPDATED, TbCallback.EMPTY));
+
+        verify(state).performCalculation(anyMap(), eq(updatedCtx));
+        assertThat(processor.coalescedEvaluations).isEmpty();
+
+        processor.process(new CalculatedFieldCoalescedEvaluationMsg(tenantId, cfId));
+
+        verify(state, times(1)).performCalculation(anyMap(), any());
+    }
+
+    private CalculatedFieldCtx updatedCtx(boolean coalescingEnabled) throws Exception {
+        CalculatedFieldCtx updatedCtx = mock(CalculatedFieldCtx.class);
+        when(updatedCtx.getCfId()).thenReturn(cfId);
+        when(updatedCtx.getCfName()).thenReturn("Coalesced CF");
+        when(updatedCtx.getCalculatedField()).thenReturn(new CalculatedField());
+        when(updatedCtx.isInitialized()).thenReturn(true);
+        when(updatedCtx.isCoalescingEnabled()).thenReturn(coalescingEnabled);
+        when(updatedCtx.getCoalescingIntervalMillis()).thenReturn(coalescingEnabled ? COALESCING_INTERVAL_MS : 0L);
+        when(state.performCalculation(anyMap(), eq(updatedCtx))).thenReturn(Futures.immediateFuture(mock(CalculatedFieldResult.class)));
+        return updatedCtx;
+    }
+
+    private EntityCalculatedFieldTelemetryMsg telemetryMsg(String key, double value, TbCallback callback) {
+        CalculatedFieldTelemetryMsgProto proto = CalculatedFieldTelemetryMsgProto.newBuilder()
+                .addTsData(TsKvProto.newBuilder()
+                        .setTs(System.currentTimeMillis())
+                        .setKv(KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.DOUBLE_V).setDoubleV(value)))
+                .build();
+        CalculatedFieldTelemetryMsg msg = new CalculatedFieldTelemetryMsg(tenantId, deviceId, proto, callback);
+        return new EntityCalculatedFieldTelemetryMsg(msg, List.of(ctx), List.of(), callback);
+    }
+
+}
@@ -28,6 +28,8 @@ import org.thingsboard.server.common.data.page.PageData;
 import org.thingsboard.server.common.data.query.AlarmCountQuery;
 import org.thingsboard.server.common.data.query.AlarmData;
 import org.thingsboard.server.common.data.query.AlarmDataQuery;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityData;
 import org.thingsboard.server.common.data.query.EntityDataQuery;
@@ -35,6 +37,7 @@ import org.thingsboard.server.common.msg.edqs.EdqsService;
 import org.thingsboard.server.dao.service.DaoSqlTest;
 import org.thingsboard.server.queue.discovery.DiscoveryService;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -87,6 +90,12 @@ public class EdqsEntityQueryControllerTest extends EntityQueryControllerTest {
                 result -> result == expectedResult);
     }
 
+    @Override
+    protected void aggregateByQueryAndCheck(EntityAggregationQuery query, List<EntityAggregationData> expectedResult) {
+        await().atMost(TIMEOUT, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(aggregateByQuery(query)).containsExactlyInAnyOrderElementsOf(expectedResult));
+    }
+
     @Override
     protected void verifyAvailableKeysByQueryV2(ThrowingRunnable assertion) {
         await().atMost(TIMEOUT, TimeUnit.SECONDS).untilAsserted(assertion);
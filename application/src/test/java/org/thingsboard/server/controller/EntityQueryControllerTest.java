@@ -49,6 +49,7 @@ import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
 import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.Aggregation;
 import org.thingsboard.server.common.data.kv.BooleanDataEntry;
 import org.thingsboard.server.common.data.kv.DoubleDataEntry;
 import org.thingsboard.server.common.data.kv.JsonDataEntry;
@@ -65,6 +66,9 @@ import org.thingsboard.server.common.data.query.AvailableEntityKeysV2.KeyInfo;
 import org.thingsboard.server.common.data.query.DeviceTypeFilter;
 import org.thingsboard.server.common.data.query.DynamicValue;
 import org.thingsboard.server.common.data.query.DynamicValueSourceType;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
+import org.thingsboard.server.common.data.query.EntityAggregationKey;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityData;
 import org.thingsboard.server.common.data.query.EntityDataPageLink;
@@ -1042,6 +1046,43 @@ public class EntityQueryControllerTest extends AbstractControllerTest {
         }
     }
 
+    @Test
+    public void testAggregateEntitiesByQuery() throws Exception {
+        String[] types = {"thermostat", "thermostat", "thermostat", "meter", "meter"};
+        long[] temperatures = {10, 20, 30, 5, 7};
+        for (int i = 0; i < types.length; i++) {
+            Device device = new Device();
+            device.setName("Aggregated device " + i);
+            device.setType(types[i]);
+            device = doPost("/api/device", device, Device.class);
+            String payload = "{\"temperature\":" + temperatures[i] + "}";
+            doPost("/api/plugins/telemetry/" + device.getId() + "/" + DataConstants.SHARED_SCOPE, payload, String.class, status().isOk());
+        }
+
+        DeviceTypeFilter filter = new DeviceTypeFilter();
+        filter.setDeviceTypes(List.of("thermostat", "meter"));
+        filter.setDeviceNameFilter("");
+        EntityKey temperatureKey = new EntityKey(EntityKeyType.ATTRIBUTE, "temperature");
+        EntityAggregationQuery query = new EntityAggregationQuery(filter, null, new EntityKey(EntityKeyType.ENTITY_FIELD, "type"),
+                List.of(new EntityAggregationKey(temperatureKey, Aggregation.AVG), new EntityAggregationKey(temperatureKey, Aggregation.MAX)));
+
+        aggregateByQueryAndCheck(query, List.of(
+                new EntityAggregationData("thermostat", 3, List.of(20.0, 30.0)),
+                new EntityAggregationData("meter", 2, List.of(6.0, 7.0))
+        ));
+    }
+
+    @Test
+    public void givenNoneAggregation_whenAggregateEntitiesByQuery_thenReturnError() throws Exception {
+        EntityTypeFilter filter = new EntityTypeFilter();
+        filter.setEntityType(EntityType.DEVICE);
+        EntityAggregationQuery query = new EntityAggregationQuery(filter, null, null,
+                List.of(new EntityAggregationKey(new EntityKey(EntityKeyType.ATTRIBUTE, "temperature"), Aggregation.NONE)));
+
+        ResultActions result = doPost("/api/entitiesQuery/aggregate", query).andExpect(status().isBadRequest());
+        assertThat(getErrorMessage(result)).contains("Unsupported aggregation function");
+    }
+
     @Test
     public void givenInvalidEntityDataPageLink_thenReturnError() throws Exception {
         DeviceTypeFilter filter = new DeviceTypeFilter();
@@ -1468,6 +1509,14 @@ public class EntityQueryControllerTest extends AbstractControllerTest {
         return result;
     }
 
+    protected List<EntityAggregationData> aggregateByQuery(EntityAggregationQuery query) throws Exception {
+        return doPostWithTypedResponse("/api/entitiesQuery/aggregate", query, new TypeReference<>() {});
+    }
+
+    protected void aggregateByQueryAndCheck(EntityAggregationQuery query, List<EntityAggregationData> expectedResult) throws Exception {
+        assertThat(aggregateByQuery(query)).containsExactlyInAnyOrderElementsOf(expectedResult);
+    }
+
     protected void verifyAvailableKeysByQueryV2(ThrowingRunnable assertion) throws Throwable {
         assertion.run();
     }
@@ -0,0 +1,182 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cf;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.CalculatedFieldId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.queue.TbCallback;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.gen.transport.TransportProtos.CalculatedFieldStateProto;
+import org.thingsboard.server.gen.transport.TransportProtos.ToCalculatedFieldMsg;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.common.consumer.PartitionedQueueConsumerManager;
+import org.thingsboard.server.service.cf.ctx.CalculatedFieldEntityCtxId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AbstractCalculatedFieldStateServiceTest {
+
+    @Mock
+    private StatsFactory statsFactory;
+    @Mock
+    private CalculatedFieldStateMemoryService stateMemoryService;
+
+    private final StatsCounter flushFailuresCounter = mock(StatsCounter.class);
+    private final List<Map<CalculatedFieldEntityCtxId, CalculatedFieldStateProto>> persistAttempts = new ArrayList<>();
+    private int failuresToSimulate;
+
+    private AbstractCalculatedFieldStateService stateService;
+
+    @BeforeEach
+    void setUp() {
+        when(statsFactory.createStatsCounter(anyString(), anyString())).thenReturn(mock(StatsCounter.class));
+        when(statsFactory.createStatsCounter("cfStateCounters", "flushFailures")).thenReturn(flushFailuresCounter);
+        stateService = new AbstractCalculatedFieldStateService() {
+            @Override
+            public void init(PartitionedQueueConsumerManager<TbProtoQueueMsg<ToCalculatedFieldMsg>> eventConsumer) {
+            }
+
+            @Override
+            protected void doPersist(CalculatedFieldEntityCtxId stateId, CalculatedFieldStateProto stateMsgProto, TbCallback callback) {
+            }
+
+            @Override
+            protected void doRemove(CalculatedFieldEntityCtxId stateId, TbCallback callback) {
+            }
+
+            @Override
+            protected void doPersistBatch(Map<CalculatedFieldEntityCtxId, CalculatedFieldStateProto> states) {
+                persistAttempts.add(new HashMap<>(states));
+                if (failuresToSimulate > 0) {
+                    failuresToSimulate--;
+                    throw new RuntimeException("Storage is not available");
+                }
+            }
+        };
+        ReflectionTestUtils.setField(stateService, "statsFactory", statsFactory);
+        ReflectionTestUtils.setField(stateService, "stateMemoryService", stateMemoryService);
+        // long enough for the scheduled flush not to interfere with the test
+        ReflectionTestUtils.setField(stateService, "stateFlushInterval", 60_000L);
+        ReflectionTestUtils.invokeMethod(stateService, "initStats");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ScheduledExecutorService flushScheduler = (ScheduledExecutorService) ReflectionTestUtils.getField(stateService, "flushScheduler");
+        flushScheduler.shutdownNow();
+    }
+
+    @Test
+    void testStatesArePersistedOnNextFlushAfterFailure() {
+        CalculatedFieldEntityCtxId stateId = newStateId();
+        TbCallback callback = mock(TbCallback.class);
+        stateService.deleteState(stateId, callback);
+        verify(callback, never()).onSuccess();
+
+        failuresToSimulate = 1;
+        stateService.flushPendingStates(true);
+
+        assertThat(persistAttempts).hasSize(1);
+        assertThat(getPendingStates()).containsOnlyKeys(stateId);
+        verify(flushFailuresCounter).increment();
+        verify(callback, never()).onSuccess();
+
+        stateService.flushPendingStates(true);
+
+        assertThat(persistAttempts).hasSize(2);
+        assertThat(persistAttempts.get(1)).containsOnlyKeys(stateId);
+        assertThat(getPendingStates()).isEmpty();
+        verify(callback).onSuccess();
+    }
+
+    @Test
+    void testCallbacksOfMergedUpdatesAreCompletedAfterPersistence() {
+        CalculatedFieldEntityCtxId stateId = newStateId();
+        TbCallback first = mock(TbCallback.class);
+        TbCallback second = mock(TbCallback.class);
+        stateService.deleteState(stateId, first);
+        stateService.deleteState(stateId, second);
+
+        failuresToSimulate = 1;
+        stateService.flushPendingStates(true);
+        TbCallback third = mock(TbCallback.class);
+        stateService.deleteState(stateId, third);
+
+        verify(first, never()).onSuccess();
+        verify(second, never()).onSuccess();
+        verify(third, never()).onSuccess();
+
+        stateService.flushPendingStates(true);
+
+        assertThat(persistAttempts).hasSize(2);
+        assertThat(getPendingStates()).isEmpty();
+        verify(first).onSuccess();
+        verify(second).onSuccess();
+        verify(third).onSuccess();
+    }
+
+    @Test
+    void testScheduledFlushIsDelayedAfterFailure() {
+        CalculatedFieldEntityCtxId stateId = newStateId();
+        stateService.deleteState(stateId, TbCallback.EMPTY);
+
+        failuresToSimulate = 1;
+        stateService.flushPendingStates(false);
+        stateService.flushPendingStates(false);
+
+        assertThat(persistAttempts).hasSize(1);
+        assertThat(getPendingStates()).containsOnlyKeys(stateId);
+
+        ReflectionTestUtils.setField(stateService, "nextFlushTs", 0L);
+        stateService.flushPendingStates(false);
+
+        assertThat(persistAttempts).hasSize(2);
+        assertThat(getPendingStates()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<CalculatedFieldEntityCtxId, ?> getPendingStates() {
+        return (Map<CalculatedFieldEntityCtxId, ?>) ReflectionTestUtils.getField(stateService, "pendingStates");
+    }
+
+    private CalculatedFieldEntityCtxId newStateId() {
+        return new CalculatedFieldEntityCtxId(TenantId.fromUUID(UUID.randomUUID()),
+                new CalculatedFieldId(UUID.randomUUID()), new DeviceId(UUID.randomUUID()));
+    }
+
+}
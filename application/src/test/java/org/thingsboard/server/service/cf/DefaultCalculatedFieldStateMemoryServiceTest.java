@@ -0,0 +1,167 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cf;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.TbActorId;
+import org.thingsboard.server.actors.TbActorSystem;
+import org.thingsboard.server.actors.TbCalculatedFieldEntityActorId;
+import org.thingsboard.server.actors.calculatedField.CalculatedFieldStateEvictMsg;
+import org.thingsboard.server.common.data.cf.CalculatedFieldType;
+import org.thingsboard.server.common.data.id.CalculatedFieldId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.TbActorMsg;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.service.cf.ctx.CalculatedFieldEntityCtxId;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DefaultCalculatedFieldStateMemoryServiceTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @Mock
+    private ActorSystemContext actorSystemContext;
+    @Mock
+    private StatsFactory statsFactory;
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final TenantId otherTenantId = TenantId.fromUUID(UUID.randomUUID());
+
+    private DefaultCalculatedFieldStateMemoryService memoryService;
+
+    @BeforeEach
+    void setUp() {
+        when(statsFactory.createStatsCounter(anyString(), anyString())).thenReturn(mock(StatsCounter.class));
+        memoryService = new DefaultCalculatedFieldStateMemoryService();
+        ReflectionTestUtils.setField(memoryService, "actorSystemContext", actorSystemContext);
+        ReflectionTestUtils.setField(memoryService, "statsFactory", statsFactory);
+        ReflectionTestUtils.invokeMethod(memoryService, "init");
+        ReflectionTestUtils.setField(memoryService, "tenantStateMemoryLimitMb", 1L);
+    }
+
+    @Test
+    void testStatesSizeIsAggregatedPerTenantAndType() {
+        CalculatedFieldEntityCtxId simpleStateId = newStateId(tenantId);
+        CalculatedFieldEntityCtxId alarmStateId = newStateId(tenantId);
+        CalculatedFieldEntityCtxId otherTenantStateId = newStateId(otherTenantId);
+
+        memoryService.onStateUpdated(simpleStateId, CalculatedFieldType.SIMPLE, 100);
+        memoryService.onStateUpdated(alarmStateId, CalculatedFieldType.ALARM, 200);
+        memoryService.onStateUpdated(otherTenantStateId, CalculatedFieldType.SIMPLE, 50);
+        memoryService.onStateUpdated(simpleStateId, CalculatedFieldType.SIMPLE, 150);
+
+        assertThat(memoryService.getTenantStatesSize(tenantId)).isEqualTo(350);
+        assertThat(memoryService.getTenantStatesSize(otherTenantId)).isEqualTo(50);
+        assertThat(memoryService.getStatesSize(CalculatedFieldType.SIMPLE)).isEqualTo(200);
+        assertThat(memoryService.getStatesSize(CalculatedFieldType.ALARM)).isEqualTo(200);
+
+        memoryService.onStateUnloaded(simpleStateId);
+        memoryService.onStateUnloaded(simpleStateId);
+
+        assertThat(memoryService.getTenantStatesSize(tenantId)).isEqualTo(200);
+        assertThat(memoryService.getStatesSize(CalculatedFieldType.SIMPLE)).isEqualTo(50);
+    }
+
+    @Test
+    void testTenantIsRemovedWhenLastStateIsUnloaded() {
+        CalculatedFieldEntityCtxId firstStateId = newStateId(tenantId);
+        CalculatedFieldEntityCtxId secondStateId = newStateId(tenantId);
+        memoryService.onStateUpdated(firstStateId, CalculatedFieldType.SIMPLE, 100);
+        memoryService.onStateUpdated(secondStateId, CalculatedFieldType.SIMPLE, 100);
+
+        memoryService.onStateUnloaded(firstStateId);
+        assertThat(getTenantStates()).containsOnlyKeys(tenantId);
+
+        memoryService.onStateEvicted(secondStateId);
+        assertThat(getTenantStates()).isEmpty();
+        assertThat(memoryService.getTenantStatesSize(tenantId)).isZero();
+
+        memoryService.onStateReloaded(secondStateId, CalculatedFieldType.SIMPLE, 100);
+        assertThat(memoryService.getTenantStatesSize(tenantId)).isEqualTo(100);
+    }
+
+    @Test
+    void testEvictableStatesAreEvictedWhenTenantExceedsMemoryLimit() {
+        CalculatedFieldStateService stateService = mock(CalculatedFieldStateService.class);
+        when(stateService.isStateReloadSupported()).thenReturn(true);
+        when(actorSystemContext.getCalculatedFieldStateService()).thenReturn(stateService);
+        TbActorSystem actorSystem = mock(TbActorSystem.class);
+        when(actorSystemContext.getActorSystem()).thenReturn(actorSystem);
+
+        CalculatedFieldEntityCtxId alarmStateId = newStateId(tenantId);
+        CalculatedFieldEntityCtxId firstSimpleStateId = newStateId(tenantId);
+        CalculatedFieldEntityCtxId secondSimpleStateId = newStateId(tenantId);
+        CalculatedFieldEntityCtxId otherTenantStateId = newStateId(otherTenantId);
+        memoryService.onStateUpdated(alarmStateId, CalculatedFieldType.ALARM, MB);
+        memoryService.onStateUpdated(firstSimpleStateId, CalculatedFieldType.SIMPLE, 600 * 1024);
+        memoryService.onStateUpdated(secondSimpleStateId, CalculatedFieldType.SCRIPT, 600 * 1024);
+        memoryService.onStateUpdated(otherTenantStateId, CalculatedFieldType.SIMPLE, 600 * 1024);
+
+        memoryService.checkMemoryLimits();
+
+        ArgumentCaptor<TbActorId> actorIdCaptor = ArgumentCaptor.forClass(TbActorId.class);
+        ArgumentCaptor<TbActorMsg> msgCaptor = ArgumentCaptor.forClass(TbActorMsg.class);
+        verify(actorSystem, times(2)).tell(actorIdCaptor.capture(), msgCaptor.capture());
+        assertThat(actorIdCaptor.getAllValues()).containsExactlyInAnyOrder(
+                new TbCalculatedFieldEntityActorId(firstSimpleStateId.entityId()),
+                new TbCalculatedFieldEntityActorId(secondSimpleStateId.entityId()));
+        assertThat(msgCaptor.getAllValues()).extracting(msg -> ((CalculatedFieldStateEvictMsg) msg).getId())
+                .containsExactlyInAnyOrder(firstSimpleStateId, secondSimpleStateId);
+    }
+
+    @Test
+    void testStatesAreNotEvictedWhenStorageDoesNotSupportReload() {
+        CalculatedFieldStateService stateService = mock(CalculatedFieldStateService.class);
+        when(actorSystemContext.getCalculatedFieldStateService()).thenReturn(stateService);
+
+        memoryService.onStateUpdated(newStateId(tenantId), CalculatedFieldType.SIMPLE, 2 * MB);
+        memoryService.checkMemoryLimits();
+
+        verify(actorSystemContext, never()).getActorSystem();
+        assertThat(memoryService.getTenantStatesSize(tenantId)).isEqualTo(2 * MB);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<TenantId, ?> getTenantStates() {
+        return (Map<TenantId, ?>) ReflectionTestUtils.getField(memoryService, "tenantStates");
+    }
+
+    private CalculatedFieldEntityCtxId newStateId(TenantId tenantId) {
+        return new CalculatedFieldEntityCtxId(tenantId, new CalculatedFieldId(UUID.randomUUID()), new DeviceId(UUID.randomUUID()));
+    }
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cf.ctx.state;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.data.cf.configuration.aggregation.AggFunction;
+import org.thingsboard.server.service.cf.ctx.state.aggregation.function.AggEntry;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AggEntryTest {
+
+    private static final List<Object> VALUES = List.of(3.5, -1, "7.25", 0, 10L, 3.5, "2");
+
+    @Test
+    void testIncrementalRemoveMatchesRecalculation() {
+        for (AggFunction function : AggFunction.values()) {
+            AggEntry incremental = AggEntry.createAggFunction(function);
+            VALUES.forEach(incremental::update);
+            incremental.remove(10L);
+            incremental.remove(3.5);
+            incremental.remove("7.25");
+
+            AggEntry recalculated = AggEntry.createAggFunction(function);
+            List.of(3.5, -1, 0, "2").forEach(recalculated::update);
+
+            assertThat(incremental.result(2)).as(function.name()).isEqualTo(recalculated.result(2));
+        }
+    }
+
+    @Test
+    void testResultAfterAllValuesRemoved() {
+        for (AggFunction function : AggFunction.values()) {
+            AggEntry aggEntry = AggEntry.createAggFunction(function);
+            VALUES.forEach(aggEntry::update);
+            VALUES.forEach(aggEntry::remove);
+
+            assertThat(aggEntry.result(2)).as(function.name()).isEqualTo(AggEntry.createAggFunction(function).result(2));
+        }
+    }
+
+    @Test
+    void testMinMaxAfterExtremumRemoved() {
+        AggEntry max = AggEntry.createAggFunction(AggFunction.MAX);
+        AggEntry min = AggEntry.createAggFunction(AggFunction.MIN);
+        VALUES.forEach(value -> {
+            max.update(value);
+            min.update(value);
+        });
+        max.remove(10L);
+        min.remove(-1);
+
+        assertThat(max.result(2)).isEqualTo(Optional.of(7.25));
+        assertThat(min.result(2)).isEqualTo(Optional.of(0.0));
+    }
+
+    @Test
+    void testCountUniqueKeepsItemUntilAllOccurrencesRemoved() {
+        AggEntry countUnique = AggEntry.createAggFunction(AggFunction.COUNT_UNIQUE);
+        VALUES.forEach(countUnique::update);
+        assertThat(countUnique.result(null)).isEqualTo(Optional.of(6));
+
+        countUnique.remove(3.5);
+        assertThat(countUnique.result(null)).isEqualTo(Optional.of(6));
+
+        countUnique.remove(3.5);
+        assertThat(countUnique.result(null)).isEqualTo(Optional.of(5));
+    }
+
+}
@@ -174,6 +174,37 @@ public class RelatedEntitiesAggregationCalculatedFieldStateTest {
         safeAssert(values.get("totalSpaces"), "2");
     }
 
+    @Test
+    void testPerformCalculationAppliesRelatedEntityUpdatesIncrementally() throws Exception {
+        state.update(arguments(), ctx);
+        JsonNode values = performCalculation();
+        safeAssert(values.get("freeSpaces"), "1");
+        safeAssert(values.get("occupiedSpaces"), "1");
+        safeAssert(values.get("totalSpaces"), "2");
+
+        Map<EntityId, ArgumentEntry> entityArguments = new HashMap<>();
+        entityArguments.put(device1, new SingleValueArgumentEntry(ts - 50, new BooleanDataEntry("occupied", false), 24L));
+        state.update(Map.of("oc", new RelatedEntitiesArgumentEntry(entityArguments, false)), ctx);
+        values = performCalculation();
+        safeAssert(values.get("freeSpaces"), "2");
+        safeAssert(values.get("occupiedSpaces"), "0");
+        safeAssert(values.get("totalSpaces"), "2");
+
+        state.cleanupEntityData(device2);
+        values = performCalculation();
+        safeAssert(values.get("freeSpaces"), "1");
+        safeAssert(values.get("occupiedSpaces"), "0");
+        safeAssert(values.get("totalSpaces"), "1");
+    }
+
+    private JsonNode performCalculation() throws Exception {
+        state.setLastMetricsEvalTs(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(70));
+        // non-empty updated args, otherwise the calculation is treated as a CF update that requires a full resync
+        TelemetryCalculatedFieldResult calculatedFieldResult = (TelemetryCalculatedFieldResult) state.performCalculation(state.getArguments(), ctx).get();
+        assertThat(calculatedFieldResult.isEmpty()).isFalse();
+        return calculatedFieldResult.getResult().get("values");
+    }
+
     private void safeAssert(JsonNode node, String expected) {
         assertThat(node).isNotNull();
         assertThat(node.asText()).isEqualTo(expected);
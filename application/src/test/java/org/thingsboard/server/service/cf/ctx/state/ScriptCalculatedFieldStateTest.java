@@ -194,7 +194,7 @@ public class ScriptCalculatedFieldStateTest {
         values.put(ts - 30, 12.0);
         values.put(ts - 20, 17.0);
 
-        argumentEntry.setTsRecords(values);
+        argumentEntry.setTsRecords(TsDoubleRingBuffer.of(values));
         return argumentEntry;
     }
 
@@ -0,0 +1,190 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cf.ctx.state;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.script.api.tbel.TbelCfTsDoubleVal;
+import org.thingsboard.script.api.tbel.TbelCfTsRollingArg;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class TsDoubleRingBufferTest {
+
+    @Test
+    void testValuesAreSortedByTs() {
+        TsDoubleRingBuffer buffer = new TsDoubleRingBuffer(2);
+        buffer.put(30, 3.0);
+        buffer.put(10, 1.0);
+        buffer.put(40, 4.0);
+        buffer.put(20, 2.0);
+        buffer.put(30, 33.0);
+
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(buffer.getLastTs()).isEqualTo(40);
+        assertThat(buffer.get(30)).isEqualTo(33.0);
+        assertThat(buffer.get(35)).isNull();
+        assertThat(buffer.toMap()).isEqualTo(Map.of(10L, 1.0, 20L, 2.0, 30L, 33.0, 40L, 4.0));
+    }
+
+    @Test
+    void testRemoveOldestValuesAfterWrapAround() {
+        TsDoubleRingBuffer buffer = new TsDoubleRingBuffer(4);
+        for (int i = 1; i <= 10; i++) {
+            buffer.put(i * 10, i);
+            buffer.retainLast(3);
+        }
+        assertThat(buffer.toMap()).isEqualTo(Map.of(80L, 8.0, 90L, 9.0, 100L, 10.0));
+
+        buffer.put(85, 8.5);
+        buffer.removeOlderThan(85);
+        assertThat(buffer.toMap()).isEqualTo(Map.of(85L, 8.5, 90L, 9.0, 100L, 10.0));
+
+        var values = buffer.toTbelCfValues();
+        buffer.put(110, 11.0);
+        assertThat(values).hasSize(3);
+        assertThat(values.getTs(0)).isEqualTo(85);
+        assertThat(values.getValue(2)).isEqualTo(10.0);
+    }
+
+    @Test
+    void testViewIsNotAffectedByFurtherUpdates() {
+        TsDoubleRingBuffer buffer = new TsDoubleRingBuffer(4);
+        buffer.put(10, 1.0);
+        buffer.put(20, 2.0);
+        buffer.put(30, 3.0);
+
+        var appended = buffer.toTbelCfValues();
+        buffer.put(40, 4.0);
+        var wrapped = buffer.toTbelCfValues();
+        buffer.removeFirst();
+        buffer.removeFirst();
+        buffer.put(50, 5.0);
+        buffer.put(60, 6.0);
+        var replaced = buffer.toTbelCfValues();
+        buffer.put(50, 55.0);
+        buffer.put(45, 4.5);
+
+        assertThat(appended).extracting(TbelCfTsDoubleVal::getTs).containsExactly(10L, 20L, 30L);
+        assertThat(wrapped).extracting(TbelCfTsDoubleVal::getValue).containsExactly(1.0, 2.0, 3.0, 4.0);
+        assertThat(replaced).extracting(TbelCfTsDoubleVal::getValue).containsExactly(3.0, 4.0, 5.0, 6.0);
+        assertThat(buffer.toMap()).isEqualTo(Map.of(30L, 3.0, 40L, 4.0, 45L, 4.5, 50L, 55.0, 60L, 6.0));
+    }
+
+    @Test
+    void testWindowWithHeadroomIsNotCopiedOnEveryView() {
+        int limit = 100;
+        TsDoubleRingBuffer buffer = TsDoubleRingBuffer.forWindow(limit);
+        for (int i = 0; i < limit; i++) {
+            buffer.put(i, i);
+        }
+        int copies = 0;
+        Object arrays = ReflectionTestUtils.getField(buffer, "values");
+        for (int i = limit; i < 10 * limit; i++) {
+            var view = buffer.toTbelCfValues();
+            buffer.put(i, i);
+            buffer.retainLast(limit);
+            Object current = ReflectionTestUtils.getField(buffer, "values");
+            if (current != arrays) {
+                copies++;
+                arrays = current;
+            }
+            assertThat(view.getValue(0)).isEqualTo(i - limit);
+            assertThat(view.getValue(limit - 1)).isEqualTo(i - 1);
+        }
+        // a buffer without spare capacity copies the window on every other append
+        assertThat(copies).isLessThan(limit / 2);
+    }
+
+    @Test
+    void testExtremesAreTrackedWhenOldestValuesAreRemoved() {
+        TsDoubleRingBuffer buffer = new TsDoubleRingBuffer();
+        for (int i = 0; i < 100; i++) {
+            buffer.put(i, i);
+            buffer.retainLast(10);
+            var stats = buffer.getStats();
+            assertThat(stats.min()).isEqualTo(Math.max(0, i - 9));
+            assertThat(stats.max()).isEqualTo(i);
+        }
+        for (int i = 100; i < 200; i++) {
+            buffer.put(i, -i);
+            buffer.retainLast(10);
+            assertThat(buffer.getStats().max()).isEqualTo(i < 109 ? 99 : -(i - 9));
+        }
+    }
+
+    @Test
+    void testEqualsIgnoresPhysicalLayout() {
+        TsDoubleRingBuffer wrapped = new TsDoubleRingBuffer(3);
+        wrapped.put(1, 1.0);
+        wrapped.put(2, 2.0);
+        wrapped.put(3, 3.0);
+        wrapped.removeFirst();
+        wrapped.put(4, 4.0);
+
+        TsDoubleRingBuffer plain = TsDoubleRingBuffer.of(Map.of(2L, 2.0, 3L, 3.0, 4L, 4.0));
+        assertThat(wrapped).isEqualTo(plain);
+        assertThat(wrapped.hashCode()).isEqualTo(plain.hashCode());
+    }
+
+    @Test
+    void testIncrementalStatsMatchFullRecalculation() {
+        Random random = new Random(42);
+        TsDoubleRingBuffer buffer = new TsDoubleRingBuffer();
+        for (int i = 0; i < 10000; i++) {
+            long ts = random.nextInt(10) == 0 ? i - random.nextInt(50) : i;
+            double value = random.nextInt(100) == 0 ? Double.NaN : random.nextGaussian() * 100;
+            buffer.put(ts, value);
+            buffer.retainLast(500);
+            buffer.removeOlderThan(i - 400);
+
+            if (i % 500 == 0) {
+                assertStatsMatch(buffer);
+            }
+        }
+        assertStatsMatch(buffer);
+    }
+
+    private void assertClose(double actual, double expected) {
+        if (Double.isNaN(expected)) {
+            assertThat(actual).isNaN();
+        } else {
+            assertThat(actual).isCloseTo(expected, within(1e-6));
+        }
+    }
+
+    private void assertStatsMatch(TsDoubleRingBuffer buffer) {
+        List<TbelCfTsDoubleVal> values = new ArrayList<>(buffer.toTbelCfValues());
+        TbelCfTsRollingArg expected = new TbelCfTsRollingArg(60000, values);
+        TbelCfTsRollingArg actual = new TbelCfTsRollingArg(60000, buffer.toTbelCfValues(), buffer.getStats());
+        for (boolean ignoreNaN : new boolean[]{true, false}) {
+            assertThat(actual.count(ignoreNaN)).isEqualTo(expected.count(ignoreNaN));
+            assertClose(actual.sum(ignoreNaN), expected.sum(ignoreNaN));
+            assertClose(actual.mean(ignoreNaN), expected.mean(ignoreNaN));
+            assertClose(actual.std(ignoreNaN), expected.std(ignoreNaN));
+            assertThat(actual.min(ignoreNaN)).isEqualTo(expected.min(ignoreNaN));
+            assertThat(actual.max(ignoreNaN)).isEqualTo(expected.max(ignoreNaN));
+        }
+    }
+
+}
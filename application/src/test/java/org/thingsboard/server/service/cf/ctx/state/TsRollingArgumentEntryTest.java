@@ -46,7 +46,7 @@ public class TsRollingArgumentEntryTest {
         values.put(ts - 30, 12.0);
         values.put(ts - 20, 17.0);
 
-        entry = new TsRollingArgumentEntry(5, 30000L, values);
+        entry = new TsRollingArgumentEntry(5, 30000L, TsDoubleRingBuffer.of(values));
     }
 
     @Test
@@ -59,7 +59,7 @@ public class TsRollingArgumentEntryTest {
         SingleValueArgumentEntry newEntry = new SingleValueArgumentEntry(ts - 10, new DoubleDataEntry("key", 23.0), 123L);
 
         assertThat(entry.updateEntry(newEntry, ctx)).isTrue();
-        assertThat(entry.getTsRecords()).hasSize(4);
+        assertThat(entry.getTsRecords().size()).isEqualTo(4);
         assertThat(entry.getTsRecords().get(ts - 10)).isEqualTo(23.0);
     }
 
@@ -69,11 +69,11 @@ public class TsRollingArgumentEntryTest {
         TreeMap<Long, Double> values = new TreeMap<>();
         values.put(ts - 10, 7.0);
         values.put(ts - 5, 1.0);
-        newEntry.setTsRecords(values);
+        newEntry.setTsRecords(TsDoubleRingBuffer.of(values));
 
         assertThat(entry.updateEntry(newEntry, ctx)).isTrue();
-        assertThat(entry.getTsRecords()).hasSize(5);
-        assertThat(entry.getTsRecords()).isEqualTo(Map.of(
+        assertThat(entry.getTsRecords().size()).isEqualTo(5);
+        assertThat(entry.getTsRecords().toMap()).isEqualTo(Map.of(
                 ts - 40, 10.0,
                 ts - 30, 12.0,
                 ts - 20, 17.0,
@@ -97,12 +97,12 @@ public class TsRollingArgumentEntryTest {
         values.put(ts - 40000, 4.0);// will not be used for calculation
         values.put(ts - 45000, 2.0);// will not be used for calculation
         values.put(ts - 5, 0.0);
-        newEntry.setTsRecords(values);
+        newEntry.setTsRecords(TsDoubleRingBuffer.of(values));
 
         entry = new TsRollingArgumentEntry(3, 30000L);
         assertThat(entry.updateEntry(newEntry, ctx)).isTrue();
-        assertThat(entry.getTsRecords()).hasSize(1);
-        assertThat(entry.getTsRecords()).isEqualTo(Map.of(
+        assertThat(entry.getTsRecords().size()).isEqualTo(1);
+        assertThat(entry.getTsRecords().toMap()).isEqualTo(Map.of(
                 ts - 5, 0.0
         ));
     }
@@ -115,12 +115,12 @@ public class TsRollingArgumentEntryTest {
         values.put(ts - 18, 0.0);
         values.put(ts - 16, 0.0);
         values.put(ts - 14, 0.0);
-        newEntry.setTsRecords(values);
+        newEntry.setTsRecords(TsDoubleRingBuffer.of(values));
 
         entry = new TsRollingArgumentEntry(3, 30000L);
         assertThat(entry.updateEntry(newEntry, ctx)).isTrue();
-        assertThat(entry.getTsRecords()).hasSize(3);
-        assertThat(entry.getTsRecords()).isEqualTo(Map.of(
+        assertThat(entry.getTsRecords().size()).isEqualTo(3);
+        assertThat(entry.getTsRecords().toMap()).isEqualTo(Map.of(
                 ts - 18, 0.0,
                 ts - 16, 0.0,
                 ts - 14, 0.0
@@ -28,11 +28,14 @@ import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
 import org.thingsboard.server.common.data.kv.JsonDataEntry;
 import org.thingsboard.server.common.data.kv.StringDataEntry;
 import org.thingsboard.server.gen.transport.TransportProtos.CalculatedFieldStateProto;
+import org.thingsboard.server.gen.transport.TransportProtos.TsDoubleValProto;
+import org.thingsboard.server.gen.transport.TransportProtos.TsRollingArgumentProto;
 import org.thingsboard.server.service.cf.ctx.CalculatedFieldEntityCtxId;
 import org.thingsboard.server.service.cf.ctx.state.ArgumentEntry;
 import org.thingsboard.server.service.cf.ctx.state.CalculatedFieldCtx;
 import org.thingsboard.server.service.cf.ctx.state.CalculatedFieldState;
 import org.thingsboard.server.service.cf.ctx.state.SingleValueArgumentEntry;
+import org.thingsboard.server.service.cf.ctx.state.TsRollingArgumentEntry;
 import org.thingsboard.server.service.cf.ctx.state.geofencing.GeofencingArgumentEntry;
 import org.thingsboard.server.service.cf.ctx.state.geofencing.GeofencingCalculatedFieldState;
 import org.thingsboard.server.service.cf.ctx.state.geofencing.GeofencingZoneState;
@@ -58,6 +61,31 @@ class CalculatedFieldUtilsTest {
     private static final CalculatedFieldId CF_ID = CalculatedFieldId.fromString("ec0e91b9-6f27-4e93-946a-5fbc2707d8bc");
     private static final DeviceId DEVICE_ID = DeviceId.fromString("1e03bd38-2010-4739-9362-160c288e36c4");
 
+    @Test
+    void fromRollingArgumentProto_shouldReadPackedAndLegacyValues() {
+        TsRollingArgumentProto legacyProto = TsRollingArgumentProto.newBuilder()
+                .setKey("temperature").setLimit(10).setTimeWindow(60000)
+                .addTsValue(TsDoubleValProto.newBuilder().setTs(1000).setValue(1.5).build())
+                .addTsValue(TsDoubleValProto.newBuilder().setTs(2000).setValue(2.5).build())
+                .build();
+
+        TsRollingArgumentEntry legacyEntry = CalculatedFieldUtils.fromRollingArgumentProto(legacyProto);
+
+        assertThat(legacyEntry.getTsRecords().toMap()).isEqualTo(Map.of(1000L, 1.5, 2000L, 2.5));
+        assertThat(legacyEntry.getLimit()).isEqualTo(10);
+        assertThat(legacyEntry.getTimeWindow()).isEqualTo(60000L);
+
+        TsRollingArgumentProto proto = CalculatedFieldUtils.toRollingArgumentProto("temperature", legacyEntry);
+
+        assertThat(proto.getTsList()).containsExactly(1000L, 2000L);
+        assertThat(proto.getValueList()).containsExactly(1.5, 2.5);
+        assertThat(proto.getTsValueList()).extracting(TsDoubleValProto::getTs).containsExactly(1000L, 2000L);
+        assertThat(CalculatedFieldUtils.fromRollingArgumentProto(proto).getTsRecords()).isEqualTo(legacyEntry.getTsRecords());
+
+        TsRollingArgumentProto legacyReaderProto = proto.toBuilder().clearTs().clearValue().build();
+        assertThat(CalculatedFieldUtils.fromRollingArgumentProto(legacyReaderProto).getTsRecords()).isEqualTo(legacyEntry.getTsRecords());
+    }
+
     @Test
     void toProtoAndFromProto_shouldMapGeofencingArgumentsAndZones() {
         // given
@@ -37,6 +37,9 @@ public abstract class BaseCalculatedFieldConfiguration implements ExpressionBase
         if (arguments.values().stream().anyMatch(Argument::hasRelationQuerySource)) {
             throw new IllegalArgumentException("Calculated field with type: '" + getType() + "' doesn't support relation query configuration!");
         }
+        if (this instanceof HasCoalescingIntervalConfig coalescingConfig && coalescingConfig.getCoalescingIntervalMs() < 0) {
+            throw new IllegalArgumentException("Coalescing interval can't be negative!");
+        }
     }
 
     protected void baseCalculatedFieldRestriction() {
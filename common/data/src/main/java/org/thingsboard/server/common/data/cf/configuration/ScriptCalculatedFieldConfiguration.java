@@ -23,7 +23,9 @@ import org.thingsboard.server.common.data.cf.CalculatedFieldType;
 @Data
 @Schema
 @EqualsAndHashCode(callSuper = true)
-public class ScriptCalculatedFieldConfiguration extends BaseCalculatedFieldConfiguration implements ArgumentsBasedCalculatedFieldConfiguration {
+public class ScriptCalculatedFieldConfiguration extends BaseCalculatedFieldConfiguration implements ArgumentsBasedCalculatedFieldConfiguration, HasCoalescingIntervalConfig {
+
+    private long coalescingIntervalMs;
 
     @Override
     public CalculatedFieldType getType() {
@@ -23,9 +23,10 @@ import org.thingsboard.server.common.data.cf.CalculatedFieldType;
 @Data
 @Schema
 @EqualsAndHashCode(callSuper = true)
-public class SimpleCalculatedFieldConfiguration extends BaseCalculatedFieldConfiguration implements ExpressionBasedCalculatedFieldConfiguration, HasUseLatestTsConfig {
+public class SimpleCalculatedFieldConfiguration extends BaseCalculatedFieldConfiguration implements ExpressionBasedCalculatedFieldConfiguration, HasUseLatestTsConfig, HasCoalescingIntervalConfig {
 
     private boolean useLatestTs;
+    private long coalescingIntervalMs;
 
     @Override
     public CalculatedFieldType getType() {
@@ -44,6 +44,8 @@ public class ProtoTransportPayloadConfiguration implements TransportPayloadTypeC
 
     private boolean enableCompatibilityWithJsonPayloadFormat;
     private boolean useJsonPayloadFormatForDefaultDownlinkTopics;
+    // telemetry is published as PostTelemetryMsg and the telemetry proto schema is not used
+    private boolean enableTelemetryPassThrough;
 
     @Schema(
             description = "Transport payload type", requiredMode = Schema.RequiredMode.REQUIRED
@@ -19,6 +19,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityDataQuery;
 
@@ -30,5 +31,6 @@ public class EdqsRequest {
 
     private EntityDataQuery entityDataQuery;
     private EntityCountQuery entityCountQuery;
+    private EntityAggregationQuery entityAggregationQuery;
 
 }
@@ -20,8 +20,11 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
 import org.thingsboard.server.common.data.query.EntityData;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -30,6 +33,7 @@ public class EdqsResponse {
 
     private PageData<EntityData> entityDataQueryResult;
     private Long entityCountQueryResult;
+    private List<EntityAggregationData> entityAggregationQueryResult;
     private String error;
 
 }
@@ -0,0 +1,148 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.data.query;
+
+import org.thingsboard.server.common.data.kv.Aggregation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes {@link EntityAggregationQuery} results in a single pass over the matching entities.
+ * Accumulators with the same aggregations can be merged, e.g. when the entities are processed in parts.
+ */
+public class EntityAggregationAccumulator {
+
+    private final List<EntityAggregationKey> aggregations;
+    private final Map<String, Group> groups = new HashMap<>();
+
+    public EntityAggregationAccumulator(List<EntityAggregationKey> aggregations) {
+        this.aggregations = aggregations != null ? aggregations : List.of();
+    }
+
+    /**
+     * Entities with an empty group value fall into the same group as the ones without the value (null).
+     */
+    public Group getGroup(String groupValue) {
+        if (groupValue != null && groupValue.isEmpty()) {
+            groupValue = null;
+        }
+        return groups.computeIfAbsent(groupValue, v -> new Group(aggregations.size()));
+    }
+
+    public void merge(EntityAggregationAccumulator other) {
+        other.groups.forEach((groupValue, group) -> getGroup(groupValue).merge(group));
+    }
+
+    public List<EntityAggregationData> getResult() {
+        List<EntityAggregationData> result = new ArrayList<>(groups.size());
+        groups.forEach((groupValue, group) -> {
+            List<Double> values = new ArrayList<>(aggregations.size());
+            for (int i = 0; i < aggregations.size(); i++) {
+                values.add(group.getValue(i, aggregations.get(i).getAggregation()));
+            }
+            result.add(new EntityAggregationData(groupValue, group.count, values));
+        });
+        return result;
+    }
+
+    public static Double toNumber(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        if ("true".equalsIgnoreCase(value)) {
+            return 1.0;
+        } else if ("false".equalsIgnoreCase(value)) {
+            return 0.0;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static class Group {
+
+        private long count;
+        private final long[] valuesCount;
+        private final double[] sum;
+        private final double[] min;
+        private final double[] max;
+
+        private Group(int size) {
+            this.valuesCount = new long[size];
+            this.sum = new double[size];
+            this.min = new double[size];
+            this.max = new double[size];
+        }
+
+        public void addEntity() {
+            count++;
+        }
+
+        public void addValue(int aggregationIdx, double value) {
+            if (valuesCount[aggregationIdx] == 0) {
+                min[aggregationIdx] = value;
+                max[aggregationIdx] = value;
+            } else {
+                min[aggregationIdx] = Math.min(min[aggregationIdx], value);
+                max[aggregationIdx] = Math.max(max[aggregationIdx], value);
+            }
+            valuesCount[aggregationIdx]++;
+            sum[aggregationIdx] += value;
+        }
+
+        private void merge(Group other) {
+            count += other.count;
+            for (int i = 0; i < valuesCount.length; i++) {
+                if (other.valuesCount[i] == 0) {
+                    continue;
+                }
+                if (valuesCount[i] == 0) {
+                    min[i] = other.min[i];
+                    max[i] = other.max[i];
+                } else {
+                    min[i] = Math.min(min[i], other.min[i]);
+                    max[i] = Math.max(max[i], other.max[i]);
+                }
+                valuesCount[i] += other.valuesCount[i];
+                sum[i] += other.sum[i];
+            }
+        }
+
+        private Double getValue(int aggregationIdx, Aggregation aggregation) {
+            long n = valuesCount[aggregationIdx];
+            if (aggregation == Aggregation.COUNT) {
+                return (double) n;
+            }
+            if (n == 0) {
+                return null;
+            }
+            return switch (aggregation) {
+                case MIN -> min[aggregationIdx];
+                case MAX -> max[aggregationIdx];
+                case SUM -> sum[aggregationIdx];
+                case AVG -> sum[aggregationIdx] / n;
+                default -> null;
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.data.query;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntityAggregationData {
+
+    @Schema(description = "Value of the group-by key. Null for entities without the value or if the query has no group-by key")
+    private String groupValue;
+    @Schema(description = "Number of entities in the group")
+    private long count;
+    @Schema(description = "Aggregated values in the order of the query aggregations. Null if the group has no values for the aggregated key")
+    private List<Double> values;
+
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.data.query;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Schema
+@ToString(callSuper = true)
+public class EntityAggregationQuery extends EntityCountQuery {
+
+    @Schema(description = "Key to group the matching entities by. All entities form a single group if not set")
+    @Getter
+    private EntityKey groupByKey;
+
+    @Schema(description = "Aggregations to compute for each group")
+    @Getter
+    private List<EntityAggregationKey> aggregations;
+
+    public EntityAggregationQuery() {
+    }
+
+    public EntityAggregationQuery(EntityFilter entityFilter, List<KeyFilter> keyFilters,
+                                  EntityKey groupByKey, List<EntityAggregationKey> aggregations) {
+        super(entityFilter, keyFilters);
+        this.groupByKey = groupByKey;
+        this.aggregations = aggregations;
+    }
+
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.data.cf.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HasCoalescingIntervalConfigTest {
+
+    @Test
+    void coalescingIsDisabledByDefault() {
+        assertThat(new SimpleCalculatedFieldConfiguration().getCoalescingIntervalMs()).isZero();
+        assertThat(new ScriptCalculatedFieldConfiguration().getCoalescingIntervalMs()).isZero();
+    }
+
+    @Test
+    void validateDoesNotThrowAnyExceptionWhenCoalescingIntervalIsPositive() {
+        var cfg = new SimpleCalculatedFieldConfiguration();
+        cfg.setArguments(Map.of());
+        cfg.setCoalescingIntervalMs(500);
+
+        assertThatCode(cfg::validate).doesNotThrowAnyException();
+    }
+
+    @Test
+    void validateShouldThrowWhenCoalescingIntervalIsNegative() {
+        var cfg = new ScriptCalculatedFieldConfiguration();
+        cfg.setArguments(Map.of());
+        cfg.setCoalescingIntervalMs(-1);
+
+        assertThatThrownBy(cfg::validate)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Coalescing interval can't be negative!");
+    }
+
+}
@@ -39,6 +39,7 @@ import org.thingsboard.server.common.data.edqs.query.QueryResult;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
 import org.thingsboard.server.common.data.util.CollectionsUtil;
 import org.thingsboard.server.common.msg.queue.ServiceType;
 import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
@@ -229,6 +230,10 @@ public class EdqsProcessor implements TbQueueHandler<TbProtoQueueMsg<ToEdqsMsg>,
                 PageData<QueryResult> result = repository.findEntityDataByQuery(tenantId, customerId,
                         request.getEntityDataQuery(), false);
                 response.setEntityDataQueryResult(result.mapData(QueryResult::toOldEntityData));
+            } else if (request.getEntityAggregationQuery() != null) {
+                List<EntityAggregationData> result = repository.aggregateEntitiesByQuery(tenantId, customerId,
+                        request.getEntityAggregationQuery(), false);
+                response.setEntityAggregationQueryResult(result);
             } else if (request.getEntityCountQuery() != null) {
                 long result = repository.countEntitiesByQuery(tenantId, customerId, request.getEntityCountQuery(), tenantId.isSysTenantId());
                 response.setEntityCountQueryResult(result);
@@ -0,0 +1,44 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.edqs.query;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.thingsboard.server.common.data.query.EntityAggregationKey;
+import org.thingsboard.server.common.data.query.EntityFilter;
+import org.thingsboard.server.common.data.util.CollectionsUtil;
+
+import java.util.List;
+
+@EqualsAndHashCode(callSuper = true)
+@Getter
+public class EdqsAggregationQuery extends EdqsQuery {
+
+    private final DataKey groupByKey;
+    private final List<EntityAggregationKey> aggregations;
+    private final List<DataKey> aggregationKeys;
+
+    @Builder
+    public EdqsAggregationQuery(EntityFilter entityFilter, List<EdqsFilter> keyFilters, DataKey groupByKey,
+                                List<EntityAggregationKey> aggregations, List<DataKey> aggregationKeys) {
+        super(entityFilter, CollectionsUtil.isNotEmpty(keyFilters), keyFilters);
+        this.groupByKey = groupByKey;
+        this.aggregations = aggregations;
+        this.aggregationKeys = aggregationKeys;
+    }
+
+}
@@ -15,8 +15,6 @@
  */
 package org.thingsboard.server.edqs.query.processor;
 
-import lombok.EqualsAndHashCode;
-import lombok.RequiredArgsConstructor;
 import org.thingsboard.server.common.data.permission.QueryContext;
 import org.thingsboard.server.common.data.query.EntityFilter;
 import org.thingsboard.server.common.data.relation.EntitySearchDirection;
@@ -29,10 +27,11 @@ import org.thingsboard.server.edqs.query.SortableEntityData;
 import org.thingsboard.server.edqs.repo.TenantRepo;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -105,69 +104,96 @@ public abstract class AbstractRelationQueryProcessor<T extends EntityFilter> ext
         return result;
     }
 
+    /*
+     * Traverses the relation graph level by level. Each entity is expanded at most once per level
+     * (or only once at all when every level is fetched), so diamond-shaped and deep hierarchies
+     * do not multiply the number of visited paths.
+     */
     private Set<EntityData<?>> getEntitiesSet(RelationsRepo relations) {
-        Set<EntityData<?>> result = new HashSet<>();
-        Set<RelationSearchTask> processed = new HashSet<>();
-        Queue<RelationSearchTask> tasks = new LinkedList<>();
         int maxLvl = getMaxLevel() == 0 ? MAXIMUM_QUERY_LEVEL : Math.max(1, getMaxLevel());
-        for (UUID uuid : getRootEntities()) {
-            tasks.add(new RelationSearchTask(uuid, 0));
+        boolean fromDirection = EntitySearchDirection.FROM.equals(getDirection());
+        if (isFetchLastLevelOnly()) {
+            return getLastLevelEntitiesSet(relations, fromDirection, maxLvl);
+        } else {
+            return getAllLevelsEntitiesSet(relations, fromDirection, maxLvl);
         }
-        while (!tasks.isEmpty()) {
-            RelationSearchTask task = tasks.poll();
-            if (processed.add(task)) {
-                var entityLvl = task.lvl + 1;
-                Set<RelationInfo> entities = EntitySearchDirection.FROM.equals(getDirection()) ? relations.getFrom(task.entityId) : relations.getTo(task.entityId);
-                if (isFetchLastLevelOnly() && entities.isEmpty() && task.previous != null && check(task.previous)) {
-                    result.add(task.previous.getTarget());
-                }
-                for (RelationInfo relationInfo : entities) {
+    }
+
+    private Set<EntityData<?>> getAllLevelsEntitiesSet(RelationsRepo relations, boolean fromDirection, int maxLvl) {
+        Set<EntityData<?>> result = new HashSet<>();
+        Set<UUID> rootEntities = getRootEntities();
+        Set<UUID> expanded = new HashSet<>(rootEntities);
+        List<UUID> currentLevel = new ArrayList<>(rootEntities);
+        for (int lvl = 1; lvl <= maxLvl && !currentLevel.isEmpty(); lvl++) {
+            List<UUID> nextLevel = new ArrayList<>();
+            for (UUID parentId : currentLevel) {
+                for (RelationInfo relationInfo : getRelations(relations, fromDirection, parentId)) {
                     var entity = relationInfo.getTarget();
                     if (entity.isEmpty()) {
                         continue;
                     }
-                    var entityId = entity.getId();
-                    if (isFetchLastLevelOnly()) {
-                        if (entityLvl < maxLvl) {
-                            tasks.add(new RelationSearchTask(entityId, entityLvl, relationInfo));
-                        } else if (entityLvl == maxLvl) {
-                            if (check(relationInfo)) {
-                                if (isMultiRoot()) {
-                                    ctx.getRelatedParentIdMap().put(entity.getId(), task.entityId);
-                                }
-                                result.add(entity);
-                            }
-                        }
-                    } else {
-                        if (check(relationInfo)) {
-                            if (isMultiRoot()) {
-                                ctx.getRelatedParentIdMap().put(entity.getId(), task.entityId);
-                            }
-                            result.add(entity);
-                        }
-                        if (entityLvl < maxLvl) {
-                            tasks.add(new RelationSearchTask(entityId, entityLvl));
+                    if (check(relationInfo)) {
+                        if (isMultiRoot()) {
+                            ctx.getRelatedParentIdMap().put(entity.getId(), parentId);
                         }
+                        result.add(entity);
+                    }
+                    // the first (shallowest) visit of an entity already reaches everything below it
+                    if (lvl < maxLvl && expanded.add(entity.getId())) {
+                        nextLevel.add(entity.getId());
                     }
                 }
             }
+            currentLevel = nextLevel;
         }
         return result;
     }
 
-    protected abstract boolean check(RelationInfo relationInfo);
-
-    @RequiredArgsConstructor
-    @EqualsAndHashCode
-    private static class RelationSearchTask {
-        private final UUID entityId;
-        private final int lvl;
-        private final RelationInfo previous;
-
-        public RelationSearchTask(UUID entityId, int lvl) {
-            this(entityId, lvl, null);
+    private Set<EntityData<?>> getLastLevelEntitiesSet(RelationsRepo relations, boolean fromDirection, int maxLvl) {
+        Set<EntityData<?>> result = new HashSet<>();
+        // entity id -> relations that lead to the entity on the current level
+        Map<UUID, Set<RelationInfo>> currentLevel = new LinkedHashMap<>();
+        for (UUID rootId : getRootEntities()) {
+            currentLevel.put(rootId, Collections.emptySet());
         }
+        for (int lvl = 1; lvl <= maxLvl && !currentLevel.isEmpty(); lvl++) {
+            Map<UUID, Set<RelationInfo>> nextLevel = new LinkedHashMap<>();
+            for (Map.Entry<UUID, Set<RelationInfo>> parent : currentLevel.entrySet()) {
+                UUID parentId = parent.getKey();
+                Set<RelationInfo> entities = getRelations(relations, fromDirection, parentId);
+                if (entities.isEmpty()) {
+                    for (RelationInfo previous : parent.getValue()) {
+                        if (check(previous)) {
+                            result.add(previous.getTarget());
+                            break;
+                        }
+                    }
+                    continue;
+                }
+                for (RelationInfo relationInfo : entities) {
+                    var entity = relationInfo.getTarget();
+                    if (entity.isEmpty()) {
+                        continue;
+                    }
+                    if (lvl < maxLvl) {
+                        nextLevel.computeIfAbsent(entity.getId(), id -> new HashSet<>()).add(relationInfo);
+                    } else if (check(relationInfo)) {
+                        if (isMultiRoot()) {
+                            ctx.getRelatedParentIdMap().put(entity.getId(), parentId);
+                        }
+                        result.add(entity);
+                    }
+                }
+            }
+            currentLevel = nextLevel;
+        }
+        return result;
+    }
 
+    private static Set<RelationInfo> getRelations(RelationsRepo relations, boolean fromDirection, UUID entityId) {
+        return fromDirection ? relations.getFrom(entityId) : relations.getTo(entityId);
     }
 
+    protected abstract boolean check(RelationInfo relationInfo);
+
 }
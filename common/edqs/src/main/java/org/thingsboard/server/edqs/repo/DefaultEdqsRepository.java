@@ -15,9 +15,10 @@
  */
 package org.thingsboard.server.edqs.repo;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.thingsboard.server.common.data.ObjectType;
 import org.thingsboard.server.common.data.edqs.EdqsEvent;
@@ -26,17 +27,21 @@ import org.thingsboard.server.common.data.edqs.query.QueryResult;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityDataQuery;
 import org.thingsboard.server.common.stats.EdqsStatsService;
 import org.thingsboard.server.queue.edqs.EdqsComponent;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
 @EdqsComponent
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Service
 @Slf4j
 public class DefaultEdqsRepository implements EdqsRepository {
@@ -45,15 +50,29 @@ public class DefaultEdqsRepository implements EdqsRepository {
     private final static ConcurrentMap<TenantId, TenantRepo> repos = new ConcurrentHashMap<>();
     private final EdqsStatsService statsService;
 
+    @Value("${queue.edqs.query_cache.enabled:false}")
+    private boolean queryCacheEnabled;
+    @Value("${queue.edqs.query_cache.max_weight:100000}")
+    private long queryCacheMaxWeight;
+    @Value("${queue.edqs.query_cache.ttl:60}")
+    private long queryCacheTtl;
+    @Value("${queue.edqs.query_cache.max_total_weight:1000000}")
+    private long queryCacheMaxTotalWeight;
+    private final AtomicLong queryCacheTotalWeight = new AtomicLong();
+
     public TenantRepo get(TenantId tenantId) {
-        return repos.computeIfAbsent(tenantId, id -> new TenantRepo(id, statsService));
+        return repos.computeIfAbsent(tenantId, id -> new TenantRepo(id, statsService,
+                queryCacheEnabled ? new EdqsQueryCache(queryCacheMaxWeight, queryCacheTtl, queryCacheTotalWeight, queryCacheMaxTotalWeight, statsService) : null));
     }
 
     @Override
     public void processEvent(EdqsEvent event) {
         if (event.getEventType() == EdqsEventType.DELETED && event.getObjectType() == ObjectType.TENANT) {
             log.info("Tenant {} deleted", event.getTenantId());
-            repos.remove(event.getTenantId());
+            TenantRepo repo = repos.remove(event.getTenantId());
+            if (repo != null) {
+                repo.clearQueryCache();
+            }
             statsService.reportRemoved(ObjectType.TENANT);
         } else {
             get(event.getTenantId()).processEvent(event);
@@ -77,13 +96,29 @@ public class DefaultEdqsRepository implements EdqsRepository {
         return result;
     }
 
+    @Override
+    public List<EntityAggregationData> aggregateEntitiesByQuery(TenantId tenantId, CustomerId customerId,
+                                                                EntityAggregationQuery query, boolean ignorePermissionCheck) {
+        long startNs = System.nanoTime();
+        var result = get(tenantId).aggregateEntitiesByQuery(customerId, query, ignorePermissionCheck);
+        statsService.reportEdqsAggregationQuery(tenantId, query, System.nanoTime() - startNs);
+        return result;
+    }
+
     @Override
     public void clearIf(Predicate<TenantId> predicate) {
-        repos.keySet().removeIf(predicate);
+        repos.entrySet().removeIf(entry -> {
+            if (predicate.test(entry.getKey())) {
+                entry.getValue().clearQueryCache();
+                return true;
+            }
+            return false;
+        });
     }
 
     @Override
     public void clear() {
+        repos.values().forEach(TenantRepo::clearQueryCache);
         repos.clear();
     }
 
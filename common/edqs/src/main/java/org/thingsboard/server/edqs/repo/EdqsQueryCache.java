@@ -0,0 +1,203 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.edqs.repo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.stats.EdqsStatsService;
+import org.thingsboard.server.edqs.query.DataKey;
+import org.thingsboard.server.edqs.query.EdqsAggregationQuery;
+import org.thingsboard.server.edqs.query.EdqsDataQuery;
+import org.thingsboard.server.edqs.query.EdqsFilter;
+import org.thingsboard.server.edqs.query.EdqsQuery;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Per-tenant cache of query results.
+ * <p>
+ * Entries are validated lazily: every modification of the tenant data gets a sequence number,
+ * and a cached result is used only if no entity, relation or key it depends on was modified after
+ * the result computation has started. Modifications must be reported after they are applied.
+ * Results invalidated by a modification are also removed right away, so that they don't hold the weight until expiry.
+ * <p>
+ * Besides the per-tenant max weight, the caches of all tenants share the total weight counter: the weight of a new
+ * result is reserved before it is cached, and the result is not cached if the reservation exceeds the global limit.
+ * The cache must be cleared when the tenant repo is dropped, so that its weight is released.
+ */
+public class EdqsQueryCache {
+
+    private final Cache<QueryCacheKey, CachedResult> cache;
+    private final EdqsStatsService statsService;
+    private final AtomicLong totalWeight;
+    private final long maxTotalWeight;
+
+    private final AtomicLong seq = new AtomicLong();
+    private final ConcurrentMap<Integer, Long> keyVersions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Set<QueryCacheKey>> cacheKeysByKeyId = new ConcurrentHashMap<>();
+    private volatile long entitiesVersion;
+
+    public EdqsQueryCache(long maxWeight, long ttlSec, EdqsStatsService statsService) {
+        this(maxWeight, ttlSec, new AtomicLong(), Long.MAX_VALUE, statsService);
+    }
+
+    public EdqsQueryCache(long maxWeight, long ttlSec, AtomicLong totalWeight, long maxTotalWeight, EdqsStatsService statsService) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((QueryCacheKey key, CachedResult value) -> value.weight())
+                .expireAfterWrite(ttlSec, TimeUnit.SECONDS)
+                .executor(Runnable::run)
+                .removalListener((QueryCacheKey key, CachedResult value, RemovalCause cause) -> {
+                    if (value != null) {
+                        totalWeight.addAndGet(-value.weight());
+                        for (Integer keyId : value.keyIds()) {
+                            cacheKeysByKeyId.computeIfPresent(keyId, (__, keys) -> {
+                                keys.remove(key);
+                                return keys.isEmpty() ? null : keys;
+                            });
+                        }
+                    }
+                })
+                .build();
+        this.statsService = statsService;
+        this.totalWeight = totalWeight;
+        this.maxTotalWeight = maxTotalWeight;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> R get(CustomerId customerId, EdqsQuery query, boolean ignorePermissionCheck,
+                     ToIntFunction<R> weigher, Supplier<R> supplier) {
+        QueryCacheKey key = new QueryCacheKey(customerId, query, ignorePermissionCheck);
+        CachedResult cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (isValid(cached)) {
+                statsService.reportQueryCacheHit();
+                return (R) cached.result();
+            }
+            cache.asMap().remove(key, cached);
+        }
+        statsService.reportQueryCacheMiss();
+
+        long version = seq.get();
+        R result = supplier.get();
+        CachedResult newValue = new CachedResult(result, getKeyIds(query), version, Math.max(1, weigher.applyAsInt(result)));
+        if (isValid(newValue) && reserveWeight(newValue.weight())) {
+            cache.put(key, newValue);
+            for (Integer keyId : newValue.keyIds()) {
+                cacheKeysByKeyId.computeIfAbsent(keyId, __ -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+            // the data could change after the validation above and before the result became visible for invalidation
+            if (!isValid(newValue)) {
+                cache.asMap().remove(key, newValue);
+            }
+        }
+        return result;
+    }
+
+    public void onEntitiesChanged() {
+        entitiesVersion = seq.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public void onKeyChanged(Integer keyId) {
+        keyVersions.merge(keyId, seq.incrementAndGet(), Math::max);
+        Set<QueryCacheKey> keys = cacheKeysByKeyId.remove(keyId);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+        cache.cleanUp();
+        cacheKeysByKeyId.clear();
+    }
+
+    public long getTotalWeight() {
+        return totalWeight.get();
+    }
+
+    /*
+     * The weight is added before the check, so that concurrent puts can't overshoot the limit together
+     * */
+    private boolean reserveWeight(int weight) {
+        if (totalWeight.addAndGet(weight) > maxTotalWeight) {
+            totalWeight.addAndGet(-weight);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isValid(CachedResult cached) {
+        if (entitiesVersion > cached.version()) {
+            return false;
+        }
+        for (Integer keyId : cached.keyIds()) {
+            Long keyVersion = keyVersions.get(keyId);
+            if (keyVersion != null && keyVersion > cached.version()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<Integer> getKeyIds(EdqsQuery query) {
+        Set<Integer> keyIds = new HashSet<>();
+        if (query.getKeyFilters() != null) {
+            for (EdqsFilter keyFilter : query.getKeyFilters()) {
+                addKeyId(keyIds, keyFilter.key());
+            }
+        }
+        if (query instanceof EdqsDataQuery dataQuery) {
+            addKeyId(keyIds, dataQuery.getSortKey());
+            addKeyIds(keyIds, dataQuery.getEntityFields());
+            addKeyIds(keyIds, dataQuery.getLatestValues());
+        } else if (query instanceof EdqsAggregationQuery aggregationQuery) {
+            addKeyId(keyIds, aggregationQuery.getGroupByKey());
+            addKeyIds(keyIds, aggregationQuery.getAggregationKeys());
+        }
+        return keyIds;
+    }
+
+    private static void addKeyIds(Set<Integer> keyIds, List<DataKey> keys) {
+        if (keys != null) {
+            for (DataKey key : keys) {
+                addKeyId(keyIds, key);
+            }
+        }
+    }
+
+    private static void addKeyId(Set<Integer> keyIds, DataKey key) {
+        if (key != null && key.keyId() != null) {
+            keyIds.add(key.keyId());
+        }
+    }
+
+    private record QueryCacheKey(CustomerId customerId, EdqsQuery query, boolean ignorePermissionCheck) {}
+
+    private record CachedResult(Object result, Set<Integer> keyIds, long version, int weight) {}
+
+}
@@ -20,9 +20,12 @@ import org.thingsboard.server.common.data.edqs.query.QueryResult;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityDataQuery;
 
+import java.util.List;
 import java.util.function.Predicate;
 
 public interface EdqsRepository {
@@ -33,6 +36,8 @@ public interface EdqsRepository {
 
     PageData<QueryResult> findEntityDataByQuery(TenantId tenantId, CustomerId customerId, EntityDataQuery query, boolean ignorePermissionCheck);
 
+    List<EntityAggregationData> aggregateEntitiesByQuery(TenantId tenantId, CustomerId customerId, EntityAggregationQuery query, boolean ignorePermissionCheck);
+
     void clearIf(Predicate<TenantId> predicate);
 
     void clear();
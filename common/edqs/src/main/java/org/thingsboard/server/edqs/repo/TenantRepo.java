@@ -32,6 +32,9 @@ import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.PageData;
 import org.thingsboard.server.common.data.permission.QueryContext;
+import org.thingsboard.server.common.data.query.EntityAggregationAccumulator;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityDataQuery;
 import org.thingsboard.server.common.data.query.EntityDataSortOrder;
@@ -50,6 +53,8 @@ import org.thingsboard.server.edqs.data.EntityProfileData;
 import org.thingsboard.server.edqs.data.GenericData;
 import org.thingsboard.server.edqs.data.RelationsRepo;
 import org.thingsboard.server.edqs.data.TenantData;
+import org.thingsboard.server.edqs.query.DataKey;
+import org.thingsboard.server.edqs.query.EdqsAggregationQuery;
 import org.thingsboard.server.edqs.query.EdqsDataQuery;
 import org.thingsboard.server.edqs.query.EdqsQuery;
 import org.thingsboard.server.edqs.query.SortableEntityData;
@@ -94,10 +99,22 @@ public class TenantRepo {
 
     private final TenantId tenantId;
     private final EdqsStatsService edqsStatsService;
+    private final EdqsQueryCache queryCache;
 
     public TenantRepo(TenantId tenantId, EdqsStatsService edqsStatsService) {
+        this(tenantId, edqsStatsService, null);
+    }
+
+    public TenantRepo(TenantId tenantId, EdqsStatsService edqsStatsService, EdqsQueryCache queryCache) {
         this.tenantId = tenantId;
         this.edqsStatsService = edqsStatsService;
+        this.queryCache = queryCache;
+    }
+
+    public void clearQueryCache() {
+        if (queryCache != null) {
+            queryCache.clear();
+        }
     }
 
     public void processEvent(EdqsEvent event) {
@@ -120,6 +137,7 @@ public class TenantRepo {
         } else if (object instanceof Entity entity) {
             addOrUpdateEntity(entity);
         }
+        onDataChanged(object);
     }
 
     public void remove(EdqsObject object) {
@@ -132,6 +150,20 @@ public class TenantRepo {
         } else if (object instanceof Entity entity) {
             removeEntity(entity);
         }
+        onDataChanged(object);
+    }
+
+    private void onDataChanged(EdqsObject object) {
+        if (queryCache == null) {
+            return;
+        }
+        if (object instanceof AttributeKv attributeKv) {
+            queryCache.onKeyChanged(KeyDictionary.get(attributeKv.getKey()));
+        } else if (object instanceof LatestTsKv latestTsKv) {
+            queryCache.onKeyChanged(KeyDictionary.get(latestTsKv.getKey()));
+        } else {
+            queryCache.onEntitiesChanged();
+        }
     }
 
     private void addOrUpdateRelation(EntityRelation entity) {
@@ -332,6 +364,14 @@ public class TenantRepo {
 
     public PageData<QueryResult> findEntityDataByQuery(CustomerId customerId, EntityDataQuery oldQuery, boolean ignorePermissionCheck) {
         EdqsDataQuery query = RepositoryUtils.toNewQuery(oldQuery);
+        if (queryCache != null) {
+            return queryCache.get(customerId, query, ignorePermissionCheck, result -> result.getData().size(),
+                    () -> findEntityDataByQuery(customerId, query, ignorePermissionCheck));
+        }
+        return findEntityDataByQuery(customerId, query, ignorePermissionCheck);
+    }
+
+    private PageData<QueryResult> findEntityDataByQuery(CustomerId customerId, EdqsDataQuery query, boolean ignorePermissionCheck) {
         QueryContext ctx = buildContext(customerId, query.getEntityFilter(), ignorePermissionCheck);
         EntityQueryProcessor queryProcessor = EntityQueryProcessorFactory.create(this, ctx, query);
         return sortAndConvert(query, queryProcessor.processQuery(), ctx);
@@ -339,11 +379,54 @@ public class TenantRepo {
 
     public long countEntitiesByQuery(CustomerId customerId, EntityCountQuery oldQuery, boolean ignorePermissionCheck) {
         EdqsQuery query = RepositoryUtils.toNewQuery(oldQuery);
+        if (queryCache != null) {
+            return queryCache.get(customerId, query, ignorePermissionCheck, result -> 1,
+                    () -> countEntitiesByQuery(customerId, query, ignorePermissionCheck));
+        }
+        return countEntitiesByQuery(customerId, query, ignorePermissionCheck);
+    }
+
+    private long countEntitiesByQuery(CustomerId customerId, EdqsQuery query, boolean ignorePermissionCheck) {
         QueryContext ctx = buildContext(customerId, query.getEntityFilter(), ignorePermissionCheck);
         EntityQueryProcessor queryProcessor = EntityQueryProcessorFactory.create(this, ctx, query);
         return queryProcessor.count();
     }
 
+    public List<EntityAggregationData> aggregateEntitiesByQuery(CustomerId customerId, EntityAggregationQuery oldQuery, boolean ignorePermissionCheck) {
+        EdqsAggregationQuery query = RepositoryUtils.toNewQuery(oldQuery);
+        if (queryCache != null) {
+            return queryCache.get(customerId, query, ignorePermissionCheck, List::size,
+                    () -> aggregateEntitiesByQuery(customerId, query, ignorePermissionCheck));
+        }
+        return aggregateEntitiesByQuery(customerId, query, ignorePermissionCheck);
+    }
+
+    private List<EntityAggregationData> aggregateEntitiesByQuery(CustomerId customerId, EdqsAggregationQuery query, boolean ignorePermissionCheck) {
+        QueryContext ctx = buildContext(customerId, query.getEntityFilter(), ignorePermissionCheck);
+        EntityQueryProcessor queryProcessor = EntityQueryProcessorFactory.create(this, ctx, query);
+        DataKey groupByKey = query.getGroupByKey();
+        List<DataKey> aggregationKeys = query.getAggregationKeys();
+        EntityAggregationAccumulator accumulator = new EntityAggregationAccumulator(query.getAggregations());
+        for (SortableEntityData sortableData : queryProcessor.processQuery()) {
+            EntityData<?> entityData = sortableData.getEntityData();
+            String groupValue = null;
+            if (groupByKey != null) {
+                DataPoint dp = entityData.getDataPoint(groupByKey, ctx);
+                groupValue = dp != null ? dp.valueToString() : null;
+            }
+            EntityAggregationAccumulator.Group group = accumulator.getGroup(groupValue);
+            group.addEntity();
+            for (int i = 0; i < aggregationKeys.size(); i++) {
+                DataKey key = aggregationKeys.get(i);
+                Double value = key != null ? RepositoryUtils.toNumber(entityData.getDataPoint(key, ctx)) : null;
+                if (value != null) {
+                    group.addValue(i, value);
+                }
+            }
+        }
+        return accumulator.getResult();
+    }
+
     private PageData<QueryResult> sortAndConvert(EdqsDataQuery query, List<SortableEntityData> data, QueryContext ctx) {
         int totalSize = data.size();
         int totalPages = (int) Math.ceil((float) totalSize / query.getPageSize());
@@ -18,8 +18,10 @@ package org.thingsboard.server.edqs.state;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.thingsboard.common.util.ThingsBoardExecutors;
 import org.thingsboard.server.common.data.ObjectType;
 import org.thingsboard.server.common.data.edqs.EdqsEventType;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -32,8 +34,12 @@ import org.thingsboard.server.queue.common.consumer.PartitionedQueueConsumerMana
 import org.thingsboard.server.queue.discovery.DiscoveryService;
 import org.thingsboard.server.queue.edqs.InMemoryEdqsComponent;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.thingsboard.server.common.msg.queue.TopicPartitionInfo.withTopic;
 
@@ -48,6 +54,11 @@ public class LocalEdqsStateService implements EdqsStateService {
     @Autowired @Lazy
     private EdqsProcessor processor;
 
+    @Value("${queue.edqs.local.restore_threads:4}")
+    private int restoreThreads;
+    @Value("${queue.edqs.local.restore_batch_size:1000}")
+    private int restoreBatchSize;
+
     private PartitionedQueueConsumerManager<TbProtoQueueMsg<ToEdqsMsg>> eventConsumer;
     private List<PartitionedQueueConsumerManager<?>> otherConsumers;
 
@@ -62,16 +73,7 @@ public class LocalEdqsStateService implements EdqsStateService {
     @Override
     public void process(Set<TopicPartitionInfo> partitions) {
         if (!ready) {
-            db.forEach((key, value) -> {
-                try {
-                    ToEdqsMsg edqsMsg = ToEdqsMsg.parseFrom(value);
-                    log.trace("[{}] Restored msg from RocksDB: {}", key, edqsMsg);
-                    processor.process(edqsMsg, false);
-                } catch (Exception e) {
-                    log.error("[{}] Failed to restore value", key, e);
-                }
-            });
-            log.info("Restore completed");
+            restore();
         }
         ready = true;
         discoveryService.setReady(true);
@@ -82,6 +84,57 @@ public class LocalEdqsStateService implements EdqsStateService {
         }
     }
 
+    /*
+     * RocksDB holds only the latest message per object key, so the order in which the stored messages
+     * are applied does not matter. The iteration stays sequential, while parsing and processing
+     * are done in batches on a bounded pool.
+     */
+    private void restore() {
+        long startTs = System.currentTimeMillis();
+        int threads = Math.max(1, restoreThreads);
+        int batchSize = Math.max(1, restoreBatchSize);
+        ExecutorService executor = ThingsBoardExecutors.newWorkStealingPool(threads, "edqs-restore");
+        Semaphore pendingBatches = new Semaphore(threads * 2);
+        AtomicLong restored = new AtomicLong();
+        try {
+            List<RestoredEntry> batch = new ArrayList<>(batchSize);
+            db.forEach((key, value) -> {
+                batch.add(new RestoredEntry(key, value));
+                if (batch.size() >= batchSize) {
+                    submitRestoreBatch(executor, pendingBatches, new ArrayList<>(batch), restored);
+                    batch.clear();
+                }
+            });
+            if (!batch.isEmpty()) {
+                submitRestoreBatch(executor, pendingBatches, batch, restored);
+            }
+            pendingBatches.acquireUninterruptibly(threads * 2);
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Restore completed: {} messages in {} ms", restored.get(), System.currentTimeMillis() - startTs);
+    }
+
+    private void submitRestoreBatch(ExecutorService executor, Semaphore pendingBatches, List<RestoredEntry> batch, AtomicLong restored) {
+        pendingBatches.acquireUninterruptibly();
+        executor.execute(() -> {
+            try {
+                for (RestoredEntry entry : batch) {
+                    try {
+                        ToEdqsMsg edqsMsg = ToEdqsMsg.parseFrom(entry.value());
+                        log.trace("[{}] Restored msg from RocksDB: {}", entry.key(), edqsMsg);
+                        processor.process(edqsMsg, false);
+                        restored.incrementAndGet();
+                    } catch (Exception e) {
+                        log.error("[{}] Failed to restore value", entry.key(), e);
+                    }
+                }
+            } finally {
+                pendingBatches.release();
+            }
+        });
+    }
+
     @Override
     public void save(TenantId tenantId, ObjectType type, String key, EdqsEventType eventType, ToEdqsMsg msg) {
         log.trace("Save to RocksDB: {} {} {} {}", tenantId, type, key, msg);
@@ -105,4 +158,6 @@ public class LocalEdqsStateService implements EdqsStateService {
     public void stop() {
     }
 
+    private record RestoredEntry(String key, byte[] value) {}
+
 }
@@ -25,6 +25,7 @@ import org.thingsboard.common.util.TbBytePool;
 import org.thingsboard.common.util.TbStringPool;
 import org.thingsboard.server.common.data.ObjectType;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityDataQuery;
 import org.thingsboard.server.common.stats.EdqsStatsService;
@@ -95,6 +96,12 @@ public class DefaultEdqsStatsService implements EdqsStatsService {
         getTimer("edqsCountQueryTimer").record(timingNanos, TimeUnit.NANOSECONDS);
     }
 
+    @Override
+    public void reportEdqsAggregationQuery(TenantId tenantId, EntityAggregationQuery query, long timingNanos) {
+        checkTiming(tenantId, query, timingNanos);
+        getTimer("edqsAggregationQueryTimer").record(timingNanos, TimeUnit.NANOSECONDS);
+    }
+
     @Override
     public void reportStringCompressed() {
         getCounter("stringsCompressed").increment();
@@ -105,9 +112,19 @@ public class DefaultEdqsStatsService implements EdqsStatsService {
         getCounter("stringsUncompressed").increment();
     }
 
+    @Override
+    public void reportQueryCacheHit() {
+        getCounter("queryCacheHits").increment();
+    }
+
+    @Override
+    public void reportQueryCacheMiss() {
+        getCounter("queryCacheMisses").increment();
+    }
+
     private void checkTiming(TenantId tenantId, EntityCountQuery query, long timingNanos) {
         double timingMs = timingNanos / 1000_000.0;
-        String queryType = query instanceof EntityDataQuery ? "data" : "count";
+        String queryType = query instanceof EntityDataQuery ? "data" : query instanceof EntityAggregationQuery ? "aggregation" : "count";
         if (timingMs < slowQueryThreshold) {
             log.debug("[{}] Executed " + queryType + " query in {} ms: {}", tenantId, timingMs, query);
         } else {
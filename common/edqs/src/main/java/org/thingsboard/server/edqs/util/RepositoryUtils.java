@@ -15,6 +15,8 @@
  */
 package org.thingsboard.server.edqs.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.StringUtils;
@@ -22,6 +24,9 @@ import org.thingsboard.server.common.data.edqs.DataPoint;
 import org.thingsboard.server.common.data.permission.QueryContext;
 import org.thingsboard.server.common.data.query.BooleanFilterPredicate;
 import org.thingsboard.server.common.data.query.ComplexFilterPredicate;
+import org.thingsboard.server.common.data.query.EntityAggregationAccumulator;
+import org.thingsboard.server.common.data.query.EntityAggregationKey;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityDataQuery;
 import org.thingsboard.server.common.data.query.EntityDataSortOrder;
@@ -43,6 +48,7 @@ import org.thingsboard.server.common.data.query.TsValue;
 import org.thingsboard.server.common.data.util.CollectionsUtil;
 import org.thingsboard.server.edqs.data.EntityData;
 import org.thingsboard.server.edqs.query.DataKey;
+import org.thingsboard.server.edqs.query.EdqsAggregationQuery;
 import org.thingsboard.server.edqs.query.EdqsCountQuery;
 import org.thingsboard.server.edqs.query.EdqsDataQuery;
 import org.thingsboard.server.edqs.query.EdqsFilter;
@@ -72,6 +78,13 @@ public class RepositoryUtils {
     public static final Comparator<SortableEntityData> SORT_DESC =  Comparator.comparing(SortableEntityData::getSortValue, Comparator.nullsFirst(Comparator.naturalOrder()))
             .thenComparing(sp -> sp.getId().toString()).reversed();
 
+    static final int SQL_LIKE_PATTERNS_CACHE_SIZE = 1000;
+
+    // string filters are checked for every entity, so the patterns are compiled once per predicate value
+    private static final Cache<SqlLikePatternKey, Pattern> sqlLikePatterns = Caffeine.newBuilder()
+            .maximumSize(SQL_LIKE_PATTERNS_CACHE_SIZE)
+            .build();
+
     public static EntityType resolveEntityType(EntityFilter entityFilter) {
         return switch (entityFilter.getType()) {
             case SINGLE_ENTITY -> ((SingleEntityFilter) entityFilter).getSingleEntity().getEntityType();
@@ -152,6 +165,21 @@ public class RepositoryUtils {
                 .build();
     }
 
+    public static EdqsAggregationQuery toNewQuery(EntityAggregationQuery oldQuery) {
+        List<EntityAggregationKey> aggregations = oldQuery.getAggregations() != null ? oldQuery.getAggregations() : Collections.emptyList();
+        List<DataKey> aggregationKeys = new ArrayList<>(aggregations.size());
+        for (EntityAggregationKey aggregation : aggregations) {
+            aggregationKeys.add(aggregation.getKey() != null ? toNewKey(aggregation.getKey()) : null);
+        }
+        return EdqsAggregationQuery.builder()
+                .entityFilter(oldQuery.getEntityFilter())
+                .keyFilters(toKeyFilters(oldQuery.getKeyFilters()))
+                .groupByKey(oldQuery.getGroupByKey() != null ? toNewKey(oldQuery.getGroupByKey()) : null)
+                .aggregations(aggregations)
+                .aggregationKeys(aggregationKeys)
+                .build();
+    }
+
     private static List<EdqsFilter> toKeyFilters(List<KeyFilter> keyFilters) {
         if (keyFilters == null || keyFilters.isEmpty()) {
             return Collections.emptyList();
@@ -334,6 +362,13 @@ public class RepositoryUtils {
     }
 
     private static Pattern toSqlLikePattern(String value, String prefix, String suffix, boolean ignoreCase) {
+        return sqlLikePatterns.get(new SqlLikePatternKey(value, prefix, suffix, ignoreCase), RepositoryUtils::compileSqlLikePattern);
+    }
+
+    private static Pattern compileSqlLikePattern(SqlLikePatternKey key) {
+        String value = key.value();
+        String prefix = key.prefix();
+        String suffix = key.suffix();
         String regexValue;
         if (value.contains("%") || value.contains("_")) {
             regexValue = value
@@ -347,9 +382,11 @@ public class RepositoryUtils {
         } else {
             regexValue = prefix + Pattern.quote(value) + suffix;
         }
-        return ignoreCase ? Pattern.compile(regexValue, Pattern.CASE_INSENSITIVE) : Pattern.compile(regexValue);
+        return key.ignoreCase() ? Pattern.compile(regexValue, Pattern.CASE_INSENSITIVE) : Pattern.compile(regexValue);
     }
 
+    private record SqlLikePatternKey(String value, String prefix, String suffix, boolean ignoreCase) {}
+
     @FunctionalInterface
     public interface SimpleKeyFilter<T> {
 
@@ -357,6 +394,17 @@ public class RepositoryUtils {
 
     }
 
+    public static Double toNumber(DataPoint dp) {
+        if (dp == null) {
+            return null;
+        }
+        return switch (dp.getType()) {
+            case LONG, DOUBLE -> dp.getDouble();
+            case BOOLEAN -> dp.getBool() ? 1.0 : 0.0;
+            default -> EntityAggregationAccumulator.toNumber(dp.valueToString());
+        };
+    }
+
     public static TsValue toTsValue(long ts, DataPoint dp) {
         if (dp != null) {
             return new TsValue(dp.getTs() > 0 ? dp.getTs() : ts, dp.valueToString());
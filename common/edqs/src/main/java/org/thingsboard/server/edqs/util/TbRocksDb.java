@@ -20,11 +20,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.function.BiConsumer;
 
 @Slf4j
@@ -57,6 +59,32 @@ public class TbRocksDb {
         db.put(writeOptions, key.getBytes(StandardCharsets.UTF_8), value);
     }
 
+    /**
+     * Returns null if there is no value for the key.
+     */
+    @SneakyThrows
+    public byte[] get(String key) {
+        return db.get(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Atomically writes the values in one batch. Keys with null values are deleted.
+     */
+    @SneakyThrows
+    public void write(Map<String, byte[]> values) {
+        try (WriteBatch batch = new WriteBatch()) {
+            for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+                byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                if (entry.getValue() != null) {
+                    batch.put(key, entry.getValue());
+                } else {
+                    batch.delete(key);
+                }
+            }
+            db.write(writeOptions, batch);
+        }
+    }
+
     public void forEach(BiConsumer<String, byte[]> processor) {
         try (RocksIterator iterator = db.newIterator()) {
             for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
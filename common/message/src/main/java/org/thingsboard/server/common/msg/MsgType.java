@@ -155,7 +155,9 @@ public enum MsgType {
     CF_RELATION_ACTION_MSG,
 
     CF_ARGUMENT_RESET_MSG, // Sent to reset argument;
-    CF_REEVALUATE_MSG;
+    CF_REEVALUATE_MSG,
+    CF_COALESCED_EVALUATION_MSG, // Sent to evaluate CF once after the updates accumulated during the coalescing interval;
+    CF_STATE_EVICT_MSG; // Sent to unload cold CF state when tenant states exceed the memory limit;
 
     @Getter
     private final boolean ignoreOnStart;
@@ -82,6 +82,18 @@ public class JsonConverter {
         return convertToTelemetryProto(jsonElement, System.currentTimeMillis());
     }
 
+    /**
+     * Converts the telemetry json to proto without building the json tree.
+     * The result is the same as for the parsed json element.
+     */
+    public static PostTelemetryMsg convertToTelemetryProto(String json, long ts) throws JsonSyntaxException {
+        return JsonTelemetryDecoder.decode(json, ts);
+    }
+
+    public static PostTelemetryMsg convertToTelemetryProto(String json) throws JsonSyntaxException {
+        return convertToTelemetryProto(json, System.currentTimeMillis());
+    }
+
     public static TbPair<TransportProtos.PostTelemetryMsg, List<GatewayMetadata>> convertToGatewayTelemetry(JsonElement jsonElement, long systemTs) {
         List<GatewayMetadata> metadataResult = null;
         PostTelemetryMsg.Builder builder = PostTelemetryMsg.newBuilder();
@@ -227,48 +239,71 @@ public class JsonConverter {
         request.addTsKvList(builder.build());
     }
 
-    private static List<KeyValueProto> parseProtoValues(JsonObject valuesObject) {
+    static List<KeyValueProto> parseProtoValues(JsonObject valuesObject) {
         List<KeyValueProto> result = new ArrayList<>();
         for (Entry<String, JsonElement> valueEntry : valuesObject.entrySet()) {
-            JsonElement element = valueEntry.getValue();
-            if (element.isJsonPrimitive()) {
-                JsonPrimitive value = element.getAsJsonPrimitive();
-                if (value.isString()) {
-                    if (maxStringValueLength > 0 && value.getAsString().length() > maxStringValueLength) {
-                        String message = String.format("String value length [%d] for key [%s] is greater than maximum allowed [%d]", value.getAsString().length(), valueEntry.getKey(), maxStringValueLength);
-                        throw new JsonSyntaxException(message);
-                    }
-                    if (isTypeCastEnabled && NumberUtils.isParsable(value.getAsString())) {
-                        try {
-                            result.add(buildNumericKeyValueProto(value, valueEntry.getKey()));
-                        } catch (RuntimeException th) {
-                            result.add(KeyValueProto.newBuilder().setKey(valueEntry.getKey()).setType(KeyValueType.STRING_V)
-                                    .setStringV(value.getAsString()).build());
-                        }
-                    } else {
-                        result.add(KeyValueProto.newBuilder().setKey(valueEntry.getKey()).setType(KeyValueType.STRING_V)
-                                .setStringV(value.getAsString()).build());
-                    }
-                } else if (value.isBoolean()) {
-                    result.add(KeyValueProto.newBuilder().setKey(valueEntry.getKey()).setType(KeyValueType.BOOLEAN_V)
-                            .setBoolV(value.getAsBoolean()).build());
-                } else if (value.isNumber()) {
-                    result.add(buildNumericKeyValueProto(value, valueEntry.getKey()));
-                } else if (!value.isJsonNull()) {
-                    throw new JsonSyntaxException(CAN_T_PARSE_VALUE + value);
-                }
-            } else if (element.isJsonObject() || element.isJsonArray()) {
-                result.add(KeyValueProto.newBuilder().setKey(valueEntry.getKey()).setType(KeyValueType.JSON_V).setJsonV(element.toString()).build());
-            } else if (!element.isJsonNull()) {
-                throw new JsonSyntaxException(CAN_T_PARSE_VALUE + element);
+            KeyValueProto kv = toKeyValueProto(valueEntry.getKey(), valueEntry.getValue());
+            if (kv != null) {
+                result.add(kv);
             }
         }
         return result;
     }
 
-    private static KeyValueProto buildNumericKeyValueProto(JsonPrimitive value, String key) {
-        String valueAsString = value.getAsString();
+    static KeyValueProto toKeyValueProto(String key, JsonElement element) {
+        if (element.isJsonPrimitive()) {
+            JsonPrimitive value = element.getAsJsonPrimitive();
+            if (value.isString()) {
+                return toStringKeyValueProto(key, value.getAsString());
+            } else if (value.isBoolean()) {
+                return toBooleanKeyValueProto(key, value.getAsBoolean());
+            } else if (value.isNumber()) {
+                return buildNumericKeyValueProto(value.getAsString(), key);
+            } else {
+                throw new JsonSyntaxException(CAN_T_PARSE_VALUE + value);
+            }
+        } else if (element.isJsonObject() || element.isJsonArray()) {
+            return toJsonKeyValueProto(key, element.toString());
+        } else if (!element.isJsonNull()) {
+            throw new JsonSyntaxException(CAN_T_PARSE_VALUE + element);
+        }
+        return null;
+    }
+
+    static KeyValueProto toStringKeyValueProto(String key, String value) {
+        if (maxStringValueLength > 0 && value.length() > maxStringValueLength) {
+            String message = String.format("String value length [%d] for key [%s] is greater than maximum allowed [%d]", value.length(), key, maxStringValueLength);
+            throw new JsonSyntaxException(message);
+        }
+        if (isTypeCastEnabled && NumberUtils.isParsable(value)) {
+            try {
+                return buildNumericKeyValueProto(value, key);
+            } catch (RuntimeException th) {
+                return KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.STRING_V).setStringV(value).build();
+            }
+        }
+        return KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.STRING_V).setStringV(value).build();
+    }
+
+    static KeyValueProto toBooleanKeyValueProto(String key, boolean value) {
+        return KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.BOOLEAN_V).setBoolV(value).build();
+    }
+
+    static KeyValueProto toJsonKeyValueProto(String key, String json) {
+        return KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.JSON_V).setJsonV(json).build();
+    }
+
+    static KeyValueProto buildNumericKeyValueProto(String valueAsString, String key) {
         KeyValueProto.Builder builder = KeyValueProto.newBuilder().setKey(key);
+        // plain integer and decimal values are parsed to the same value without BigDecimal
+        int fractionDigits = getPlainNumberFractionDigits(valueAsString);
+        if (fractionDigits == 0) {
+            return builder.setType(KeyValueType.LONG_V).setLongV(Long.parseLong(valueAsString)).build();
+        } else if (fractionDigits > 0 && fractionDigits <= 16) {
+            double value = Double.parseDouble(valueAsString);
+            // BigDecimal has no negative zero
+            return builder.setType(KeyValueType.DOUBLE_V).setDoubleV(value == 0 ? 0.0 : value).build();
+        }
         var bd = new BigDecimal(valueAsString);
         if (bd.stripTrailingZeros().scale() <= 0 && !isSimpleDouble(valueAsString)) {
             try {
@@ -292,6 +327,28 @@ public class JsonConverter {
 
     }
 
+    /**
+     * Returns the number of fraction digits if the value is an integer of up to 18 digits
+     * or a decimal with an integer part and a fraction part, or -1 otherwise.
+     */
+    private static int getPlainNumberFractionDigits(String valueAsString) {
+        int length = valueAsString.length();
+        int start = length > 0 && valueAsString.charAt(0) == '-' ? 1 : 0;
+        int dotIdx = -1;
+        for (int i = start; i < length; i++) {
+            char c = valueAsString.charAt(i);
+            if (c == '.' && dotIdx < 0 && i > start && i < length - 1) {
+                dotIdx = i;
+            } else if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        if (dotIdx >= 0) {
+            return length - dotIdx - 1;
+        }
+        return length > start && length - start <= 18 ? 0 : -1;
+    }
+
     private static boolean isSimpleDouble(String valueAsString) {
         return valueAsString.contains(".") && !valueAsString.contains("E") && !valueAsString.contains("e");
     }
@@ -0,0 +1,689 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.adaptor;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.thingsboard.server.gen.transport.TransportProtos.KeyValueProto;
+import org.thingsboard.server.gen.transport.TransportProtos.PostTelemetryMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.TsKvListProto;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the telemetry json to {@link PostTelemetryMsg} in a single pass, without building the json tree.
+ * <p>
+ * Primitive values are converted to {@link KeyValueProto} as soon as they are read, only nested objects and arrays
+ * (stored as json values) are parsed to elements. The result, including resolution of duplicate keys and
+ * conversion errors, is the same as for {@link JsonConverter#convertToTelemetryProto(JsonElement, long)}
+ * with the leniently parsed json.
+ * <p>
+ * Strict json is read directly from the string. Anything else, e.g. lenient syntax or malformed json,
+ * is decoded again with the {@link JsonReader}, which accepts or rejects it exactly as {@link JsonParser} does.
+ */
+final class JsonTelemetryDecoder {
+
+    private static final String CAN_T_PARSE_VALUE = "Can't parse value: ";
+    private static final String TS = "ts";
+    private static final String VALUES = "values";
+
+    private JsonTelemetryDecoder() {
+    }
+
+    static PostTelemetryMsg decode(String json, long systemTs) throws JsonSyntaxException {
+        try {
+            return new StrictJsonDecoder(json).decode(systemTs);
+        } catch (UnsupportedJsonException e) {
+            return decode(new StringReader(json), systemTs);
+        }
+    }
+
+    static PostTelemetryMsg decode(Reader json, long systemTs) throws JsonSyntaxException {
+        JsonReader reader = new JsonReader(json);
+        reader.setStrictness(Strictness.LENIENT);
+        List<Object> objects = new ArrayList<>();
+        try {
+            JsonToken token = peekDocument(reader);
+            if (token == null) {
+                throw new JsonSyntaxException(CAN_T_PARSE_VALUE + JsonNull.INSTANCE);
+            } else if (token == JsonToken.BEGIN_OBJECT) {
+                objects.add(decodeObject(reader));
+            } else if (token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        objects.add(decodeObject(reader));
+                    } else {
+                        objects.add(JsonParser.parseReader(reader));
+                    }
+                }
+                reader.endArray();
+            } else {
+                throw new JsonSyntaxException(CAN_T_PARSE_VALUE + JsonParser.parseReader(reader));
+            }
+            // the rest of the document is checked in the same way as by JsonParser
+            reader.setStrictness(Strictness.LEGACY_STRICT);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
+        return toPostTelemetryMsg(objects, systemTs);
+    }
+
+    /**
+     * Values are converted after the whole json is read, so that the syntax errors are reported first, as by JsonParser.
+     * Objects are telemetry objects or json elements of the array that are not objects.
+     */
+    private static PostTelemetryMsg toPostTelemetryMsg(List<?> objects, long systemTs) {
+        PostTelemetryMsg.Builder builder = PostTelemetryMsg.newBuilder();
+        for (Object object : objects) {
+            if (object instanceof TelemetryObject telemetryObject) {
+                builder.addTsKvList(telemetryObject.toTsKvList(systemTs));
+            } else {
+                throw new JsonSyntaxException(CAN_T_PARSE_VALUE + object);
+            }
+        }
+        return builder.build();
+    }
+
+    private static JsonToken peekDocument(JsonReader reader) throws IOException {
+        try {
+            return reader.peek();
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static TelemetryObject decodeObject(JsonReader reader) throws IOException {
+        TelemetryObject object = new TelemetryObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (TS.equals(key)) {
+                if (reader.peek() == JsonToken.NUMBER) {
+                    String value = reader.nextString();
+                    object.putTs(value, toKeyValueProto(JsonToken.NUMBER, key, value));
+                } else {
+                    JsonElement element = JsonParser.parseReader(reader);
+                    object.putTs(element, element);
+                }
+            } else if (VALUES.equals(key)) {
+                if (object.hasTs() && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    object.putValues(decodeValues(reader));
+                } else {
+                    object.putValues(JsonParser.parseReader(reader));
+                }
+            } else if (object.isTsFormat()) {
+                reader.skipValue();
+            } else {
+                object.put(key, decodeValue(reader, key));
+            }
+        }
+        reader.endObject();
+        return object;
+    }
+
+    private static Entries decodeValues(JsonReader reader) throws IOException {
+        Entries entries = new Entries();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            entries.put(key, decodeValue(reader, key));
+        }
+        reader.endObject();
+        return entries;
+    }
+
+    private static Object decodeValue(JsonReader reader, String key) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return JsonConverter.toBooleanKeyValueProto(key, reader.nextBoolean());
+            case STRING:
+            case NUMBER:
+                return toKeyValueProto(token, key, reader.nextString());
+            default:
+                return JsonConverter.toJsonKeyValueProto(key, JsonParser.parseReader(reader).toString());
+        }
+    }
+
+    /**
+     * Returns the {@link KeyValueProto} or the conversion error.
+     * Conversion errors are thrown only for the entries that are used, since the entry may be overwritten
+     * by a duplicate key or ignored if the object has the "ts" and "values" format.
+     */
+    private static Object toKeyValueProto(JsonToken token, String key, String value) {
+        try {
+            if (token == JsonToken.STRING) {
+                return JsonConverter.toStringKeyValueProto(key, value);
+            } else {
+                return JsonConverter.buildNumericKeyValueProto(value, key);
+            }
+        } catch (JsonSyntaxException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Telemetry object that is either in the "ts" and "values" format or contains the values itself.
+     * The format is known only when both keys are found or the whole object is read.
+     */
+    private static final class TelemetryObject {
+
+        private final Entries entries = new Entries();
+        private boolean hasTs;
+        private boolean hasValues;
+        // number literal or json element
+        private Object ts;
+        // json element, if the values were read before the ts
+        private JsonElement values;
+        private Entries decodedValues;
+
+        boolean hasTs() {
+            return hasTs;
+        }
+
+        boolean isTsFormat() {
+            return hasTs && hasValues;
+        }
+
+        void putTs(Object ts, Object entry) {
+            this.ts = ts;
+            this.hasTs = true;
+            entries.put(TS, entry);
+        }
+
+        void putValues(JsonElement values) {
+            this.values = values;
+            this.decodedValues = null;
+            this.hasValues = true;
+            entries.put(VALUES, values);
+        }
+
+        void putValues(Entries decodedValues) {
+            this.values = null;
+            this.decodedValues = decodedValues;
+            this.hasValues = true;
+        }
+
+        void put(String key, Object value) {
+            entries.put(key, value);
+        }
+
+        TsKvListProto toTsKvList(long systemTs) {
+            TsKvListProto.Builder builder = TsKvListProto.newBuilder();
+            if (isTsFormat()) {
+                builder.setTs(ts instanceof String number ? toLong(number) : ((JsonElement) ts).getAsLong());
+                builder.addAllKv(decodedValues != null ? decodedValues.toKeyValueProtos() : JsonConverter.parseProtoValues(values.getAsJsonObject()));
+            } else {
+                builder.setTs(systemTs);
+                builder.addAllKv(entries.toKeyValueProtos());
+            }
+            return builder.build();
+        }
+
+        private static long toLong(String number) {
+            try {
+                return Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                // same as JsonElement.getAsLong() for the number that is not a long literal
+                return new BigDecimal(number).longValue();
+            }
+        }
+
+    }
+
+    /**
+     * Object entries in the order of the first occurrence of the key, the last value of the key wins.
+     * Values are {@link KeyValueProto}, json elements that are converted on demand, conversion errors
+     * or nulls for the json nulls. Small objects are searched for duplicate keys without hashing.
+     */
+    private static final class Entries {
+
+        private static final int MAX_SCAN_SIZE = 16;
+
+        private final List<String> keys = new ArrayList<>();
+        private final List<Object> values = new ArrayList<>();
+        private Map<String, Integer> index;
+
+        void put(String key, Object value) {
+            int idx = indexOf(key);
+            if (idx >= 0) {
+                values.set(idx, value);
+            } else {
+                if (index != null) {
+                    index.put(key, keys.size());
+                }
+                keys.add(key);
+                values.add(value);
+            }
+        }
+
+        private int indexOf(String key) {
+            if (index == null) {
+                if (keys.size() < MAX_SCAN_SIZE) {
+                    for (int i = 0; i < keys.size(); i++) {
+                        if (keys.get(i).equals(key)) {
+                            return i;
+                        }
+                    }
+                    return -1;
+                }
+                index = new HashMap<>();
+                for (int i = 0; i < keys.size(); i++) {
+                    index.put(keys.get(i), i);
+                }
+            }
+            Integer idx = index.get(key);
+            return idx != null ? idx : -1;
+        }
+
+        List<KeyValueProto> toKeyValueProtos() {
+            List<KeyValueProto> result = new ArrayList<>(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                Object value = values.get(i);
+                KeyValueProto kv;
+                if (value instanceof KeyValueProto keyValueProto) {
+                    kv = keyValueProto;
+                } else if (value instanceof JsonElement element) {
+                    kv = JsonConverter.toKeyValueProto(keys.get(i), element);
+                } else if (value instanceof JsonSyntaxException e) {
+                    throw e;
+                } else {
+                    kv = null;
+                }
+                if (kv != null) {
+                    result.add(kv);
+                }
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * Reads the strict json (RFC 8259) directly from the string.
+     * Throws {@link UnsupportedJsonException} as soon as the json is not strict.
+     */
+    private static final class StrictJsonDecoder {
+
+        // well below the nesting limit of the JsonReader
+        private static final int MAX_DEPTH = 128;
+        // longer literals may be treated by the JsonReader as unquoted strings
+        private static final int MAX_NUMBER_LENGTH = 128;
+
+        private final String json;
+        private int pos;
+
+        StrictJsonDecoder(String json) {
+            this.json = json;
+        }
+
+        PostTelemetryMsg decode(long systemTs) {
+            List<TelemetryObject> objects = new ArrayList<>();
+            char c = nextNonWhitespace();
+            if (c == '{') {
+                objects.add(decodeObject());
+            } else if (c == '[') {
+                if (peekNonWhitespace() == ']') {
+                    pos++;
+                } else {
+                    do {
+                        if (nextNonWhitespace() != '{') {
+                            throw UnsupportedJsonException.INSTANCE;
+                        }
+                        objects.add(decodeObject());
+                    } while (nextSeparator(']'));
+                }
+            } else {
+                throw UnsupportedJsonException.INSTANCE;
+            }
+            skipWhitespace();
+            if (pos != json.length()) {
+                throw UnsupportedJsonException.INSTANCE;
+            }
+            return toPostTelemetryMsg(objects, systemTs);
+        }
+
+        private TelemetryObject decodeObject() {
+            TelemetryObject object = new TelemetryObject();
+            if (peekNonWhitespace() == '}') {
+                pos++;
+            } else {
+                do {
+                    String key = nextName();
+                    char c = peekNonWhitespace();
+                    if (TS.equals(key)) {
+                        if (isNumberStart(c)) {
+                            String value = readNumber();
+                            object.putTs(value, toKeyValueProto(JsonToken.NUMBER, key, value));
+                        } else {
+                            JsonElement element = readElement();
+                            object.putTs(element, element);
+                        }
+                    } else if (VALUES.equals(key)) {
+                        if (object.hasTs() && c == '{') {
+                            pos++;
+                            object.putValues(decodeValues());
+                        } else {
+                            object.putValues(readElement());
+                        }
+                    } else if (object.isTsFormat()) {
+                        skipValue(1);
+                    } else {
+                        object.put(key, decodeValue(key));
+                    }
+                } while (nextSeparator('}'));
+            }
+            return object;
+        }
+
+        private Entries decodeValues() {
+            Entries entries = new Entries();
+            if (peekNonWhitespace() == '}') {
+                pos++;
+            } else {
+                do {
+                    String key = nextName();
+                    entries.put(key, decodeValue(key));
+                } while (nextSeparator('}'));
+            }
+            return entries;
+        }
+
+        private Object decodeValue(String key) {
+            char c = peekNonWhitespace();
+            switch (c) {
+                case '"':
+                    pos++;
+                    return toKeyValueProto(JsonToken.STRING, key, readString());
+                case 't':
+                    readLiteral("true");
+                    return JsonConverter.toBooleanKeyValueProto(key, true);
+                case 'f':
+                    readLiteral("false");
+                    return JsonConverter.toBooleanKeyValueProto(key, false);
+                case 'n':
+                    readLiteral("null");
+                    return null;
+                case '{':
+                case '[':
+                    return JsonConverter.toJsonKeyValueProto(key, readElement().toString());
+                default:
+                    if (isNumberStart(c)) {
+                        return toKeyValueProto(JsonToken.NUMBER, key, readNumber());
+                    }
+                    throw UnsupportedJsonException.INSTANCE;
+            }
+        }
+
+        private JsonElement readElement() {
+            skipWhitespace();
+            int start = pos;
+            skipValue(1);
+            return JsonParser.parseString(json.substring(start, pos));
+        }
+
+        private void skipValue(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw UnsupportedJsonException.INSTANCE;
+            }
+            char c = peekNonWhitespace();
+            switch (c) {
+                case '"':
+                    pos++;
+                    readString();
+                    break;
+                case 't':
+                    readLiteral("true");
+                    break;
+                case 'f':
+                    readLiteral("false");
+                    break;
+                case 'n':
+                    readLiteral("null");
+                    break;
+                case '{':
+                    pos++;
+                    if (peekNonWhitespace() == '}') {
+                        pos++;
+                    } else {
+                        do {
+                            nextName();
+                            skipValue(depth + 1);
+                        } while (nextSeparator('}'));
+                    }
+                    break;
+                case '[':
+                    pos++;
+                    if (peekNonWhitespace() == ']') {
+                        pos++;
+                    } else {
+                        do {
+                            skipValue(depth + 1);
+                        } while (nextSeparator(']'));
+                    }
+                    break;
+                default:
+                    if (!isNumberStart(c)) {
+                        throw UnsupportedJsonException.INSTANCE;
+                    }
+                    readNumber();
+            }
+        }
+
+        private String nextName() {
+            if (nextNonWhitespace() != '"') {
+                throw UnsupportedJsonException.INSTANCE;
+            }
+            String name = readString();
+            if (nextNonWhitespace() != ':') {
+                throw UnsupportedJsonException.INSTANCE;
+            }
+            return name;
+        }
+
+        /**
+         * Returns true if the next value follows, or false if the object or array is closed.
+         */
+        private boolean nextSeparator(char end) {
+            char c = nextNonWhitespace();
+            if (c == ',') {
+                return true;
+            } else if (c == end) {
+                return false;
+            }
+            throw UnsupportedJsonException.INSTANCE;
+        }
+
+        private String readString() {
+            int start = pos;
+            StringBuilder value = null;
+            while (pos < json.length()) {
+                char c = json.charAt(pos++);
+                if (c == '"') {
+                    if (value == null) {
+                        return json.substring(start, pos - 1);
+                    }
+                    return value.append(json, start, pos - 1).toString();
+                } else if (c == '\\') {
+                    if (value == null) {
+                        value = new StringBuilder();
+                    }
+                    value.append(json, start, pos - 1).append(readEscapeCharacter());
+                    start = pos;
+                } else if (c < 0x20) {
+                    throw UnsupportedJsonException.INSTANCE;
+                }
+            }
+            throw UnsupportedJsonException.INSTANCE;
+        }
+
+        private char readEscapeCharacter() {
+            if (pos >= json.length()) {
+                throw UnsupportedJsonException.INSTANCE;
+            }
+            char c = json.charAt(pos++);
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    return c;
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'u':
+                    if (pos + 4 > json.length()) {
+                        throw UnsupportedJsonException.INSTANCE;
+                    }
+                    int result = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(json.charAt(pos++), 16);
+                        if (digit < 0) {
+                            throw UnsupportedJsonException.INSTANCE;
+                        }
+                        result = (result << 4) + digit;
+                    }
+                    return (char) result;
+                default:
+                    throw UnsupportedJsonException.INSTANCE;
+            }
+        }
+
+        private String readNumber() {
+            int start = pos;
+            if (json.charAt(pos) == '-') {
+                pos++;
+            }
+            if (pos < json.length() && json.charAt(pos) == '0') {
+                pos++;
+            } else if (skipDigits() == 0) {
+                throw UnsupportedJsonException.INSTANCE;
+            }
+            if (pos < json.length() && json.charAt(pos) == '.') {
+                pos++;
+                if (skipDigits() == 0) {
+                    throw UnsupportedJsonException.INSTANCE;
+                }
+            }
+            if (pos < json.length() && (json.charAt(pos) == 'e' || json.charAt(pos) == 'E')) {
+                pos++;
+                if (pos < json.length() && (json.charAt(pos) == '+' || json.charAt(pos) == '-')) {
+                    pos++;
+                }
+                if (skipDigits() == 0) {
+                    throw UnsupportedJsonException.INSTANCE;
+                }
+            }
+            if (pos - start > MAX_NUMBER_LENGTH) {
+                throw UnsupportedJsonException.INSTANCE;
+            }
+            checkValueEnd();
+            return json.substring(start, pos);
+        }
+
+        private int skipDigits() {
+            int start = pos;
+            while (pos < json.length() && json.charAt(pos) >= '0' && json.charAt(pos) <= '9') {
+                pos++;
+            }
+            return pos - start;
+        }
+
+        private void readLiteral(String literal) {
+            if (!json.startsWith(literal, pos)) {
+                throw UnsupportedJsonException.INSTANCE;
+            }
+            pos += literal.length();
+            checkValueEnd();
+        }
+
+        // values that are not followed by a delimiter may be treated by the JsonReader as unquoted strings
+        private void checkValueEnd() {
+            if (pos < json.length()) {
+                char c = json.charAt(pos);
+                if (!isWhitespace(c) && c != ',' && c != '}' && c != ']') {
+                    throw UnsupportedJsonException.INSTANCE;
+                }
+            }
+        }
+
+        private char nextNonWhitespace() {
+            char c = peekNonWhitespace();
+            pos++;
+            return c;
+        }
+
+        private char peekNonWhitespace() {
+            skipWhitespace();
+            if (pos >= json.length()) {
+                throw UnsupportedJsonException.INSTANCE;
+            }
+            return json.charAt(pos);
+        }
+
+        private void skipWhitespace() {
+            while (pos < json.length() && isWhitespace(json.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private static boolean isWhitespace(char c) {
+            return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+        }
+
+        private static boolean isNumberStart(char c) {
+            return c == '-' || (c >= '0' && c <= '9');
+        }
+
+    }
+
+    private static final class UnsupportedJsonException extends RuntimeException {
+
+        private static final UnsupportedJsonException INSTANCE = new UnsupportedJsonException();
+
+        private UnsupportedJsonException() {
+            super(null, null, false, false);
+        }
+
+    }
+
+}
@@ -31,7 +31,6 @@ import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.gen.transport.TransportApiProtos;
 import org.thingsboard.server.gen.transport.TransportProtos;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -49,32 +48,35 @@ public class ProtoConverter {
     }
 
     public static TransportProtos.PostTelemetryMsg validatePostTelemetryMsg(byte[] payload) throws InvalidProtocolBufferException, IllegalArgumentException {
-        TransportProtos.PostTelemetryMsg msg = TransportProtos.PostTelemetryMsg.parseFrom(payload);
-        TransportProtos.PostTelemetryMsg.Builder postTelemetryMsgBuilder = TransportProtos.PostTelemetryMsg.newBuilder();
+        return validatePostTelemetryMsg(TransportProtos.PostTelemetryMsg.parseFrom(payload));
+    }
+
+    /**
+     * Validates the message in place. The message is rebuilt only if some of its entries have no timestamp.
+     */
+    public static TransportProtos.PostTelemetryMsg validatePostTelemetryMsg(TransportProtos.PostTelemetryMsg msg) throws IllegalArgumentException {
         List<TransportProtos.TsKvListProto> tsKvListProtoList = msg.getTsKvListList();
-        if (!CollectionUtils.isEmpty(tsKvListProtoList)) {
-            List<TransportProtos.TsKvListProto> tsKvListProtos = new ArrayList<>();
-            tsKvListProtoList.forEach(tsKvListProto -> {
-                TransportProtos.TsKvListProto transportTsKvListProto = validateTsKvListProto(tsKvListProto);
-                tsKvListProtos.add(transportTsKvListProto);
-            });
-            postTelemetryMsgBuilder.addAllTsKvList(tsKvListProtos);
-            return postTelemetryMsgBuilder.build();
-        } else {
+        if (CollectionUtils.isEmpty(tsKvListProtoList)) {
             throw new IllegalArgumentException("TsKv list is empty!");
         }
+        TransportProtos.PostTelemetryMsg.Builder postTelemetryMsgBuilder = null;
+        for (int i = 0; i < tsKvListProtoList.size(); i++) {
+            TransportProtos.TsKvListProto tsKvListProto = tsKvListProtoList.get(i);
+            TransportProtos.TsKvListProto validated = validateTsKvListProto(tsKvListProto);
+            if (validated != tsKvListProto) {
+                if (postTelemetryMsgBuilder == null) {
+                    postTelemetryMsgBuilder = msg.toBuilder();
+                }
+                postTelemetryMsgBuilder.setTsKvList(i, validated);
+            }
+        }
+        return postTelemetryMsgBuilder != null ? postTelemetryMsgBuilder.build() : msg;
     }
 
-    public static TransportProtos.PostAttributeMsg validatePostAttributeMsg(TransportProtos.PostAttributeMsg msg) throws IllegalArgumentException, InvalidProtocolBufferException {
+    public static TransportProtos.PostAttributeMsg validatePostAttributeMsg(TransportProtos.PostAttributeMsg msg) throws IllegalArgumentException {
         if (!CollectionUtils.isEmpty(msg.getKvList())) {
-            byte[] bytes = msg.toByteArray();
-            TransportProtos.PostAttributeMsg proto = TransportProtos.PostAttributeMsg.parseFrom(bytes);
-            List<TransportProtos.KeyValueProto> kvList = proto.getKvList();
-            List<TransportProtos.KeyValueProto> keyValueProtos = validateKeyValueProtos(kvList);
-            TransportProtos.PostAttributeMsg.Builder result = TransportProtos.PostAttributeMsg.newBuilder();
-            result.addAllKv(keyValueProtos);
-            result.setShared(msg.getShared());
-            return result.build();
+            validateKeyValueProtos(msg.getKvList());
+            return msg;
         } else {
             throw new IllegalArgumentException("KeyValue list is empty!");
         }
@@ -125,20 +127,15 @@ public class ProtoConverter {
     }
 
     private static TransportProtos.TsKvListProto validateTsKvListProto(TransportProtos.TsKvListProto tsKvListProto) {
-        TransportProtos.TsKvListProto.Builder tsKvListBuilder = TransportProtos.TsKvListProto.newBuilder();
-        long ts = tsKvListProto.getTs();
-        if (ts == 0) {
-            ts = System.currentTimeMillis();
-        }
-        tsKvListBuilder.setTs(ts);
         List<TransportProtos.KeyValueProto> kvList = tsKvListProto.getKvList();
-        if (!CollectionUtils.isEmpty(kvList)) {
-            List<TransportProtos.KeyValueProto> keyValueListProtos = validateKeyValueProtos(kvList);
-            tsKvListBuilder.addAllKv(keyValueListProtos);
-            return tsKvListBuilder.build();
-        } else {
+        if (CollectionUtils.isEmpty(kvList)) {
             throw new IllegalArgumentException("KeyValue list is empty!");
         }
+        validateKeyValueProtos(kvList);
+        if (tsKvListProto.getTs() == 0) {
+            return tsKvListProto.toBuilder().setTs(System.currentTimeMillis()).build();
+        }
+        return tsKvListProto;
     }
 
     public static TransportProtos.ProvisionDeviceRequestMsg convertToProvisionRequestMsg(byte[] bytes) throws InvalidProtocolBufferException {
@@ -1295,6 +1295,15 @@ public class ProtoUtils {
         return builder.build();
     }
 
+    // the credentials id and value are not broadcast, the transports only need to know which device was updated
+    private static TransportProtos.DeviceCredentialsProto toCredentialsUpdateProto(DeviceCredentials deviceCredentials) {
+        return TransportProtos.DeviceCredentialsProto.newBuilder()
+                .setDeviceIdMSB(getMsb(deviceCredentials.getDeviceId()))
+                .setDeviceIdLSB(getLsb(deviceCredentials.getDeviceId()))
+                .setCredentialsType(TransportProtos.CredentialsType.valueOf(deviceCredentials.getCredentialsType().name()))
+                .build();
+    }
+
     public static DeviceCredentials fromProto(TransportProtos.DeviceCredentialsProto proto) {
         DeviceCredentials deviceCredentials =
                 new DeviceCredentials(new DeviceCredentialsId(new UUID(proto.getCredentialsIdMSB(), proto.getCredentialsIdLSB())));
@@ -1319,6 +1328,8 @@ public class ProtoUtils {
             builder.setTenantProfile(toProto((TenantProfile) entity));
         } else if (entity instanceof ApiUsageState) {
             builder.setApiUsageState(toProto((ApiUsageState) entity));
+        } else if (entity instanceof DeviceCredentials) {
+            builder.setDeviceCredentials(toCredentialsUpdateProto((DeviceCredentials) entity));
         } else {
             log.warn("[{}] entity does not support toProto serialization .", entity.getClass().getSimpleName());
         }
@@ -0,0 +1,222 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.adaptor;
+
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.thingsboard.server.gen.transport.TransportProtos.KeyValueType;
+import org.thingsboard.server.gen.transport.TransportProtos.PostTelemetryMsg;
+
+import java.io.StringReader;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@Isolated("JsonConverter static settings being modified")
+public class JsonTelemetryDecoderTest {
+
+    private static final long TS = 1700000000000L;
+
+    private static final String TYPICAL_PAYLOAD = "{\"temperature\":42.5,\"humidity\":73,\"active\":true,\"status\":\"OK\",\"firmware\":\"1.2.3\"}";
+    private static final String GATEWAY_PAYLOAD = "[" +
+            "{\"ts\":1700000000000,\"values\":{\"temperature\":42.5,\"humidity\":73,\"active\":true,\"status\":\"OK\"}}," +
+            "{\"ts\":1700000001000,\"values\":{\"temperature\":42.7,\"humidity\":72,\"active\":true,\"status\":\"OK\"}}," +
+            "{\"ts\":1700000002000,\"values\":{\"temperature\":42.9,\"humidity\":71,\"active\":false,\"status\":\"WARN\"}}," +
+            "{\"ts\":1700000003000,\"values\":{\"temperature\":43.1,\"humidity\":70,\"active\":false,\"status\":\"WARN\"," +
+            "\"location\":{\"lat\":50.45,\"lon\":30.52},\"readings\":[1,2,3]}}]";
+
+    @AfterEach
+    public void after() {
+        //restore default state for a static class
+        JsonConverter.setTypeCastEnabled(true);
+        JsonConverter.setMaxStringValueLength(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            TYPICAL_PAYLOAD,
+            GATEWAY_PAYLOAD,
+            "{}",
+            "[]",
+            "[{}, {\"a\": 1}]",
+            "{\"long\": 11, \"double\": 1.1, \"zero\": 42.0, \"exp\": 1E+1, \"expDouble\": 101E-1, \"big\": 9.9701010061400066E19, \"negativeZero\": -0}",
+            "{\"negativeZeroDouble\": -0.0, \"maxLong\": 9223372036854775807, \"overLong\": 9223372036854775808, \"digits16\": 0.1234567890123456, \"digits17\": 0.12345678901234567}",
+            "{\"negativeZeroStr\": \"-0.00\", \"trailingDotStr\": \"1.\", \"leadingDotStr\": \".5\", \"plusStr\": \"+5\", \"zerosStr\": \"007\", \"expStr\": \"1e3\"}",
+            "{\"longStr\": \"11\", \"doubleStr\": \"1.1\", \"bigStr\": \"123456789012345678901234567890\", \"hexStr\": \"0x1A\", \"str\": \"abc\", \"empty\": \"\"}",
+            "{\"preciseDouble\": 0.12345678901234567890, \"bigInt\": 123456789012345678901234567890}",
+            "{\"bool\": false, \"null\": null, \"obj\": {\"a\": [1, {\"b\": null}]}, \"arr\": [], \"unicode\": \"\\u0442\\u0435\\u0441\\u0442\"}",
+            "{\"a\": 1, \"b\": 2, \"a\": \"3\", \"c\": null, \"c\": 4, \"b\": null}",
+            "{\"ts\": 1700000000000, \"values\": {\"a\": 1, \"a\": 2}, \"other\": \"ignored\"}",
+            "{\"other\": \"ignored\", \"values\": {\"a\": 1}, \"ts\": \"1700000000000\"}",
+            "{\"ts\": 1700000000000, \"values\": {\"a\": 1}, \"values\": {\"b\": 2}}",
+            "{\"values\": {\"a\": 1}, \"ts\": 1700000000000, \"values\": {\"b\": 2}}",
+            "{\"ts\": 1700000000000, \"a\": 1}",
+            "{\"values\": {\"a\": 1}, \"b\": 2}",
+            "{\"values\": 5, \"b\": 2}",
+            "{\"escaped\": \"q\\\" b\\\\ s\\/ \\b\\f\\n\\r\\t \\u0442\\u00e9\", \"nested\": {\"s\": \"q\\\" \\u2028\\u0001\"}}",
+            "{\"\": \"empty key\", \"\\u0074s\": 1700000000000, \"values\": {\"a\": 1}}",
+            "{unquoted: 'single quoted', \"NaN\": NaN, \"Infinity\": -Infinity}",
+            "{\"leadingZero\": 01, \"trailingDot\": 1., \"leadingDot\": .5, \"plus\": +1, \"literal\": truex, \"number\": 12abc}",
+            "{\"a\": 1; /* comment */ \"b\" = 2, \"c\" => 3}",
+            "{\"a\": tru, \"b\": nul}",
+            "\ufeff{\"bom\": 1}",
+            "{\"control\": \"tab\there\"}",
+            " \t\r\n{ \"a\" : [ 1 , { } ] , \"b\" : { } } \n",
+            "  {\"a\": 1}  "
+    })
+    public void testDecodedTelemetryIsEqualToConvertedJsonTree(String json) {
+        PostTelemetryMsg expected = convertJsonTree(json);
+        assertEquals(expected, decode(json));
+        assertEquals(expected, decodeWithJsonReader(json));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"bigInt\": 123456789012345678901234567890, \"preciseDouble\": 0.12345678901234567890}",
+            "{\"longStr\": \"11\", \"bigStr\": \"123456789012345678901234567890\"}",
+            "{\"ts\": 1700000000000, \"values\": {\"a\": 1}, \"bigInt\": 123456789012345678901234567890}",
+    })
+    public void testDecodedTelemetryIsEqualToConvertedJsonTreeWithoutTypeCast(String json) {
+        JsonConverter.setTypeCastEnabled(false);
+        assertDecodedTelemetryIsEqualToConvertedJsonTree(json);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"a\": \"too long\", \"a\": \"short\"}",
+            "{\"a\": \"too long\", \"ts\": 1700000000000, \"values\": {\"b\": \"short\"}}",
+            "{\"a\": \"short\", \"b\": \"too long\"}",
+            "{\"ts\": 1700000000000, \"values\": {\"b\": \"too long\"}}",
+    })
+    public void testDecodedTelemetryIsEqualToConvertedJsonTreeWithMaxStringValueLength(String json) {
+        JsonConverter.setMaxStringValueLength(5);
+        assertDecodedTelemetryIsEqualToConvertedJsonTree(json);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "   ",
+            "null",
+            "5",
+            "\"str\"",
+            "[1]",
+            "[{\"a\": 1}, \"b\"]",
+            "{\"a\": 1",
+            "{\"a\": 1}}",
+            "{\"a\": 1} {\"b\": 2}",
+            "{\"a\": }",
+            "{\"a\": \"unterminated}",
+            "{\"a\": 1,}",
+            "[{\"a\": 1},]",
+            "[{\"ts\": true, \"values\": {\"a\": 1}},]",
+            "{\"ts\": 1700000000000, \"values\": 5}",
+            "{\"ts\": true, \"values\": {\"a\": 1}}",
+            "{\"ts\": null, \"values\": {\"a\": 1}}",
+            "{\"values\": null, \"ts\": 1700000000000}",
+    })
+    public void testDecodingFailsWhenJsonTreeConversionFails(String json) {
+        Throwable expected = catchThrowable(() -> convertJsonTree(json));
+        assertThat(expected).isNotNull();
+        assertThatThrownBy(() -> decode(json)).isInstanceOf(expected.getClass());
+        assertThatThrownBy(() -> decodeWithJsonReader(json)).isInstanceOf(expected.getClass());
+    }
+
+    @Test
+    public void testDecodeTypicalPayload() {
+        PostTelemetryMsg msg = decode(TYPICAL_PAYLOAD);
+
+        assertThat(msg.getTsKvListList()).hasSize(1);
+        assertThat(msg.getTsKvList(0).getTs()).isEqualTo(TS);
+        assertThat(msg.getTsKvList(0).getKvList()).extracting(kv -> kv.getKey() + "=" + kv.getType())
+                .containsExactly("temperature=DOUBLE_V", "humidity=LONG_V", "active=BOOLEAN_V", "status=STRING_V", "firmware=STRING_V");
+    }
+
+    @Test
+    public void testDecodeGatewayPayload() {
+        PostTelemetryMsg msg = decode(GATEWAY_PAYLOAD);
+
+        assertThat(msg.getTsKvListList()).extracting(tsKvList -> tsKvList.getTs())
+                .containsExactly(1700000000000L, 1700000001000L, 1700000002000L, 1700000003000L);
+        assertThat(msg.getTsKvList(3).getKvList()).filteredOn(kv -> kv.getType() == KeyValueType.JSON_V)
+                .extracting(kv -> kv.getJsonV())
+                .containsExactly("{\"lat\":50.45,\"lon\":30.52}", "[1,2,3]");
+    }
+
+    /**
+     * Rough comparison with the json tree conversion, the results are only logged. Disabled by default, run with:
+     * mvn test -Dtest=JsonTelemetryDecoderTest#testDecodingThroughput -Djson.decoder.benchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "json.decoder.benchmark", matches = "true")
+    public void testDecodingThroughput() {
+        for (String payload : new String[]{TYPICAL_PAYLOAD, GATEWAY_PAYLOAD}) {
+            measure("json tree", () -> convertJsonTree(payload));
+            measure("streaming", () -> decode(payload));
+        }
+    }
+
+    private void assertDecodedTelemetryIsEqualToConvertedJsonTree(String json) {
+        PostTelemetryMsg expected;
+        try {
+            expected = convertJsonTree(json);
+        } catch (JsonSyntaxException e) {
+            assertThatThrownBy(() -> decode(json)).isInstanceOf(JsonSyntaxException.class).hasMessage(e.getMessage());
+            assertThatThrownBy(() -> decodeWithJsonReader(json)).isInstanceOf(JsonSyntaxException.class).hasMessage(e.getMessage());
+            return;
+        }
+        assertEquals(expected, decode(json));
+        assertEquals(expected, decodeWithJsonReader(json));
+    }
+
+    private static PostTelemetryMsg convertJsonTree(String json) {
+        return JsonConverter.convertToTelemetryProto(JsonParser.parseString(json), TS);
+    }
+
+    private static PostTelemetryMsg decode(String json) {
+        return JsonConverter.convertToTelemetryProto(json, TS);
+    }
+
+    private static PostTelemetryMsg decodeWithJsonReader(String json) {
+        return JsonTelemetryDecoder.decode(new StringReader(json), TS);
+    }
+
+    private static void measure(String name, Supplier<PostTelemetryMsg> decoder) {
+        int warmup = 20000;
+        int iterations = 100000;
+        for (int i = 0; i < warmup; i++) {
+            decoder.get();
+        }
+        long startTs = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            decoder.get();
+        }
+        long duration = System.nanoTime() - startTs;
+        log.info("[{}] Decoded {} messages in {} ms, {} msgs/s", name, iterations, duration / 1000000, iterations * 1000000000L / duration);
+    }
+
+}
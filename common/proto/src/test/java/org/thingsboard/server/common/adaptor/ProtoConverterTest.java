@@ -0,0 +1,79 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.adaptor;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.gen.transport.TransportProtos.KeyValueProto;
+import org.thingsboard.server.gen.transport.TransportProtos.KeyValueType;
+import org.thingsboard.server.gen.transport.TransportProtos.PostTelemetryMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.TsKvListProto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ProtoConverterTest {
+
+    @Test
+    public void givenValidTelemetry_whenValidate_thenSameMsgReturned() throws Exception {
+        PostTelemetryMsg msg = PostTelemetryMsg.newBuilder()
+                .addTsKvList(tsKvList(1000L, longKv("temperature", 42)))
+                .addTsKvList(tsKvList(2000L, longKv("humidity", 12)))
+                .build();
+
+        assertThat(ProtoConverter.validatePostTelemetryMsg(msg)).isSameAs(msg);
+        assertThat(ProtoConverter.validatePostTelemetryMsg(msg.toByteArray())).isEqualTo(msg);
+    }
+
+    @Test
+    public void givenTelemetryWithoutTs_whenValidate_thenTsIsSet() {
+        long startTs = System.currentTimeMillis();
+        PostTelemetryMsg msg = PostTelemetryMsg.newBuilder()
+                .addTsKvList(tsKvList(1000L, longKv("temperature", 42)))
+                .addTsKvList(tsKvList(0L, longKv("humidity", 12)))
+                .build();
+
+        PostTelemetryMsg result = ProtoConverter.validatePostTelemetryMsg(msg);
+
+        assertThat(result.getTsKvList(0)).isSameAs(msg.getTsKvList(0));
+        assertThat(result.getTsKvList(1).getTs()).isGreaterThanOrEqualTo(startTs);
+        assertThat(result.getTsKvList(1).getKvList()).isEqualTo(msg.getTsKvList(1).getKvList());
+    }
+
+    @Test
+    public void givenInvalidTelemetry_whenValidate_thenException() {
+        assertThatThrownBy(() -> ProtoConverter.validatePostTelemetryMsg(PostTelemetryMsg.getDefaultInstance()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("TsKv list is empty!");
+        assertThatThrownBy(() -> ProtoConverter.validatePostTelemetryMsg(PostTelemetryMsg.newBuilder()
+                .addTsKvList(TsKvListProto.newBuilder().setTs(1000L))
+                .build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("KeyValue list is empty!");
+        assertThatThrownBy(() -> ProtoConverter.validatePostTelemetryMsg(PostTelemetryMsg.newBuilder()
+                .addTsKvList(tsKvList(1000L, KeyValueProto.newBuilder().setKey("json").setType(KeyValueType.JSON_V).setJsonV("{").build()))
+                .build()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TsKvListProto tsKvList(long ts, KeyValueProto kv) {
+        return TsKvListProto.newBuilder().setTs(ts).addKv(kv).build();
+    }
+
+    private static KeyValueProto longKv(String key, long value) {
+        return KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.LONG_V).setLongV(value).build();
+    }
+
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.common;
+
+import com.google.protobuf.GeneratedMessageV3;
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.queue.TbQueueCallback;
+import org.thingsboard.server.queue.TbQueueMsgMetadata;
+import org.thingsboard.server.queue.TbQueueProducer;
+import org.thingsboard.server.queue.scheduler.SchedulerComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Producer that packs the messages sent to the same partition within the linger time into a single queue record.
+ * <p>
+ * The packed record is built by the packer function, and the consumers must unpack it with {@link #unpack}
+ * before processing. The order of the messages within a partition is preserved. The underlying producer is not stopped
+ * by {@link #stop()}, since it is usually shared.
+ */
+@Slf4j
+public class TbQueueBatchingProducer<T extends GeneratedMessageV3> implements TbQueueProducer<TbProtoQueueMsg<T>> {
+
+    private final String name;
+    private final TbQueueProducer<TbProtoQueueMsg<T>> producer;
+    private final Function<List<T>, T> packer;
+    private final int maxBatchSize;
+    private final int maxBatchBytes;
+    private final long lingerMs;
+    private final SchedulerComponent scheduler;
+
+    private final ConcurrentMap<TopicPartitionInfo, Batch> batches = new ConcurrentHashMap<>();
+    private final StatsCounter msgsCounter;
+    private final StatsCounter recordsCounter;
+
+    public TbQueueBatchingProducer(String name, TbQueueProducer<TbProtoQueueMsg<T>> producer, Function<List<T>, T> packer,
+                                   int maxBatchSize, int maxBatchBytes, long lingerMs,
+                                   SchedulerComponent scheduler, StatsFactory statsFactory) {
+        this.name = name;
+        this.producer = producer;
+        this.packer = packer;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.lingerMs = lingerMs;
+        this.scheduler = scheduler;
+        String statsKey = name + ".batching";
+        this.msgsCounter = statsFactory.createStatsCounter(statsKey, "msgs");
+        this.recordsCounter = statsFactory.createStatsCounter(statsKey, "records");
+    }
+
+    @Override
+    public String getDefaultTopic() {
+        return producer.getDefaultTopic();
+    }
+
+    @Override
+    public void send(TopicPartitionInfo tpi, TbProtoQueueMsg<T> msg, TbQueueCallback callback) {
+        msgsCounter.increment();
+        batches.computeIfAbsent(tpi, Batch::new).add(msg, callback);
+    }
+
+    @Override
+    public void stop() {
+        batches.values().forEach(Batch::flush);
+    }
+
+    public void printStats() {
+        int msgs = msgsCounter.getAndClear();
+        int records = recordsCounter.getAndClear();
+        if (msgs > 0) {
+            log.info("[{}] Sent {} messages in {} queue records", name, msgs, records);
+        }
+    }
+
+    /**
+     * Replaces the packed records with the messages they contain. The unpacked messages get the key and headers of the record.
+     */
+    public static <T extends GeneratedMessageV3> List<TbProtoQueueMsg<T>> unpack(List<TbProtoQueueMsg<T>> msgs, Function<T, List<T>> packedMsgs) {
+        List<TbProtoQueueMsg<T>> result = null;
+        for (int i = 0; i < msgs.size(); i++) {
+            TbProtoQueueMsg<T> msg = msgs.get(i);
+            List<T> packed = packedMsgs.apply(msg.getValue());
+            if (packed.isEmpty()) {
+                if (result != null) {
+                    result.add(msg);
+                }
+                continue;
+            }
+            if (result == null) {
+                result = new ArrayList<>(msgs.size() + packed.size());
+                result.addAll(msgs.subList(0, i));
+            }
+            for (T value : packed) {
+                result.add(new TbProtoQueueMsg<>(msg.getKey(), value, msg.getHeaders()));
+            }
+        }
+        return result != null ? result : msgs;
+    }
+
+    private class Batch {
+
+        private final TopicPartitionInfo tpi;
+        private List<TbProtoQueueMsg<T>> msgs = new ArrayList<>();
+        private List<TbQueueCallback> callbacks = new ArrayList<>();
+        private int bytes;
+        private ScheduledFuture<?> flushTask;
+
+        Batch(TopicPartitionInfo tpi) {
+            this.tpi = tpi;
+        }
+
+        synchronized void add(TbProtoQueueMsg<T> msg, TbQueueCallback callback) {
+            int size = msg.getValue().getSerializedSize();
+            if (!msgs.isEmpty() && bytes + size > maxBatchBytes) {
+                flush();
+            }
+            msgs.add(msg);
+            callbacks.add(callback);
+            bytes += size;
+            if (msgs.size() >= maxBatchSize || bytes >= maxBatchBytes) {
+                flush();
+            } else if (flushTask == null) {
+                flushTask = scheduler.schedule(this::flush, lingerMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        // sends under the lock, so that the records of the partition are sent in order
+        synchronized void flush() {
+            if (flushTask != null) {
+                flushTask.cancel(false);
+                flushTask = null;
+            }
+            if (msgs.isEmpty()) {
+                return;
+            }
+            List<TbProtoQueueMsg<T>> batchMsgs = msgs;
+            List<TbQueueCallback> batchCallbacks = callbacks;
+            msgs = new ArrayList<>();
+            callbacks = new ArrayList<>();
+            bytes = 0;
+            recordsCounter.increment();
+            try {
+                if (batchMsgs.size() == 1) {
+                    producer.send(tpi, batchMsgs.get(0), batchCallbacks.get(0));
+                } else {
+                    List<T> values = new ArrayList<>(batchMsgs.size());
+                    for (TbProtoQueueMsg<T> msg : batchMsgs) {
+                        values.add(msg.getValue());
+                    }
+                    producer.send(tpi, new TbProtoQueueMsg<>(batchMsgs.get(0).getKey(), packer.apply(values)), new BatchCallback(batchCallbacks));
+                }
+            } catch (Exception e) {
+                log.warn("[{}][{}] Failed to send {} messages", name, tpi.getFullTopicName(), batchMsgs.size(), e);
+                new BatchCallback(batchCallbacks).onFailure(e);
+            }
+        }
+
+    }
+
+    private record BatchCallback(List<TbQueueCallback> callbacks) implements TbQueueCallback {
+
+        @Override
+        public void onSuccess(TbQueueMsgMetadata metadata) {
+            for (TbQueueCallback callback : callbacks) {
+                if (callback != null) {
+                    callback.onSuccess(metadata);
+                }
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            for (TbQueueCallback callback : callbacks) {
+                if (callback != null) {
+                    callback.onFailure(t);
+                }
+            }
+        }
+
+    }
+
+}
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 
 import static org.thingsboard.server.common.msg.queue.TopicPartitionInfo.withTopic;
@@ -37,7 +38,8 @@ public class KafkaQueueStateService<E extends TbQueueMsg, S extends TbQueueMsg>
     private final PartitionedQueueConsumerManager<S> stateConsumer;
     private final Supplier<Map<String, Long>> eventsStartOffsetsProvider;
 
-    private final Set<TopicPartitionInfo> partitionsInProgress = ConcurrentHashMap.newKeySet();
+    // restore start time by partition
+    private final ConcurrentMap<TopicPartitionInfo, Long> partitionsInProgress = new ConcurrentHashMap<>();
 
     @Builder
     public KafkaQueueStateService(PartitionedQueueConsumerManager<E> eventConsumer,
@@ -54,13 +56,15 @@ public class KafkaQueueStateService<E extends TbQueueMsg, S extends TbQueueMsg>
         Map<String, Long> eventsStartOffsets = eventsStartOffsetsProvider != null ? eventsStartOffsetsProvider.get() : null; // remembering the offsets before subscribing to states
 
         Set<TopicPartitionInfo> statePartitions = withTopic(partitions, stateConsumer.getTopic());
-        partitionsInProgress.addAll(statePartitions);
+        long startTs = System.currentTimeMillis();
+        statePartitions.forEach(statePartition -> partitionsInProgress.put(statePartition, startTs));
         stateConsumer.addPartitions(statePartitions, statePartition -> {
             var readLock = partitionsLock.readLock();
             readLock.lock();
             try {
-                partitionsInProgress.remove(statePartition);
-                log.info("Finished partition {} (still in progress: {})", statePartition, partitionsInProgress);
+                Long partitionStartTs = partitionsInProgress.remove(statePartition);
+                log.info("Finished partition {} in {} ms (still in progress: {})", statePartition,
+                        partitionStartTs != null ? System.currentTimeMillis() - partitionStartTs : 0, partitionsInProgress.keySet());
                 if (callback != null) {
                     callback.onPartitionRestored(statePartition);
                 }
@@ -0,0 +1,146 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.common;
+
+import io.micrometer.core.instrument.Counter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.gen.transport.TransportProtos.DeviceActivityProto;
+import org.thingsboard.server.gen.transport.TransportProtos.ToCoreMsg;
+import org.thingsboard.server.queue.TbQueueCallback;
+import org.thingsboard.server.queue.TbQueueProducer;
+import org.thingsboard.server.queue.scheduler.SchedulerComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TbQueueBatchingProducerTest {
+
+    private final TopicPartitionInfo tpi = new TopicPartitionInfo("tb_core", null, 1, true);
+
+    @Mock
+    private TbQueueProducer<TbProtoQueueMsg<ToCoreMsg>> producer;
+    @Mock
+    private SchedulerComponent scheduler;
+    @Mock
+    private StatsFactory statsFactory;
+
+    private TbQueueBatchingProducer<ToCoreMsg> batchingProducer;
+
+    @BeforeEach
+    public void setUp() {
+        when(statsFactory.createStatsCounter(anyString(), anyString())).thenAnswer(invocation ->
+                new StatsCounter(new AtomicInteger(), mock(Counter.class), invocation.getArgument(1)));
+        batchingProducer = new TbQueueBatchingProducer<>("core.producer", producer,
+                msgs -> ToCoreMsg.newBuilder().addAllPackedMsgs(msgs).build(), 3, 65536, 5, scheduler, statsFactory);
+    }
+
+    @Test
+    public void testMessagesArePackedWhenMaxSizeIsReached() {
+        List<TbQueueCallback> callbacks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TbQueueCallback callback = mock(TbQueueCallback.class);
+            callbacks.add(callback);
+            batchingProducer.send(tpi, toQueueMsg(i), callback);
+        }
+
+        ArgumentCaptor<TbProtoQueueMsg<ToCoreMsg>> msgCaptor = ArgumentCaptor.forClass(TbProtoQueueMsg.class);
+        ArgumentCaptor<TbQueueCallback> callbackCaptor = ArgumentCaptor.forClass(TbQueueCallback.class);
+        verify(producer).send(eq(tpi), msgCaptor.capture(), callbackCaptor.capture());
+        assertThat(msgCaptor.getValue().getValue().getPackedMsgsList()).extracting(msg -> msg.getDeviceActivityMsg().getLastActivityTime())
+                .containsExactly(0L, 1L, 2L);
+
+        callbackCaptor.getValue().onSuccess(null);
+        callbacks.forEach(callback -> verify(callback).onSuccess(null));
+    }
+
+    @Test
+    public void testMessagesArePackedAfterLinger() {
+        doReturn(mock(ScheduledFuture.class)).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        batchingProducer.send(tpi, toQueueMsg(0), null);
+        batchingProducer.send(tpi, toQueueMsg(1), null);
+        verify(producer, never()).send(any(), any(), any());
+
+        ArgumentCaptor<Runnable> flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(1)).schedule(flushCaptor.capture(), eq(5L), eq(TimeUnit.MILLISECONDS));
+        flushCaptor.getValue().run();
+
+        ArgumentCaptor<TbProtoQueueMsg<ToCoreMsg>> msgCaptor = ArgumentCaptor.forClass(TbProtoQueueMsg.class);
+        verify(producer).send(eq(tpi), msgCaptor.capture(), any());
+        assertThat(msgCaptor.getValue().getValue().getPackedMsgsCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSingleMessageIsSentAsIs() {
+        TbProtoQueueMsg<ToCoreMsg> msg = toQueueMsg(0);
+        TbQueueCallback callback = mock(TbQueueCallback.class);
+        batchingProducer.send(tpi, msg, callback);
+
+        batchingProducer.stop();
+
+        verify(producer).send(tpi, msg, callback);
+        verify(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testUnpackPreservesOrder() {
+        List<TbProtoQueueMsg<ToCoreMsg>> msgs = List.of(
+                toQueueMsg(0),
+                new TbProtoQueueMsg<>(UUID.randomUUID(), ToCoreMsg.newBuilder()
+                        .addPackedMsgs(toQueueMsg(1).getValue())
+                        .addPackedMsgs(toQueueMsg(2).getValue())
+                        .build()),
+                toQueueMsg(3)
+        );
+
+        List<TbProtoQueueMsg<ToCoreMsg>> unpacked = TbQueueBatchingProducer.unpack(msgs, ToCoreMsg::getPackedMsgsList);
+
+        assertThat(unpacked).extracting(msg -> msg.getValue().getDeviceActivityMsg().getLastActivityTime())
+                .containsExactly(0L, 1L, 2L, 3L);
+        assertThat(TbQueueBatchingProducer.unpack(List.of(msgs.get(0)), ToCoreMsg::getPackedMsgsList)).containsExactly(msgs.get(0));
+    }
+
+    private static TbProtoQueueMsg<ToCoreMsg> toQueueMsg(long ts) {
+        return new TbProtoQueueMsg<>(UUID.randomUUID(), ToCoreMsg.newBuilder()
+                .setDeviceActivityMsg(DeviceActivityProto.newBuilder().setLastActivityTime(ts))
+                .build());
+    }
+
+}
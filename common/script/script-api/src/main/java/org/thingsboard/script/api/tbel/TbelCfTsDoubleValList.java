@@ -0,0 +1,78 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.script.api.tbel;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list of time series values backed by primitive arrays, optionally circular.
+ * Elements are created on access, so the values are not boxed until the script reads them.
+ */
+public class TbelCfTsDoubleValList extends AbstractList<TbelCfTsDoubleVal> implements RandomAccess {
+
+    private final long[] ts;
+    private final double[] values;
+    private final int offset;
+    private final int size;
+
+    public TbelCfTsDoubleValList(long[] ts, double[] values) {
+        this(ts, values, 0, ts.length);
+    }
+
+    /**
+     * Creates a view of the size elements starting at the offset, wrapping around the end of the arrays.
+     */
+    public TbelCfTsDoubleValList(long[] ts, double[] values, int offset, int size) {
+        if (ts.length != values.length) {
+            throw new IllegalArgumentException("Timestamps and values must have the same length.");
+        }
+        if (size > ts.length || (size > 0 && (offset < 0 || offset >= ts.length))) {
+            throw new IllegalArgumentException("Offset and size must be within the arrays.");
+        }
+        this.ts = ts;
+        this.values = values;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    @Override
+    public TbelCfTsDoubleVal get(int index) {
+        return new TbelCfTsDoubleVal(getTs(index), getValue(index));
+    }
+
+    public long getTs(int index) {
+        return ts[physicalIndex(index)];
+    }
+
+    public double getValue(int index) {
+        return values[physicalIndex(index)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int physicalIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        int idx = offset + index;
+        return idx < ts.length ? idx : idx - ts.length;
+    }
+
+}
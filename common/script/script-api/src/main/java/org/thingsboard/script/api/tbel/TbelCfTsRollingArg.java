@@ -38,6 +38,7 @@ public class TbelCfTsRollingArg implements TbelCfArg, Iterable<TbelCfTsDoubleVal
     private final TbTimeWindow timeWindow;
     @Getter
     private final List<TbelCfTsDoubleVal> values;
+    private final TbelCfTsRollingStats stats;
 
     @JsonCreator
     public TbelCfTsRollingArg(
@@ -46,12 +47,21 @@ public class TbelCfTsRollingArg implements TbelCfArg, Iterable<TbelCfTsDoubleVal
     ) {
         this.timeWindow = timeWindow;
         this.values = Collections.unmodifiableList(values);
+        this.stats = null;
     }
 
     public TbelCfTsRollingArg(long timeWindow, List<TbelCfTsDoubleVal> values) {
         long ts = System.currentTimeMillis();
         this.timeWindow = new TbTimeWindow(ts - timeWindow, ts);
         this.values = Collections.unmodifiableList(values);
+        this.stats = null;
+    }
+
+    public TbelCfTsRollingArg(long timeWindow, TbelCfTsDoubleValList values, TbelCfTsRollingStats stats) {
+        long ts = System.currentTimeMillis();
+        this.timeWindow = new TbTimeWindow(ts - timeWindow, ts);
+        this.values = values;
+        this.stats = stats;
     }
 
     @Override
@@ -72,6 +82,12 @@ public class TbelCfTsRollingArg implements TbelCfArg, Iterable<TbelCfTsDoubleVal
         if (values.isEmpty()) {
             throw new IllegalArgumentException("Rolling argument values are empty.");
         }
+        if (stats != null) {
+            if (!ignoreNaN && stats.nanCount() > 0) {
+                return Double.NaN;
+            }
+            return stats.count() > 0 ? Math.max(Double.MIN_VALUE, stats.max()) : Double.MIN_VALUE;
+        }
 
         double max = Double.MIN_VALUE;
         for (TbelCfTsDoubleVal value : values) {
@@ -94,6 +110,12 @@ public class TbelCfTsRollingArg implements TbelCfArg, Iterable<TbelCfTsDoubleVal
         if (values.isEmpty()) {
             throw new IllegalArgumentException("Rolling argument values are empty.");
         }
+        if (stats != null) {
+            if (!ignoreNaN && stats.nanCount() > 0) {
+                return Double.NaN;
+            }
+            return stats.count() > 0 ? Math.min(Double.MAX_VALUE, stats.min()) : Double.MAX_VALUE;
+        }
 
         double min = Double.MAX_VALUE;
         for (TbelCfTsDoubleVal value : values) {
@@ -141,6 +163,9 @@ public class TbelCfTsRollingArg implements TbelCfArg, Iterable<TbelCfTsDoubleVal
         if (!ignoreNaN && Double.isNaN(mean)) {
             return Double.NaN;
         }
+        if (stats != null) {
+            return Math.sqrt(stats.m2() / count(ignoreNaN));
+        }
 
         double sum = 0;
         for (TbelCfTsDoubleVal value : values) {
@@ -189,6 +214,9 @@ public class TbelCfTsRollingArg implements TbelCfArg, Iterable<TbelCfTsDoubleVal
     }
 
     public int count(boolean ignoreNaN) {
+        if (stats != null) {
+            return ignoreNaN ? stats.count() : stats.count() + stats.nanCount();
+        }
         int count = 0;
         if (ignoreNaN) {
             for (TbelCfTsDoubleVal value : values) {
@@ -253,6 +281,9 @@ public class TbelCfTsRollingArg implements TbelCfArg, Iterable<TbelCfTsDoubleVal
         if (values.isEmpty()) {
             throw new IllegalArgumentException("Rolling argument values are empty.");
         }
+        if (stats != null) {
+            return !ignoreNaN && stats.nanCount() > 0 ? Double.NaN : stats.sum();
+        }
 
         double sum = 0;
         for (TbelCfTsDoubleVal value : values) {
@@ -0,0 +1,30 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.script.api.tbel;
+
+/**
+ * Aggregates of the rolling argument values maintained incrementally by the argument state.
+ * All aggregates except {@code nanCount} are calculated over the values that are not NaN.
+ *
+ * @param count    number of values that are not NaN
+ * @param nanCount number of NaN values
+ * @param sum      sum of the values
+ * @param m2       sum of squared differences from the mean of the values
+ * @param min      minimum value, undefined if {@code count} is 0
+ * @param max      maximum value, undefined if {@code count} is 0
+ */
+public record TbelCfTsRollingStats(int count, int nanCount, double sum, double m2, double min, double max) {
+}
@@ -19,6 +19,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.stereotype.Service;
 import org.thingsboard.server.common.data.ObjectType;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityDataQuery;
 
@@ -44,10 +45,19 @@ public class DummyEdqsStatsService implements EdqsStatsService {
     @Override
     public void reportEdqsCountQuery(TenantId tenantId, EntityCountQuery query, long timingNanos) {}
 
+    @Override
+    public void reportEdqsAggregationQuery(TenantId tenantId, EntityAggregationQuery query, long timingNanos) {}
+
     @Override
     public void reportStringCompressed() {}
 
     @Override
     public void reportStringUncompressed() {}
 
+    @Override
+    public void reportQueryCacheHit() {}
+
+    @Override
+    public void reportQueryCacheMiss() {}
+
 }
@@ -17,6 +17,7 @@ package org.thingsboard.server.common.stats;
 
 import org.thingsboard.server.common.data.ObjectType;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityDataQuery;
 
@@ -34,8 +35,14 @@ public interface EdqsStatsService {
 
     void reportEdqsCountQuery(TenantId tenantId, EntityCountQuery query, long timingNanos);
 
+    void reportEdqsAggregationQuery(TenantId tenantId, EntityAggregationQuery query, long timingNanos);
+
     void reportStringCompressed();
 
     void reportStringUncompressed();
 
+    void reportQueryCacheHit();
+
+    void reportQueryCacheMiss();
+
 }
@@ -45,7 +45,7 @@ public class ProtoCoapAdaptor implements CoapTransportAdaptor {
     public TransportProtos.PostTelemetryMsg convertToPostTelemetry(UUID sessionId, Request inbound, Descriptors.Descriptor telemetryMsgDescriptor) throws AdaptorException {
         ProtoConverter.validateDescriptor(telemetryMsgDescriptor);
         try {
-            return JsonConverter.convertToTelemetryProto(JsonParser.parseString(ProtoConverter.dynamicMsgToJson(inbound.getPayload(), telemetryMsgDescriptor)));
+            return JsonConverter.convertToTelemetryProto(ProtoConverter.dynamicMsgToJson(inbound.getPayload(), telemetryMsgDescriptor));
         } catch (Exception e) {
             throw new AdaptorException(e);
         }
@@ -22,8 +22,10 @@ import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.config.CoapConfig;
 import org.eclipse.californium.core.observe.ObserveRelation;
 import org.eclipse.californium.core.server.resources.CoapExchange;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.thingsboard.server.coapserver.CoapServerContext;
 import org.thingsboard.server.coapserver.TbCoapTransportComponent;
@@ -47,6 +49,9 @@ import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.DeviceProfileId;
 import org.thingsboard.server.common.data.rpc.RpcStatus;
 import org.thingsboard.server.common.msg.session.FeatureType;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.common.stats.StatsType;
 import org.thingsboard.server.common.transport.DeviceDeletedEvent;
 import org.thingsboard.server.common.transport.DeviceProfileUpdatedEvent;
 import org.thingsboard.server.common.transport.DeviceUpdatedEvent;
@@ -68,13 +73,17 @@ import org.thingsboard.server.transport.coap.callback.CoapNoOpCallback;
 import org.thingsboard.server.transport.coap.callback.CoapResponseCallback;
 import org.thingsboard.server.transport.coap.callback.CoapResponseCodeCallback;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.eclipse.californium.core.coap.Message.MAX_MID;
@@ -92,20 +101,38 @@ public class DefaultCoapClientContext implements CoapClientContext {
     private final PartitionService partitionService;
     private final ConcurrentMap<DeviceId, TbCoapClientState> clients = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, TbCoapClientState> clientsByToken = new ConcurrentHashMap<>();
+    // the transport configuration is shared by all the clients of the profile, since proto descriptors are expensive to keep per client
+    private final ConcurrentMap<DeviceProfileId, ProfileConfiguration> profileConfigurations = new ConcurrentHashMap<>();
+    private final Queue<TbCoapClientState> pendingNotifications = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean notificationsFlushScheduled = new AtomicBoolean();
+
+    private final StatsCounter notificationsSent;
+    private final StatsCounter notificationsCoalesced;
+
+    @Value("${transport.coap.notifications.batch_interval_ms:10}")
+    private long notificationsBatchIntervalMs;
+    @Value("${transport.stats.enabled:false}")
+    private boolean statsEnabled;
 
     public DefaultCoapClientContext(CoapServerContext config, @Lazy CoapTransportContext transportContext,
                                     TransportService transportService, TransportDeviceProfileCache profileCache,
-                                    PartitionService partitionService) {
+                                    PartitionService partitionService, StatsFactory statsFactory) {
         this.config = config;
         this.transportContext = transportContext;
         this.transportService = transportService;
         this.profileCache = profileCache;
         this.partitionService = partitionService;
+        String statsKey = StatsType.TRANSPORT.getName() + ".coap";
+        this.notificationsSent = statsFactory.createStatsCounter(statsKey, "notificationsSent");
+        this.notificationsCoalesced = statsFactory.createStatsCounter(statsKey, "notificationsCoalesced");
+        statsFactory.createGauge(statsKey, "clients", clients, Map::size);
+        statsFactory.createGauge(statsKey, "observations", clientsByToken, Map::size);
     }
 
     @EventListener(DeviceProfileUpdatedEvent.class)
     public void onApplicationEvent(DeviceProfileUpdatedEvent event) {
         var deviceProfile = event.getDeviceProfile();
+        profileConfigurations.remove(deviceProfile.getId());
         clients.values().stream().filter(state -> state.getSession() == null).forEach(state -> {
             state.lock();
             try {
@@ -219,6 +246,16 @@ public class DefaultCoapClientContext implements CoapClientContext {
         }
     }
 
+    @Scheduled(fixedDelayString = "${transport.stats.print-interval-ms:60000}")
+    public void printStats() {
+        int sent = notificationsSent.getAndClear();
+        int coalesced = notificationsCoalesced.getAndClear();
+        if (statsEnabled) {
+            log.info("CoAP clients stats: clients [{}], observations [{}], notifications sent [{}], coalesced [{}]",
+                    clients.size(), clientsByToken.size(), sent, coalesced);
+        }
+    }
+
     private void onUplink(TbCoapClientState client, boolean notifyOtherServers, long uplinkTs) {
         PowerMode powerMode = client.getPowerMode();
         PowerSavingConfiguration profileSettings = null;
@@ -466,11 +503,21 @@ public class DefaultCoapClientContext implements CoapClientContext {
     }
 
     private void initStateAdaptor(DeviceProfile deviceProfile, TbCoapClientState state) throws AdaptorException {
-        state.setConfiguration(getTransportConfigurationContainer(deviceProfile));
+        state.setConfiguration(getProfileConfiguration(deviceProfile));
         state.setAdaptor(getCoapTransportAdaptor(state.getConfiguration().isJsonPayload()));
         state.setContentFormat(state.getAdaptor().getContentFormat());
     }
 
+    private TransportConfigurationContainer getProfileConfiguration(DeviceProfile deviceProfile) throws AdaptorException {
+        ProfileConfiguration cached = profileConfigurations.get(deviceProfile.getId());
+        if (cached != null && cached.version() != null && cached.version().equals(deviceProfile.getVersion())) {
+            return cached.configuration();
+        }
+        TransportConfigurationContainer configuration = getTransportConfigurationContainer(deviceProfile);
+        profileConfigurations.put(deviceProfile.getId(), new ProfileConfiguration(deviceProfile.getVersion(), configuration));
+        return configuration;
+    }
+
     private CoapTransportAdaptor getCoapTransportAdaptor(boolean jsonPayloadType) {
         return jsonPayloadType ? transportContext.getJsonCoapAdaptor() : transportContext.getProtoCoapAdaptor();
     }
@@ -511,32 +558,28 @@ public class DefaultCoapClientContext implements CoapClientContext {
                 return;
             }
             log.trace("[{}] Received attributes update notification to device", sessionId);
-            TbCoapObservationState attrs = state.getAttrs();
-            if (attrs != null) {
+            if (notificationsBatchIntervalMs > 0) {
+                boolean first;
+                state.lock();
                 try {
-                    boolean conRequest = AbstractSyncSessionCallback.isConRequest(state.getAttrs());
-                    boolean isMulticastRequest = AbstractSyncSessionCallback.isMulticastRequest(state.getAttrs());
-                    int requestId = getNextMsgId(isMulticastRequest);
-                    Response response = state.getAdaptor().convertToPublish(msg);
-                    response.getOptions().setObserve(attrs.getObserveCounter().getAndIncrement());
-                    response.setConfirmable(conRequest);
-                    response.setMID(requestId);
-                    if (conRequest) {
-                        response.addMessageObserver(new TbCoapMessageObserver(requestId, id -> awake(state), id -> asleep(state)));
-                    }
-                    respond(attrs.getExchange(), response, state.getContentFormat());
-                } catch (AdaptorException e) {
-                    log.trace("[{}] Failed to reply due to error", state.getDeviceId(), e);
-                    cancelObserveRelation(attrs);
-                    cancelAttributeSubscription(state);
+                    first = state.addPendingNotification(msg);
+                } finally {
+                    state.unlock();
+                }
+                if (first) {
+                    pendingNotifications.add(state);
+                    scheduleNotificationsFlush();
+                } else {
+                    notificationsCoalesced.increment();
                 }
             } else {
-                log.debug("[{}] Get Attrs exchange is empty", state.getDeviceId());
+                sendAttributeUpdate(state, msg);
             }
         }
 
         @Override
         public void onDeviceProfileUpdate(TransportProtos.SessionInfoProto newSessionInfo, DeviceProfile deviceProfile) {
+            profileConfigurations.remove(deviceProfile.getId());
             try {
                 initStateAdaptor(deviceProfile, state);
             } catch (AdaptorException e) {
@@ -627,6 +670,7 @@ public class DefaultCoapClientContext implements CoapClientContext {
                     response.addMessageObserver(new TbCoapMessageObserver(requestId, id -> awake(state), id -> asleep(state)));
                 }
                 respond(state.getRpc().getExchange(), response, state.getContentFormat());
+                notificationsSent.increment();
                 sent = true;
             } catch (AdaptorException e) {
                 log.trace("Failed to reply due to error", e);
@@ -662,13 +706,78 @@ public class DefaultCoapClientContext implements CoapClientContext {
             awake(state, false, notificationMsg.getUplinkTs());
         }
 
-        private void cancelObserveRelation(TbCoapObservationState attrs) {
-            if (attrs.getObserveRelation() != null) {
-                attrs.getObserveRelation().cancel();
+    }
+
+    private void scheduleNotificationsFlush() {
+        if (notificationsFlushScheduled.compareAndSet(false, true)) {
+            transportContext.getScheduler().schedule(this::flushNotifications, notificationsBatchIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void flushNotifications() {
+        notificationsFlushScheduled.set(false);
+        TbCoapClientState state;
+        while ((state = pendingNotifications.poll()) != null) {
+            TransportProtos.AttributeUpdateNotificationMsg msg;
+            state.lock();
+            try {
+                msg = state.getAndClearPendingNotification();
+            } finally {
+                state.unlock();
+            }
+            if (msg != null) {
+                // the client may have fallen asleep during the batch interval
+                if (!isDownlinkAllowed(state)) {
+                    log.trace("[{}] queue attributes update notification cause client is sleeping.", state.getDeviceId());
+                    state.lock();
+                    try {
+                        state.addQueuedNotification(msg);
+                    } finally {
+                        state.unlock();
+                    }
+                    continue;
+                }
+                try {
+                    sendAttributeUpdate(state, msg);
+                } catch (Exception e) {
+                    log.warn("[{}] Failed to send attributes update notification", state.getDeviceId(), e);
+                }
             }
         }
     }
 
+    private void sendAttributeUpdate(TbCoapClientState state, TransportProtos.AttributeUpdateNotificationMsg msg) {
+        TbCoapObservationState attrs = state.getAttrs();
+        if (attrs != null) {
+            try {
+                boolean conRequest = AbstractSyncSessionCallback.isConRequest(attrs);
+                boolean isMulticastRequest = AbstractSyncSessionCallback.isMulticastRequest(attrs);
+                int requestId = getNextMsgId(isMulticastRequest);
+                Response response = state.getAdaptor().convertToPublish(msg);
+                response.getOptions().setObserve(attrs.getObserveCounter().getAndIncrement());
+                response.setConfirmable(conRequest);
+                response.setMID(requestId);
+                if (conRequest) {
+                    response.addMessageObserver(new TbCoapMessageObserver(requestId, id -> awake(state), id -> asleep(state)));
+                }
+                respond(attrs.getExchange(), response, state.getContentFormat());
+                notificationsSent.increment();
+            } catch (AdaptorException e) {
+                log.trace("[{}] Failed to reply due to error", state.getDeviceId(), e);
+                cancelObserveRelation(attrs);
+                cancelAttributeSubscription(state);
+            }
+        } else {
+            log.debug("[{}] Get Attrs exchange is empty", state.getDeviceId());
+        }
+    }
+
+    private static void cancelObserveRelation(TbCoapObservationState attrs) {
+        if (attrs.getObserveRelation() != null) {
+            attrs.getObserveRelation().cancel();
+        }
+    }
+
     private boolean asleep(TbCoapClientState client) {
         boolean changed = compareAndSetSleepFlag(client, true);
         if (changed) {
@@ -862,4 +971,7 @@ public class DefaultCoapClientContext implements CoapClientContext {
         response.getOptions().setContentFormat(TbCoapContentFormatUtil.getContentFormat(exchange.getRequestOptions().getContentFormat(), defContentFormat));
         exchange.respond(response);
     }
+
+    private record ProfileConfiguration(Long version, TransportConfigurationContainer configuration) {}
+
 }
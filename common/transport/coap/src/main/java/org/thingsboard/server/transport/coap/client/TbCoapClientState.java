@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.transport.coap.client;
 
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
@@ -40,6 +41,9 @@ import java.util.concurrent.locks.ReentrantLock;
 @Data
 public class TbCoapClientState {
 
+    // the power saving settings that are not set for the device; 0 is a valid value
+    private static final long NOT_SET = Long.MIN_VALUE;
+
     private final DeviceId deviceId;
     private final Lock lock;
 
@@ -53,17 +57,19 @@ public class TbCoapClientState {
     private volatile int contentFormat;
 
     private TransportProtos.AttributeUpdateNotificationMsg missedAttributeUpdates;
+    private TransportProtos.AttributeUpdateNotificationMsg pendingAttributeUpdates;
 
     private DeviceProfileId profileId;
 
     @Getter
     private PowerMode powerMode;
-    @Getter
-    private Long psmActivityTimer;
-    @Getter
-    private Long edrxCycle;
-    @Getter
-    private Long pagingTransmissionWindow;
+    // boxed values are allocated only by the getters
+    @Getter(AccessLevel.NONE)
+    private long psmActivityTimer = NOT_SET;
+    @Getter(AccessLevel.NONE)
+    private long edrxCycle = NOT_SET;
+    @Getter(AccessLevel.NONE)
+    private long pagingTransmissionWindow = NOT_SET;
     @Getter
     @Setter
     private boolean asleep;
@@ -84,9 +90,21 @@ public class TbCoapClientState {
         this.credentials = credentials;
         this.profileId = credentials.getDeviceInfo().getDeviceProfileId();
         this.powerMode = credentials.getDeviceInfo().getPowerMode();
-        this.edrxCycle = credentials.getDeviceInfo().getEdrxCycle();
-        this.psmActivityTimer = credentials.getDeviceInfo().getPsmActivityTimer();
-        this.pagingTransmissionWindow = credentials.getDeviceInfo().getPagingTransmissionWindow();
+        this.edrxCycle = toPrimitive(credentials.getDeviceInfo().getEdrxCycle());
+        this.psmActivityTimer = toPrimitive(credentials.getDeviceInfo().getPsmActivityTimer());
+        this.pagingTransmissionWindow = toPrimitive(credentials.getDeviceInfo().getPagingTransmissionWindow());
+    }
+
+    public Long getPsmActivityTimer() {
+        return toBoxed(psmActivityTimer);
+    }
+
+    public Long getEdrxCycle() {
+        return toBoxed(edrxCycle);
+    }
+
+    public Long getPagingTransmissionWindow() {
+        return toBoxed(pagingTransmissionWindow);
     }
 
     public void lock() {
@@ -117,31 +135,14 @@ public class TbCoapClientState {
         if (data.getTransportConfiguration() != null && data.getTransportConfiguration().getType().equals(DeviceTransportType.COAP)) {
             CoapDeviceTransportConfiguration configuration = (CoapDeviceTransportConfiguration) data.getTransportConfiguration();
             this.powerMode = configuration.getPowerMode();
-            this.edrxCycle = configuration.getEdrxCycle();
-            this.psmActivityTimer = configuration.getPsmActivityTimer();
-            this.pagingTransmissionWindow = configuration.getPagingTransmissionWindow();
+            this.edrxCycle = toPrimitive(configuration.getEdrxCycle());
+            this.psmActivityTimer = toPrimitive(configuration.getPsmActivityTimer());
+            this.pagingTransmissionWindow = toPrimitive(configuration.getPagingTransmissionWindow());
         }
     }
 
     public void addQueuedNotification(TransportProtos.AttributeUpdateNotificationMsg msg) {
-        if (missedAttributeUpdates == null) {
-            missedAttributeUpdates = msg;
-        } else {
-            Map<String, TransportProtos.TsKvProto> updatedAttrs = new HashMap<>(missedAttributeUpdates.getSharedUpdatedCount() + msg.getSharedUpdatedCount());
-            Set<String> deletedKeys = new HashSet<>(missedAttributeUpdates.getSharedDeletedCount() + msg.getSharedDeletedCount());
-            for (TransportProtos.TsKvProto oldUpdatedAttrs : missedAttributeUpdates.getSharedUpdatedList()) {
-                updatedAttrs.put(oldUpdatedAttrs.getKv().getKey(), oldUpdatedAttrs);
-            }
-            deletedKeys.addAll(msg.getSharedDeletedList());
-            for (TransportProtos.TsKvProto newUpdatedAttrs : msg.getSharedUpdatedList()) {
-                updatedAttrs.put(newUpdatedAttrs.getKv().getKey(), newUpdatedAttrs);
-            }
-            deletedKeys.addAll(msg.getSharedDeletedList());
-            for (String deletedKey : msg.getSharedDeletedList()) {
-                updatedAttrs.remove(deletedKey);
-            }
-            missedAttributeUpdates = TransportProtos.AttributeUpdateNotificationMsg.newBuilder().addAllSharedUpdated(updatedAttrs.values()).addAllSharedDeleted(deletedKeys).build();
-        }
+        missedAttributeUpdates = merge(missedAttributeUpdates, msg);
     }
 
     public TransportProtos.AttributeUpdateNotificationMsg getAndClearMissedUpdates() {
@@ -149,4 +150,51 @@ public class TbCoapClientState {
         this.missedAttributeUpdates = null;
         return result;
     }
+
+    /**
+     * Merges the update into the pending notification.
+     *
+     * @return true if there was no pending notification
+     */
+    public boolean addPendingNotification(TransportProtos.AttributeUpdateNotificationMsg msg) {
+        boolean first = pendingAttributeUpdates == null;
+        pendingAttributeUpdates = merge(pendingAttributeUpdates, msg);
+        return first;
+    }
+
+    public TransportProtos.AttributeUpdateNotificationMsg getAndClearPendingNotification() {
+        var result = this.pendingAttributeUpdates;
+        this.pendingAttributeUpdates = null;
+        return result;
+    }
+
+    static TransportProtos.AttributeUpdateNotificationMsg merge(TransportProtos.AttributeUpdateNotificationMsg current,
+                                                                TransportProtos.AttributeUpdateNotificationMsg msg) {
+        if (current == null) {
+            return msg;
+        }
+        Map<String, TransportProtos.TsKvProto> updatedAttrs = new HashMap<>(current.getSharedUpdatedCount() + msg.getSharedUpdatedCount());
+        Set<String> deletedKeys = new HashSet<>(current.getSharedDeletedCount() + msg.getSharedDeletedCount());
+        for (TransportProtos.TsKvProto oldUpdatedAttrs : current.getSharedUpdatedList()) {
+            updatedAttrs.put(oldUpdatedAttrs.getKv().getKey(), oldUpdatedAttrs);
+        }
+        deletedKeys.addAll(current.getSharedDeletedList());
+        for (TransportProtos.TsKvProto newUpdatedAttrs : msg.getSharedUpdatedList()) {
+            updatedAttrs.put(newUpdatedAttrs.getKv().getKey(), newUpdatedAttrs);
+            deletedKeys.remove(newUpdatedAttrs.getKv().getKey());
+        }
+        deletedKeys.addAll(msg.getSharedDeletedList());
+        for (String deletedKey : msg.getSharedDeletedList()) {
+            updatedAttrs.remove(deletedKey);
+        }
+        return TransportProtos.AttributeUpdateNotificationMsg.newBuilder().addAllSharedUpdated(updatedAttrs.values()).addAllSharedDeleted(deletedKeys).build();
+    }
+
+    private static long toPrimitive(Long value) {
+        return value != null ? value : NOT_SET;
+    }
+
+    private static Long toBoxed(long value) {
+        return value != NOT_SET ? value : null;
+    }
 }
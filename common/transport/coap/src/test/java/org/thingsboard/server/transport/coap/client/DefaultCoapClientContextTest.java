@@ -0,0 +1,96 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.coap.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.coapserver.CoapServerContext;
+import org.thingsboard.server.common.data.device.data.PowerMode;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.common.transport.TransportDeviceProfileCache;
+import org.thingsboard.server.common.transport.TransportService;
+import org.thingsboard.server.gen.transport.TransportProtos.AttributeUpdateNotificationMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.KeyValueProto;
+import org.thingsboard.server.gen.transport.TransportProtos.KeyValueType;
+import org.thingsboard.server.gen.transport.TransportProtos.TsKvProto;
+import org.thingsboard.server.queue.discovery.PartitionService;
+import org.thingsboard.server.queue.scheduler.SchedulerComponent;
+import org.thingsboard.server.transport.coap.CoapTransportContext;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DefaultCoapClientContextTest {
+
+    private static final long PSM_ACTIVITY_TIMER = 10000;
+
+    private DefaultCoapClientContext clientContext;
+    private TbCoapClientState state;
+
+    @BeforeEach
+    public void setUp() {
+        CoapTransportContext transportContext = mock(CoapTransportContext.class);
+        when(transportContext.getScheduler()).thenReturn(mock(SchedulerComponent.class));
+        StatsFactory statsFactory = mock(StatsFactory.class);
+        when(statsFactory.createStatsCounter(anyString(), anyString())).thenReturn(mock(StatsCounter.class));
+        clientContext = new DefaultCoapClientContext(mock(CoapServerContext.class), transportContext, mock(TransportService.class),
+                mock(TransportDeviceProfileCache.class), mock(PartitionService.class), statsFactory);
+        ReflectionTestUtils.setField(clientContext, "notificationsBatchIntervalMs", 10L);
+
+        state = new TbCoapClientState(new DeviceId(UUID.randomUUID()));
+        state.setPowerMode(PowerMode.PSM);
+        state.setPsmActivityTimer(PSM_ACTIVITY_TIMER);
+        state.updateLastUplinkTime(System.currentTimeMillis());
+    }
+
+    @Test
+    public void givenClientFellAsleepDuringBatchInterval_whenFlush_thenNotificationIsQueued() {
+        AttributeUpdateNotificationMsg msg = AttributeUpdateNotificationMsg.newBuilder().addSharedUpdated(tsKv("a", 1)).build();
+        clientContext.new CoapSessionListener(state).onAttributeUpdate(UUID.randomUUID(), msg);
+        assertThat(state.getMissedAttributeUpdates()).isNull();
+
+        state.setLastUplinkTime(System.currentTimeMillis() - 2 * PSM_ACTIVITY_TIMER);
+        clientContext.flushNotifications();
+
+        assertThat(state.getPendingAttributeUpdates()).isNull();
+        assertThat(state.getAndClearMissedUpdates()).isEqualTo(msg);
+    }
+
+    @Test
+    public void givenClientIsAwake_whenFlush_thenNotificationIsNotQueued() {
+        AttributeUpdateNotificationMsg msg = AttributeUpdateNotificationMsg.newBuilder().addSharedUpdated(tsKv("a", 1)).build();
+        clientContext.new CoapSessionListener(state).onAttributeUpdate(UUID.randomUUID(), msg);
+
+        clientContext.flushNotifications();
+
+        assertThat(state.getPendingAttributeUpdates()).isNull();
+        assertThat(state.getMissedAttributeUpdates()).isNull();
+    }
+
+    private static TsKvProto tsKv(String key, long value) {
+        return TsKvProto.newBuilder().setTs(System.currentTimeMillis())
+                .setKv(KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.LONG_V).setLongV(value))
+                .build();
+    }
+
+}
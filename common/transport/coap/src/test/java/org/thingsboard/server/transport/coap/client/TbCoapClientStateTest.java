@@ -0,0 +1,90 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.coap.client;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.device.data.CoapDeviceTransportConfiguration;
+import org.thingsboard.server.common.data.device.data.DeviceData;
+import org.thingsboard.server.common.data.device.data.PowerMode;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.gen.transport.TransportProtos.AttributeUpdateNotificationMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.KeyValueProto;
+import org.thingsboard.server.gen.transport.TransportProtos.KeyValueType;
+import org.thingsboard.server.gen.transport.TransportProtos.TsKvProto;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TbCoapClientStateTest {
+
+    private final TbCoapClientState state = new TbCoapClientState(new DeviceId(UUID.randomUUID()));
+
+    @Test
+    public void givenPendingNotification_whenAddUpdates_thenUpdatesAreMerged() {
+        assertThat(state.addPendingNotification(AttributeUpdateNotificationMsg.newBuilder()
+                .addSharedUpdated(tsKv("a", 1))
+                .addSharedUpdated(tsKv("b", 1))
+                .addSharedDeleted("c")
+                .build())).isTrue();
+        assertThat(state.addPendingNotification(AttributeUpdateNotificationMsg.newBuilder()
+                .addSharedUpdated(tsKv("a", 2))
+                .addSharedUpdated(tsKv("c", 2))
+                .addSharedDeleted("b")
+                .build())).isFalse();
+
+        AttributeUpdateNotificationMsg merged = state.getAndClearPendingNotification();
+
+        assertThat(merged.getSharedUpdatedList()).extracting(kv -> kv.getKv().getKey() + "=" + kv.getKv().getLongV())
+                .containsExactlyInAnyOrder("a=2", "c=2");
+        assertThat(merged.getSharedDeletedList()).containsExactly("b");
+        assertThat(state.getAndClearPendingNotification()).isNull();
+    }
+
+    @Test
+    public void givenNoPowerSavingSettings_whenGet_thenNull() {
+        assertThat(state.getPsmActivityTimer()).isNull();
+        assertThat(state.getEdrxCycle()).isNull();
+        assertThat(state.getPagingTransmissionWindow()).isNull();
+    }
+
+    @Test
+    public void givenZeroPowerSavingSettings_whenGet_thenZero() {
+        CoapDeviceTransportConfiguration configuration = new CoapDeviceTransportConfiguration();
+        configuration.setPowerMode(PowerMode.E_DRX);
+        configuration.setEdrxCycle(0L);
+        configuration.setPsmActivityTimer(0L);
+        configuration.setPagingTransmissionWindow(0L);
+        DeviceData deviceData = new DeviceData();
+        deviceData.setTransportConfiguration(configuration);
+        Device device = new Device();
+        device.setDeviceData(deviceData);
+
+        state.onDeviceUpdate(device);
+
+        assertThat(state.getPsmActivityTimer()).isZero();
+        assertThat(state.getEdrxCycle()).isZero();
+        assertThat(state.getPagingTransmissionWindow()).isZero();
+    }
+
+    private static TsKvProto tsKv(String key, long value) {
+        return TsKvProto.newBuilder().setTs(System.currentTimeMillis())
+                .setKv(KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.LONG_V).setLongV(value))
+                .build();
+    }
+
+}
@@ -15,17 +15,14 @@
  */
 package org.thingsboard.server.transport.http;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonParser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.core.io.ByteArrayResource;
@@ -33,7 +30,6 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -41,39 +37,10 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.async.DeferredResult;
-import org.thingsboard.server.common.adaptor.JsonConverter;
 import org.thingsboard.server.common.data.DataConstants;
-import org.thingsboard.server.common.data.DeviceTransportType;
-import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.data.TbTransportService;
-import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.ota.OtaPackageType;
-import org.thingsboard.server.common.data.rpc.RpcStatus;
-import org.thingsboard.server.common.transport.SessionMsgListener;
-import org.thingsboard.server.common.transport.TransportContext;
-import org.thingsboard.server.common.transport.TransportService;
-import org.thingsboard.server.common.transport.TransportServiceCallback;
-import org.thingsboard.server.common.transport.auth.SessionInfoCreator;
-import org.thingsboard.server.common.transport.auth.ValidateDeviceCredentialsResponse;
-import org.thingsboard.server.gen.transport.TransportProtos;
-import org.thingsboard.server.gen.transport.TransportProtos.AttributeUpdateNotificationMsg;
-import org.thingsboard.server.gen.transport.TransportProtos.GetAttributeRequestMsg;
-import org.thingsboard.server.gen.transport.TransportProtos.GetAttributeResponseMsg;
-import org.thingsboard.server.gen.transport.TransportProtos.GetOtaPackageResponseMsg;
-import org.thingsboard.server.gen.transport.TransportProtos.ProvisionDeviceResponseMsg;
-import org.thingsboard.server.gen.transport.TransportProtos.SessionCloseNotificationProto;
-import org.thingsboard.server.gen.transport.TransportProtos.SessionInfoProto;
-import org.thingsboard.server.gen.transport.TransportProtos.SubscribeToAttributeUpdatesMsg;
-import org.thingsboard.server.gen.transport.TransportProtos.SubscribeToRPCMsg;
-import org.thingsboard.server.gen.transport.TransportProtos.ToDeviceRpcRequestMsg;
-import org.thingsboard.server.gen.transport.TransportProtos.ToDeviceRpcResponseMsg;
-import org.thingsboard.server.gen.transport.TransportProtos.ToServerRpcRequestMsg;
-import org.thingsboard.server.gen.transport.TransportProtos.ToServerRpcResponseMsg;
-import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokenRequestMsg;
-
-import java.util.Arrays;
-import java.util.List;
-import java.util.UUID;
+
 import java.util.function.Consumer;
 
 
@@ -83,7 +50,6 @@ import java.util.function.Consumer;
 @RestController
 @ConditionalOnExpression("'${service.type:null}'=='tb-transport' || ('${service.type:null}'=='monolith' && '${transport.api_enabled:true}'=='true' && '${transport.http.enabled}'=='true')")
 @RequestMapping("/api/v1")
-@Slf4j
 public class DeviceApiController implements TbTransportService {
 
     private static final String MARKDOWN_CODE_BLOCK_START = "\n\n```json\n";
@@ -133,6 +99,13 @@ public class DeviceApiController implements TbTransportService {
     @Autowired
     private HttpTransportContext transportContext;
 
+    private DeviceApiRequestProcessor requestProcessor;
+
+    @PostConstruct
+    public void init() {
+        requestProcessor = new DeviceApiRequestProcessor(transportContext);
+    }
+
     @Operation(summary = "Get attributes (getDeviceAttributes)",
             description = "Returns all attributes that belong to device. "
                     + "Use optional 'clientKeys' and/or 'sharedKeys' parameter to return specific attributes. "
@@ -149,25 +122,7 @@ public class DeviceApiController implements TbTransportService {
             @RequestParam(value = "clientKeys", required = false, defaultValue = "") String clientKeys,
             @Parameter(description = "Comma separated key names for attribute with shared scope", required = true , schema = @Schema(defaultValue = "configuration"))
             @RequestParam(value = "sharedKeys", required = false, defaultValue = "") String sharedKeys) {
-        DeferredResult<ResponseEntity> responseWriter = new DeferredResult<>();
-        transportContext.getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
-                new DeviceAuthCallback(transportContext, responseWriter, sessionInfo -> {
-                    GetAttributeRequestMsg.Builder request = GetAttributeRequestMsg.newBuilder().setRequestId(0);
-                    List<String> clientKeySet = !StringUtils.isEmpty(clientKeys) ? Arrays.asList(clientKeys.split(",")) : null;
-                    List<String> sharedKeySet = !StringUtils.isEmpty(sharedKeys) ? Arrays.asList(sharedKeys.split(",")) : null;
-                    if (clientKeySet != null) {
-                        request.addAllClientAttributeNames(clientKeySet);
-                    }
-                    if (sharedKeySet != null) {
-                        request.addAllSharedAttributeNames(sharedKeySet);
-                    }
-                    TransportService transportService = transportContext.getTransportService();
-                    transportService.registerSyncSession(sessionInfo,
-                            new HttpSessionListener(responseWriter, transportContext.getTransportService(), sessionInfo),
-                            transportContext.getDefaultTimeout());
-                    transportService.process(sessionInfo, request.build(), new SessionCloseOnErrorCallback(transportService, sessionInfo));
-                }));
-        return responseWriter;
+        return process(responseWriter -> requestProcessor.getDeviceAttributes(deviceToken, clientKeys, sharedKeys, responseWriter));
     }
 
     @Operation(summary = "Post attributes (postDeviceAttributes)",
@@ -183,14 +138,7 @@ public class DeviceApiController implements TbTransportService {
             @PathVariable("deviceToken") String deviceToken,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "JSON with attribute key-value pairs. See API call description for example.")
             @RequestBody String json) {
-        DeferredResult<ResponseEntity> responseWriter = new DeferredResult<>();
-        transportContext.getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
-                new DeviceAuthCallback(transportContext, responseWriter, sessionInfo -> {
-                    TransportService transportService = transportContext.getTransportService();
-                    transportService.process(sessionInfo, JsonConverter.convertToAttributesProto(JsonParser.parseString(json)),
-                            new HttpOkCallback(responseWriter));
-                }));
-        return responseWriter;
+        return process(responseWriter -> requestProcessor.postDeviceAttributes(deviceToken, json, responseWriter));
     }
 
     @Operation(summary = "Post time series data (postTelemetry)",
@@ -203,14 +151,7 @@ public class DeviceApiController implements TbTransportService {
             @Parameter(description = ACCESS_TOKEN_PARAM_DESCRIPTION, required = true , schema = @Schema(defaultValue = "YOUR_DEVICE_ACCESS_TOKEN"))
             @PathVariable("deviceToken") String deviceToken,
             @RequestBody String json, HttpServletRequest request) {
-        DeferredResult<ResponseEntity> responseWriter = new DeferredResult<ResponseEntity>();
-        transportContext.getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
-                new DeviceAuthCallback(transportContext, responseWriter, sessionInfo -> {
-                    TransportService transportService = transportContext.getTransportService();
-                    transportService.process(sessionInfo, JsonConverter.convertToTelemetryProto(JsonParser.parseString(json)),
-                            new HttpOkCallback(responseWriter));
-                }));
-        return responseWriter;
+        return process(responseWriter -> requestProcessor.postTelemetry(deviceToken, json, responseWriter));
     }
 
     @Operation(summary = "Save claiming information (saveClaimingInfo)",
@@ -228,15 +169,7 @@ public class DeviceApiController implements TbTransportService {
             @Parameter(description = ACCESS_TOKEN_PARAM_DESCRIPTION, required = true , schema = @Schema(defaultValue = "YOUR_DEVICE_ACCESS_TOKEN"))
             @PathVariable("deviceToken") String deviceToken,
             @RequestBody(required = false) String json) {
-        DeferredResult<ResponseEntity> responseWriter = new DeferredResult<>();
-        transportContext.getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
-                new DeviceAuthCallback(transportContext, responseWriter, sessionInfo -> {
-                    TransportService transportService = transportContext.getTransportService();
-                    DeviceId deviceId = new DeviceId(new UUID(sessionInfo.getDeviceIdMSB(), sessionInfo.getDeviceIdLSB()));
-                    transportService.process(sessionInfo, JsonConverter.convertToClaimDeviceProto(deviceId, json),
-                            new HttpOkCallback(responseWriter));
-                }));
-        return responseWriter;
+        return process(responseWriter -> requestProcessor.saveClaimingInfo(deviceToken, json, responseWriter));
     }
 
     @Operation(summary = "Subscribe to RPC commands (subscribeToCommands) (Deprecated)",
@@ -250,18 +183,7 @@ public class DeviceApiController implements TbTransportService {
             @PathVariable("deviceToken") String deviceToken,
             @Parameter(description = "Optional timeout of the long poll. Typically less then 60 seconds, since limited on the server side.")
             @RequestParam(value = "timeout", required = false, defaultValue = "0") long timeout) {
-        DeferredResult<ResponseEntity> responseWriter = new DeferredResult<>();
-        transportContext.getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
-                new DeviceAuthCallback(transportContext, responseWriter, sessionInfo -> {
-                    TransportService transportService = transportContext.getTransportService();
-                    transportService.registerSyncSession(sessionInfo,
-                            new HttpSessionListener(responseWriter, transportContext.getTransportService(), sessionInfo),
-                            timeout == 0 ? transportContext.getDefaultTimeout() : timeout);
-                    transportService.process(sessionInfo, SubscribeToRPCMsg.getDefaultInstance(),
-                            new SessionCloseOnErrorCallback(transportService, sessionInfo));
-
-                }));
-        return responseWriter;
+        return process(responseWriter -> requestProcessor.subscribeToCommands(deviceToken, timeout, responseWriter));
     }
 
     @Operation(summary = "Reply to RPC commands (replyToCommand)",
@@ -280,13 +202,7 @@ public class DeviceApiController implements TbTransportService {
             @PathVariable("requestId") Integer requestId,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Reply to the RPC request, JSON. For example: {\"status\":\"success\"}", required = true)
             @RequestBody String json, HttpServletRequest httpServletRequest) {
-        DeferredResult<ResponseEntity> responseWriter = new DeferredResult<ResponseEntity>();
-        transportContext.getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
-                new DeviceAuthCallback(transportContext, responseWriter, sessionInfo -> {
-                    TransportService transportService = transportContext.getTransportService();
-                    transportService.process(sessionInfo, ToDeviceRpcResponseMsg.newBuilder().setRequestId(requestId).setPayload(json).build(), new HttpOkCallback(responseWriter));
-                }));
-        return responseWriter;
+        return process(responseWriter -> requestProcessor.replyToCommand(deviceToken, requestId, json, responseWriter));
     }
 
     @Operation(summary = "Send the RPC command (postRpcRequest)",
@@ -310,20 +226,7 @@ public class DeviceApiController implements TbTransportService {
             @PathVariable("deviceToken") String deviceToken,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "The RPC request JSON", required = true)
             @RequestBody String json, HttpServletRequest httpServletRequest) {
-        DeferredResult<ResponseEntity> responseWriter = new DeferredResult<ResponseEntity>();
-        transportContext.getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
-                new DeviceAuthCallback(transportContext, responseWriter, sessionInfo -> {
-                    JsonObject request = JsonParser.parseString(json).getAsJsonObject();
-                    TransportService transportService = transportContext.getTransportService();
-                    transportService.registerSyncSession(sessionInfo,
-                            new HttpSessionListener(responseWriter, transportContext.getTransportService(), sessionInfo),
-                            transportContext.getDefaultTimeout());
-                    transportService.process(sessionInfo, ToServerRpcRequestMsg.newBuilder().setRequestId(0)
-                                    .setMethodName(request.get("method").getAsString())
-                                    .setParams(request.get("params").toString()).build(),
-                            new SessionCloseOnErrorCallback(transportService, sessionInfo));
-                }));
-        return responseWriter;
+        return process(responseWriter -> requestProcessor.postRpcRequest(deviceToken, json, responseWriter));
     }
 
     @Operation(summary = "Subscribe to attribute updates (subscribeToAttributes) (Deprecated)",
@@ -337,18 +240,7 @@ public class DeviceApiController implements TbTransportService {
             @PathVariable("deviceToken") String deviceToken,
             @Parameter(description = "Optional timeout of the long poll. Typically less then 60 seconds, since limited on the server side.")
             @RequestParam(value = "timeout", required = false, defaultValue = "0") long timeout) {
-        DeferredResult<ResponseEntity> responseWriter = new DeferredResult<>();
-        transportContext.getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
-                new DeviceAuthCallback(transportContext, responseWriter, sessionInfo -> {
-                    TransportService transportService = transportContext.getTransportService();
-                    transportService.registerSyncSession(sessionInfo,
-                            new HttpSessionListener(responseWriter, transportContext.getTransportService(), sessionInfo),
-                            timeout == 0 ? transportContext.getDefaultTimeout() : timeout);
-                    transportService.process(sessionInfo, SubscribeToAttributeUpdatesMsg.getDefaultInstance(),
-                            new SessionCloseOnErrorCallback(transportService, sessionInfo));
-
-                }));
-        return responseWriter;
+        return process(responseWriter -> requestProcessor.subscribeToAttributes(deviceToken, timeout, responseWriter));
     }
 
     @Operation(summary = "Get Device Firmware (getFirmware)",
@@ -374,7 +266,7 @@ public class DeviceApiController implements TbTransportService {
             @RequestParam(value = "size", required = false, defaultValue = "0") int size,
             @Parameter(description = "Index of the chunk. Optional. Omit to download the entire file without chunks.")
             @RequestParam(value = "chunk", required = false, defaultValue = "0") int chunk) {
-        return getOtaPackageCallback(deviceToken, title, version, size, chunk, OtaPackageType.FIRMWARE);
+        return process(responseWriter -> requestProcessor.getOtaPackage(deviceToken, title, version, size, chunk, OtaPackageType.FIRMWARE, responseWriter));
     }
 
     @Operation(summary = "Get Device Software (getSoftware)",
@@ -400,7 +292,7 @@ public class DeviceApiController implements TbTransportService {
             @RequestParam(value = "size", required = false, defaultValue = "0") int size,
             @Parameter(description = "Index of the chunk. Optional. Omit to download the entire file without using chunks.")
             @RequestParam(value = "chunk", required = false, defaultValue = "0") int chunk) {
-        return getOtaPackageCallback(deviceToken, title, version, size, chunk, OtaPackageType.SOFTWARE);
+        return process(responseWriter -> requestProcessor.getOtaPackage(deviceToken, title, version, size, chunk, OtaPackageType.SOFTWARE, responseWriter));
     }
 
     @Operation(summary = "Provision new device (provisionDevice)",
@@ -426,198 +318,45 @@ public class DeviceApiController implements TbTransportService {
     public DeferredResult<ResponseEntity> provisionDevice(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "JSON with provision request. See API call description for example.")
             @RequestBody String json) {
-        DeferredResult<ResponseEntity> responseWriter = new DeferredResult<>();
-        transportContext.getTransportService().process(JsonConverter.convertToProvisionRequestMsg(json),
-                new DeviceProvisionCallback(responseWriter));
-        return responseWriter;
-    }
-
-    private DeferredResult<ResponseEntity> getOtaPackageCallback(String deviceToken, String title, String version, int size, int chunk, OtaPackageType firmwareType) {
-        DeferredResult<ResponseEntity> responseWriter = new DeferredResult<>();
-        transportContext.getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
-                new DeviceAuthCallback(transportContext, responseWriter, sessionInfo -> {
-                    TransportProtos.GetOtaPackageRequestMsg requestMsg = TransportProtos.GetOtaPackageRequestMsg.newBuilder()
-                            .setTenantIdMSB(sessionInfo.getTenantIdMSB())
-                            .setTenantIdLSB(sessionInfo.getTenantIdLSB())
-                            .setDeviceIdMSB(sessionInfo.getDeviceIdMSB())
-                            .setDeviceIdLSB(sessionInfo.getDeviceIdLSB())
-                            .setType(firmwareType.name()).build();
-                    transportContext.getTransportService().process(sessionInfo, requestMsg, new GetOtaPackageCallback(transportContext, responseWriter, title, version, size, chunk));
-                }));
-        return responseWriter;
-    }
-
-    @RequiredArgsConstructor
-    static class DeviceAuthCallback implements TransportServiceCallback<ValidateDeviceCredentialsResponse> {
-        private final TransportContext transportContext;
-        private final DeferredResult<ResponseEntity> responseWriter;
-        private final Consumer<SessionInfoProto> onSuccess;
-
-        @Override
-        public void onSuccess(ValidateDeviceCredentialsResponse msg) {
-            if (msg.hasDeviceInfo()) {
-                onSuccess.accept(SessionInfoCreator.create(msg, transportContext, UUID.randomUUID()));
-            } else {
-                responseWriter.setResult(new ResponseEntity<>(HttpStatus.UNAUTHORIZED));
-            }
-        }
-
-        @Override
-        public void onError(Throwable e) {
-            String body = null;
-            if (e instanceof HttpMessageNotReadableException || e instanceof JsonParseException) {
-                body = e.getMessage();
-                log.debug("Failed to process request in DeviceAuthCallback: {}", body);
-            } else {
-                log.warn("Failed to process request in DeviceAuthCallback", e);
-            }
-            responseWriter.setResult(new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR));
-        }
+        return process(responseWriter -> requestProcessor.provisionDevice(json, responseWriter));
     }
 
-    @RequiredArgsConstructor
-    static class DeviceProvisionCallback implements TransportServiceCallback<ProvisionDeviceResponseMsg> {
-        private final DeferredResult<ResponseEntity> responseWriter;
-
-        @Override
-        public void onSuccess(ProvisionDeviceResponseMsg msg) {
-            responseWriter.setResult(new ResponseEntity<>(JsonConverter.toJson(msg).toString(), HttpStatus.OK));
-        }
-
-        @Override
-        public void onError(Throwable e) {
-            String body = null;
-            if (e instanceof HttpMessageNotReadableException || e instanceof JsonParseException) {
-                body = e.getMessage();
-                log.debug("Failed to process request in DeviceProvisionCallback: {}", body);
-            } else {
-                log.warn("Failed to process request in DeviceProvisionCallback", e);
-            }
-            responseWriter.setResult(new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR));
-        }
+    private DeferredResult<ResponseEntity> process(Consumer<DeviceApiResponseWriter> request) {
+        DeferredResult<ResponseEntity> result = new DeferredResult<>();
+        request.accept(new DeferredResultResponseWriter(result));
+        return result;
     }
 
     @RequiredArgsConstructor
-    static class GetOtaPackageCallback implements TransportServiceCallback<GetOtaPackageResponseMsg> {
-        private final TransportContext transportContext;
-        private final DeferredResult<ResponseEntity> responseWriter;
-        private final String title;
-        private final String version;
-        private final int chunkSize;
-        private final int chunk;
+    static class DeferredResultResponseWriter implements DeviceApiResponseWriter {
+        private final DeferredResult<ResponseEntity> result;
 
         @Override
-        public void onSuccess(TransportProtos.GetOtaPackageResponseMsg otaPackageResponseMsg) {
-            if (!TransportProtos.ResponseStatus.SUCCESS.equals(otaPackageResponseMsg.getResponseStatus())) {
-                responseWriter.setResult(new ResponseEntity<>(HttpStatus.NOT_FOUND));
-            } else if (title.equals(otaPackageResponseMsg.getTitle()) && version.equals(otaPackageResponseMsg.getVersion())) {
-                String otaPackageId = new UUID(otaPackageResponseMsg.getOtaPackageIdMSB(), otaPackageResponseMsg.getOtaPackageIdLSB()).toString();
-                ByteArrayResource resource = new ByteArrayResource(transportContext.getOtaPackageDataCache().get(otaPackageId, chunkSize, chunk));
-                ResponseEntity<ByteArrayResource> response = ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=" + otaPackageResponseMsg.getFileName())
-                        .header("x-filename", otaPackageResponseMsg.getFileName())
-                        .contentLength(resource.contentLength())
-                        .contentType(parseMediaType(otaPackageResponseMsg.getContentType()))
-                        .body(resource);
-                responseWriter.setResult(response);
-            } else {
-                responseWriter.setResult(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
-            }
+        public void write(HttpStatus status) {
+            result.setResult(new ResponseEntity<>(status));
         }
 
         @Override
-        public void onError(Throwable e) {
-            String body = null;
-            if (e instanceof HttpMessageNotReadableException || e instanceof JsonParseException) {
-                body = e.getMessage();
-                log.debug("Failed to process request in GetOtaPackageCallback: {}", body);
-            } else {
-                log.warn("Failed to process request in GetOtaPackageCallback", e);
-            }
-            responseWriter.setResult(new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR));
-        }
-    }
-
-    private static class SessionCloseOnErrorCallback implements TransportServiceCallback<Void> {
-        private final TransportService transportService;
-        private final SessionInfoProto sessionInfo;
-
-        SessionCloseOnErrorCallback(TransportService transportService, SessionInfoProto sessionInfo) {
-            this.transportService = transportService;
-            this.sessionInfo = sessionInfo;
+        public void write(HttpStatus status, String body) {
+            result.setResult(new ResponseEntity<>(body, status));
         }
 
         @Override
-        public void onSuccess(Void msg) {
+        public void writeJson(String json) {
+            result.setResult(new ResponseEntity<>(json, HttpStatus.OK));
         }
 
         @Override
-        public void onError(Throwable e) {
-            transportService.deregisterSession(sessionInfo);
-        }
-    }
-
-    private static class HttpOkCallback implements TransportServiceCallback<Void> {
-        private final DeferredResult<ResponseEntity> responseWriter;
-
-        public HttpOkCallback(DeferredResult<ResponseEntity> responseWriter) {
-            this.responseWriter = responseWriter;
+        public void writeOtaPackage(String fileName, String contentType, byte[] data) {
+            ByteArrayResource resource = new ByteArrayResource(data);
+            ResponseEntity<ByteArrayResource> response = ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=" + fileName)
+                    .header("x-filename", fileName)
+                    .contentLength(resource.contentLength())
+                    .contentType(parseMediaType(contentType))
+                    .body(resource);
+            result.setResult(response);
         }
-
-        @Override
-        public void onSuccess(Void msg) {
-            responseWriter.setResult(new ResponseEntity<>(HttpStatus.OK));
-        }
-
-        @Override
-        public void onError(Throwable e) {
-            responseWriter.setResult(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
-        }
-    }
-
-    @RequiredArgsConstructor
-    private static class HttpSessionListener implements SessionMsgListener {
-
-        private final DeferredResult<ResponseEntity> responseWriter;
-        private final TransportService transportService;
-        private final SessionInfoProto sessionInfo;
-
-        @Override
-        public void onGetAttributesResponse(GetAttributeResponseMsg msg) {
-            responseWriter.setResult(new ResponseEntity<>(JsonConverter.toJson(msg).toString(), HttpStatus.OK));
-        }
-
-        @Override
-        public void onAttributeUpdate(UUID sessionId, AttributeUpdateNotificationMsg msg) {
-            log.trace("[{}] Received attributes update notification to device", sessionId);
-            responseWriter.setResult(new ResponseEntity<>(JsonConverter.toJson(msg).toString(), HttpStatus.OK));
-        }
-
-        @Override
-        public void onRemoteSessionCloseCommand(UUID sessionId, SessionCloseNotificationProto sessionCloseNotification) {
-            log.trace("[{}] Received the remote command to close the session: {}", sessionId, sessionCloseNotification.getMessage());
-            responseWriter.setResult(new ResponseEntity<>(HttpStatus.REQUEST_TIMEOUT));
-        }
-
-        @Override
-        public void onToDeviceRpcRequest(UUID sessionId, ToDeviceRpcRequestMsg msg) {
-            log.trace("[{}] Received RPC command to device", sessionId);
-            responseWriter.setResult(new ResponseEntity<>(JsonConverter.toJson(msg, true).toString(), HttpStatus.OK));
-            transportService.process(sessionInfo, msg, RpcStatus.DELIVERED, TransportServiceCallback.EMPTY);
-        }
-
-        @Override
-        public void onToServerRpcResponse(ToServerRpcResponseMsg msg) {
-            responseWriter.setResult(new ResponseEntity<>(JsonConverter.toJson(msg).toString(), HttpStatus.OK));
-        }
-
-        @Override
-        public void onDeviceDeleted(DeviceId deviceId) {
-            UUID sessionId = new UUID(sessionInfo.getSessionIdMSB(), sessionInfo.getSessionIdLSB());
-            log.trace("[{}] Received device deleted notification for device with id: {}",sessionId, deviceId);
-            responseWriter.setResult(new ResponseEntity<>("Device was deleted!", HttpStatus.FORBIDDEN));
-        }
-
     }
 
     private static MediaType parseMediaType(String contentType) {
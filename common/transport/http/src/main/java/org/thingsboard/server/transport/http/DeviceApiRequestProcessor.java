@@ -0,0 +1,316 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.http;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.thingsboard.server.common.adaptor.JsonConverter;
+import org.thingsboard.server.common.data.DeviceTransportType;
+import org.thingsboard.server.common.data.StringUtils;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.ota.OtaPackageType;
+import org.thingsboard.server.common.data.rpc.RpcStatus;
+import org.thingsboard.server.common.transport.SessionMsgListener;
+import org.thingsboard.server.common.transport.TransportContext;
+import org.thingsboard.server.common.transport.TransportService;
+import org.thingsboard.server.common.transport.TransportServiceCallback;
+import org.thingsboard.server.common.transport.auth.SessionInfoCreator;
+import org.thingsboard.server.common.transport.auth.ValidateDeviceCredentialsResponse;
+import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.gen.transport.TransportProtos.AttributeUpdateNotificationMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.GetAttributeRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.GetAttributeResponseMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.GetOtaPackageResponseMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ProvisionDeviceResponseMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionCloseNotificationProto;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionInfoProto;
+import org.thingsboard.server.gen.transport.TransportProtos.SubscribeToAttributeUpdatesMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.SubscribeToRPCMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ToDeviceRpcRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ToDeviceRpcResponseMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ToServerRpcRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ToServerRpcResponseMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokenRequestMsg;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Processes the device API requests independently of the server that received them: the servlet based
+ * {@link DeviceApiController} and the Netty based device API handler only parse the requests and write the responses.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DeviceApiRequestProcessor {
+
+    private final HttpTransportContext transportContext;
+
+    public void getDeviceAttributes(String deviceToken, String clientKeys, String sharedKeys, DeviceApiResponseWriter responseWriter) {
+        authenticate(deviceToken, responseWriter, sessionInfo -> {
+            GetAttributeRequestMsg.Builder request = GetAttributeRequestMsg.newBuilder().setRequestId(0);
+            if (!StringUtils.isEmpty(clientKeys)) {
+                request.addAllClientAttributeNames(Arrays.asList(clientKeys.split(",")));
+            }
+            if (!StringUtils.isEmpty(sharedKeys)) {
+                request.addAllSharedAttributeNames(Arrays.asList(sharedKeys.split(",")));
+            }
+            registerSyncSession(sessionInfo, responseWriter, transportContext.getDefaultTimeout());
+            getTransportService().process(sessionInfo, request.build(), new SessionCloseOnErrorCallback(getTransportService(), sessionInfo));
+        });
+    }
+
+    public void postDeviceAttributes(String deviceToken, String json, DeviceApiResponseWriter responseWriter) {
+        authenticate(deviceToken, responseWriter, sessionInfo ->
+                getTransportService().process(sessionInfo, JsonConverter.convertToAttributesProto(JsonParser.parseString(json)),
+                        new HttpOkCallback(responseWriter)));
+    }
+
+    public void postTelemetry(String deviceToken, String json, DeviceApiResponseWriter responseWriter) {
+        authenticate(deviceToken, responseWriter, sessionInfo ->
+                getTransportService().process(sessionInfo, JsonConverter.convertToTelemetryProto(json), new HttpOkCallback(responseWriter)));
+    }
+
+    public void saveClaimingInfo(String deviceToken, String json, DeviceApiResponseWriter responseWriter) {
+        authenticate(deviceToken, responseWriter, sessionInfo -> {
+            DeviceId deviceId = new DeviceId(new UUID(sessionInfo.getDeviceIdMSB(), sessionInfo.getDeviceIdLSB()));
+            getTransportService().process(sessionInfo, JsonConverter.convertToClaimDeviceProto(deviceId, json), new HttpOkCallback(responseWriter));
+        });
+    }
+
+    public void subscribeToCommands(String deviceToken, long timeout, DeviceApiResponseWriter responseWriter) {
+        authenticate(deviceToken, responseWriter, sessionInfo -> {
+            registerSyncSession(sessionInfo, responseWriter, timeout == 0 ? transportContext.getDefaultTimeout() : timeout);
+            getTransportService().process(sessionInfo, SubscribeToRPCMsg.getDefaultInstance(), new SessionCloseOnErrorCallback(getTransportService(), sessionInfo));
+        });
+    }
+
+    public void replyToCommand(String deviceToken, int requestId, String json, DeviceApiResponseWriter responseWriter) {
+        authenticate(deviceToken, responseWriter, sessionInfo ->
+                getTransportService().process(sessionInfo, ToDeviceRpcResponseMsg.newBuilder().setRequestId(requestId).setPayload(json).build(),
+                        new HttpOkCallback(responseWriter)));
+    }
+
+    public void postRpcRequest(String deviceToken, String json, DeviceApiResponseWriter responseWriter) {
+        authenticate(deviceToken, responseWriter, sessionInfo -> {
+            JsonObject request = JsonParser.parseString(json).getAsJsonObject();
+            registerSyncSession(sessionInfo, responseWriter, transportContext.getDefaultTimeout());
+            getTransportService().process(sessionInfo, ToServerRpcRequestMsg.newBuilder().setRequestId(0)
+                            .setMethodName(request.get("method").getAsString())
+                            .setParams(request.get("params").toString()).build(),
+                    new SessionCloseOnErrorCallback(getTransportService(), sessionInfo));
+        });
+    }
+
+    public void subscribeToAttributes(String deviceToken, long timeout, DeviceApiResponseWriter responseWriter) {
+        authenticate(deviceToken, responseWriter, sessionInfo -> {
+            registerSyncSession(sessionInfo, responseWriter, timeout == 0 ? transportContext.getDefaultTimeout() : timeout);
+            getTransportService().process(sessionInfo, SubscribeToAttributeUpdatesMsg.getDefaultInstance(),
+                    new SessionCloseOnErrorCallback(getTransportService(), sessionInfo));
+        });
+    }
+
+    public void getOtaPackage(String deviceToken, String title, String version, int size, int chunk, OtaPackageType type,
+                              DeviceApiResponseWriter responseWriter) {
+        authenticate(deviceToken, responseWriter, sessionInfo -> {
+            TransportProtos.GetOtaPackageRequestMsg requestMsg = TransportProtos.GetOtaPackageRequestMsg.newBuilder()
+                    .setTenantIdMSB(sessionInfo.getTenantIdMSB())
+                    .setTenantIdLSB(sessionInfo.getTenantIdLSB())
+                    .setDeviceIdMSB(sessionInfo.getDeviceIdMSB())
+                    .setDeviceIdLSB(sessionInfo.getDeviceIdLSB())
+                    .setType(type.name()).build();
+            getTransportService().process(sessionInfo, requestMsg, new GetOtaPackageCallback(transportContext, responseWriter, title, version, size, chunk));
+        });
+    }
+
+    public void provisionDevice(String json, DeviceApiResponseWriter responseWriter) {
+        getTransportService().process(JsonConverter.convertToProvisionRequestMsg(json), new DeviceProvisionCallback(responseWriter));
+    }
+
+    private void authenticate(String deviceToken, DeviceApiResponseWriter responseWriter, Consumer<SessionInfoProto> onSuccess) {
+        getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
+                new DeviceAuthCallback(transportContext, responseWriter, onSuccess));
+    }
+
+    private void registerSyncSession(SessionInfoProto sessionInfo, DeviceApiResponseWriter responseWriter, long timeout) {
+        responseWriter.onSyncSessionRegistered(sessionInfo);
+        getTransportService().registerSyncSession(sessionInfo, new HttpSessionListener(responseWriter, getTransportService(), sessionInfo), timeout);
+    }
+
+    private TransportService getTransportService() {
+        return transportContext.getTransportService();
+    }
+
+    private static void writeError(DeviceApiResponseWriter responseWriter, String callbackName, Throwable e) {
+        String body = null;
+        if (e instanceof HttpMessageNotReadableException || e instanceof JsonParseException) {
+            body = e.getMessage();
+            log.debug("Failed to process request in {}: {}", callbackName, body);
+        } else {
+            log.warn("Failed to process request in {}", callbackName, e);
+        }
+        responseWriter.write(HttpStatus.INTERNAL_SERVER_ERROR, body);
+    }
+
+    @RequiredArgsConstructor
+    static class DeviceAuthCallback implements TransportServiceCallback<ValidateDeviceCredentialsResponse> {
+        private final TransportContext transportContext;
+        private final DeviceApiResponseWriter responseWriter;
+        private final Consumer<SessionInfoProto> onSuccess;
+
+        @Override
+        public void onSuccess(ValidateDeviceCredentialsResponse msg) {
+            if (!msg.hasDeviceInfo()) {
+                responseWriter.write(HttpStatus.UNAUTHORIZED);
+                return;
+            }
+            try {
+                onSuccess.accept(SessionInfoCreator.create(msg, transportContext, UUID.randomUUID()));
+            } catch (Exception e) {
+                onError(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            writeError(responseWriter, "DeviceAuthCallback", e);
+        }
+    }
+
+    @RequiredArgsConstructor
+    static class DeviceProvisionCallback implements TransportServiceCallback<ProvisionDeviceResponseMsg> {
+        private final DeviceApiResponseWriter responseWriter;
+
+        @Override
+        public void onSuccess(ProvisionDeviceResponseMsg msg) {
+            responseWriter.writeJson(JsonConverter.toJson(msg).toString());
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            writeError(responseWriter, "DeviceProvisionCallback", e);
+        }
+    }
+
+    @RequiredArgsConstructor
+    static class GetOtaPackageCallback implements TransportServiceCallback<GetOtaPackageResponseMsg> {
+        private final TransportContext transportContext;
+        private final DeviceApiResponseWriter responseWriter;
+        private final String title;
+        private final String version;
+        private final int chunkSize;
+        private final int chunk;
+
+        @Override
+        public void onSuccess(GetOtaPackageResponseMsg otaPackageResponseMsg) {
+            if (!TransportProtos.ResponseStatus.SUCCESS.equals(otaPackageResponseMsg.getResponseStatus())) {
+                responseWriter.write(HttpStatus.NOT_FOUND);
+            } else if (title.equals(otaPackageResponseMsg.getTitle()) && version.equals(otaPackageResponseMsg.getVersion())) {
+                String otaPackageId = new UUID(otaPackageResponseMsg.getOtaPackageIdMSB(), otaPackageResponseMsg.getOtaPackageIdLSB()).toString();
+                byte[] data = transportContext.getOtaPackageDataCache().get(otaPackageId, chunkSize, chunk);
+                responseWriter.writeOtaPackage(otaPackageResponseMsg.getFileName(), otaPackageResponseMsg.getContentType(), data);
+            } else {
+                responseWriter.write(HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            writeError(responseWriter, "GetOtaPackageCallback", e);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class SessionCloseOnErrorCallback implements TransportServiceCallback<Void> {
+        private final TransportService transportService;
+        private final SessionInfoProto sessionInfo;
+
+        @Override
+        public void onSuccess(Void msg) {
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            transportService.deregisterSession(sessionInfo);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class HttpOkCallback implements TransportServiceCallback<Void> {
+        private final DeviceApiResponseWriter responseWriter;
+
+        @Override
+        public void onSuccess(Void msg) {
+            responseWriter.write(HttpStatus.OK);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            responseWriter.write(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class HttpSessionListener implements SessionMsgListener {
+
+        private final DeviceApiResponseWriter responseWriter;
+        private final TransportService transportService;
+        private final SessionInfoProto sessionInfo;
+
+        @Override
+        public void onGetAttributesResponse(GetAttributeResponseMsg msg) {
+            responseWriter.writeJson(JsonConverter.toJson(msg).toString());
+        }
+
+        @Override
+        public void onAttributeUpdate(UUID sessionId, AttributeUpdateNotificationMsg msg) {
+            log.trace("[{}] Received attributes update notification to device", sessionId);
+            responseWriter.writeJson(JsonConverter.toJson(msg).toString());
+        }
+
+        @Override
+        public void onRemoteSessionCloseCommand(UUID sessionId, SessionCloseNotificationProto sessionCloseNotification) {
+            log.trace("[{}] Received the remote command to close the session: {}", sessionId, sessionCloseNotification.getMessage());
+            responseWriter.write(HttpStatus.REQUEST_TIMEOUT);
+        }
+
+        @Override
+        public void onToDeviceRpcRequest(UUID sessionId, ToDeviceRpcRequestMsg msg) {
+            log.trace("[{}] Received RPC command to device", sessionId);
+            responseWriter.writeJson(JsonConverter.toJson(msg, true).toString());
+            transportService.process(sessionInfo, msg, RpcStatus.DELIVERED, TransportServiceCallback.EMPTY);
+        }
+
+        @Override
+        public void onToServerRpcResponse(ToServerRpcResponseMsg msg) {
+            responseWriter.writeJson(JsonConverter.toJson(msg).toString());
+        }
+
+        @Override
+        public void onDeviceDeleted(DeviceId deviceId) {
+            UUID sessionId = new UUID(sessionInfo.getSessionIdMSB(), sessionInfo.getSessionIdLSB());
+            log.trace("[{}] Received device deleted notification for device with id: {}", sessionId, deviceId);
+            responseWriter.write(HttpStatus.FORBIDDEN, "Device was deleted!");
+        }
+
+    }
+
+}
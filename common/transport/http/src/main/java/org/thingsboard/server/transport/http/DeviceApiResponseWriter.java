@@ -0,0 +1,44 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.http;
+
+import org.springframework.http.HttpStatus;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionInfoProto;
+
+/**
+ * Writes the response of a single device API request, see {@link DeviceApiRequestProcessor}.
+ * May be called from any thread, only the first response of a request is written.
+ */
+public interface DeviceApiResponseWriter {
+
+    void write(HttpStatus status);
+
+    /**
+     * Writes the status with a plain text body, or without a body if it is null.
+     */
+    void write(HttpStatus status, String body);
+
+    void writeJson(String json);
+
+    void writeOtaPackage(String fileName, String contentType, byte[] data);
+
+    /**
+     * Called when the request waits for a response of the sync session, so the session can be deregistered if the request is cancelled.
+     */
+    default void onSyncSessionRegistered(SessionInfoProto sessionInfo) {
+    }
+
+}
@@ -35,10 +35,19 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class PayloadSizeFilter extends OncePerRequestFilter {
 
-    private final Map<String, Long> limits = new LinkedHashMap<>();
+    private final Map<String, Long> limits;
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
     public PayloadSizeFilter(String limitsConfiguration) {
+        limits = parseLimits(limitsConfiguration);
+        log.info("Initialized payload size filter with configuration: {}" , limitsConfiguration);
+    }
+
+    /**
+     * Parses the semicolon-separated list of urlPattern=maxPayloadSize pairs, the order of the patterns is preserved.
+     */
+    public static Map<String, Long> parseLimits(String limitsConfiguration) {
+        Map<String, Long> limits = new LinkedHashMap<>();
         for (String limit : limitsConfiguration.split(";")) {
             try {
                 String urlPathPattern = limit.split("=")[0];
@@ -48,7 +57,7 @@ public class PayloadSizeFilter extends OncePerRequestFilter {
                 throw new IllegalArgumentException("Failed to parse size limits configuration: " + limitsConfiguration);
             }
         }
-        log.info("Initialized payload size filter with configuration: {}" , limitsConfiguration);
+        return limits;
     }
 
     @Override
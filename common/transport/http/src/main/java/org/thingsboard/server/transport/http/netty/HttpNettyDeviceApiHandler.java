@@ -0,0 +1,395 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.http.netty;
+
+import com.google.gson.JsonParseException;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.thingsboard.server.common.data.StringUtils;
+import org.thingsboard.server.common.data.ota.OtaPackageType;
+import org.thingsboard.server.common.msg.tools.MaxPayloadSizeExceededException;
+import org.thingsboard.server.common.transport.TransportService;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionInfoProto;
+import org.thingsboard.server.transport.http.DeviceApiRequestProcessor;
+import org.thingsboard.server.transport.http.DeviceApiResponseWriter;
+import org.thingsboard.server.transport.http.HttpTransportContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Handles the device API requests of a single connection. Serves the endpoints of {@link org.thingsboard.server.transport.http.DeviceApiController},
+ * the requests are processed by the shared {@link DeviceApiRequestProcessor}.
+ * <p>
+ * The requests are processed asynchronously, so the responses of pipelined requests may complete out of order.
+ * They are buffered and written in the order of the requests. At most {@code maxPendingRequests} requests are processed at a time:
+ * the connection stops reading when the limit is reached, and the requests that were already received are rejected.
+ * All the state, except the response payloads, is accessed on the channel event loop.
+ */
+@Slf4j
+public class HttpNettyDeviceApiHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    private static final String API_PREFIX = "/api/v1/";
+    private static final String APPLICATION_JSON = "application/json";
+
+    private final HttpTransportContext context;
+    private final TransportService transportService;
+    private final DeviceApiRequestProcessor requestProcessor;
+    private final HttpNettyPayloadSizeLimits payloadSizeLimits;
+    private final int maxRequestsPerConnection;
+    private final int maxPendingRequests;
+
+    private final Map<Integer, ResponseWriter> inFlight = new HashMap<>();
+    private final Map<Integer, FullHttpResponse> completed = new HashMap<>();
+    private int requestCount;
+    private int nextResponseSeq;
+    private boolean closing;
+
+    public HttpNettyDeviceApiHandler(HttpTransportContext context, HttpNettyPayloadSizeLimits payloadSizeLimits,
+                                     int maxRequestsPerConnection, int maxPendingRequests) {
+        this.context = context;
+        this.transportService = context.getTransportService();
+        this.requestProcessor = new DeviceApiRequestProcessor(context);
+        this.payloadSizeLimits = payloadSizeLimits;
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+        this.maxPendingRequests = Math.max(1, maxPendingRequests);
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+        if (closing) {
+            return;
+        }
+        int seq = requestCount++;
+        boolean keepAlive = HttpUtil.isKeepAlive(request) && (maxRequestsPerConnection <= 0 || requestCount < maxRequestsPerConnection);
+        if (!keepAlive) {
+            closing = true;
+        }
+        ResponseWriter writer = new ResponseWriter(ctx, seq, keepAlive);
+        inFlight.put(seq, writer);
+        if (seq - nextResponseSeq >= maxPendingRequests) {
+            // received in the same read as the requests that reached the limit
+            writer.write(HttpResponseStatus.TOO_MANY_REQUESTS);
+        } else if (!request.decoderResult().isSuccess()) {
+            writer.write(HttpResponseStatus.BAD_REQUEST);
+        } else {
+            try {
+                route(request, writer);
+            } catch (IllegalArgumentException | JsonParseException e) {
+                log.debug("[{}] Failed to process request: {}", ctx.channel().remoteAddress(), e.getMessage());
+                writer.write(HttpResponseStatus.BAD_REQUEST, e.getMessage());
+            } catch (Exception e) {
+                log.warn("[{}] Failed to process request", ctx.channel().remoteAddress(), e);
+                writer.write(HttpResponseStatus.INTERNAL_SERVER_ERROR);
+            }
+        }
+        updateAutoRead(ctx);
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            if (inFlight.isEmpty()) {
+                log.trace("[{}] Closing idle connection", ctx.channel().remoteAddress());
+                ctx.close();
+            }
+        } else {
+            super.userEventTriggered(ctx, evt);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        for (ResponseWriter writer : inFlight.values()) {
+            writer.cancel();
+        }
+        inFlight.clear();
+        completed.values().forEach(FullHttpResponse::release);
+        completed.clear();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        log.debug("[{}] Unexpected exception, closing the connection", ctx.channel().remoteAddress(), cause);
+        ctx.close();
+    }
+
+    private void route(FullHttpRequest request, ResponseWriter writer) {
+        QueryStringDecoder decoder = new QueryStringDecoder(request.uri());
+        String path = decoder.path();
+        if (!path.startsWith(API_PREFIX)) {
+            writer.write(HttpResponseStatus.NOT_FOUND);
+            return;
+        }
+        long maxPayloadSize = payloadSizeLimits.getLimit(path);
+        if (request.content().readableBytes() > maxPayloadSize) {
+            log.debug("[{}] Payload size {} exceeds the limit of {} bytes", path, request.content().readableBytes(), maxPayloadSize);
+            writer.write(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE, new MaxPayloadSizeExceededException(maxPayloadSize).getMessage());
+            return;
+        }
+        String[] segments = path.substring(API_PREFIX.length()).split("/");
+        HttpMethod method = request.method();
+        if (segments.length == 1 && "provision".equals(segments[0])) {
+            if (HttpMethod.POST.equals(method)) {
+                requestProcessor.provisionDevice(body(request), writer);
+            } else {
+                writer.write(HttpResponseStatus.METHOD_NOT_ALLOWED);
+            }
+            return;
+        }
+        if (segments.length < 2 || StringUtils.isEmpty(segments[0])) {
+            writer.write(HttpResponseStatus.NOT_FOUND);
+            return;
+        }
+        String deviceToken = segments[0];
+        Map<String, List<String>> params = decoder.parameters();
+        String resource = segments.length == 2 ? segments[1] : segments[1] + "/" + segments[2];
+        if (segments.length > 3) {
+            writer.write(HttpResponseStatus.NOT_FOUND);
+            return;
+        }
+        switch (resource) {
+            case "attributes" -> {
+                if (HttpMethod.GET.equals(method)) {
+                    requestProcessor.getDeviceAttributes(deviceToken, param(params, "clientKeys", ""), param(params, "sharedKeys", ""), writer);
+                } else if (HttpMethod.POST.equals(method)) {
+                    requestProcessor.postDeviceAttributes(deviceToken, body(request), writer);
+                } else {
+                    writer.write(HttpResponseStatus.METHOD_NOT_ALLOWED);
+                }
+            }
+            case "telemetry" -> {
+                if (HttpMethod.POST.equals(method)) {
+                    requestProcessor.postTelemetry(deviceToken, body(request), writer);
+                } else {
+                    writer.write(HttpResponseStatus.METHOD_NOT_ALLOWED);
+                }
+            }
+            case "claim" -> {
+                if (HttpMethod.POST.equals(method)) {
+                    requestProcessor.saveClaimingInfo(deviceToken, body(request), writer);
+                } else {
+                    writer.write(HttpResponseStatus.METHOD_NOT_ALLOWED);
+                }
+            }
+            case "rpc" -> {
+                if (HttpMethod.GET.equals(method)) {
+                    requestProcessor.subscribeToCommands(deviceToken, Long.parseLong(param(params, "timeout", "0")), writer);
+                } else if (HttpMethod.POST.equals(method)) {
+                    requestProcessor.postRpcRequest(deviceToken, body(request), writer);
+                } else {
+                    writer.write(HttpResponseStatus.METHOD_NOT_ALLOWED);
+                }
+            }
+            case "attributes/updates" -> {
+                if (HttpMethod.GET.equals(method)) {
+                    requestProcessor.subscribeToAttributes(deviceToken, Long.parseLong(param(params, "timeout", "0")), writer);
+                } else {
+                    writer.write(HttpResponseStatus.METHOD_NOT_ALLOWED);
+                }
+            }
+            case "firmware", "software" -> {
+                if (HttpMethod.GET.equals(method)) {
+                    requestProcessor.getOtaPackage(deviceToken, requiredParam(params, "title"), requiredParam(params, "version"),
+                            Integer.parseInt(param(params, "size", "0")), Integer.parseInt(param(params, "chunk", "0")),
+                            "firmware".equals(resource) ? OtaPackageType.FIRMWARE : OtaPackageType.SOFTWARE, writer);
+                } else {
+                    writer.write(HttpResponseStatus.METHOD_NOT_ALLOWED);
+                }
+            }
+            default -> {
+                if (segments.length == 3 && "rpc".equals(segments[1])) {
+                    if (HttpMethod.POST.equals(method)) {
+                        requestProcessor.replyToCommand(deviceToken, Integer.parseInt(segments[2]), body(request), writer);
+                    } else {
+                        writer.write(HttpResponseStatus.METHOD_NOT_ALLOWED);
+                    }
+                } else {
+                    writer.write(HttpResponseStatus.NOT_FOUND);
+                }
+            }
+        }
+    }
+
+    private void complete(ResponseWriter writer, FullHttpResponse response) {
+        ChannelHandlerContext ctx = writer.ctx;
+        if (inFlight.remove(writer.seq) == null) {
+            response.release();
+            return;
+        }
+        completed.put(writer.seq, response);
+        FullHttpResponse next;
+        while ((next = completed.remove(nextResponseSeq)) != null) {
+            boolean last = closing && nextResponseSeq == requestCount - 1;
+            nextResponseSeq++;
+            if (last) {
+                ctx.writeAndFlush(next).addListener(ChannelFutureListener.CLOSE);
+            } else {
+                ctx.writeAndFlush(next);
+            }
+        }
+        updateAutoRead(ctx);
+    }
+
+    private void updateAutoRead(ChannelHandlerContext ctx) {
+        boolean autoRead = !closing && requestCount - nextResponseSeq < maxPendingRequests;
+        if (ctx.channel().config().isAutoRead() != autoRead) {
+            ctx.channel().config().setAutoRead(autoRead);
+        }
+    }
+
+    private static String body(FullHttpRequest request) {
+        return request.content().toString(StandardCharsets.UTF_8);
+    }
+
+    private static String param(Map<String, List<String>> params, String name, String defaultValue) {
+        List<String> values = params.get(name);
+        return values != null && !values.isEmpty() ? values.get(0) : defaultValue;
+    }
+
+    private static String requiredParam(Map<String, List<String>> params, String name) {
+        String value = param(params, name, null);
+        if (value == null) {
+            throw new IllegalArgumentException("Required request parameter '" + name + "' is not present");
+        }
+        return value;
+    }
+
+    /**
+     * Completes a single request. May be called from any thread, only the first result is written.
+     */
+    private class ResponseWriter implements DeviceApiResponseWriter {
+
+        private final ChannelHandlerContext ctx;
+        private final int seq;
+        private final boolean keepAlive;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final ScheduledFuture<?> timeoutFuture;
+        private volatile SessionInfoProto syncSession;
+
+        ResponseWriter(ChannelHandlerContext ctx, int seq, boolean keepAlive) {
+            this.ctx = ctx;
+            this.seq = seq;
+            this.keepAlive = keepAlive;
+            this.timeoutFuture = ctx.executor().schedule(() -> write(HttpResponseStatus.SERVICE_UNAVAILABLE),
+                    context.getMaxRequestTimeout(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void write(HttpStatus status) {
+            write(HttpResponseStatus.valueOf(status.value()));
+        }
+
+        @Override
+        public void write(HttpStatus status, String body) {
+            if (body != null) {
+                write(HttpResponseStatus.valueOf(status.value()), body);
+            } else {
+                write(status);
+            }
+        }
+
+        @Override
+        public void writeJson(String json) {
+            write(HttpResponseStatus.OK, json, APPLICATION_JSON);
+        }
+
+        @Override
+        public void writeOtaPackage(String fileName, String contentType, byte[] data) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                    data != null ? Unpooled.wrappedBuffer(data) : Unpooled.EMPTY_BUFFER);
+            response.headers()
+                    .set(HttpHeaderNames.CONTENT_DISPOSITION, "attachment;filename=" + fileName)
+                    .set("x-filename", fileName)
+                    .set(HttpHeaderNames.CONTENT_TYPE, StringUtils.isEmpty(contentType) ? HttpHeaderValues.APPLICATION_OCTET_STREAM : contentType);
+            write(response);
+        }
+
+        @Override
+        public void onSyncSessionRegistered(SessionInfoProto sessionInfo) {
+            syncSession = sessionInfo;
+        }
+
+        void write(HttpResponseStatus status) {
+            write(status, null, null);
+        }
+
+        void write(HttpResponseStatus status, String body) {
+            write(status, body, "text/plain; charset=UTF-8");
+        }
+
+        void write(HttpResponseStatus status, String body, String contentType) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            ByteBuf content = body != null ? ByteBufUtil.writeUtf8(ctx.alloc(), body) : Unpooled.EMPTY_BUFFER;
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, content);
+            if (contentType != null) {
+                response.headers().set(HttpHeaderNames.CONTENT_TYPE, contentType);
+            }
+            write(response);
+        }
+
+        void write(FullHttpResponse response) {
+            timeoutFuture.cancel(false);
+            HttpUtil.setContentLength(response, response.content().readableBytes());
+            response.headers().set(HttpHeaderNames.CONNECTION, keepAlive ? HttpHeaderValues.KEEP_ALIVE : HttpHeaderValues.CLOSE);
+            if (ctx.executor().inEventLoop()) {
+                complete(this, response);
+            } else {
+                ctx.executor().execute(() -> complete(this, response));
+            }
+        }
+
+        void cancel() {
+            if (done.compareAndSet(false, true)) {
+                timeoutFuture.cancel(false);
+                SessionInfoProto sessionInfo = syncSession;
+                if (sessionInfo != null) {
+                    transportService.deregisterSession(sessionInfo);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.http.netty;
+
+import io.netty.handler.codec.http.HttpMessage;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.QueryStringDecoder;
+
+/**
+ * Rejects the requests whose declared content length exceeds the limit of the request path before the content is
+ * received. The requests without declared length are aggregated up to the largest limit and checked by the handler.
+ */
+public class HttpNettyPayloadSizeAggregator extends HttpObjectAggregator {
+
+    private final HttpNettyPayloadSizeLimits limits;
+
+    public HttpNettyPayloadSizeAggregator(HttpNettyPayloadSizeLimits limits) {
+        super(limits.getMaxLimit());
+        this.limits = limits;
+    }
+
+    @Override
+    protected boolean isContentLengthInvalid(HttpMessage start, int maxContentLength) {
+        if (super.isContentLengthInvalid(start, maxContentLength)) {
+            return true;
+        }
+        if (start instanceof HttpRequest request) {
+            try {
+                return HttpUtil.getContentLength(request, -1L) > limits.getLimit(new QueryStringDecoder(request.uri()).path());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+}
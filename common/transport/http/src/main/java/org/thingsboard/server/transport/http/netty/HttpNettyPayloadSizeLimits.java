@@ -0,0 +1,51 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.http.netty;
+
+import org.springframework.util.AntPathMatcher;
+import org.thingsboard.server.transport.http.config.PayloadSizeFilter;
+
+import java.util.Map;
+
+/**
+ * Max request size per url pattern, configured the same way as for the servlet based transport. The first matching
+ * pattern is applied; the requests that match no pattern are limited by the largest configured size.
+ */
+public class HttpNettyPayloadSizeLimits {
+
+    private final Map<String, Long> limits;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final int maxLimit;
+
+    public HttpNettyPayloadSizeLimits(String limitsConfiguration) {
+        this.limits = PayloadSizeFilter.parseLimits(limitsConfiguration);
+        this.maxLimit = (int) Math.min(Integer.MAX_VALUE, limits.values().stream().mapToLong(Long::longValue).max().orElse(Integer.MAX_VALUE));
+    }
+
+    public long getLimit(String path) {
+        for (Map.Entry<String, Long> limit : limits.entrySet()) {
+            if (pathMatcher.match(limit.getKey(), path)) {
+                return limit.getValue();
+            }
+        }
+        return maxLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+}
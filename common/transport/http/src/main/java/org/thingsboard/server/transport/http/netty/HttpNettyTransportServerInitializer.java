@@ -0,0 +1,55 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.http.netty;
+
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.timeout.IdleStateHandler;
+import org.thingsboard.server.transport.http.HttpTransportContext;
+
+import java.util.concurrent.TimeUnit;
+
+public class HttpNettyTransportServerInitializer extends ChannelInitializer<SocketChannel> {
+
+    private final HttpTransportContext context;
+    private final HttpNettyPayloadSizeLimits payloadSizeLimits;
+    private final int maxRequestsPerConnection;
+    private final int maxPendingRequests;
+    private final long idleTimeoutMs;
+
+    public HttpNettyTransportServerInitializer(HttpTransportContext context, HttpNettyPayloadSizeLimits payloadSizeLimits,
+                                               int maxRequestsPerConnection, int maxPendingRequests, long idleTimeoutMs) {
+        this.context = context;
+        this.payloadSizeLimits = payloadSizeLimits;
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+        this.maxPendingRequests = maxPendingRequests;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    @Override
+    public void initChannel(SocketChannel ch) {
+        ChannelPipeline pipeline = ch.pipeline();
+        if (idleTimeoutMs > 0) {
+            pipeline.addLast("idle", new IdleStateHandler(0, 0, idleTimeoutMs, TimeUnit.MILLISECONDS));
+        }
+        pipeline.addLast("codec", new HttpServerCodec());
+        pipeline.addLast("aggregator", new HttpNettyPayloadSizeAggregator(payloadSizeLimits));
+        pipeline.addLast("handler", new HttpNettyDeviceApiHandler(context, payloadSizeLimits, maxRequestsPerConnection, maxPendingRequests));
+    }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.http.netty;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+import org.thingsboard.server.transport.http.HttpTransportContext;
+
+/**
+ * Serves the device HTTP API on the Netty event loops, as an alternative to the servlet based {@link org.thingsboard.server.transport.http.DeviceApiController}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnExpression("('${service.type:null}'=='tb-transport' || ('${service.type:null}'=='monolith' && '${transport.api_enabled:true}'=='true' && '${transport.http.enabled}'=='true')) && '${transport.http.netty.enabled:false}'=='true'")
+public class HttpNettyTransportService {
+
+    private final HttpTransportContext context;
+
+    @Value("${transport.http.netty.bind_address:0.0.0.0}")
+    private String host;
+    @Value("${transport.http.netty.bind_port:8082}")
+    private int port;
+    @Value("${transport.http.netty.boss_group_thread_count:1}")
+    private int bossGroupThreadCount;
+    @Value("${transport.http.netty.worker_group_thread_count:12}")
+    private int workerGroupThreadCount;
+    @Value("${transport.http.netty.so_keep_alive:false}")
+    private boolean keepAlive;
+    @Value("${transport.http.max_payload_size:/api/v1/*/rpc/**=65536;/api/v1/**=52428800}")
+    private String maxPayloadSizeConfig;
+    @Value("${transport.http.netty.max_requests_per_connection:1000}")
+    private int maxRequestsPerConnection;
+    @Value("${transport.http.netty.max_pending_requests:16}")
+    private int maxPendingRequests;
+    @Value("${transport.http.netty.idle_timeout_ms:60000}")
+    private long idleTimeoutMs;
+
+    private Channel serverChannel;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+
+    @PostConstruct
+    public void init() throws Exception {
+        log.info("Starting Netty HTTP transport...");
+        bossGroup = new NioEventLoopGroup(bossGroupThreadCount);
+        workerGroup = new NioEventLoopGroup(workerGroupThreadCount);
+        ServerBootstrap b = new ServerBootstrap();
+        b.group(bossGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new HttpNettyTransportServerInitializer(context, new HttpNettyPayloadSizeLimits(maxPayloadSizeConfig),
+                        maxRequestsPerConnection, maxPendingRequests, idleTimeoutMs))
+                .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.SO_KEEPALIVE, keepAlive);
+        serverChannel = b.bind(host, port).sync().channel();
+        log.info("Netty HTTP transport started on {}:{}", host, port);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        log.info("Stopping Netty HTTP transport!");
+        try {
+            if (serverChannel != null) {
+                serverChannel.close().sync();
+            }
+        } finally {
+            if (workerGroup != null) {
+                workerGroup.shutdownGracefully();
+            }
+            if (bossGroup != null) {
+                bossGroup.shutdownGracefully();
+            }
+        }
+        log.info("Netty HTTP transport stopped!");
+    }
+
+}
@@ -35,7 +35,8 @@ class DeviceApiControllerTest {
         DeferredResult<ResponseEntity> responseWriter = Mockito.mock(DeferredResult.class);
         Consumer<TransportProtos.SessionInfoProto> onSuccess = x -> {
         };
-        var callback = new DeviceApiController.DeviceAuthCallback(transportContext, responseWriter, onSuccess);
+        var callback = new DeviceApiRequestProcessor.DeviceAuthCallback(transportContext,
+                new DeviceApiController.DeferredResultResponseWriter(responseWriter), onSuccess);
 
         callback.onError(new HttpMessageNotReadableException("JSON incorrect syntax"));
 
@@ -49,7 +50,7 @@ class DeviceApiControllerTest {
     @Test
     void deviceProvisionCallbackTest() {
         DeferredResult<ResponseEntity> responseWriter = Mockito.mock(DeferredResult.class);
-        var callback = new DeviceApiController.DeviceProvisionCallback(responseWriter);
+        var callback = new DeviceApiRequestProcessor.DeviceProvisionCallback(new DeviceApiController.DeferredResultResponseWriter(responseWriter));
 
         callback.onError(new HttpMessageNotReadableException("JSON incorrect syntax"));
 
@@ -69,7 +70,8 @@ class DeviceApiControllerTest {
         int chunkSize = 11;
         int chunk = 3;
 
-        var callback = new DeviceApiController.GetOtaPackageCallback(transportContext, responseWriter, title, version, chunkSize, chunk);
+        var callback = new DeviceApiRequestProcessor.GetOtaPackageCallback(transportContext,
+                new DeviceApiController.DeferredResultResponseWriter(responseWriter), title, version, chunkSize, chunk);
 
         callback.onError(new HttpMessageNotReadableException("JSON incorrect syntax"));
 
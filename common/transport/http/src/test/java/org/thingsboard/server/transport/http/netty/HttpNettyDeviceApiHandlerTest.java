@@ -0,0 +1,188 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.http.netty;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.thingsboard.server.common.data.DeviceTransportType;
+import org.thingsboard.server.common.transport.TransportService;
+import org.thingsboard.server.common.transport.TransportServiceCallback;
+import org.thingsboard.server.common.transport.auth.ValidateDeviceCredentialsResponse;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokenRequestMsg;
+import org.thingsboard.server.transport.http.HttpTransportContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HttpNettyDeviceApiHandlerTest {
+
+    private static final String MAX_PAYLOAD_SIZE_CONFIG = "/api/v1/*/rpc/**=1024;/api/v1/**=4096";
+
+    private TransportService transportService;
+    private HttpTransportContext context;
+
+    @BeforeEach
+    void setUp() {
+        transportService = mock(TransportService.class);
+        context = mock(HttpTransportContext.class);
+        when(context.getTransportService()).thenReturn(transportService);
+        when(context.getMaxRequestTimeout()).thenReturn(60000L);
+    }
+
+    @Test
+    void givenPipelinedRequests_whenCompletedOutOfOrder_thenResponsesAreWrittenInOrder() {
+        EmbeddedChannel channel = new EmbeddedChannel(handler(0, 16));
+
+        channel.writeInbound(request(HttpMethod.POST, "/api/v1/token1/telemetry", "{\"temperature\":42}"));
+        channel.writeInbound(request(HttpMethod.POST, "/api/v1/token2/telemetry", "{\"temperature\":43}"));
+
+        List<TransportServiceCallback<ValidateDeviceCredentialsResponse>> callbacks = captureAuthCallbacks(2);
+        callbacks.get(1).onSuccess(ValidateDeviceCredentialsResponse.builder().build());
+        assertThat((Object) channel.readOutbound()).isNull();
+
+        callbacks.get(0).onError(new RuntimeException("failed"));
+        FullHttpResponse first = channel.readOutbound();
+        FullHttpResponse second = channel.readOutbound();
+        assertThat(first.status()).isEqualTo(HttpResponseStatus.INTERNAL_SERVER_ERROR);
+        assertThat(second.status()).isEqualTo(HttpResponseStatus.UNAUTHORIZED);
+        assertThat(channel.isOpen()).isTrue();
+        first.release();
+        second.release();
+    }
+
+    @Test
+    void givenMaxRequestsPerConnectionReached_whenResponseWritten_thenConnectionIsClosed() {
+        EmbeddedChannel channel = new EmbeddedChannel(handler(2, 16));
+
+        channel.writeInbound(request(HttpMethod.GET, "/api/v1/token/unknown", null));
+        FullHttpResponse notFound = channel.readOutbound();
+        assertThat(notFound.status()).isEqualTo(HttpResponseStatus.NOT_FOUND);
+        assertThat(notFound.headers().get(HttpHeaderNames.CONNECTION)).isEqualTo(HttpHeaderValues.KEEP_ALIVE.toString());
+        notFound.release();
+
+        channel.writeInbound(request(HttpMethod.DELETE, "/api/v1/token/telemetry", null));
+        FullHttpResponse notAllowed = channel.readOutbound();
+        assertThat(notAllowed.status()).isEqualTo(HttpResponseStatus.METHOD_NOT_ALLOWED);
+        assertThat(notAllowed.headers().get(HttpHeaderNames.CONNECTION)).isEqualTo(HttpHeaderValues.CLOSE.toString());
+        notAllowed.release();
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    void givenMissingRequiredParameter_whenGetFirmware_thenBadRequest() {
+        EmbeddedChannel channel = new EmbeddedChannel(handler(0, 16));
+
+        channel.writeInbound(request(HttpMethod.GET, "/api/v1/token/firmware?title=fw", null));
+
+        FullHttpResponse response = channel.readOutbound();
+        assertThat(response.status()).isEqualTo(HttpResponseStatus.BAD_REQUEST);
+        assertThat(response.content().toString(StandardCharsets.UTF_8)).contains("version");
+        response.release();
+    }
+
+    @Test
+    void givenPayloadOverPathLimit_whenPostRequest_thenPayloadTooLarge() {
+        EmbeddedChannel channel = new EmbeddedChannel(handler(0, 16));
+        String payload = "{\"value\":\"" + "a".repeat(2000) + "\"}";
+
+        channel.writeInbound(request(HttpMethod.POST, "/api/v1/token/rpc", payload));
+        FullHttpResponse rpcResponse = channel.readOutbound();
+        assertThat(rpcResponse.status()).isEqualTo(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE);
+        rpcResponse.release();
+
+        channel.writeInbound(request(HttpMethod.POST, "/api/v1/token/telemetry", payload));
+        assertThat((Object) channel.readOutbound()).isNull();
+        captureAuthCallbacks(1);
+    }
+
+    @Test
+    void givenDeclaredContentLengthOverPathLimit_whenRequestReceived_thenRejectedBeforeContent() {
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpNettyPayloadSizeAggregator(new HttpNettyPayloadSizeLimits(MAX_PAYLOAD_SIZE_CONFIG)));
+
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/api/v1/token/rpc");
+        HttpUtil.setContentLength(request, 2048);
+        channel.writeInbound(request);
+
+        FullHttpResponse response = channel.readOutbound();
+        assertThat(response.status()).isEqualTo(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE);
+        assertThat((Object) channel.readInbound()).isNull();
+        response.release();
+    }
+
+    @Test
+    void givenMaxPendingRequestsReached_whenMoreRequestsReceived_thenReadingIsPausedAndExtraRequestsRejected() {
+        EmbeddedChannel channel = new EmbeddedChannel(handler(0, 2));
+
+        channel.writeInbound(request(HttpMethod.POST, "/api/v1/token1/telemetry", "{\"temperature\":42}"));
+        channel.writeInbound(request(HttpMethod.POST, "/api/v1/token2/telemetry", "{\"temperature\":43}"));
+        assertThat(channel.config().isAutoRead()).isFalse();
+        channel.writeInbound(request(HttpMethod.POST, "/api/v1/token3/telemetry", "{\"temperature\":44}"));
+
+        List<TransportServiceCallback<ValidateDeviceCredentialsResponse>> callbacks = captureAuthCallbacks(2);
+        callbacks.get(0).onSuccess(ValidateDeviceCredentialsResponse.builder().build());
+        callbacks.get(1).onSuccess(ValidateDeviceCredentialsResponse.builder().build());
+
+        FullHttpResponse first = channel.readOutbound();
+        FullHttpResponse second = channel.readOutbound();
+        FullHttpResponse third = channel.readOutbound();
+        assertThat(first.status()).isEqualTo(HttpResponseStatus.UNAUTHORIZED);
+        assertThat(second.status()).isEqualTo(HttpResponseStatus.UNAUTHORIZED);
+        assertThat(third.status()).isEqualTo(HttpResponseStatus.TOO_MANY_REQUESTS);
+        assertThat(channel.config().isAutoRead()).isTrue();
+        first.release();
+        second.release();
+        third.release();
+    }
+
+    private HttpNettyDeviceApiHandler handler(int maxRequestsPerConnection, int maxPendingRequests) {
+        return new HttpNettyDeviceApiHandler(context, new HttpNettyPayloadSizeLimits(MAX_PAYLOAD_SIZE_CONFIG), maxRequestsPerConnection, maxPendingRequests);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TransportServiceCallback<ValidateDeviceCredentialsResponse>> captureAuthCallbacks(int count) {
+        ArgumentCaptor<TransportServiceCallback<ValidateDeviceCredentialsResponse>> captor = ArgumentCaptor.forClass(TransportServiceCallback.class);
+        verify(transportService, times(count)).process(eq(DeviceTransportType.DEFAULT), any(ValidateDeviceTokenRequestMsg.class), captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static FullHttpRequest request(HttpMethod method, String uri, String body) {
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, uri,
+                body != null ? Unpooled.copiedBuffer(body, StandardCharsets.UTF_8) : Unpooled.EMPTY_BUFFER);
+    }
+
+}
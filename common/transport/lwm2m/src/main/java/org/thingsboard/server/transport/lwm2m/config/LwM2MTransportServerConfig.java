@@ -78,6 +78,18 @@ public class LwM2MTransportServerConfig implements LwM2MSecureServerConfig {
     @Value("${transport.lwm2m.clean_period_in_sec:}")
     private int cleanPeriodInSec;
 
+    @Getter
+    @Value("${transport.lwm2m.registration_cache.max_size:100000}")
+    private long registrationCacheMaxSize;
+
+    @Getter
+    @Value("${transport.lwm2m.registration_cache.ttl_sec:60}")
+    private long registrationCacheTtlSec;
+
+    @Getter
+    @Value("${transport.lwm2m.client_store.legacy_json_format:false}")
+    private boolean clientStoreLegacyJsonFormat;
+
     @Getter
     @Value("${transport.lwm2m.server.id:}")
     private Integer id;
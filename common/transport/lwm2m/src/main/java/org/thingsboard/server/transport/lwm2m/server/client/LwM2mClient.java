@@ -123,6 +123,7 @@ public class LwM2mClient {
     @Setter
     private Future<Void> sleepTask;
 
+    @Getter
     private boolean firstEdrxDownlink = true;
 
     @Getter
@@ -170,6 +171,25 @@ public class LwM2mClient {
         this.defaultObjectIDVer = getObjectIDVerFromDeviceProfile(credentials.getDeviceProfile());
     }
 
+    /**
+     * Restores the state of the client loaded from the client store.
+     */
+    public void restore(SessionInfoProto session, TenantId tenantId, UUID deviceId, UUID profileId, PowerMode powerMode,
+                        Long edrxCycle, Long psmActivityTimer, Long pagingTransmissionWindow, LwM2m.Version defaultObjectIDVer,
+                        long lastUplinkTime, boolean firstEdrxDownlink) {
+        this.session = session;
+        this.tenantId = tenantId;
+        this.deviceId = deviceId;
+        this.profileId = profileId;
+        this.powerMode = powerMode;
+        this.edrxCycle = edrxCycle;
+        this.psmActivityTimer = psmActivityTimer;
+        this.pagingTransmissionWindow = pagingTransmissionWindow;
+        this.defaultObjectIDVer = defaultObjectIDVer;
+        this.lastUplinkTime = lastUplinkTime;
+        this.firstEdrxDownlink = firstEdrxDownlink;
+    }
+
     public void setRegistration(Registration registration) {
         this.registration = registration;
         this.clientSupportContentFormats = clientSupportContentFormat(registration);
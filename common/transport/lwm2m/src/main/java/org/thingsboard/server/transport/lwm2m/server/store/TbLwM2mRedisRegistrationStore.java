@@ -15,6 +15,8 @@
  */
 package org.thingsboard.server.transport.lwm2m.server.store;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.californium.core.coap.Token;
 import org.eclipse.californium.core.network.RandomTokenGenerator;
@@ -62,6 +64,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -109,6 +112,11 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
 
     private final LwM2mVersionedModelProvider modelProvider;
 
+    // Registrations added or updated by this node (Registration ID => Registration). The cached registration is used only
+    // to skip the registration ID index lookup: the registration itself is always read from Redis and checked against
+    // the registration ID, since another node may have updated it (e.g. after a NAT rebinding of the client)
+    private final Cache<String, Registration> registrations;
+
     public TbLwM2mRedisRegistrationStore(LwM2MTransportServerConfig config, RedisConnectionFactory connectionFactory, LwM2mVersionedModelProvider modelProvider) {
         this(config, connectionFactory, DEFAULT_CLEAN_PERIOD, DEFAULT_GRACE_PERIOD, DEFAULT_CLEAN_LIMIT, modelProvider); // default clean period 60s
     }
@@ -127,6 +135,10 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
         this.redisLock = new RedisLockRegistry(connectionFactory, "Registration");
         this.config = config;
         this.modelProvider = modelProvider;
+        this.registrations = Caffeine.newBuilder()
+                .maximumSize(config.getRegistrationCacheMaxSize())
+                .expireAfterWrite(config.getRegistrationCacheTtlSec(), TimeUnit.SECONDS)
+                .build();
     }
 
     /* *************** Redis Key utility function **************** */
@@ -161,26 +173,29 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
             try {
                 lock = redisLock.obtain(lockKey);
                 lock.lock();
-                // add registration
+                // add registration, secondary indexes and expiration in a single round trip
                 byte[] k = toEndpointKey(registration.getEndpoint());
-                byte[] old = connection.getSet(k, serializeReg(registration));
-
-                // add registration: secondary indexes
+                byte[] data = serializeReg(registration);
+                byte[] ep = registration.getEndpoint().getBytes(UTF_8);
                 byte[] regid_idx = toRegIdKey(registration.getId());
-                connection.set(regid_idx, registration.getEndpoint().getBytes(UTF_8));
                 byte[] addr_idx = toRegAddrKey(registration.getSocketAddress());
-                connection.set(addr_idx, registration.getEndpoint().getBytes(UTF_8));
                 byte[] identity_idx = toRegIdentityKey(registration.getClientTransportData().getIdentity());
-                connection.set(identity_idx, registration.getEndpoint().getBytes(UTF_8));
-
-                // Add or update expiration
-                addOrUpdateExpiration(connection, registration);
+                List<Object> results = pipelined(connection,
+                        c -> c.getSet(k, data),
+                        c -> c.set(regid_idx, ep),
+                        c -> c.set(addr_idx, ep),
+                        c -> c.set(identity_idx, ep),
+                        c -> addOrUpdateExpiration(c, registration));
+                byte[] old = (byte[]) results.get(0);
+                registrations.put(registration.getId(), registration);
 
                 if (old != null) {
                     Registration oldRegistration = deserializeReg(old);
                     // remove old secondary index
-                    if (!registration.getId().equals(oldRegistration.getId()))
+                    if (!registration.getId().equals(oldRegistration.getId())) {
+                        registrations.invalidate(oldRegistration.getId());
                         connection.del(toRegIdKey(oldRegistration.getId()));
+                    }
                     if (!oldRegistration.getSocketAddress().equals(registration.getSocketAddress())) {
                         removeAddrIndex(connection, oldRegistration);
                     }
@@ -208,8 +223,9 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
         Lock lock = null;
         try (var connection = connectionFactory.getConnection()) {
 
-            // Fetch the registration ep by registration ID index
-            byte[] ep = connection.get(toRegIdKey(update.getRegistrationId()));
+            // Fetch the registration ep by registration ID index, unless the registration is known to this node
+            Registration cached = registrations.getIfPresent(update.getRegistrationId());
+            byte[] ep = cached != null ? cached.getEndpoint().getBytes(UTF_8) : connection.get(toRegIdKey(update.getRegistrationId()));
             if (ep == null) {
                 return null;
             }
@@ -222,24 +238,31 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
                 // Fetch the registration
                 byte[] data = connection.get(toEndpointKey(ep));
                 if (data == null) {
+                    registrations.invalidate(update.getRegistrationId());
                     return null;
                 }
 
                 Registration r = deserializeReg(data);
+                if (!r.getId().equals(update.getRegistrationId())) {
+                    // the endpoint was registered again, possibly by another node
+                    registrations.invalidate(update.getRegistrationId());
+                    return null;
+                }
 
                 Registration updatedRegistration = update.update(r);
 
-                // Store the new registration
-                connection.set(toEndpointKey(updatedRegistration.getEndpoint()), serializeReg(updatedRegistration));
-
-                // Add or update expiration
-                addOrUpdateExpiration(connection, updatedRegistration);
-
-                /** Update secondary index :
+                /** Store the new registration, expiration and update secondary index :
                  * If registration is already associated to this address we don't care as we only want to keep the most
                  * recent binding. */
+                byte[] k = toEndpointKey(updatedRegistration.getEndpoint());
+                byte[] updatedData = serializeReg(updatedRegistration);
                 byte[] addr_idx = toRegAddrKey(updatedRegistration.getSocketAddress());
-                connection.set(addr_idx, updatedRegistration.getEndpoint().getBytes(UTF_8));
+                byte[] updatedEp = updatedRegistration.getEndpoint().getBytes(UTF_8);
+                pipelined(connection,
+                        c -> c.set(k, updatedData),
+                        c -> addOrUpdateExpiration(c, updatedRegistration),
+                        c -> c.set(addr_idx, updatedEp));
+                registrations.put(updatedRegistration.getId(), updatedRegistration);
                 if (!r.getSocketAddress().equals(updatedRegistration.getSocketAddress())) {
                     removeAddrIndex(connection, r);
                 }
@@ -265,16 +288,24 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
     }
 
     private Registration getRegistration(RedisConnection connection, String registrationId) {
-        byte[] ep = connection.get(toRegIdKey(registrationId));
+        Registration cached = registrations.getIfPresent(registrationId);
+        byte[] ep = cached != null ? cached.getEndpoint().getBytes(UTF_8) : connection.get(toRegIdKey(registrationId));
         if (ep == null) {
             return null;
         }
         byte[] data = connection.get(toEndpointKey(ep));
         if (data == null) {
+            registrations.invalidate(registrationId);
             return null;
         }
 
-        return deserializeReg(data);
+        Registration r = deserializeReg(data);
+        if (!r.getId().equals(registrationId)) {
+            // the endpoint was registered again, possibly by another node
+            registrations.invalidate(registrationId);
+            return null;
+        }
+        return r;
     }
 
     @Override
@@ -356,6 +387,7 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
 
 
     private Deregistration removeRegistration(RedisConnection connection, String registrationId, boolean removeOnlyIfNotAlive) {
+        registrations.invalidate(registrationId);
         // fetch the client ep by registration ID index
         byte[] ep = connection.get(toRegIdKey(registrationId));
         if (ep == null) {
@@ -422,14 +454,41 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
         }
     }
 
-    private void addOrUpdateExpiration(RedisConnection connection, Registration registration) {
-        connection.zAdd(EXP_EP, registration.getExpirationTimeStamp(gracePeriod), registration.getEndpoint().getBytes(UTF_8));
+    private Boolean addOrUpdateExpiration(RedisConnection connection, Registration registration) {
+        return connection.zAdd(EXP_EP, registration.getExpirationTimeStamp(gracePeriod), registration.getEndpoint().getBytes(UTF_8));
     }
 
     private void removeExpiration(RedisConnection connection, Registration registration) {
         connection.zRem(EXP_EP, registration.getEndpoint().getBytes(UTF_8));
     }
 
+    /**
+     * Executes the commands in a single round trip. Cluster connections do not support pipelining, so the commands are
+     * executed one by one.
+     *
+     * @return the results of the commands in the order of execution
+     */
+    @SafeVarargs
+    private List<Object> pipelined(RedisConnection connection, Function<RedisConnection, Object>... commands) {
+        if (connection instanceof RedisClusterConnection) {
+            List<Object> results = new ArrayList<>(commands.length);
+            for (Function<RedisConnection, Object> command : commands) {
+                results.add(command.apply(connection));
+            }
+            return results;
+        }
+        connection.openPipeline();
+        try {
+            for (Function<RedisConnection, Object> command : commands) {
+                command.apply(connection);
+            }
+        } catch (RuntimeException e) {
+            connection.closePipeline();
+            throw e;
+        }
+        return connection.closePipeline();
+    }
+
     private byte[] toRegIdKey(String registrationId) {
         return toKey(REG_EP_REGID_IDX, registrationId);
     }
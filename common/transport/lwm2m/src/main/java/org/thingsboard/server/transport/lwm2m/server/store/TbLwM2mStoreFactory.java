@@ -55,7 +55,7 @@ public class TbLwM2mStoreFactory {
 
     @Bean
     private TbLwM2MClientStore clientStore() {
-        return redisConfiguration.isPresent() ? new TbRedisLwM2MClientStore(getConnectionFactory()) : new TbDummyLwM2MClientStore();
+        return redisConfiguration.isPresent() ? new TbRedisLwM2MClientStore(getConnectionFactory(), config.isClientStoreLegacyJsonFormat()) : new TbDummyLwM2MClientStore();
     }
 
     @Bean
@@ -31,15 +31,23 @@ import java.util.Set;
 
 import static org.thingsboard.server.transport.lwm2m.server.store.util.LwM2MClientSerDes.deserialize;
 import static org.thingsboard.server.transport.lwm2m.server.store.util.LwM2MClientSerDes.serialize;
+import static org.thingsboard.server.transport.lwm2m.server.store.util.LwM2MClientSerDes.serializeJson;
 
 @Slf4j
 public class TbRedisLwM2MClientStore implements TbLwM2MClientStore {
 
     private static final String CLIENT_EP = "CLIENT#EP#";
     private final RedisConnectionFactory connectionFactory;
+    // the nodes of the previous versions read only the JSON format, so it is written until all of them are upgraded
+    private final boolean legacyJsonFormat;
 
     public TbRedisLwM2MClientStore(RedisConnectionFactory redisConnectionFactory) {
+        this(redisConnectionFactory, false);
+    }
+
+    public TbRedisLwM2MClientStore(RedisConnectionFactory redisConnectionFactory, boolean legacyJsonFormat) {
         this.connectionFactory = redisConnectionFactory;
+        this.legacyJsonFormat = legacyJsonFormat;
     }
 
     @Override
@@ -95,7 +103,7 @@ public class TbRedisLwM2MClientStore implements TbLwM2MClientStore {
             log.error("[{}] Client is in invalid state: {}!", client.getEndpoint(), client.getState(), new Exception());
         } else {
             try {
-                byte[] clientSerialized = serialize(client);
+                byte[] clientSerialized = legacyJsonFormat ? serializeJson(client) : serialize(client);
                 try (var connection = connectionFactory.getConnection()) {
                     connection.getSet(getKey(client.getEndpoint()), clientSerialized);
                 }
@@ -27,6 +27,7 @@ import org.eclipse.leshan.core.model.ResourceModel;
 import org.eclipse.leshan.core.node.LwM2mMultipleResource;
 import org.eclipse.leshan.core.node.LwM2mNodeException;
 import org.eclipse.leshan.core.node.LwM2mResource;
+import org.eclipse.leshan.core.node.LwM2mResourceInstance;
 import org.eclipse.leshan.core.node.LwM2mSingleResource;
 import org.eclipse.leshan.core.node.ObjectLink;
 import org.eclipse.leshan.core.util.datatype.ULong;
@@ -38,8 +39,12 @@ import org.thingsboard.server.transport.lwm2m.server.client.LwM2MClientState;
 import org.thingsboard.server.transport.lwm2m.server.client.LwM2mClient;
 import org.thingsboard.server.transport.lwm2m.server.client.ResourceValue;
 
-import java.lang.reflect.Field;
-import java.time.Instant;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
@@ -50,12 +55,265 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import static org.thingsboard.common.util.JacksonUtil.toJsonNode;
 
+/**
+ * Binary codec of the {@link LwM2mClient} state kept in the client store.
+ * <p>
+ * The data starts with the format version. The JSON format written by the previous versions starts with '{' and is still
+ * supported by {@link #deserialize(byte[])}, so the clients stored before the upgrade are restored. The previous versions
+ * can't read the binary format, so {@link #serializeJson(LwM2mClient)} is used while they are running next to this one.
+ */
 public class LwM2MClientSerDes {
     public static final String VALUE = "value";
+    private static final byte FORMAT_V1 = 1;
     private static final RegistrationSerDes registrationSerDes = new RegistrationSerDes();
 
     @SneakyThrows
     public static byte[] serialize(LwM2mClient client) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_V1);
+        writeString(out, client.getNodeId());
+        writeString(out, client.getEndpoint());
+
+        Map<String, ResourceValue> resources = client.getResources();
+        out.writeInt(resources.size());
+        for (Entry<String, ResourceValue> entry : resources.entrySet()) {
+            writeString(out, entry.getKey());
+            writeResource(out, entry.getValue().getLwM2mResource());
+            writeResourceModel(out, entry.getValue().getResourceModel());
+        }
+
+        Map<String, TransportProtos.TsKvProto> sharedAttributes = client.getSharedAttributes();
+        out.writeInt(sharedAttributes.size());
+        for (Entry<String, TransportProtos.TsKvProto> entry : sharedAttributes.entrySet()) {
+            writeString(out, entry.getKey());
+            writeBytes(out, entry.getValue().toByteArray());
+        }
+
+        Map<String, AtomicLong> keyTsLatestMap = client.getKeyTsLatestMap();
+        out.writeInt(keyTsLatestMap.size());
+        for (Entry<String, AtomicLong> entry : keyTsLatestMap.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeLong(entry.getValue().get());
+        }
+
+        writeString(out, client.getState().name());
+        writeBytes(out, client.getSession() != null ? client.getSession().toByteArray() : null);
+        writeUuid(out, client.getTenantId() != null ? client.getTenantId().getId() : null);
+        writeUuid(out, client.getDeviceId());
+        writeUuid(out, client.getProfileId());
+        writeString(out, client.getPowerMode() != null ? client.getPowerMode().name() : null);
+        writeLong(out, client.getEdrxCycle());
+        writeLong(out, client.getPsmActivityTimer());
+        writeLong(out, client.getPagingTransmissionWindow());
+        writeString(out, client.getDefaultObjectIDVer().toString());
+        writeBytes(out, client.getRegistration() != null ? registrationSerDes.bSerialize(client.getRegistration()) : null);
+        out.writeBoolean(client.isAsleep());
+        out.writeLong(client.getLastUplinkTime());
+        out.writeBoolean(client.isFirstEdrxDownlink());
+        out.writeInt(client.getRetryAttempts().get());
+        writeUuid(out, client.getLastSentRpcId());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @SneakyThrows
+    public static LwM2mClient deserialize(byte[] data) {
+        if (data.length > 0 && data[0] == '{') {
+            return deserializeJson(data);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        byte format = in.readByte();
+        if (format != FORMAT_V1) {
+            throw new IllegalArgumentException("Unsupported client format: " + format);
+        }
+        LwM2mClient client = new LwM2mClient(readString(in), readString(in));
+
+        int resourcesCount = in.readInt();
+        for (int i = 0; i < resourcesCount; i++) {
+            String key = readString(in);
+            LwM2mResource lwM2mResource = readResource(in);
+            ResourceModel resourceModel = readResourceModel(in);
+            client.getResources().put(key, new ResourceValue(lwM2mResource, resourceModel));
+        }
+
+        int sharedAttributesCount = in.readInt();
+        for (int i = 0; i < sharedAttributesCount; i++) {
+            client.getSharedAttributes().put(readString(in), TransportProtos.TsKvProto.parseFrom(readBytes(in)));
+        }
+
+        int keyTsLatestCount = in.readInt();
+        for (int i = 0; i < keyTsLatestCount; i++) {
+            client.getKeyTsLatestMap().put(readString(in), new AtomicLong(in.readLong()));
+        }
+
+        client.setState(LwM2MClientState.valueOf(readString(in)));
+        byte[] session = readBytes(in);
+        UUID tenantId = readUuid(in);
+        UUID deviceId = readUuid(in);
+        UUID profileId = readUuid(in);
+        String powerMode = readString(in);
+        Long edrxCycle = readLong(in);
+        Long psmActivityTimer = readLong(in);
+        Long pagingTransmissionWindow = readLong(in);
+        Version defaultObjectIDVer = new Version(readString(in));
+        byte[] registration = readBytes(in);
+        if (registration != null) {
+            client.setRegistration(registrationSerDes.deserialize(registration));
+        }
+        client.setAsleep(in.readBoolean());
+        long lastUplinkTime = in.readLong();
+        boolean firstEdrxDownlink = in.readBoolean();
+        client.getRetryAttempts().set(in.readInt());
+        client.setLastSentRpcId(readUuid(in));
+
+        client.restore(session != null ? TransportProtos.SessionInfoProto.parseFrom(session) : null,
+                tenantId != null ? TenantId.fromUUID(tenantId) : null, deviceId, profileId,
+                powerMode != null ? PowerMode.valueOf(powerMode) : null, edrxCycle, psmActivityTimer, pagingTransmissionWindow,
+                defaultObjectIDVer, lastUplinkTime, firstEdrxDownlink);
+        return client;
+    }
+
+    private static void writeResource(DataOutputStream out, LwM2mResource resource) throws IOException {
+        out.writeInt(resource.getId());
+        writeString(out, resource.getType().name());
+        out.writeBoolean(resource.isMultiInstances());
+        if (resource.isMultiInstances()) {
+            Map<Integer, LwM2mResourceInstance> instances = resource.getInstances();
+            out.writeInt(instances.size());
+            for (LwM2mResourceInstance instance : instances.values()) {
+                out.writeInt(instance.getId());
+                writeValue(out, resource.getType(), instance.getValue());
+            }
+        } else {
+            writeValue(out, resource.getType(), resource.getValue());
+        }
+    }
+
+    private static LwM2mResource readResource(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        ResourceModel.Type type = ResourceModel.Type.valueOf(readString(in));
+        if (in.readBoolean()) {
+            int count = in.readInt();
+            Map<Integer, Object> instances = new HashMap<>(count);
+            for (int i = 0; i < count; i++) {
+                int instanceId = in.readInt();
+                instances.put(instanceId, readValue(in, type));
+            }
+            return LwM2mMultipleResource.newResource(id, instances, type);
+        } else {
+            return LwM2mSingleResource.newResource(id, readValue(in, type), type);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, ResourceModel.Type type, Object value) throws IOException {
+        switch (type) {
+            case INTEGER -> out.writeLong(((Number) value).longValue());
+            case FLOAT -> out.writeDouble(((Number) value).doubleValue());
+            case BOOLEAN -> out.writeBoolean((Boolean) value);
+            case OPAQUE -> writeBytes(out, (byte[]) value);
+            case STRING -> writeString(out, String.valueOf(value));
+            case TIME -> out.writeLong(((Date) value).getTime());
+            case OBJLNK -> writeString(out, ((ObjectLink) value).encodeToString());
+            case UNSIGNED_INTEGER -> writeString(out, value.toString());
+            default -> throw new LwM2mNodeException(String.format("Type %s is not supported", type.name()));
+        }
+    }
+
+    private static Object readValue(DataInputStream in, ResourceModel.Type type) throws IOException {
+        return switch (type) {
+            case INTEGER -> in.readLong();
+            case FLOAT -> in.readDouble();
+            case BOOLEAN -> in.readBoolean();
+            case OPAQUE -> readBytes(in);
+            case STRING -> readString(in);
+            case TIME -> new Date(in.readLong());
+            case OBJLNK -> ObjectLink.decodeFromString(readString(in));
+            case UNSIGNED_INTEGER -> ULong.valueOf(readString(in));
+            default -> throw new LwM2mNodeException(String.format("Type %s is not supported", type.name()));
+        };
+    }
+
+    private static void writeResourceModel(DataOutputStream out, ResourceModel resourceModel) throws IOException {
+        out.writeInt(resourceModel.id);
+        writeString(out, resourceModel.name);
+        writeString(out, resourceModel.operations.name());
+        out.writeBoolean(resourceModel.multiple);
+        out.writeBoolean(resourceModel.mandatory);
+        writeString(out, resourceModel.type.name());
+        writeString(out, resourceModel.rangeEnumeration);
+        writeString(out, resourceModel.units);
+        writeString(out, resourceModel.description);
+    }
+
+    private static ResourceModel readResourceModel(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        String name = readString(in);
+        ResourceModel.Operations operations = ResourceModel.Operations.valueOf(readString(in));
+        boolean multiple = in.readBoolean();
+        boolean mandatory = in.readBoolean();
+        ResourceModel.Type type = ResourceModel.Type.valueOf(readString(in));
+        String rangeEnumeration = readString(in);
+        String units = readString(in);
+        String description = readString(in);
+        return new ResourceModel(id, name, operations, multiple, mandatory, type, rangeEnumeration, units, description);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    /* *************** Legacy JSON format **************** */
+
+    @SneakyThrows
+    public static byte[] serializeJson(LwM2mClient client) {
         JsonObject o = new JsonObject();
         o.addProperty("nodeId", client.getNodeId());
         o.addProperty("endpoint", client.getEndpoint());
@@ -63,26 +321,23 @@ public class LwM2MClientSerDes {
         JsonObject resources = new JsonObject();
         client.getResources().forEach((k, v) -> {
             JsonObject resourceValue = new JsonObject();
-            resourceValue.add("lwM2mResource", serialize(v.getLwM2mResource()));
-            resourceValue.add("resourceModel", serialize(v.getResourceModel()));
+            resourceValue.add("lwM2mResource", toJson(v.getLwM2mResource()));
+            resourceValue.add("resourceModel", toJson(v.getResourceModel()));
             resources.add(k, resourceValue);
         });
         o.add("resources", resources);
-        JsonObject sharedAttributes = new JsonObject();
 
-        for (Map.Entry<String, TransportProtos.TsKvProto> entry : client.getSharedAttributes().entrySet()) {
+        JsonObject sharedAttributes = new JsonObject();
+        for (Entry<String, TransportProtos.TsKvProto> entry : client.getSharedAttributes().entrySet()) {
             sharedAttributes.addProperty(entry.getKey(), JsonFormat.printer().print(entry.getValue()));
         }
-
         o.add("sharedAttributes", sharedAttributes);
+
         JsonObject keyTsLatestMap = new JsonObject();
-        client.getKeyTsLatestMap().forEach((k, v) -> {
-            keyTsLatestMap.addProperty(k, v.get());
-        });
+        client.getKeyTsLatestMap().forEach((k, v) -> keyTsLatestMap.addProperty(k, v.get()));
         o.add("keyTsLatestMap", keyTsLatestMap);
 
         o.addProperty("state", client.getState().toString());
-
         if (client.getSession() != null) {
             o.addProperty("session", JsonFormat.printer().print(client.getSession()));
         }
@@ -108,27 +363,21 @@ public class LwM2MClientSerDes {
             o.addProperty("pagingTransmissionWindow", client.getPagingTransmissionWindow());
         }
         o.addProperty("defaultObjectIDVer", client.getDefaultObjectIDVer().toString());
-
         if (client.getRegistration() != null) {
             JsonNode registrationNode = registrationSerDes.jSerialize(client.getRegistration());
             o.addProperty("registration", registrationNode.toString());
         }
         o.addProperty("asleep", client.isAsleep());
         o.addProperty("lastUplinkTime", client.getLastUplinkTime());
-
-        Field firstEdrxDownlink = LwM2mClient.class.getDeclaredField("firstEdrxDownlink");
-        firstEdrxDownlink.setAccessible(true);
-        o.addProperty("firstEdrxDownlink", (boolean) firstEdrxDownlink.get(client));
+        o.addProperty("firstEdrxDownlink", client.isFirstEdrxDownlink());
         o.addProperty("retryAttempts", client.getRetryAttempts().get());
-
         if (client.getLastSentRpcId() != null) {
             o.addProperty("lastSentRpcId", client.getLastSentRpcId().toString());
         }
-
         return o.toString().getBytes();
     }
 
-    private static JsonObject serialize(LwM2mResource resource) {
+    private static JsonObject toJson(LwM2mResource resource) {
         JsonObject o = new JsonObject();
         o.addProperty("id", resource.getId());
         o.addProperty("type", resource.getType().toString());
@@ -146,51 +395,10 @@ public class LwM2MClientSerDes {
             o.addProperty("multiInstances", false);
             addValue(o, resource.getType(), resource.getValue());
         }
-
         return o;
     }
 
-    private static LwM2mResource parseLwM2mResource(JsonObject o) {
-        boolean multiInstances = o.get("multiInstances").getAsBoolean();
-        int id = o.get("id").getAsInt();
-        ResourceModel.Type type = ResourceModel.Type.valueOf(o.get("type").getAsString());
-        if (multiInstances) {
-            Map<Integer, Object> instances = new HashMap<>();
-            for (Entry<String, JsonElement> entry : o.get("instances").getAsJsonObject().entrySet()) {
-                JsonObject instance = entry.getValue().getAsJsonObject();
-                instances.put(Integer.valueOf(instance.get("id").getAsString()), parseValue(type, instance.get(VALUE)));
-            }
-            return LwM2mMultipleResource.newResource(id, instances, type);
-        } else {
-            return LwM2mSingleResource.newResource(id, parseValue(type, o.get(VALUE)));
-        }
-    }
-
-
-    private static Object parseValue(ResourceModel.Type type, JsonElement value) {
-        switch (type) {
-            case INTEGER:
-                return value.getAsInt();
-            case FLOAT:
-                return value.getAsDouble();
-            case BOOLEAN:
-                return value.getAsBoolean();
-            case OPAQUE:
-                return Base64.getDecoder().decode(value.getAsString());
-            case STRING:
-                return value.getAsString();
-            case TIME:
-                return new Date(value.getAsLong());
-            case OBJLNK:
-                return ObjectLink.decodeFromString(value.getAsString());
-            case UNSIGNED_INTEGER:
-                return ULong.valueOf(value.getAsString());
-            default:
-                throw new LwM2mNodeException(String.format("Type %s is not supported", type.name()));
-        }
-    }
-
-    private static JsonObject serialize(ResourceModel resourceModel) {
+    private static JsonObject toJson(ResourceModel resourceModel) {
         JsonObject o = new JsonObject();
         o.addProperty("id", resourceModel.id);
         o.addProperty("name", resourceModel.name);
@@ -204,19 +412,6 @@ public class LwM2MClientSerDes {
         return o;
     }
 
-    private static ResourceModel parseResourceModel(JsonObject o) {
-        Integer id = o.get("id").getAsInt();
-        String name = o.get("name").getAsString();
-        ResourceModel.Operations operations = ResourceModel.Operations.valueOf(o.get("operations").getAsString());
-        Boolean multiple = o.get("multiple").getAsBoolean();
-        Boolean mandatory = o.get("mandatory").getAsBoolean();
-        ResourceModel.Type type = ResourceModel.Type.valueOf(o.get("type").getAsString());
-        String rangeEnumeration = o.get("rangeEnumeration").getAsString();
-        String units = o.get("units").getAsString();
-        String description = o.get("description").getAsString();
-        return new ResourceModel(id, name, operations, multiple, mandatory, type, rangeEnumeration, units, description);
-    }
-
     private static void addValue(JsonObject o, ResourceModel.Type type, Object value) {
         switch (type) {
             case INTEGER:
@@ -248,8 +443,7 @@ public class LwM2MClientSerDes {
         }
     }
 
-    @SneakyThrows
-    public static LwM2mClient deserialize(byte[] data) {
+    private static LwM2mClient deserializeJson(byte[] data) throws Exception {
         JsonObject o = JsonParser.parseString(new String(data)).getAsJsonObject();
         LwM2mClient lwM2mClient = new LwM2mClient(o.get("nodeId").getAsString(), o.get("endpoint").getAsString());
 
@@ -273,73 +467,21 @@ public class LwM2MClientSerDes {
 
         lwM2mClient.setState(LwM2MClientState.valueOf(o.get("state").getAsString()));
 
-        Class<LwM2mClient> lwM2mClientClass = LwM2mClient.class;
-
-        JsonElement session = o.get("session");
-        if (session != null) {
+        TransportProtos.SessionInfoProto session = null;
+        JsonElement sessionJson = o.get("session");
+        if (sessionJson != null) {
             TransportProtos.SessionInfoProto.Builder builder = TransportProtos.SessionInfoProto.newBuilder();
-            JsonFormat.parser().merge(session.getAsString(), builder);
-
-            Field sessionField = lwM2mClientClass.getDeclaredField("session");
-            sessionField.setAccessible(true);
-            sessionField.set(lwM2mClient, builder.build());
+            JsonFormat.parser().merge(sessionJson.getAsString(), builder);
+            session = builder.build();
         }
-
         JsonElement tenantId = o.get("tenantId");
-        if (tenantId != null) {
-            Field tenantIdField = lwM2mClientClass.getDeclaredField("tenantId");
-            tenantIdField.setAccessible(true);
-            tenantIdField.set(lwM2mClient, TenantId.fromUUID(UUID.fromString(tenantId.getAsString())));
-        }
-
         JsonElement deviceId = o.get("deviceId");
-        if (tenantId != null) {
-            Field deviceIdField = lwM2mClientClass.getDeclaredField("deviceId");
-            deviceIdField.setAccessible(true);
-            deviceIdField.set(lwM2mClient, UUID.fromString(deviceId.getAsString()));
-        }
-
         JsonElement profileId = o.get("profileId");
-        if (tenantId != null) {
-            Field profileIdField = lwM2mClientClass.getDeclaredField("profileId");
-            profileIdField.setAccessible(true);
-            profileIdField.set(lwM2mClient, UUID.fromString(profileId.getAsString()));
-        }
-
         JsonElement powerMode = o.get("powerMode");
-        if (powerMode != null) {
-            Field powerModeField = lwM2mClientClass.getDeclaredField("powerMode");
-            powerModeField.setAccessible(true);
-            powerModeField.set(lwM2mClient, PowerMode.valueOf(powerMode.getAsString()));
-        }
-
         JsonElement edrxCycle = o.get("edrxCycle");
-        if (edrxCycle != null) {
-            Field edrxCycleField = lwM2mClientClass.getDeclaredField("edrxCycle");
-            edrxCycleField.setAccessible(true);
-            edrxCycleField.set(lwM2mClient, edrxCycle.getAsLong());
-        }
-
         JsonElement psmActivityTimer = o.get("psmActivityTimer");
-        if (psmActivityTimer != null) {
-            Field psmActivityTimerField = lwM2mClientClass.getDeclaredField("psmActivityTimer");
-            psmActivityTimerField.setAccessible(true);
-            psmActivityTimerField.set(lwM2mClient, psmActivityTimer.getAsLong());
-        }
-
         JsonElement pagingTransmissionWindow = o.get("pagingTransmissionWindow");
-        if (pagingTransmissionWindow != null) {
-            Field pagingTransmissionWindowField = lwM2mClientClass.getDeclaredField("pagingTransmissionWindow");
-            pagingTransmissionWindowField.setAccessible(true);
-            pagingTransmissionWindowField.set(lwM2mClient, pagingTransmissionWindow.getAsLong());
-        }
-
         JsonElement defaultObjectIDVer = o.get("defaultObjectIDVer");
-        if (defaultObjectIDVer != null) {
-            Field defaultObjectIDVerField = lwM2mClientClass.getDeclaredField("defaultObjectIDVer");
-            defaultObjectIDVerField.setAccessible(true);
-            defaultObjectIDVerField.set(lwM2mClient, new Version(defaultObjectIDVer.getAsString()));
-        }
 
         JsonElement registration = o.get("registration");
         if (registration != null) {
@@ -347,15 +489,6 @@ public class LwM2MClientSerDes {
         }
 
         lwM2mClient.setAsleep(o.get("asleep").getAsBoolean());
-
-        Field lastUplinkTimeField = lwM2mClientClass.getDeclaredField("lastUplinkTime");
-        lastUplinkTimeField.setAccessible(true);
-        lastUplinkTimeField.setLong(lwM2mClient, o.get("lastUplinkTime").getAsLong());
-
-        Field firstEdrxDownlinkField = lwM2mClientClass.getDeclaredField("firstEdrxDownlink");
-        firstEdrxDownlinkField.setAccessible(true);
-        firstEdrxDownlinkField.setBoolean(lwM2mClient, o.get("firstEdrxDownlink").getAsBoolean());
-
         lwM2mClient.getRetryAttempts().set(o.get("retryAttempts").getAsInt());
 
         JsonElement lastSentRpcId = o.get("lastSentRpcId");
@@ -363,7 +496,70 @@ public class LwM2MClientSerDes {
             lwM2mClient.setLastSentRpcId(UUID.fromString(lastSentRpcId.getAsString()));
         }
 
+        lwM2mClient.restore(session,
+                tenantId != null ? TenantId.fromUUID(UUID.fromString(tenantId.getAsString())) : null,
+                deviceId != null ? UUID.fromString(deviceId.getAsString()) : null,
+                profileId != null ? UUID.fromString(profileId.getAsString()) : null,
+                powerMode != null ? PowerMode.valueOf(powerMode.getAsString()) : null,
+                edrxCycle != null ? edrxCycle.getAsLong() : null,
+                psmActivityTimer != null ? psmActivityTimer.getAsLong() : null,
+                pagingTransmissionWindow != null ? pagingTransmissionWindow.getAsLong() : null,
+                defaultObjectIDVer != null ? new Version(defaultObjectIDVer.getAsString()) : null,
+                o.get("lastUplinkTime").getAsLong(),
+                o.get("firstEdrxDownlink").getAsBoolean());
         return lwM2mClient;
     }
 
+    private static LwM2mResource parseLwM2mResource(JsonObject o) {
+        boolean multiInstances = o.get("multiInstances").getAsBoolean();
+        int id = o.get("id").getAsInt();
+        ResourceModel.Type type = ResourceModel.Type.valueOf(o.get("type").getAsString());
+        if (multiInstances) {
+            Map<Integer, Object> instances = new HashMap<>();
+            for (Entry<String, JsonElement> entry : o.get("instances").getAsJsonObject().entrySet()) {
+                JsonObject instance = entry.getValue().getAsJsonObject();
+                instances.put(Integer.valueOf(instance.get("id").getAsString()), parseValue(type, instance.get(VALUE)));
+            }
+            return LwM2mMultipleResource.newResource(id, instances, type);
+        } else {
+            return LwM2mSingleResource.newResource(id, parseValue(type, o.get(VALUE)));
+        }
+    }
+
+    private static Object parseValue(ResourceModel.Type type, JsonElement value) {
+        switch (type) {
+            case INTEGER:
+                return value.getAsInt();
+            case FLOAT:
+                return value.getAsDouble();
+            case BOOLEAN:
+                return value.getAsBoolean();
+            case OPAQUE:
+                return Base64.getDecoder().decode(value.getAsString());
+            case STRING:
+                return value.getAsString();
+            case TIME:
+                return new Date(value.getAsLong());
+            case OBJLNK:
+                return ObjectLink.decodeFromString(value.getAsString());
+            case UNSIGNED_INTEGER:
+                return ULong.valueOf(value.getAsString());
+            default:
+                throw new LwM2mNodeException(String.format("Type %s is not supported", type.name()));
+        }
+    }
+
+    private static ResourceModel parseResourceModel(JsonObject o) {
+        Integer id = o.get("id").getAsInt();
+        String name = o.get("name").getAsString();
+        ResourceModel.Operations operations = ResourceModel.Operations.valueOf(o.get("operations").getAsString());
+        Boolean multiple = o.get("multiple").getAsBoolean();
+        Boolean mandatory = o.get("mandatory").getAsBoolean();
+        ResourceModel.Type type = ResourceModel.Type.valueOf(o.get("type").getAsString());
+        String rangeEnumeration = o.get("rangeEnumeration").getAsString();
+        String units = o.get("units").getAsString();
+        String description = o.get("description").getAsString();
+        return new ResourceModel(id, name, operations, multiple, mandatory, type, rangeEnumeration, units, description);
+    }
+
 }
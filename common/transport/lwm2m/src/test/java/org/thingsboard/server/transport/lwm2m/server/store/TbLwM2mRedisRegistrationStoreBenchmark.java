@@ -0,0 +1,128 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.lwm2m.server.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.leshan.core.endpoint.EndpointUriUtil;
+import org.eclipse.leshan.core.link.Link;
+import org.eclipse.leshan.core.peer.IpPeer;
+import org.eclipse.leshan.server.registration.Registration;
+import org.eclipse.leshan.server.registration.RegistrationUpdate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.thingsboard.server.transport.lwm2m.config.LwM2MTransportServerConfig;
+import org.thingsboard.server.transport.lwm2m.server.client.LwM2MClientState;
+import org.thingsboard.server.transport.lwm2m.server.client.LwM2mClient;
+import org.thingsboard.server.transport.lwm2m.server.store.util.LwM2MClientSerDes;
+
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Manual benchmark of the LwM2M registration store and the client codec, skipped by default. For example:
+ * <pre>
+ * mvn test -Dtest=TbLwM2mRedisRegistrationStoreBenchmark -Dlwm2m.benchmark=true -Dlwm2m.benchmark.redis=localhost:6379
+ * </pre>
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "lwm2m.benchmark", matches = "true")
+public class TbLwM2mRedisRegistrationStoreBenchmark {
+
+    private static final int REGISTRATIONS = Integer.getInteger("lwm2m.benchmark.registrations", 10000);
+
+    @Test
+    public void clientCodecThroughput() {
+        List<LwM2mClient> clients = new ArrayList<>(REGISTRATIONS);
+        for (int i = 0; i < REGISTRATIONS; i++) {
+            LwM2mClient client = new LwM2mClient("nodeId", "endpoint" + i);
+            client.setRegistration(registration(i));
+            client.setState(LwM2MClientState.REGISTERED);
+            clients.add(client);
+        }
+        List<byte[]> serialized = new ArrayList<>(REGISTRATIONS);
+        long startTs = System.nanoTime();
+        for (LwM2mClient client : clients) {
+            serialized.add(LwM2MClientSerDes.serialize(client));
+        }
+        long serializeTime = System.nanoTime() - startTs;
+        startTs = System.nanoTime();
+        for (byte[] data : serialized) {
+            assertThat(LwM2MClientSerDes.deserialize(data)).isNotNull();
+        }
+        long deserializeTime = System.nanoTime() - startTs;
+        log.info("Client codec: {} serialize/s, {} deserialize/s, {} bytes per client", perSecond(REGISTRATIONS, serializeTime),
+                perSecond(REGISTRATIONS, deserializeTime), serialized.get(0).length);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "lwm2m.benchmark.redis", matches = ".+:\\d+")
+    public void registrationThroughput() {
+        String[] redis = System.getProperty("lwm2m.benchmark.redis").split(":");
+        JedisConnectionFactory connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration(redis[0], Integer.parseInt(redis[1])));
+        connectionFactory.afterPropertiesSet();
+        LwM2MTransportServerConfig config = mock(LwM2MTransportServerConfig.class);
+        when(config.getRegistrationCacheMaxSize()).thenReturn((long) REGISTRATIONS);
+        when(config.getRegistrationCacheTtlSec()).thenReturn(60L);
+        TbLwM2mRedisRegistrationStore store = new TbLwM2mRedisRegistrationStore(config, connectionFactory, null);
+        try {
+            List<Registration> registrations = new ArrayList<>(REGISTRATIONS);
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                registrations.add(registration(i));
+            }
+            long startTs = System.nanoTime();
+            registrations.forEach(store::addRegistration);
+            long addTime = System.nanoTime() - startTs;
+            startTs = System.nanoTime();
+            for (Registration registration : registrations) {
+                assertThat(store.updateRegistration(new RegistrationUpdate(registration.getId(), registration.getClientTransportData(),
+                        300L, null, null, null, null, null, null, null, null, null))).isNotNull();
+            }
+            long updateTime = System.nanoTime() - startTs;
+            startTs = System.nanoTime();
+            registrations.forEach(registration -> store.getRegistration(registration.getId()));
+            long getTime = System.nanoTime() - startTs;
+            log.info("Registration store: {} registrations/s, {} updates/s, {} reads/s", perSecond(REGISTRATIONS, addTime),
+                    perSecond(REGISTRATIONS, updateTime), perSecond(REGISTRATIONS, getTime));
+            registrations.forEach(registration -> store.removeRegistration(registration.getId()));
+        } finally {
+            store.destroy();
+            connectionFactory.destroy();
+        }
+    }
+
+    private static Registration registration(int i) {
+        return new Registration.Builder(UUID.randomUUID().toString(), "benchmark-endpoint-" + i,
+                new IpPeer(new InetSocketAddress(Inet4Address.getLoopbackAddress(), 10000 + i % 50000)),
+                EndpointUriUtil.createUri("coap://localhost:5685"))
+                .objectLinks(new Link[]{new Link("/1/0"), new Link("/3/0"), new Link("/5/0")})
+                .lifeTimeInSec(300L)
+                .build();
+    }
+
+    private static String perSecond(int count, long nanos) {
+        return String.format("%.1f", count * 1_000_000_000.0 / nanos);
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.lwm2m.server.store;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.eclipse.leshan.core.endpoint.EndpointUriUtil;
+import org.eclipse.leshan.core.link.Link;
+import org.eclipse.leshan.core.peer.IpPeer;
+import org.eclipse.leshan.server.redis.serialization.RegistrationSerDes;
+import org.eclipse.leshan.server.registration.Registration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.transport.lwm2m.config.LwM2MTransportServerConfig;
+
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TbLwM2mRedisRegistrationStoreTest {
+
+    private RedisConnection connection;
+    private TbLwM2mRedisRegistrationStore store;
+
+    @BeforeEach
+    void setUp() {
+        LwM2MTransportServerConfig config = mock(LwM2MTransportServerConfig.class);
+        when(config.getRegistrationCacheMaxSize()).thenReturn(100L);
+        when(config.getRegistrationCacheTtlSec()).thenReturn(60L);
+        connection = mock(RedisConnection.class);
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        store = new TbLwM2mRedisRegistrationStore(config, connectionFactory, mock(ScheduledExecutorService.class), 2, 0, 0, null);
+    }
+
+    @Test
+    void givenRegistrationOfOtherNode_whenGetRegistration_thenAlwaysReadFromRedis() {
+        Registration registration = new Registration.Builder("regId", "endpoint",
+                new IpPeer(new InetSocketAddress(Inet4Address.getLoopbackAddress(), 10000)),
+                EndpointUriUtil.createUri("coap://localhost:5685"))
+                .objectLinks(new Link[]{new Link("/3/0")})
+                .build();
+        byte[] ep = registration.getEndpoint().getBytes(UTF_8);
+        byte[] data = new RegistrationSerDes().bSerialize(registration);
+        when(connection.get(any(byte[].class))).thenReturn(ep, data, ep, data);
+
+        assertThat(store.getRegistration("regId")).isEqualTo(registration);
+        assertThat(store.getRegistration("regId")).isEqualTo(registration);
+
+        // the id index and the registration are read each time, the read registration is not cached
+        verify(connection, times(4)).get(any(byte[].class));
+    }
+
+    @Test
+    void givenRegistrationUpdatedByOtherNode_whenGetRegistration_thenUpdatedRegistrationIsReturned() {
+        Registration registration = newRegistration("regId", 10000);
+        getCache().put(registration.getId(), registration);
+        Registration rebound = newRegistration("regId", 20000);
+        when(connection.get(any(byte[].class))).thenReturn(new RegistrationSerDes().bSerialize(rebound));
+
+        Registration result = store.getRegistration("regId");
+
+        assertThat(result.getSocketAddress().getPort()).isEqualTo(20000);
+        // the cached registration only saves the registration ID index lookup
+        verify(connection, times(1)).get(any(byte[].class));
+    }
+
+    @Test
+    void givenEndpointRegisteredAgain_whenGetRegistration_thenCachedRegistrationIsNotReturned() {
+        Registration registration = newRegistration("regId", 10000);
+        getCache().put(registration.getId(), registration);
+        when(connection.get(any(byte[].class))).thenReturn(new RegistrationSerDes().bSerialize(newRegistration("newRegId", 10000)));
+
+        assertThat(store.getRegistration("regId")).isNull();
+        assertThat(getCache().getIfPresent("regId")).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<String, Registration> getCache() {
+        return (Cache<String, Registration>) ReflectionTestUtils.getField(store, "registrations");
+    }
+
+    private static Registration newRegistration(String registrationId, int port) {
+        return new Registration.Builder(registrationId, "endpoint",
+                new IpPeer(new InetSocketAddress(Inet4Address.getLoopbackAddress(), port)),
+                EndpointUriUtil.createUri("coap://localhost:5685"))
+                .objectLinks(new Link[]{new Link("/3/0")})
+                .build();
+    }
+
+}
@@ -18,6 +18,7 @@ package org.thingsboard.server.transport.lwm2m.server.store;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.connection.RedisConnection;
@@ -33,11 +34,13 @@ import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.thingsboard.server.transport.lwm2m.server.store.util.LwM2MClientSerDes.deserialize;
 import static org.thingsboard.server.transport.lwm2m.server.store.util.LwM2MClientSerDes.serialize;
 
 /**
@@ -118,6 +121,20 @@ class TbRedisLwM2MClientStoreTest {
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void put_writesLegacyJsonWhenEnabled() {
+        store = new TbRedisLwM2MClientStore(connectionFactory, true);
+        LwM2mClient client = new LwM2mClient("nodeId", "testEndpoint");
+        client.setState(LwM2MClientState.REGISTERED);
+
+        store.put(client);
+
+        ArgumentCaptor<byte[]> value = ArgumentCaptor.forClass(byte[].class);
+        verify(scanConnection).getSet(eq("CLIENT#EP#testEndpoint".getBytes()), value.capture());
+        assertThat(value.getValue()[0]).isEqualTo((byte) '{');
+        assertThat(deserialize(value.getValue()).getEndpoint()).isEqualTo("testEndpoint");
+    }
+
     /**
      * Creates a mock {@link Cursor} that iterates over the given keys via {@code forEachRemaining}.
      * The cursor is created separately (not inside a {@code thenReturn()} argument) to avoid
@@ -21,7 +21,6 @@ import org.eclipse.leshan.core.link.Link;
 import org.eclipse.leshan.core.link.attributes.AttributeSet;
 import org.eclipse.leshan.core.link.attributes.ResourceTypeAttribute;
 import org.eclipse.leshan.core.node.LwM2mMultipleResource;
-import org.eclipse.leshan.core.node.LwM2mPath;
 import org.eclipse.leshan.core.node.LwM2mResource;
 import org.eclipse.leshan.core.node.LwM2mSingleResource;
 import org.eclipse.leshan.core.peer.IpPeer;
@@ -56,9 +55,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -162,11 +165,60 @@ public class LwM2MClientSerDesTest {
         Map<String, ResourceValue> actualResources = desClient.getResources();
         assertNotNull(actualResources);
         assertEquals(expectedResources.size(), actualResources.size());
-        for (Entry entry : expectedResources.entrySet()) {
-            LwM2mPath expectedPathId = client.getLwM2mPathFromString(entry.getKey().toString());
-            String actualOld = actualResources.get(String.valueOf(expectedPathId.getObjectId())).toString();
-            String actual = actualOld.replaceAll("\"", "");
-            assertEquals(entry.getValue().toString(), actual);
+        for (Entry<String, ResourceValue> entry : expectedResources.entrySet()) {
+            assertEquals(entry.getValue().toString(), actualResources.get(entry.getKey()).toString());
         }
     }
+
+    @Test
+    public void serializeLegacyJson() {
+        LwM2mClient client = new LwM2mClient("nodeId", "endpoint");
+        client.setState(LwM2MClientState.REGISTERED);
+        client.setAsleep(true);
+        client.getKeyTsLatestMap().put("temperature", new AtomicLong(10));
+        client.getRetryAttempts().set(2);
+        client.setRegistration(new Registration.Builder("test", "endpoint", new IpPeer(new InetSocketAddress(Inet4Address.getLoopbackAddress(), 1000)),
+                EndpointUriUtil.createUri("coap://localhost:5685"))
+                .objectLinks(new Link[]{new Link("/3/0")})
+                .build());
+
+        byte[] bytes = LwM2MClientSerDes.serializeJson(client);
+
+        assertEquals('{', bytes[0]);
+        LwM2mClient desClient = LwM2MClientSerDes.deserialize(bytes);
+        assertEquals(client.getEndpoint(), desClient.getEndpoint());
+        assertEquals(client.getState(), desClient.getState());
+        assertEquals(client.getRegistration(), desClient.getRegistration());
+        assertEquals(10L, desClient.getKeyTsLatestMap().get("temperature").get());
+        assertTrue(desClient.isAsleep());
+        assertEquals(2, desClient.getRetryAttempts().get());
+    }
+
+    @Test
+    public void deserializeLegacyJson() {
+        UUID tenantId = UUID.randomUUID();
+        UUID deviceId = UUID.randomUUID();
+        UUID profileId = UUID.randomUUID();
+        String json = "{\"nodeId\":\"nodeId\",\"endpoint\":\"endpoint\",\"resources\":{},\"sharedAttributes\":{}," +
+                "\"keyTsLatestMap\":{\"temperature\":10},\"state\":\"REGISTERED\",\"tenantId\":\"" + tenantId + "\"," +
+                "\"deviceId\":\"" + deviceId + "\",\"profileId\":\"" + profileId + "\",\"powerMode\":\"E_DRX\",\"edrxCycle\":3000," +
+                "\"defaultObjectIDVer\":\"1.1\",\"asleep\":true,\"lastUplinkTime\":5,\"firstEdrxDownlink\":false,\"retryAttempts\":2}";
+
+        LwM2mClient client = LwM2MClientSerDes.deserialize(json.getBytes());
+
+        assertEquals("endpoint", client.getEndpoint());
+        assertEquals(10L, client.getKeyTsLatestMap().get("temperature").get());
+        assertEquals(LwM2MClientState.REGISTERED, client.getState());
+        assertEquals(TenantId.fromUUID(tenantId), client.getTenantId());
+        assertEquals(deviceId, client.getDeviceId());
+        assertEquals(profileId, client.getProfileId());
+        assertEquals(PowerMode.E_DRX, client.getPowerMode());
+        assertEquals(3000L, client.getEdrxCycle());
+        assertNull(client.getPsmActivityTimer());
+        assertEquals("1.1", client.getDefaultObjectIDVer().toString());
+        assertTrue(client.isAsleep());
+        assertEquals(5L, client.getLastUplinkTime());
+        assertFalse(client.isFirstEdrxDownlink());
+        assertEquals(2, client.getRetryAttempts().get());
+    }
 }
\ No newline at end of file
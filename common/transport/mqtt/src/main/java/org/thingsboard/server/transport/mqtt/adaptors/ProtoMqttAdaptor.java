@@ -47,10 +47,13 @@ public class ProtoMqttAdaptor implements MqttTransportAdaptor {
     @Override
     public TransportProtos.PostTelemetryMsg convertToPostTelemetry(MqttDeviceAwareSessionContext ctx, MqttPublishMessage inbound) throws AdaptorException {
         DeviceSessionCtx deviceSessionCtx = (DeviceSessionCtx) ctx;
+        if (deviceSessionCtx.isTelemetryPassThroughEnabled()) {
+            return parsePostTelemetryMsg(inbound.payload());
+        }
         byte[] bytes = toBytes(inbound.payload());
         Descriptors.Descriptor telemetryDynamicMsgDescriptor = ProtoConverter.validateDescriptor(deviceSessionCtx.getTelemetryDynamicMessageDescriptor());
         try {
-            return JsonConverter.convertToTelemetryProto(JsonParser.parseString(ProtoConverter.dynamicMsgToJson(bytes, telemetryDynamicMsgDescriptor)));
+            return JsonConverter.convertToTelemetryProto(ProtoConverter.dynamicMsgToJson(bytes, telemetryDynamicMsgDescriptor));
         } catch (Exception e) {
             log.debug("Failed to decode post telemetry request", e);
             throw new AdaptorException(e);
@@ -218,6 +221,16 @@ public class ProtoMqttAdaptor implements MqttTransportAdaptor {
         return Optional.of(createMqttPublishMsg(ctx, MqttTopics.GATEWAY_RPC_TOPIC, payloadBytes));
     }
 
+    // parses the payload straight from the buffer, without the intermediate json and byte array copies
+    private static TransportProtos.PostTelemetryMsg parsePostTelemetryMsg(ByteBuf payload) throws AdaptorException {
+        try {
+            return ProtoConverter.validatePostTelemetryMsg(TransportProtos.PostTelemetryMsg.parseFrom(payload.nioBuffer()));
+        } catch (Exception e) {
+            log.debug("Failed to decode post telemetry request", e);
+            throw new AdaptorException(e);
+        }
+    }
+
     public static byte[] toBytes(ByteBuf inbound) {
         byte[] bytes = new byte[inbound.readableBytes()];
         int readerIndex = inbound.readerIndex();
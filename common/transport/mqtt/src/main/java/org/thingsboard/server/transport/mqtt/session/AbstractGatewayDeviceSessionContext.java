@@ -28,7 +28,6 @@ import org.thingsboard.server.common.transport.TransportService;
 import org.thingsboard.server.common.transport.TransportServiceCallback;
 import org.thingsboard.server.common.transport.auth.TransportDeviceInfo;
 import org.thingsboard.server.gen.transport.TransportProtos;
-import org.thingsboard.server.gen.transport.TransportProtos.SessionInfoProto;
 
 import java.util.UUID;
 import java.util.concurrent.ConcurrentMap;
@@ -46,8 +45,7 @@ public abstract class AbstractGatewayDeviceSessionContext<T extends AbstractGate
                                                TransportService transportService) {
         super(UUID.randomUUID(), mqttQoSMap);
         this.parent = parent;
-        setSessionInfo(SessionInfoProto.newBuilder()
-                .setNodeId(parent.getNodeId())
+        setSessionInfo(parent.getSessionInfoTemplate().toBuilder()
                 .setSessionIdMSB(sessionId.getMostSignificantBits())
                 .setSessionIdLSB(sessionId.getLeastSignificantBits())
                 .setDeviceIdMSB(deviceInfo.getDeviceId().getId().getMostSignificantBits())
@@ -58,10 +56,6 @@ public abstract class AbstractGatewayDeviceSessionContext<T extends AbstractGate
                 .setCustomerIdLSB(deviceInfo.getCustomerId().getId().getLeastSignificantBits())
                 .setDeviceName(deviceInfo.getDeviceName())
                 .setDeviceType(deviceInfo.getDeviceType())
-                .setGwSessionIdMSB(parent.getSessionId().getMostSignificantBits())
-                .setGwSessionIdLSB(parent.getSessionId().getLeastSignificantBits())
-                .setGatewayIdMSB(parent.gateway.getDeviceId().getId().getMostSignificantBits())
-                .setGatewayIdLSB(parent.gateway.getDeviceId().getId().getLeastSignificantBits())
                 .setDeviceProfileIdMSB(deviceInfo.getDeviceProfileId().getId().getMostSignificantBits())
                 .setDeviceProfileIdLSB(deviceInfo.getDeviceProfileId().getId().getLeastSignificantBits())
                 .build());
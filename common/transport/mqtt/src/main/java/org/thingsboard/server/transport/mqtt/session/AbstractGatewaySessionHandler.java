@@ -40,7 +40,6 @@ import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.ConcurrentReferenceHashMap;
 import org.thingsboard.common.util.DonAsynchron;
 import org.thingsboard.server.common.adaptor.AdaptorException;
 import org.thingsboard.server.common.adaptor.JsonConverter;
@@ -82,11 +81,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
-import static org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
 import static org.thingsboard.server.common.data.DataConstants.DEFAULT_DEVICE_TYPE;
 import static org.thingsboard.server.common.transport.service.DefaultTransportService.SESSION_EVENT_MSG_CLOSED;
 import static org.thingsboard.server.common.transport.service.DefaultTransportService.SESSION_EVENT_MSG_OPEN;
@@ -113,10 +109,10 @@ public abstract class AbstractGatewaySessionHandler<T extends AbstractGatewayDev
     protected final TransportDeviceInfo gateway;
     @Getter
     protected final UUID sessionId;
-    private final ConcurrentMap<String, Lock> deviceCreationLockMap;
     @Getter
     private final ConcurrentMap<String, T> devices;
     private final ConcurrentMap<String, ListenableFuture<T>> deviceFutures;
+    private volatile SessionInfoProto sessionInfoTemplate;
     protected final ConcurrentMap<MqttTopicMatcher, Integer> mqttQoSMap;
     @Getter
     protected final ChannelHandlerContext channel;
@@ -136,17 +132,12 @@ public abstract class AbstractGatewaySessionHandler<T extends AbstractGatewayDev
         this.sessionId = sessionId;
         this.devices = new ConcurrentHashMap<>();
         this.deviceFutures = new ConcurrentHashMap<>();
-        this.deviceCreationLockMap = createWeakMap();
         this.mqttQoSMap = deviceSessionCtx.getMqttQoSMap();
         this.channel = deviceSessionCtx.getChannel();
         this.overwriteDevicesActivity = overwriteDevicesActivity;
         this.gatewayMetricsService = deviceSessionCtx.getContext().getGatewayMetricsService();
     }
 
-    ConcurrentReferenceHashMap<String, Lock> createWeakMap() {
-        return new ConcurrentReferenceHashMap<>(16, ReferenceType.WEAK);
-    }
-
     public void onDeviceDisconnect(MqttPublishMessage mqttMsg) throws AdaptorException {
         if (isJsonPayloadType()) {
             onDeviceDisconnectJson(mqttMsg);
@@ -278,22 +269,10 @@ public abstract class AbstractGatewaySessionHandler<T extends AbstractGatewayDev
 
     ListenableFuture<T> onDeviceConnect(String deviceName, String deviceType) {
         T result = devices.get(deviceName);
-        if (result == null) {
-            Lock deviceCreationLock = deviceCreationLockMap.computeIfAbsent(deviceName, s -> new ReentrantLock());
-            deviceCreationLock.lock();
-            try {
-                result = devices.get(deviceName);
-                if (result == null) {
-                    return getDeviceCreationFuture(deviceName, deviceType);
-                } else {
-                    return Futures.immediateFuture(result);
-                }
-            } finally {
-                deviceCreationLock.unlock();
-            }
-        } else {
+        if (result != null) {
             return Futures.immediateFuture(result);
         }
+        return getDeviceCreationFuture(deviceName, deviceType);
     }
 
     private ListenableFuture<T> getDeviceCreationFuture(String deviceName, String deviceType) {
@@ -302,6 +281,13 @@ public abstract class AbstractGatewaySessionHandler<T extends AbstractGatewayDev
         if (future != null) {
             return future;
         }
+        // the concurrent creation could complete between the lookup and the future registration
+        T result = devices.get(deviceName);
+        if (result != null) {
+            deviceFutures.remove(deviceName, futureToSet);
+            futureToSet.set(result);
+            return futureToSet;
+        }
         try {
             transportService.process(gateway.getTenantId(),
                     GetOrCreateDeviceFromGatewayRequestMsg.newBuilder()
@@ -334,24 +320,42 @@ public abstract class AbstractGatewaySessionHandler<T extends AbstractGatewayDev
                                         .setSubscribeToRPC(SUBSCRIBE_TO_RPC_ASYNC_MSG)
                                         .build(), null);
                             }
+                            deviceFutures.remove(deviceName, futureToSet);
                             futureToSet.set(devices.get(deviceName));
-                            deviceFutures.remove(deviceName);
                         }
 
                         @Override
                         public void onError(Throwable t) {
                             logDeviceCreationError(t, deviceName);
+                            deviceFutures.remove(deviceName, futureToSet);
                             futureToSet.setException(t);
-                            deviceFutures.remove(deviceName);
                         }
                     });
             return futureToSet;
         } catch (Throwable e) {
-            deviceFutures.remove(deviceName);
+            deviceFutures.remove(deviceName, futureToSet);
             throw e;
         }
     }
 
+    /**
+     * Returns the part of the device session info that is common for all devices of the gateway session.
+     */
+    SessionInfoProto getSessionInfoTemplate() {
+        SessionInfoProto template = sessionInfoTemplate;
+        if (template == null) {
+            template = SessionInfoProto.newBuilder()
+                    .setNodeId(getNodeId())
+                    .setGwSessionIdMSB(sessionId.getMostSignificantBits())
+                    .setGwSessionIdLSB(sessionId.getLeastSignificantBits())
+                    .setGatewayIdMSB(gateway.getDeviceId().getId().getMostSignificantBits())
+                    .setGatewayIdLSB(gateway.getDeviceId().getId().getLeastSignificantBits())
+                    .build();
+            sessionInfoTemplate = template;
+        }
+        return template;
+    }
+
     private void logDeviceCreationError(Throwable t, String deviceName) {
         if (DataConstants.MAXIMUM_NUMBER_OF_DEVICES_REACHED.equals(t.getMessage())) {
             log.info("[{}][{}][{}] Failed to process device connect command: [{}] due to [{}]", gateway.getTenantId(), gateway.getDeviceId(), sessionId, deviceName,
@@ -477,7 +481,7 @@ public abstract class AbstractGatewaySessionHandler<T extends AbstractGatewayDev
     protected void processPostTelemetryMsg(MqttDeviceAwareSessionContext deviceCtx, TransportProtos.PostTelemetryMsg msg, String deviceName, int msgId,
                                            AtomicInteger remaining, AtomicBoolean ackSent) {
         try {
-            TransportProtos.PostTelemetryMsg postTelemetryMsg = ProtoConverter.validatePostTelemetryMsg(msg.toByteArray());
+            TransportProtos.PostTelemetryMsg postTelemetryMsg = ProtoConverter.validatePostTelemetryMsg(msg);
             transportService.process(deviceCtx.getSessionInfo(), postTelemetryMsg, getAggregatePubAckCallback(channel, msgId, deviceName, postTelemetryMsg, remaining, ackSent));
         } catch (Throwable e) {
             log.warn("[{}][{}][{}] Failed to convert telemetry: [{}]", gateway.getTenantId(), gateway.getDeviceId(), deviceName, msg, e);
@@ -872,8 +876,12 @@ public abstract class AbstractGatewaySessionHandler<T extends AbstractGatewayDev
     }
 
     protected void process(String deviceName, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
-        ListenableFuture<T> deviceCtxFuture = onDeviceConnect(deviceName, DEFAULT_DEVICE_TYPE);
-        process(deviceCtxFuture, onSuccess, onFailure);
+        T deviceCtx = devices.get(deviceName);
+        if (deviceCtx != null) {
+            onSuccess.accept(deviceCtx);
+        } else {
+            process(getDeviceCreationFuture(deviceName, DEFAULT_DEVICE_TYPE), onSuccess, onFailure);
+        }
     }
 
     @SneakyThrows
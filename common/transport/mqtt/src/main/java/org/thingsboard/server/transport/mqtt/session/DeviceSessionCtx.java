@@ -94,6 +94,8 @@ public class DeviceSessionCtx extends MqttDeviceAwareSessionContext {
     private volatile boolean useJsonPayloadFormatForDefaultDownlinkTopics;
     @Getter
     private volatile boolean sendAckOnValidationException;
+    @Getter
+    private volatile boolean telemetryPassThroughEnabled;
 
     @Getter
     private volatile boolean deviceProfileMqttTransportType;
@@ -156,11 +158,13 @@ public class DeviceSessionCtx extends MqttDeviceAwareSessionContext {
             attributesPublishTopicFilter = MqttTopicFilterFactory.toFilter(mqttConfig.getDeviceAttributesTopic());
             attributesSubscribeTopicFilter = MqttTopicFilterFactory.toFilter(mqttConfig.getDeviceAttributesSubscribeTopic());
             sendAckOnValidationException = mqttConfig.isSendAckOnValidationException();
+            telemetryPassThroughEnabled = false;
             if (TransportPayloadType.PROTOBUF.equals(payloadType)) {
                 ProtoTransportPayloadConfiguration protoTransportPayloadConfig = (ProtoTransportPayloadConfiguration) transportPayloadTypeConfiguration;
                 updateDynamicMessageDescriptors(protoTransportPayloadConfig);
                 jsonPayloadFormatCompatibilityEnabled = protoTransportPayloadConfig.isEnableCompatibilityWithJsonPayloadFormat();
                 useJsonPayloadFormatForDefaultDownlinkTopics = jsonPayloadFormatCompatibilityEnabled && protoTransportPayloadConfig.isUseJsonPayloadFormatForDefaultDownlinkTopics();
+                telemetryPassThroughEnabled = protoTransportPayloadConfig.isEnableTelemetryPassThrough();
             }
         } else {
             telemetryTopicFilter = MqttTopicFilterFactory.getDefaultTelemetryFilter();
@@ -168,6 +172,7 @@ public class DeviceSessionCtx extends MqttDeviceAwareSessionContext {
             payloadType = TransportPayloadType.JSON;
             deviceProfileMqttTransportType = false;
             sendAckOnValidationException = false;
+            telemetryPassThroughEnabled = false;
         }
         updateAdaptor();
     }
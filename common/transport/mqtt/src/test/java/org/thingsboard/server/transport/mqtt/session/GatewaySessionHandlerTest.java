@@ -15,29 +15,41 @@
  */
 package org.thingsboard.server.transport.mqtt.session;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.util.ConcurrentReferenceHashMap;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.DeviceProfileId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.transport.TransportService;
+import org.thingsboard.server.common.transport.TransportServiceCallback;
+import org.thingsboard.server.common.transport.auth.GetOrCreateDeviceFromGatewayResponse;
 import org.thingsboard.server.common.transport.auth.TransportDeviceInfo;
+import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.gen.transport.TransportProtos.GetOrCreateDeviceFromGatewayRequestMsg;
 import org.thingsboard.server.transport.mqtt.MqttTransportContext;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.BDDMockito.willCallRealMethod;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.lenient;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
@@ -112,11 +124,73 @@ public class GatewaySessionHandlerTest {
     }
 
     @Test
-    public void givenGatewaySessionHandler_WhenCreateWeakMap_thenConcurrentReferenceHashMapClass() {
-        GatewaySessionHandler gsh = mock(GatewaySessionHandler.class);
-        willCallRealMethod().given(gsh).createWeakMap();
+    public void givenGatewayWithManyDevices_whenDevicesConnectConcurrently_thenEachDeviceIsCreatedOnce() throws Exception {
+        int devicesCount = 20000;
+        int threadsCount = 8;
+        TenantId tenantId = new TenantId(UUID.randomUUID());
+        AtomicInteger requestsCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+        try {
+            doAnswer(invocation -> {
+                requestsCount.incrementAndGet();
+                GetOrCreateDeviceFromGatewayRequestMsg request = invocation.getArgument(1);
+                TransportServiceCallback<GetOrCreateDeviceFromGatewayResponse> callback = invocation.getArgument(2);
+                executor.submit(() -> callback.onSuccess(GetOrCreateDeviceFromGatewayResponse.builder()
+                        .deviceInfo(newDeviceInfo(tenantId, request.getDeviceName()))
+                        .build()));
+                return null;
+            }).when(transportService).process(any(TenantId.class), any(GetOrCreateDeviceFromGatewayRequestMsg.class), any());
+
+            List<String> deviceNames = IntStream.range(0, devicesCount).mapToObj(i -> "device" + i).toList();
+            List<Future<List<ListenableFuture<GatewayDeviceSessionContext>>>> results = new ArrayList<>();
+            for (int i = 0; i < threadsCount; i++) {
+                List<String> names = new ArrayList<>(deviceNames);
+                Collections.shuffle(names);
+                results.add(executor.submit(() -> names.stream().map(name -> handler.onDeviceConnect(name, "default")).toList()));
+            }
+            for (Future<List<ListenableFuture<GatewayDeviceSessionContext>>> result : results) {
+                for (ListenableFuture<GatewayDeviceSessionContext> deviceFuture : result.get(30, TimeUnit.SECONDS)) {
+                    GatewayDeviceSessionContext deviceCtx = deviceFuture.get(30, TimeUnit.SECONDS);
+                    assertThat(deviceCtx).isSameAs(handler.getDevices().get(deviceCtx.getDeviceInfo().getDeviceName()));
+                }
+            }
+
+            assertThat(handler.getDevices()).hasSize(devicesCount);
+            assertThat(requestsCount.get()).isEqualTo(devicesCount);
+
+            for (String deviceName : deviceNames) {
+                assertThat(handler.onDeviceConnect(deviceName, "default").isDone()).isTrue();
+            }
+            assertThat(requestsCount.get()).isEqualTo(devicesCount);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void givenGatewaySession_whenDeviceSessionCreated_thenSessionInfoContainsGatewayInfo() {
+        TransportDeviceInfo deviceInfo = newDeviceInfo(new TenantId(UUID.randomUUID()), "device1");
+
+        GatewayDeviceSessionContext deviceCtx = new GatewayDeviceSessionContext(handler, deviceInfo, null, null, transportService);
+
+        TransportProtos.SessionInfoProto sessionInfo = deviceCtx.getSessionInfo();
+        assertThat(sessionInfo.getNodeId()).isEqualTo("nodeId");
+        assertThat(new UUID(sessionInfo.getGwSessionIdMSB(), sessionInfo.getGwSessionIdLSB())).isEqualTo(handler.getSessionId());
+        assertThat(new UUID(sessionInfo.getGatewayIdMSB(), sessionInfo.getGatewayIdLSB())).isEqualTo(handler.gateway.getDeviceId().getId());
+        assertThat(new UUID(sessionInfo.getSessionIdMSB(), sessionInfo.getSessionIdLSB())).isEqualTo(deviceCtx.getSessionId());
+        assertThat(new UUID(sessionInfo.getDeviceIdMSB(), sessionInfo.getDeviceIdLSB())).isEqualTo(deviceInfo.getDeviceId().getId());
+        assertThat(sessionInfo.getDeviceName()).isEqualTo("device1");
+    }
 
-        assertThat(gsh.createWeakMap()).isInstanceOf(ConcurrentReferenceHashMap.class);
+    private static TransportDeviceInfo newDeviceInfo(TenantId tenantId, String deviceName) {
+        TransportDeviceInfo deviceInfo = new TransportDeviceInfo();
+        deviceInfo.setDeviceId(new DeviceId(UUID.randomUUID()));
+        deviceInfo.setTenantId(tenantId);
+        deviceInfo.setCustomerId(new CustomerId(CustomerId.NULL_UUID));
+        deviceInfo.setDeviceName(deviceName);
+        deviceInfo.setDeviceType("default");
+        deviceInfo.setDeviceProfileId(new DeviceProfileId(UUID.randomUUID()));
+        return deviceInfo;
     }
 
 }
@@ -61,12 +61,15 @@ public class PduService {
     private boolean ignoreTypeCastErrors;
 
     public List<PDU> createPdus(DeviceSessionContext sessionContext, SnmpCommunicationConfig communicationConfig, Map<String, String> values) {
+        return createPdus(sessionContext, communicationConfig.getMethod(), communicationConfig.getAllMappings(), values);
+    }
+
+    public List<PDU> createPdus(DeviceSessionContext sessionContext, SnmpMethod method, List<SnmpMapping> allMappings, Map<String, String> values) {
         List<PDU> pdus = new ArrayList<>();
-        List<SnmpMapping> allMappings = communicationConfig.getAllMappings();
 
         for (List<SnmpMapping> mappings : Lists.partition(allMappings, maxRequestOids)) {
             PDU pdu = setUpPdu(sessionContext);
-            pdu.setType(communicationConfig.getMethod().getCode());
+            pdu.setType(method.getCode());
             pdu.addAll(mappings.stream()
                     .filter(mapping -> values.isEmpty() || values.containsKey(mapping.getKey()))
                     .map(mapping -> Optional.ofNullable(values.get(mapping.getKey()))
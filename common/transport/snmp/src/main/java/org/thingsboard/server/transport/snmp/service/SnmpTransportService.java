@@ -48,6 +48,7 @@ import org.snmp4j.transport.DefaultUdpTransportMapping;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.thingsboard.common.util.ThingsBoardExecutors;
 import org.thingsboard.server.common.adaptor.JsonConverter;
@@ -59,23 +60,32 @@ import org.thingsboard.server.common.data.transport.snmp.SnmpMapping;
 import org.thingsboard.server.common.data.transport.snmp.SnmpMethod;
 import org.thingsboard.server.common.data.transport.snmp.config.RepeatingQueryingSnmpCommunicationConfig;
 import org.thingsboard.server.common.data.transport.snmp.config.SnmpCommunicationConfig;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.common.stats.StatsTimer;
+import org.thingsboard.server.common.stats.StatsType;
 import org.thingsboard.server.common.transport.TransportService;
 import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.queue.util.TbSnmpTransportComponent;
 import org.thingsboard.server.transport.snmp.SnmpTransportContext;
 import org.thingsboard.server.transport.snmp.session.DeviceSessionContext;
 import org.thingsboard.server.transport.snmp.session.ScheduledTask;
+import org.thingsboard.server.transport.snmp.session.SnmpPollingStats;
 
 import java.io.IOException;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -87,6 +97,7 @@ import java.util.stream.Collectors;
 public class SnmpTransportService implements TbTransportService, CommandResponder {
     private final TransportService transportService;
     private final PduService pduService;
+    private final StatsFactory statsFactory;
     @Autowired @Lazy
     private SnmpTransportContext transportContext;
 
@@ -97,6 +108,7 @@ public class SnmpTransportService implements TbTransportService, CommandResponde
 
     private final Map<SnmpCommunicationSpec, ResponseDataMapper> responseDataMappers = new EnumMap<>(SnmpCommunicationSpec.class);
     private final Map<SnmpCommunicationSpec, ResponseProcessor> responseProcessors = new EnumMap<>(SnmpCommunicationSpec.class);
+    private StatsTimer queryingLatencyTimer;
 
     @Value("${transport.snmp.bind_port:0}")
     private Integer snmpBindPort;
@@ -110,11 +122,18 @@ public class SnmpTransportService implements TbTransportService, CommandResponde
     private String snmpUnderlyingProtocol;
     @Value("${transport.snmp.request_chunk_delay_ms:100}")
     private int requestChunkDelayMs;
+    @Value("${transport.snmp.querying.jitter_percent:10}")
+    private int queryingJitterPercent;
+    @Value("${transport.snmp.querying.max_backoff_factor:8}")
+    private int queryingMaxBackoffFactor;
+    @Value("${transport.stats.enabled:false}")
+    private boolean statsEnabled;
 
     @PostConstruct
     private void init() throws IOException {
         scheduler = MoreExecutors.listeningDecorator(ThingsBoardExecutors.newScheduledThreadPool(schedulerThreadPoolSize, "snmp-querying"));
         executor = ThingsBoardExecutors.newWorkStealingPool(responseProcessingThreadPoolSize, "snmp-response-processing");
+        queryingLatencyTimer = statsFactory.createStatsTimer(StatsType.TRANSPORT.getName() + ".snmp", "queryingLatency");
 
         initializeSnmp();
         configureResponseDataMappers();
@@ -154,27 +173,39 @@ public class SnmpTransportService implements TbTransportService, CommandResponde
         SecurityModels.getInstance().addSecurityModel(usm);
     }
 
+    /*
+     * Configs with the same querying frequency are queried together, so that their OIDs are requested in the same PDUs.
+     * The first query is scheduled at a random point of the interval to spread the requests to devices over time,
+     * the next ones - after the interval adapted to the device timeouts and randomized by querying.jitter_percent.
+     * */
     public void createQueryingTasks(DeviceSessionContext sessionContext) {
-        sessionContext.getProfileTransportConfiguration().getCommunicationConfigs().stream()
+        Map<Long, List<SnmpCommunicationConfig>> configsByFrequency = sessionContext.getProfileTransportConfiguration().getCommunicationConfigs().stream()
                 .filter(communicationConfig -> communicationConfig instanceof RepeatingQueryingSnmpCommunicationConfig)
-                .forEach(config -> {
-                    RepeatingQueryingSnmpCommunicationConfig repeatingCommunicationConfig = (RepeatingQueryingSnmpCommunicationConfig) config;
-                    Long queryingFrequency = repeatingCommunicationConfig.getQueryingFrequencyMs();
-
-                    ScheduledTask scheduledTask = new ScheduledTask();
-                    scheduledTask.init(() -> {
-                        try {
-                            if (sessionContext.isActive()) {
-                                return sendRequest(sessionContext, repeatingCommunicationConfig);
-                            }
-                        } catch (Exception e) {
-                            log.error("Failed to send SNMP request for device {}: {}", sessionContext.getDeviceId(), e.toString());
-                            transportService.errorEvent(sessionContext.getTenantId(), sessionContext.getDeviceId(), config.getSpec().getLabel(), e);
-                        }
-                        return Futures.immediateVoidFuture();
-                    }, queryingFrequency, scheduler);
-                    sessionContext.getQueryingTasks().add(scheduledTask);
-                });
+                .collect(Collectors.groupingBy(config -> ((RepeatingQueryingSnmpCommunicationConfig) config).getQueryingFrequencyMs(),
+                        LinkedHashMap::new, Collectors.toList()));
+        SnmpPollingStats pollingStats = sessionContext.getPollingStats();
+
+        configsByFrequency.forEach((queryingFrequency, configs) -> {
+            ScheduledTask scheduledTask = new ScheduledTask();
+            scheduledTask.init(() -> {
+                try {
+                    if (sessionContext.isActive()) {
+                        return sendQueryingRequest(sessionContext, configs);
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to send SNMP request for device {}: {}", sessionContext.getDeviceId(), e.toString());
+                    transportService.errorEvent(sessionContext.getTenantId(), sessionContext.getDeviceId(), configs.get(0).getSpec().getLabel(), e);
+                }
+                return Futures.immediateVoidFuture();
+            }, ThreadLocalRandom.current().nextLong(queryingFrequency) + 1,
+                    () -> withJitter(pollingStats.getIntervalMs(queryingFrequency, queryingMaxBackoffFactor), queryingJitterPercent), scheduler);
+            sessionContext.getQueryingTasks().add(scheduledTask);
+        });
+    }
+
+    static long withJitter(long intervalMs, int jitterPercent) {
+        long jitter = intervalMs * jitterPercent / 100;
+        return jitter > 0 ? intervalMs + ThreadLocalRandom.current().nextLong(-jitter, jitter + 1) : intervalMs;
     }
 
     public void cancelQueryingTasks(DeviceSessionContext sessionContext) {
@@ -183,8 +214,29 @@ public class SnmpTransportService implements TbTransportService, CommandResponde
     }
 
 
-    private ListenableFuture<Void> sendRequest(DeviceSessionContext sessionContext, SnmpCommunicationConfig communicationConfig) {
-        return sendRequest(sessionContext, communicationConfig, Collections.emptyMap());
+    private ListenableFuture<Void> sendQueryingRequest(DeviceSessionContext sessionContext, List<SnmpCommunicationConfig> communicationConfigs) {
+        List<PDU> request = pduService.createPdus(sessionContext, SnmpMethod.GET, mergeMappings(communicationConfigs), Collections.emptyMap());
+        RequestContext requestContext = RequestContext.builder()
+                .communicationSpec(communicationConfigs.get(0).getSpec())
+                .method(SnmpMethod.GET)
+                .responseMappings(communicationConfigs.get(0).getAllMappings())
+                .queryingConfigs(communicationConfigs)
+                .requestSize(request.size())
+                .build();
+        return sendRequest(sessionContext, request, requestContext);
+    }
+
+    /*
+     * Mappings of the configs queried together, one per OID
+     * */
+    static List<SnmpMapping> mergeMappings(List<SnmpCommunicationConfig> communicationConfigs) {
+        Map<String, SnmpMapping> mappingsByOid = new LinkedHashMap<>();
+        for (SnmpCommunicationConfig communicationConfig : communicationConfigs) {
+            for (SnmpMapping mapping : communicationConfig.getAllMappings()) {
+                mappingsByOid.putIfAbsent(mapping.getOid(), mapping);
+            }
+        }
+        return new ArrayList<>(mappingsByOid.values());
     }
 
     private ListenableFuture<Void> sendRequest(DeviceSessionContext sessionContext, SnmpCommunicationConfig communicationConfig, Map<String, String> values) {
@@ -224,6 +276,7 @@ public class SnmpTransportService implements TbTransportService, CommandResponde
     private void sendPdu(PDU pdu, RequestContext requestContext, DeviceSessionContext sessionContext) {
         log.debug("[{}] Sending SNMP request with {} variable bindings to {}", sessionContext.getDeviceId(), pdu.size(), sessionContext.getTarget().getAddress());
         try {
+            requestContext.getSentTs().put(pdu, System.currentTimeMillis());
             snmp.send(pdu, sessionContext.getTarget(), requestContext, sessionContext);
         } catch (Exception e) {
             log.error("[{}] Failed to send SNMP request", sessionContext.getDeviceId(), e);
@@ -291,9 +344,22 @@ public class SnmpTransportService implements TbTransportService, CommandResponde
 
         PDU responsePdu = event.getResponse();
         log.trace("[{}] Received PDU: {}", sessionContext.getDeviceId(), responsePdu);
+        if (requestContext.getQueryingConfigs() != null) {
+            Long sentTs = requestContext.getSentTs().remove(event.getRequest());
+            if (responsePdu == null) {
+                sessionContext.getPollingStats().onTimeout();
+            } else if (sentTs != null) {
+                long latency = System.currentTimeMillis() - sentTs;
+                sessionContext.getPollingStats().onResponse(latency);
+                queryingLatencyTimer.record(latency);
+            }
+        }
 
         List<PDU> response;
         if (requestContext.getRequestSize() == 1) {
+            if (requestContext.getQueryingConfigs() != null) {
+                sessionContext.getPollingStats().onRoundCompleted(responsePdu == null);
+            }
             if (responsePdu == null) {
                 if (requestContext.getMethod() == SnmpMethod.GET) {
                     log.debug("[{}][{}] Empty response from device", sessionContext.getDeviceId(), event.getRequest().getRequestID());
@@ -313,6 +379,9 @@ public class SnmpTransportService implements TbTransportService, CommandResponde
                     }
                 }
                 log.debug("[{}] All {} response parts are collected for request", sessionContext.getDeviceId(), responseParts.size());
+                if (requestContext.getQueryingConfigs() != null) {
+                    sessionContext.getPollingStats().onRoundCompleted(response.size() < responseParts.size());
+                }
             } else {
                 log.trace("[{}] Awaiting other response parts for request", sessionContext.getDeviceId());
                 return;
@@ -320,6 +389,10 @@ public class SnmpTransportService implements TbTransportService, CommandResponde
         }
 
         executor.execute(() -> {
+            if (requestContext.getQueryingConfigs() != null && requestContext.getQueryingConfigs().size() > 1) {
+                processQueryingResponse(sessionContext, response, requestContext.getQueryingConfigs());
+                return;
+            }
             try {
                 processResponse(sessionContext, response, requestContext);
             } catch (Exception e) {
@@ -328,6 +401,24 @@ public class SnmpTransportService implements TbTransportService, CommandResponde
         });
     }
 
+    /*
+     * Splits the response to the merged querying request back per config
+     * */
+    void processQueryingResponse(DeviceSessionContext sessionContext, List<PDU> response, List<SnmpCommunicationConfig> queryingConfigs) {
+        for (SnmpCommunicationConfig communicationConfig : queryingConfigs) {
+            RequestContext configRequestContext = RequestContext.builder()
+                    .communicationSpec(communicationConfig.getSpec())
+                    .method(communicationConfig.getMethod())
+                    .responseMappings(communicationConfig.getAllMappings())
+                    .build();
+            try {
+                processResponse(sessionContext, response, configRequestContext);
+            } catch (Exception e) {
+                transportService.errorEvent(sessionContext.getTenantId(), sessionContext.getDeviceId(), communicationConfig.getSpec().getLabel(), e);
+            }
+        }
+    }
+
     /*
      * SNMP notifications handler
      *
@@ -458,6 +549,22 @@ public class SnmpTransportService implements TbTransportService, CommandResponde
     }
 
 
+    @Scheduled(fixedDelayString = "${transport.stats.print-interval-ms:60000}")
+    public void printStats() {
+        if (statsEnabled) {
+            Collection<DeviceSessionContext> sessions = transportContext.getSessions();
+            long backedOff = sessions.stream().filter(session -> session.getPollingStats().isBackedOff()).count();
+            String slowest = sessions.stream()
+                    .sorted(Comparator.comparingDouble((DeviceSessionContext session) -> session.getPollingStats().getAvgLatencyMs()).reversed())
+                    .limit(5)
+                    .map(session -> session.getDeviceId() + "=" + Math.round(session.getPollingStats().getAvgLatencyMs()) + "ms")
+                    .collect(Collectors.joining(", "));
+            log.info("SNMP querying stats: devices [{}], backed off [{}], avg latency [{} ms], slowest devices [{}]",
+                    sessions.size(), backedOff, Math.round(queryingLatencyTimer.getAvg()), slowest);
+        }
+        queryingLatencyTimer.reset();
+    }
+
     @Override
     public String getName() {
         return DataConstants.SNMP_TRANSPORT_NAME;
@@ -488,16 +595,21 @@ public class SnmpTransportService implements TbTransportService, CommandResponde
         private final SnmpCommunicationSpec communicationSpec;
         private final SnmpMethod method;
         private final List<SnmpMapping> responseMappings;
+        private final List<SnmpCommunicationConfig> queryingConfigs;
 
         private final int requestSize;
         private List<PDU> responseParts;
+        // send time of each request PDU, the chunks of a request are sent with a delay
+        private final Map<PDU, Long> sentTs = Collections.synchronizedMap(new IdentityHashMap<>());
 
         @Builder
-        public RequestContext(Integer requestId, SnmpCommunicationSpec communicationSpec, SnmpMethod method, List<SnmpMapping> responseMappings, int requestSize) {
+        public RequestContext(Integer requestId, SnmpCommunicationSpec communicationSpec, SnmpMethod method, List<SnmpMapping> responseMappings,
+                              List<SnmpCommunicationConfig> queryingConfigs, int requestSize) {
             this.requestId = requestId;
             this.communicationSpec = communicationSpec;
             this.method = method;
             this.responseMappings = responseMappings;
+            this.queryingConfigs = queryingConfigs;
             this.requestSize = requestSize;
             if (requestSize > 1) {
                 this.responseParts = Collections.synchronizedList(new ArrayList<>());
@@ -74,6 +74,8 @@ public class DeviceSessionContext extends DeviceAwareSessionContext implements S
 
     @Getter
     private final List<ScheduledTask> queryingTasks = new LinkedList<>();
+    @Getter
+    private final SnmpPollingStats pollingStats = new SnmpPollingStats();
 
     @Builder
     public DeviceSessionContext(TenantId tenantId, Device device, DeviceProfile deviceProfile, String token,
@@ -24,6 +24,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 @Data
 @Slf4j
@@ -32,10 +33,17 @@ public class ScheduledTask {
     private boolean stopped = false;
 
     public void init(AsyncCallable<Void> task, long delayMs, ScheduledExecutorService scheduler) {
-        schedule(task, delayMs, scheduler);
+        init(task, delayMs, () -> delayMs, scheduler);
     }
 
-    private void schedule(AsyncCallable<Void> task, long delayMs, ScheduledExecutorService scheduler) {
+    /**
+     * Schedules the task after the initial delay, and then again after each completion with the delay provided by the supplier.
+     */
+    public void init(AsyncCallable<Void> task, long initialDelayMs, LongSupplier delaySupplier, ScheduledExecutorService scheduler) {
+        schedule(task, initialDelayMs, delaySupplier, scheduler);
+    }
+
+    private void schedule(AsyncCallable<Void> task, long delayMs, LongSupplier delaySupplier, ScheduledExecutorService scheduler) {
         scheduledFuture = Futures.scheduleAsync(() -> {
             if (stopped) {
                 return Futures.immediateCancelledFuture();
@@ -48,7 +56,7 @@ public class ScheduledTask {
             }
         }, delayMs, TimeUnit.MILLISECONDS, scheduler);
         if (!stopped) {
-            scheduledFuture.addListener(() -> schedule(task, delayMs, scheduler), MoreExecutors.directExecutor());
+            scheduledFuture.addListener(() -> schedule(task, delaySupplier.getAsLong(), delaySupplier, scheduler), MoreExecutors.directExecutor());
         }
     }
 
@@ -0,0 +1,86 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.snmp.session;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Querying statistics of a single SNMP device. Responses and timeouts are counted per request PDU, while the backoff is
+ * counted per polling round: consecutive timed out rounds increase the querying interval of the device, the first
+ * round without timeouts resets it.
+ */
+public class SnmpPollingStats {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicInteger consecutiveTimeouts = new AtomicInteger();
+    @Getter
+    private volatile long lastLatencyMs;
+    @Getter
+    private volatile double avgLatencyMs;
+
+    public void onResponse(long latencyMs) {
+        responses.incrementAndGet();
+        lastLatencyMs = latencyMs;
+        double avg = avgLatencyMs;
+        avgLatencyMs = avg == 0 ? latencyMs : avg + LATENCY_SMOOTHING * (latencyMs - avg);
+    }
+
+    public void onTimeout() {
+        timeouts.incrementAndGet();
+    }
+
+    /**
+     * @param timedOut whether any request PDU of the polling round timed out
+     */
+    public void onRoundCompleted(boolean timedOut) {
+        if (timedOut) {
+            consecutiveTimeouts.incrementAndGet();
+        } else {
+            consecutiveTimeouts.set(0);
+        }
+    }
+
+    /**
+     * @return the base interval doubled for each consecutive timed out round, but not more than maxBackoffFactor times
+     */
+    public long getIntervalMs(long baseIntervalMs, int maxBackoffFactor) {
+        int timeouts = consecutiveTimeouts.get();
+        if (timeouts == 0 || maxBackoffFactor <= 1) {
+            return baseIntervalMs;
+        }
+        long factor = timeouts >= Integer.SIZE - 1 ? maxBackoffFactor : Math.min(1L << timeouts, maxBackoffFactor);
+        return baseIntervalMs * factor;
+    }
+
+    public boolean isBackedOff() {
+        return consecutiveTimeouts.get() > 0;
+    }
+
+    public long getResponses() {
+        return responses.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+}
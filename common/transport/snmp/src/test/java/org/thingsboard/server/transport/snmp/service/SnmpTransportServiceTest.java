@@ -0,0 +1,123 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.snmp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.snmp4j.PDU;
+import org.snmp4j.smi.Integer32;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.OctetString;
+import org.snmp4j.smi.VariableBinding;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.kv.DataType;
+import org.thingsboard.server.common.data.transport.snmp.SnmpMapping;
+import org.thingsboard.server.common.data.transport.snmp.config.SnmpCommunicationConfig;
+import org.thingsboard.server.common.data.transport.snmp.config.impl.ClientAttributesQueryingSnmpCommunicationConfig;
+import org.thingsboard.server.common.data.transport.snmp.config.impl.TelemetryQueryingSnmpCommunicationConfig;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.common.transport.TransportService;
+import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.transport.snmp.session.DeviceSessionContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SnmpTransportServiceTest {
+
+    private TransportService transportService;
+    private SnmpTransportService snmpTransportService;
+
+    @BeforeEach
+    void setUp() {
+        transportService = mock(TransportService.class);
+        snmpTransportService = new SnmpTransportService(transportService, new PduService(), mock(StatsFactory.class));
+        ReflectionTestUtils.invokeMethod(snmpTransportService, "configureResponseDataMappers");
+        ReflectionTestUtils.invokeMethod(snmpTransportService, "configureResponseProcessors");
+    }
+
+    @Test
+    void givenJitterPercent_whenWithJitter_thenWithinBounds() {
+        for (int i = 0; i < 1000; i++) {
+            assertThat(SnmpTransportService.withJitter(1000, 10)).isBetween(900L, 1100L);
+        }
+        assertThat(SnmpTransportService.withJitter(1000, 0)).isEqualTo(1000);
+        assertThat(SnmpTransportService.withJitter(5, 10)).isEqualTo(5);
+    }
+
+    @Test
+    void givenConfigsWithSameOid_whenMergeMappings_thenOidRequestedOnce() {
+        SnmpMapping temperature = new SnmpMapping("1.3.6.1.2.1.1.1.0", "temperature", DataType.LONG);
+        SnmpMapping uptime = new SnmpMapping("1.3.6.1.2.1.1.3.0", "uptime", DataType.LONG);
+        SnmpMapping serial = new SnmpMapping("1.3.6.1.2.1.1.5.0", "serial", DataType.STRING);
+        SnmpMapping uptimeAttribute = new SnmpMapping("1.3.6.1.2.1.1.3.0", "uptimeAttribute", DataType.LONG);
+
+        List<SnmpMapping> mappings = SnmpTransportService.mergeMappings(List.of(
+                telemetryConfig(List.of(temperature, uptime)),
+                attributesConfig(List.of(serial, uptimeAttribute))));
+
+        assertThat(mappings).containsExactly(temperature, uptime, serial);
+    }
+
+    @Test
+    void givenMergedResponse_whenProcessQueryingResponse_thenEachConfigGetsOwnKeys() {
+        SnmpCommunicationConfig telemetryConfig = telemetryConfig(List.of(
+                new SnmpMapping("1.3.6.1.2.1.1.1.0", "temperature", DataType.LONG)));
+        SnmpCommunicationConfig attributesConfig = attributesConfig(List.of(
+                new SnmpMapping("1.3.6.1.2.1.1.5.0", "serial", DataType.STRING)));
+        DeviceSessionContext sessionContext = mock(DeviceSessionContext.class);
+        when(sessionContext.getSessionInfo()).thenReturn(TransportProtos.SessionInfoProto.getDefaultInstance());
+
+        PDU response = new PDU();
+        response.add(new VariableBinding(new OID("1.3.6.1.2.1.1.1.0"), new Integer32(25)));
+        response.add(new VariableBinding(new OID("1.3.6.1.2.1.1.5.0"), new OctetString("SN-1")));
+        snmpTransportService.processQueryingResponse(sessionContext, List.of(response), List.of(telemetryConfig, attributesConfig));
+
+        ArgumentCaptor<TransportProtos.PostTelemetryMsg> telemetry = ArgumentCaptor.forClass(TransportProtos.PostTelemetryMsg.class);
+        verify(transportService).process(any(TransportProtos.SessionInfoProto.class), telemetry.capture(), isNull());
+        assertThat(telemetry.getValue().getTsKvListList()).flatExtracting(TransportProtos.TsKvListProto::getKvList)
+                .extracting(TransportProtos.KeyValueProto::getKey).containsExactly("temperature");
+
+        ArgumentCaptor<TransportProtos.PostAttributeMsg> attributes = ArgumentCaptor.forClass(TransportProtos.PostAttributeMsg.class);
+        verify(transportService).process(any(TransportProtos.SessionInfoProto.class), attributes.capture(), isNull());
+        assertThat(attributes.getValue().getKvList())
+                .extracting(TransportProtos.KeyValueProto::getKey).containsExactly("serial");
+        verify(transportService, never()).errorEvent(any(), any(), any(), any());
+    }
+
+    private static TelemetryQueryingSnmpCommunicationConfig telemetryConfig(List<SnmpMapping> mappings) {
+        TelemetryQueryingSnmpCommunicationConfig config = new TelemetryQueryingSnmpCommunicationConfig();
+        config.setQueryingFrequencyMs(5000L);
+        config.setMappings(mappings);
+        return config;
+    }
+
+    private static ClientAttributesQueryingSnmpCommunicationConfig attributesConfig(List<SnmpMapping> mappings) {
+        ClientAttributesQueryingSnmpCommunicationConfig config = new ClientAttributesQueryingSnmpCommunicationConfig();
+        config.setQueryingFrequencyMs(5000L);
+        config.setMappings(mappings);
+        return config;
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.snmp.session;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnmpPollingStatsTest {
+
+    private final SnmpPollingStats stats = new SnmpPollingStats();
+
+    @Test
+    void givenTimedOutRounds_whenGetInterval_thenDoubledUpToMaxBackoffFactor() {
+        assertThat(stats.getIntervalMs(1000, 8)).isEqualTo(1000);
+
+        stats.onRoundCompleted(true);
+        assertThat(stats.getIntervalMs(1000, 8)).isEqualTo(2000);
+        stats.onRoundCompleted(true);
+        assertThat(stats.getIntervalMs(1000, 8)).isEqualTo(4000);
+        stats.onRoundCompleted(true);
+        assertThat(stats.getIntervalMs(1000, 8)).isEqualTo(8000);
+        stats.onRoundCompleted(true);
+        assertThat(stats.getIntervalMs(1000, 8)).isEqualTo(8000);
+        assertThat(stats.isBackedOff()).isTrue();
+    }
+
+    @Test
+    void givenManyTimedOutRounds_whenGetInterval_thenNoOverflow() {
+        for (int i = 0; i < 100; i++) {
+            stats.onRoundCompleted(true);
+        }
+        assertThat(stats.getIntervalMs(1000, 8)).isEqualTo(8000);
+        assertThat(stats.getIntervalMs(1000, 1)).isEqualTo(1000);
+    }
+
+    @Test
+    void givenRoundWithoutTimeouts_whenGetInterval_thenReset() {
+        stats.onRoundCompleted(true);
+        stats.onRoundCompleted(true);
+
+        stats.onRoundCompleted(false);
+
+        assertThat(stats.getIntervalMs(1000, 8)).isEqualTo(1000);
+        assertThat(stats.isBackedOff()).isFalse();
+    }
+
+    @Test
+    void givenTimedOutPdusOfOneRound_whenGetInterval_thenBackedOffOnce() {
+        stats.onTimeout();
+        stats.onTimeout();
+        stats.onResponse(10);
+        stats.onRoundCompleted(true);
+
+        assertThat(stats.getTimeouts()).isEqualTo(2);
+        assertThat(stats.getResponses()).isEqualTo(1);
+        assertThat(stats.getIntervalMs(1000, 8)).isEqualTo(2000);
+    }
+
+    @Test
+    void givenResponses_whenGetLatency_thenSmoothed() {
+        stats.onResponse(100);
+        assertThat(stats.getAvgLatencyMs()).isEqualTo(100);
+
+        stats.onResponse(200);
+        assertThat(stats.getLastLatencyMs()).isEqualTo(200);
+        assertThat(stats.getAvgLatencyMs()).isEqualTo(120);
+    }
+
+}
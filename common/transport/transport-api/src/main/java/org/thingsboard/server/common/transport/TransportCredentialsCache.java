@@ -0,0 +1,41 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport;
+
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.gen.transport.TransportProtos.TransportApiRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceCredentialsResponseMsg;
+
+/**
+ * Cache of the device credentials validation responses, to avoid a round trip to the core on every device connect.
+ * <p>
+ * Every eviction gets a sequence number, and a response is used only if neither the device, its profile nor its tenant
+ * was evicted after the request has been sent. Responses for unknown credentials are evicted on any device update.
+ */
+public interface TransportCredentialsCache {
+
+    ValidateDeviceCredentialsResponseMsg get(TransportApiRequestMsg request);
+
+    /**
+     * @param version the result of {@link #getVersion()} taken before the request was sent
+     */
+    void put(TransportApiRequestMsg request, ValidateDeviceCredentialsResponseMsg response, long version);
+
+    long getVersion();
+
+    void evict(EntityId entityId);
+
+}
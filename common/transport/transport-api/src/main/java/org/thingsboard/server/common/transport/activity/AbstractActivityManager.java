@@ -15,37 +15,23 @@
  */
 package org.thingsboard.server.common.transport.activity;
 
-import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.thingsboard.server.common.transport.activity.strategy.ActivityStrategy;
 import org.thingsboard.server.queue.scheduler.SchedulerComponent;
 
-import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 public abstract class AbstractActivityManager<Key, Metadata> implements ActivityManager<Key, Metadata> {
 
-    private final ConcurrentMap<Key, ActivityStateWrapper> states = new ConcurrentHashMap<>();
+    private final ActivityStateTable<Key, Metadata> states = new ActivityStateTable<>();
+    private ActivityExpiryWheel expiryWheel;
 
     @Autowired
     protected SchedulerComponent scheduler;
 
-    @Data
-    private class ActivityStateWrapper {
-
-        private volatile ActivityState<Metadata> state;
-        private volatile long lastReportedTime;
-        private volatile ActivityStrategy strategy;
-
-    }
-
     protected void init() {
         var reportingPeriodMillis = getReportingPeriodMillis();
         scheduler.scheduleAtFixedRate(this::onReportingPeriodEnd, new Random().nextInt((int) reportingPeriodMillis), reportingPeriodMillis, TimeUnit.MILLISECONDS);
@@ -53,10 +39,22 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
 
     protected abstract long getReportingPeriodMillis();
 
+    protected abstract long getInactivityTimeoutMillis();
+
+    protected abstract long getCurrentTimeMillis();
+
     protected abstract ActivityStrategy getStrategy();
 
     protected abstract ActivityState<Metadata> updateState(Key key, ActivityState<Metadata> state);
 
+    /**
+     * Whether {@link #updateState} may change the last recorded time of the key without activity of the key itself.
+     * Such states are visited on each reporting period end, the others - only after activity or when they may expire.
+     */
+    protected boolean isStateDerived(Key key, Metadata metadata) {
+        return false;
+    }
+
     protected abstract boolean hasExpired(long lastRecordedTime);
 
     protected abstract void onStateExpiry(Key key, Metadata metadata);
@@ -71,83 +69,95 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
         }
         log.debug("Received activity event for key: [{}]. Event time: [{}].", key, newLastRecordedTime);
 
-        var shouldReport = new AtomicBoolean(false);
-        var lastRecordedTime = new AtomicLong();
-        var lastReportedTime = new AtomicLong();
+        long timeToReport = states.onActivity(key, metadata, newLastRecordedTime, this::getStrategy, isStateDerived(key, metadata));
 
-        states.compute(key, (__, stateWrapper) -> {
-            if (stateWrapper == null) {
-                ActivityState<Metadata> newState = new ActivityState<>();
-                stateWrapper = new ActivityStateWrapper();
-                stateWrapper.setState(newState);
-                stateWrapper.setStrategy(getStrategy());
-            }
-            var state = stateWrapper.getState();
-            state.setMetadata(metadata);
-            if (state.getLastRecordedTime() < newLastRecordedTime) {
-                state.setLastRecordedTime(newLastRecordedTime);
-            }
-            shouldReport.set(stateWrapper.getStrategy().onActivity());
-            lastRecordedTime.set(state.getLastRecordedTime());
-            lastReportedTime.set(stateWrapper.getLastReportedTime());
-            return stateWrapper;
-        });
-
-        if (shouldReport.get() && lastReportedTime.get() < lastRecordedTime.get()) {
-            log.debug("Going to report first activity event for key: [{}]. Event time: [{}].", key, lastRecordedTime.get());
-            reportActivity(key, metadata, lastRecordedTime.get(), new ActivityReportCallback<>() {
+        if (timeToReport > 0) {
+            log.debug("Going to report first activity event for key: [{}]. Event time: [{}].", key, timeToReport);
+            reportActivity(key, metadata, timeToReport, new ActivityReportCallback<>() {
                 @Override
                 public void onSuccess(Key key, long reportedTime) {
-                    updateLastReportedTime(key, reportedTime);
+                    states.updateLastReportedTime(key, reportedTime);
                 }
 
                 @Override
                 public void onFailure(Key key, Throwable t) {
-                    log.debug("Failed to report first activity event for key: [{}]. Event time: [{}].", key, lastRecordedTime.get(), t);
+                    log.debug("Failed to report first activity event for key: [{}]. Event time: [{}].", key, timeToReport, t);
                 }
             });
         }
     }
 
+    /*
+     * Visits the states with activity since the previous reporting period end and the derived ones, and the states
+     * that may have expired according to the expiry wheel. Idle states are not visited until they may expire.
+     * */
     @Override
-    public void onReportingPeriodEnd() {
+    public synchronized void onReportingPeriodEnd() {
         log.debug("Going to end reporting period.");
-        for (Map.Entry<Key, ActivityStateWrapper> entry : states.entrySet()) {
-            Key key = entry.getKey();
-            ActivityStateWrapper stateWrapper = entry.getValue();
-            try {
-                reportLastEvent(key, stateWrapper);
-            } catch (Exception e) {
-                log.error("Failed to report last activity event on reporting period end for key: [{}]. State: [{}].", key, stateWrapper, e);
-            }
+        if (expiryWheel == null) {
+            expiryWheel = new ActivityExpiryWheel(getReportingPeriodMillis(), getInactivityTimeoutMillis());
         }
+        long currentTick = expiryWheel.toTick(getCurrentTimeMillis());
+        expiryWheel.advance(currentTick, slot -> {
+            if (states.getKey(slot) == null || states.isPendingOrDerived(slot)) {
+                return; // removed or will be visited as pending
+            }
+            long expirationTime = states.getLastRecordedTime(slot) + getInactivityTimeoutMillis();
+            if (expiryWheel.toTick(expirationTime) >= currentTick) {
+                expiryWheel.schedule(slot, expirationTime, currentTick);
+            } else {
+                visit(slot, currentTick);
+            }
+        });
+        states.forEachPending(slot -> visit(slot, currentTick));
     }
 
-    private void reportLastEvent(Key key, ActivityStateWrapper stateWrapper) {
-        var currentState = stateWrapper.getState();
-
-        long lastRecordedTime = currentState.getLastRecordedTime();
-        long lastReportedTime = stateWrapper.getLastReportedTime();
-        var metadata = currentState.getMetadata();
+    private void visit(int slot, long currentTick) {
+        Key key = states.getKey(slot);
+        if (key == null) {
+            return;
+        }
+        try {
+            if (reportLastEvent(key, slot) && !expiryWheel.isScheduled(slot)) {
+                expiryWheel.schedule(slot, states.getLastRecordedTime(slot) + getInactivityTimeoutMillis(), currentTick);
+            }
+        } catch (Exception e) {
+            log.error("Failed to report last activity event on reporting period end for key: [{}].", key, e);
+        }
+    }
 
+    /**
+     * @return true if the state is kept
+     */
+    private boolean reportLastEvent(Key key, int slot) {
+        long lastRecordedTime = states.getLastRecordedTime(slot);
+        long lastReportedTime = states.getLastReportedTime(slot);
+        var metadata = states.getMetadata(slot);
+        var currentState = new ActivityState<Metadata>();
+        currentState.setLastRecordedTime(lastRecordedTime);
+        currentState.setMetadata(metadata);
+
+        boolean kept = true;
         boolean hasExpired;
         boolean shouldReport;
 
         var updatedState = updateState(key, currentState);
         if (updatedState != null) {
-            stateWrapper.setState(updatedState);
+            states.updateState(slot, updatedState.getLastRecordedTime(), updatedState.getMetadata());
             lastRecordedTime = updatedState.getLastRecordedTime();
             metadata = updatedState.getMetadata();
             hasExpired = hasExpired(lastRecordedTime);
-            shouldReport = stateWrapper.getStrategy().onReportingPeriodEnd();
+            shouldReport = states.getStrategy(slot).onReportingPeriodEnd();
         } else {
-            states.remove(key);
+            states.remove(key, slot);
+            kept = false;
             hasExpired = false;
             shouldReport = true;
         }
 
         if (hasExpired) {
-            states.remove(key);
+            states.remove(key, slot);
+            kept = false;
             onStateExpiry(key, metadata);
             shouldReport = true;
         }
@@ -158,28 +168,30 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
             reportActivity(key, metadata, timeToReport, new ActivityReportCallback<>() {
                 @Override
                 public void onSuccess(Key key, long reportedTime) {
-                    updateLastReportedTime(key, reportedTime);
+                    states.updateLastReportedTime(key, reportedTime);
                 }
 
                 @Override
                 public void onFailure(Key key, Throwable t) {
                     log.debug("Failed to report last activity event for key: [{}]. Event time: [{}].", key, timeToReport, t);
+                    states.markPending(key);
                 }
             });
         }
+        return kept;
     }
 
-    @Override
-    public long getLastRecordedTime(Key key) {
-        ActivityStateWrapper stateWrapper = states.get(key);
-        return stateWrapper == null ? 0L : stateWrapper.getState().getLastRecordedTime();
+    /**
+     * Makes the state of the key to be visited on the next reporting period end, e.g. after the key is removed
+     * and {@link #updateState} no longer keeps it.
+     */
+    protected void onStateRemoval(Key key) {
+        states.markPending(key);
     }
 
-    private void updateLastReportedTime(Key key, long newLastReportedTime) {
-        states.computeIfPresent(key, (__, stateWrapper) -> {
-            stateWrapper.setLastReportedTime(Math.max(stateWrapper.getLastReportedTime(), newLastReportedTime));
-            return stateWrapper;
-        });
+    @Override
+    public long getLastRecordedTime(Key key) {
+        return states.getLastRecordedTime(key);
     }
 
 }
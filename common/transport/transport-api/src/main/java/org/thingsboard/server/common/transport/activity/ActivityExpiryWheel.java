@@ -0,0 +1,110 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport.activity;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Timing wheel of the slots of {@link ActivityStateTable} to check for expiry. A tick is one reporting period, and the
+ * wheel covers the inactivity timeout, so a slot is visited once per timeout instead of once per reporting period.
+ * Not thread-safe, used by the reporting period end only.
+ */
+final class ActivityExpiryWheel {
+
+    private static final long NOT_SCHEDULED = Long.MIN_VALUE;
+
+    private final long tickMillis;
+    private final int[][] buckets;
+    private final int[] bucketSizes;
+    private long[] scheduledTicks = new long[0];
+    private long lastTick = NOT_SCHEDULED;
+
+    ActivityExpiryWheel(long tickMillis, long timeoutMillis) {
+        this.tickMillis = Math.max(tickMillis, 1);
+        int size = (int) (timeoutMillis / this.tickMillis) + 3;
+        this.buckets = new int[size][];
+        this.bucketSizes = new int[size];
+    }
+
+    long toTick(long timeMillis) {
+        return Math.floorDiv(timeMillis, tickMillis);
+    }
+
+    boolean isScheduled(int slot) {
+        return slot < scheduledTicks.length && scheduledTicks[slot] != NOT_SCHEDULED;
+    }
+
+    /**
+     * Schedules the slot to the first tick after the expiration time, but not later than the wheel covers.
+     */
+    void schedule(int slot, long expirationTime, long currentTick) {
+        long tick = Math.max(toTick(expirationTime) + 1, currentTick + 1);
+        tick = Math.min(tick, currentTick + buckets.length - 1);
+        if (slot >= scheduledTicks.length) {
+            int oldLength = scheduledTicks.length;
+            scheduledTicks = Arrays.copyOf(scheduledTicks, Math.max(slot + 1, oldLength * 2));
+            Arrays.fill(scheduledTicks, oldLength, scheduledTicks.length, NOT_SCHEDULED);
+        }
+        scheduledTicks[slot] = tick;
+        add(slot, tick);
+    }
+
+    private void add(int slot, long tick) {
+        int bucket = (int) Math.floorMod(tick, (long) buckets.length);
+        int[] slots = buckets[bucket];
+        if (slots == null) {
+            slots = buckets[bucket] = new int[16];
+        } else if (bucketSizes[bucket] == slots.length) {
+            slots = buckets[bucket] = Arrays.copyOf(slots, slots.length * 2);
+        }
+        slots[bucketSizes[bucket]++] = slot;
+    }
+
+    /**
+     * Calls the consumer for each slot scheduled to the ticks up to the current one. The slots are unscheduled before
+     * the call.
+     */
+    void advance(long currentTick, IntConsumer consumer) {
+        long fromTick = lastTick == NOT_SCHEDULED ? currentTick : Math.max(lastTick + 1, currentTick - buckets.length + 1);
+        lastTick = currentTick;
+        for (long tick = fromTick; tick <= currentTick; tick++) {
+            int bucket = (int) Math.floorMod(tick, (long) buckets.length);
+            int[] slots = buckets[bucket];
+            int size = bucketSizes[bucket];
+            if (size == 0) {
+                continue;
+            }
+            buckets[bucket] = null;
+            bucketSizes[bucket] = 0;
+            for (int i = 0; i < size; i++) {
+                int slot = slots[i];
+                long scheduledTick = scheduledTicks[slot];
+                if (scheduledTick == NOT_SCHEDULED) {
+                    continue;
+                }
+                if (scheduledTick <= currentTick) {
+                    scheduledTicks[slot] = NOT_SCHEDULED;
+                    consumer.accept(slot);
+                } else if (Math.floorMod(scheduledTick, (long) buckets.length) == bucket) {
+                    // entries of other buckets are stale ones left by rescheduling
+                    add(slot, scheduledTick);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport.activity;
+
+import org.thingsboard.server.common.transport.activity.strategy.ActivityStrategy;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Activity states stored in primitive arrays indexed by slot. Each key is assigned a slot on its first activity, the slot
+ * is reused after the key is removed. The arrays are split into pages that are never moved, so they can be read and
+ * written without locking; changes of a single key are serialized by the key to slot map.
+ * <p>
+ * The slots with activity since the last {@link #forEachPending} call, and the slots whose state depends on other keys,
+ * are tracked in bitsets, so that the reporting period end does not need to visit idle slots.
+ */
+public final class ActivityStateTable<Key, Metadata> {
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final ConcurrentMap<Key, Integer> slots = new ConcurrentHashMap<>();
+    private final Object allocationLock = new Object();
+    private volatile Page[] pages = new Page[0];
+    private int[] freeSlots = new int[64];
+    private int freeSlotsCount;
+    private volatile int capacity;
+
+    /**
+     * Records the activity of the key.
+     *
+     * @return the time to report right away, or 0 if the strategy does not require to report the activity now
+     */
+    public long onActivity(Key key, Metadata metadata, long activityTime, Supplier<ActivityStrategy> strategySupplier, boolean derived) {
+        long[] timeToReport = new long[1];
+        slots.compute(key, (__, slot) -> {
+            if (slot == null) {
+                slot = allocate(key, strategySupplier.get());
+            }
+            Page page = page(slot);
+            int idx = slot & PAGE_MASK;
+            page.metadata.set(idx, metadata);
+            long lastRecordedTime = page.lastRecordedTime.accumulateAndGet(idx, activityTime, Math::max);
+            setBit(page.derived, idx, derived);
+            setBit(page.pending, idx, true);
+            if (((ActivityStrategy) page.strategies.get(idx)).onActivity() && page.lastReportedTime.get(idx) < lastRecordedTime) {
+                timeToReport[0] = lastRecordedTime;
+            }
+            return slot;
+        });
+        return timeToReport[0];
+    }
+
+    /**
+     * Calls the consumer for each slot with activity since the previous call, and for each slot with derived state.
+     */
+    public void forEachPending(IntConsumer consumer) {
+        Page[] pages = this.pages;
+        for (int p = 0; p < pages.length; p++) {
+            Page page = pages[p];
+            for (int w = 0; w < page.pending.length(); w++) {
+                long bits = page.pending.get(w) == 0 ? 0 : page.pending.getAndSet(w, 0);
+                bits |= page.derived.get(w);
+                while (bits != 0) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    consumer.accept((p << PAGE_BITS) | (w << 6) | bit);
+                }
+            }
+        }
+    }
+
+    public boolean isPendingOrDerived(int slot) {
+        Page page = page(slot);
+        int idx = slot & PAGE_MASK;
+        long mask = 1L << (idx & 63);
+        return ((page.pending.get(idx >> 6) | page.derived.get(idx >> 6)) & mask) != 0;
+    }
+
+    public boolean contains(Key key) {
+        return slots.containsKey(key);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * @return the number of slots, including the free ones
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    public long getLastRecordedTime(Key key) {
+        Integer slot = slots.get(key);
+        return slot == null ? 0L : getLastRecordedTime(slot);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Key getKey(int slot) {
+        return (Key) page(slot).keys.get(slot & PAGE_MASK);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Metadata getMetadata(int slot) {
+        return (Metadata) page(slot).metadata.get(slot & PAGE_MASK);
+    }
+
+    public ActivityStrategy getStrategy(int slot) {
+        return (ActivityStrategy) page(slot).strategies.get(slot & PAGE_MASK);
+    }
+
+    public long getLastRecordedTime(int slot) {
+        return page(slot).lastRecordedTime.get(slot & PAGE_MASK);
+    }
+
+    public long getLastReportedTime(int slot) {
+        return page(slot).lastReportedTime.get(slot & PAGE_MASK);
+    }
+
+    public void updateState(int slot, long lastRecordedTime, Metadata metadata) {
+        Page page = page(slot);
+        int idx = slot & PAGE_MASK;
+        page.lastRecordedTime.accumulateAndGet(idx, lastRecordedTime, Math::max);
+        page.metadata.set(idx, metadata);
+    }
+
+    public void updateLastReportedTime(Key key, long lastReportedTime) {
+        slots.computeIfPresent(key, (__, slot) -> {
+            page(slot).lastReportedTime.accumulateAndGet(slot & PAGE_MASK, lastReportedTime, Math::max);
+            return slot;
+        });
+    }
+
+    /**
+     * Makes the slot of the key to be visited by the next {@link #forEachPending} call.
+     */
+    public void markPending(Key key) {
+        slots.computeIfPresent(key, (__, slot) -> {
+            setBit(page(slot).pending, slot & PAGE_MASK, true);
+            return slot;
+        });
+    }
+
+    /**
+     * Removes the key if it still occupies the slot.
+     */
+    public boolean remove(Key key, int slot) {
+        boolean[] removed = new boolean[1];
+        slots.computeIfPresent(key, (__, currentSlot) -> {
+            if (currentSlot != slot) {
+                return currentSlot;
+            }
+            Page page = page(slot);
+            int idx = slot & PAGE_MASK;
+            page.keys.set(idx, null);
+            page.metadata.set(idx, null);
+            page.strategies.set(idx, null);
+            page.lastRecordedTime.set(idx, 0L);
+            page.lastReportedTime.set(idx, 0L);
+            setBit(page.pending, idx, false);
+            setBit(page.derived, idx, false);
+            release(slot);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    private int allocate(Key key, ActivityStrategy strategy) {
+        int slot;
+        synchronized (allocationLock) {
+            if (freeSlotsCount > 0) {
+                slot = freeSlots[--freeSlotsCount];
+            } else {
+                slot = capacity;
+                if ((slot >> PAGE_BITS) == pages.length) {
+                    Page[] newPages = Arrays.copyOf(pages, pages.length + 1);
+                    newPages[pages.length] = new Page();
+                    pages = newPages;
+                }
+                capacity = slot + 1;
+            }
+        }
+        Page page = page(slot);
+        page.keys.set(slot & PAGE_MASK, key);
+        page.strategies.set(slot & PAGE_MASK, strategy);
+        return slot;
+    }
+
+    private void release(int slot) {
+        synchronized (allocationLock) {
+            if (freeSlotsCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlotsCount * 2);
+            }
+            freeSlots[freeSlotsCount++] = slot;
+        }
+    }
+
+    private Page page(int slot) {
+        return pages[slot >> PAGE_BITS];
+    }
+
+    private static void setBit(AtomicLongArray bits, int idx, boolean value) {
+        int word = idx >> 6;
+        long mask = 1L << (idx & 63);
+        long current = bits.get(word);
+        if (((current & mask) != 0) != value) {
+            if (value) {
+                bits.getAndUpdate(word, w -> w | mask);
+            } else {
+                bits.getAndUpdate(word, w -> w & ~mask);
+            }
+        }
+    }
+
+    private static class Page {
+
+        private final AtomicReferenceArray<Object> keys = new AtomicReferenceArray<>(PAGE_SIZE);
+        private final AtomicReferenceArray<Object> metadata = new AtomicReferenceArray<>(PAGE_SIZE);
+        private final AtomicReferenceArray<Object> strategies = new AtomicReferenceArray<>(PAGE_SIZE);
+        private final AtomicLongArray lastRecordedTime = new AtomicLongArray(PAGE_SIZE);
+        private final AtomicLongArray lastReportedTime = new AtomicLongArray(PAGE_SIZE);
+        private final AtomicLongArray pending = new AtomicLongArray(PAGE_SIZE / 64);
+        private final AtomicLongArray derived = new AtomicLongArray(PAGE_SIZE / 64);
+
+    }
+
+}
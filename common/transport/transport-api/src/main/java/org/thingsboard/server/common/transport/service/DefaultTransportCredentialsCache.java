@@ -0,0 +1,201 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.DeviceProfileId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.common.stats.StatsType;
+import org.thingsboard.server.common.transport.TransportCredentialsCache;
+import org.thingsboard.server.gen.transport.TransportProtos.DeviceInfoProto;
+import org.thingsboard.server.gen.transport.TransportProtos.TransportApiRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceCredentialsResponseMsg;
+import org.thingsboard.server.queue.util.TbTransportComponent;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+@TbTransportComponent
+public class DefaultTransportCredentialsCache implements TransportCredentialsCache {
+
+    private static final int DEVIATION = 10;
+
+    private final boolean enabled;
+    private final boolean statsEnabled;
+    private final Cache<TransportApiRequestMsg, CachedResponse> cache;
+    // keeps the eviction versions for the max lifetime of the cached responses
+    private final Cache<EntityId, Long> entityVersions;
+    private final AtomicLong seq = new AtomicLong();
+    private volatile long devicesVersion;
+
+    private final StatsCounter hits;
+    private final StatsCounter misses;
+
+    public DefaultTransportCredentialsCache(@Value("${transport.credentials_cache.enabled:true}") boolean enabled,
+                                            @Value("${transport.credentials_cache.max_size:100000}") int maxSize,
+                                            @Value("${transport.credentials_cache.ttl_sec:300}") int ttlSec,
+                                            @Value("${transport.credentials_cache.negative_ttl_sec:10}") int negativeTtlSec,
+                                            @Value("${transport.stats.enabled:false}") boolean statsEnabled,
+                                            StatsFactory statsFactory) {
+        this.enabled = enabled && maxSize > 0;
+        this.statsEnabled = statsEnabled;
+        // We use the 'random' expiration time to avoid peak loads after the reconnect of many devices.
+        long ttl = TimeUnit.SECONDS.toNanos(ttlSec);
+        long negativeTtl = TimeUnit.SECONDS.toNanos(Math.min(negativeTtlSec, ttlSec));
+        this.cache = Caffeine.newBuilder()
+                .expireAfter(new Expiry<TransportApiRequestMsg, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(@NotNull TransportApiRequestMsg key, @NotNull CachedResponse value, long currentTime) {
+                        return randomize(value.hasDevice() ? ttl : negativeTtl);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(@NotNull TransportApiRequestMsg key, @NotNull CachedResponse value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(@NotNull TransportApiRequestMsg key, @NotNull CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(Math.max(maxSize, 0))
+                .build();
+        this.entityVersions = Caffeine.newBuilder()
+                .expireAfterWrite(ttl, TimeUnit.NANOSECONDS)
+                .build();
+        String statsKey = StatsType.TRANSPORT.getName() + ".credentialsCache";
+        this.hits = statsFactory.createStatsCounter(statsKey, "hits");
+        this.misses = statsFactory.createStatsCounter(statsKey, "misses");
+        if (this.enabled) {
+            statsFactory.createGauge(statsKey, "size", cache, Cache::estimatedSize);
+        }
+    }
+
+    @Override
+    public ValidateDeviceCredentialsResponseMsg get(TransportApiRequestMsg request) {
+        if (!enabled) {
+            return null;
+        }
+        CachedResponse cached = cache.getIfPresent(request);
+        if (cached != null) {
+            if (isValid(cached)) {
+                hits.increment();
+                return cached.response();
+            }
+            cache.asMap().remove(request, cached);
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    public void put(TransportApiRequestMsg request, ValidateDeviceCredentialsResponseMsg response, long version) {
+        if (!enabled) {
+            return;
+        }
+        CachedResponse newValue = new CachedResponse(response, getEntityIds(response), version);
+        if (isValid(newValue)) {
+            cache.put(request, newValue);
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return seq.get();
+    }
+
+    @Override
+    public void evict(EntityId entityId) {
+        if (!enabled) {
+            return;
+        }
+        long version = seq.incrementAndGet();
+        entityVersions.asMap().merge(entityId, version, Math::max);
+        if (entityId.getEntityType() == EntityType.DEVICE) {
+            // the device update or the credentials update can make the unknown credentials valid
+            devicesVersion = version;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${transport.stats.print-interval-ms:60000}")
+    public void printStats() {
+        int hitsCount = hits.getAndClear();
+        int missesCount = misses.getAndClear();
+        long total = (long) hitsCount + missesCount;
+        if (statsEnabled && total > 0) {
+            log.info("Credentials cache stats: hits [{}], misses [{}], hit rate [{}%], size [{}]",
+                    hitsCount, missesCount, hitsCount * 100 / total, cache.estimatedSize());
+        }
+    }
+
+    private boolean isValid(CachedResponse cached) {
+        if (!cached.hasDevice()) {
+            return devicesVersion <= cached.version();
+        }
+        for (EntityId entityId : cached.entityIds()) {
+            Long entityVersion = entityVersions.getIfPresent(entityId);
+            if (entityVersion != null && entityVersion > cached.version()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long randomize(long ttl) {
+        long mainPart = (ttl / 100) * (100 - DEVIATION);
+        long randomPart = (ttl / 100) * DEVIATION;
+        return mainPart + (long) (randomPart * ThreadLocalRandom.current().nextDouble());
+    }
+
+    private static List<EntityId> getEntityIds(ValidateDeviceCredentialsResponseMsg response) {
+        if (!response.hasDeviceInfo()) {
+            return List.of();
+        }
+        DeviceInfoProto di = response.getDeviceInfo();
+        return List.of(
+                new DeviceId(new UUID(di.getDeviceIdMSB(), di.getDeviceIdLSB())),
+                new DeviceProfileId(new UUID(di.getDeviceProfileIdMSB(), di.getDeviceProfileIdLSB())),
+                TenantId.fromUUID(new UUID(di.getTenantIdMSB(), di.getTenantIdLSB()))
+        );
+    }
+
+    private record CachedResponse(ValidateDeviceCredentialsResponseMsg response, List<EntityId> entityIds, long version) {
+
+        boolean hasDevice() {
+            return !entityIds.isEmpty();
+        }
+
+    }
+
+}
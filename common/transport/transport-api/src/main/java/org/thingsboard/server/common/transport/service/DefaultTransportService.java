@@ -71,6 +71,7 @@ import org.thingsboard.server.common.transport.DeviceDeletedEvent;
 import org.thingsboard.server.common.transport.DeviceProfileUpdatedEvent;
 import org.thingsboard.server.common.transport.DeviceUpdatedEvent;
 import org.thingsboard.server.common.transport.SessionMsgListener;
+import org.thingsboard.server.common.transport.TransportCredentialsCache;
 import org.thingsboard.server.common.transport.TransportDeviceProfileCache;
 import org.thingsboard.server.common.transport.TransportResourceCache;
 import org.thingsboard.server.common.transport.TransportService;
@@ -100,6 +101,7 @@ import org.thingsboard.server.queue.TbQueueProducer;
 import org.thingsboard.server.queue.TbQueueRequestTemplate;
 import org.thingsboard.server.queue.common.AsyncCallbackTemplate;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.common.TbQueueBatchingProducer;
 import org.thingsboard.server.queue.common.TbRuleEngineProducerService;
 import org.thingsboard.server.queue.common.consumer.QueueConsumerManager;
 import org.thingsboard.server.queue.discovery.PartitionService;
@@ -111,6 +113,7 @@ import org.thingsboard.server.queue.scheduler.SchedulerComponent;
 import org.thingsboard.server.queue.util.AfterStartUp;
 import org.thingsboard.server.queue.util.TbTransportComponent;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -156,6 +159,14 @@ public class DefaultTransportService extends TransportActivityManager implements
     private int notificationsPollDuration;
     @Value("${transport.stats.enabled:false}")
     private boolean statsEnabled;
+    @Value("${transport.batching.enabled:false}")
+    private boolean batchingEnabled;
+    @Value("${transport.batching.max_size:100}")
+    private int batchingMaxSize;
+    @Value("${transport.batching.max_bytes:65536}")
+    private int batchingMaxBytes;
+    @Value("${transport.batching.linger_ms:5}")
+    private long batchingLingerMs;
 
     @Autowired
     @Lazy
@@ -173,6 +184,7 @@ public class DefaultTransportService extends TransportActivityManager implements
     private final StatsFactory statsFactory;
     private final TransportDeviceProfileCache deviceProfileCache;
     private final TransportTenantProfileCache tenantProfileCache;
+    private final TransportCredentialsCache credentialsCache;
 
     private final TransportRateLimitService rateLimitService;
     private final SchedulerComponent scheduler;
@@ -185,6 +197,7 @@ public class DefaultTransportService extends TransportActivityManager implements
     protected TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> ruleEngineMsgProducer;
     protected TbQueueProducer<TbProtoQueueMsg<ToCoreMsg>> tbCoreMsgProducer;
     protected QueueConsumerManager<TbProtoQueueMsg<ToTransportMsg>> transportNotificationsConsumer;
+    private final List<TbQueueBatchingProducer<?>> batchingProducers = new ArrayList<>();
 
     protected MessagesStats ruleEngineProducerStats;
     protected MessagesStats tbCoreProducerStats;
@@ -207,6 +220,18 @@ public class DefaultTransportService extends TransportActivityManager implements
         transportApiRequestTemplate.setMessagesStats(transportApiStats);
         ruleEngineMsgProducer = producerProvider.getRuleEngineMsgProducer();
         tbCoreMsgProducer = producerProvider.getTbCoreMsgProducer();
+        if (batchingEnabled) {
+            TbQueueBatchingProducer<ToRuleEngineMsg> ruleEngineBatchingProducer = new TbQueueBatchingProducer<>(StatsType.RULE_ENGINE.getName() + ".producer",
+                    ruleEngineMsgProducer, msgs -> ToRuleEngineMsg.newBuilder().addAllPackedMsgs(msgs).build(),
+                    batchingMaxSize, batchingMaxBytes, batchingLingerMs, scheduler, statsFactory);
+            TbQueueBatchingProducer<ToCoreMsg> tbCoreBatchingProducer = new TbQueueBatchingProducer<>(StatsType.CORE.getName() + ".producer",
+                    tbCoreMsgProducer, msgs -> ToCoreMsg.newBuilder().addAllPackedMsgs(msgs).build(),
+                    batchingMaxSize, batchingMaxBytes, batchingLingerMs, scheduler, statsFactory);
+            ruleEngineMsgProducer = ruleEngineBatchingProducer;
+            tbCoreMsgProducer = tbCoreBatchingProducer;
+            batchingProducers.add(ruleEngineBatchingProducer);
+            batchingProducers.add(tbCoreBatchingProducer);
+        }
         transportApiRequestTemplate.init();
         consumerExecutor = Executors.newSingleThreadExecutor(ThingsBoardThreadFactory.forName("transport-consumer"));
         transportNotificationsConsumer = QueueConsumerManager.<TbProtoQueueMsg<ToTransportMsg>>builder()
@@ -245,6 +270,7 @@ public class DefaultTransportService extends TransportActivityManager implements
         if (transportNotificationsConsumer != null) {
             transportNotificationsConsumer.stop();
         }
+        batchingProducers.forEach(TbQueueBatchingProducer::stop);
         if (transportCallbackExecutor != null) {
             transportCallbackExecutor.shutdownNow();
         }
@@ -355,7 +381,7 @@ public class DefaultTransportService extends TransportActivityManager implements
         log.trace("Processing msg: {}", msg);
         TbProtoQueueMsg<TransportApiRequestMsg> protoMsg = new TbProtoQueueMsg<>(UUID.randomUUID(),
                 TransportApiRequestMsg.newBuilder().setValidateTokenRequestMsg(msg).build());
-        doProcess(transportType, protoMsg, callback);
+        doProcess(transportType, protoMsg, true, callback);
     }
 
     @Override
@@ -364,7 +390,7 @@ public class DefaultTransportService extends TransportActivityManager implements
         log.trace("Processing msg: {}", msg);
         TbProtoQueueMsg<TransportApiRequestMsg> protoMsg = new TbProtoQueueMsg<>(UUID.randomUUID(),
                 TransportApiRequestMsg.newBuilder().setValidateBasicMqttCredRequestMsg(msg).build());
-        doProcess(transportType, protoMsg, callback);
+        doProcess(transportType, protoMsg, true, callback);
     }
 
     @Override
@@ -392,20 +418,34 @@ public class DefaultTransportService extends TransportActivityManager implements
     public void process(DeviceTransportType transportType, TransportProtos.ValidateDeviceX509CertRequestMsg msg, TransportServiceCallback<ValidateDeviceCredentialsResponse> callback) {
         log.trace("Processing msg: {}", msg);
         TbProtoQueueMsg<TransportApiRequestMsg> protoMsg = new TbProtoQueueMsg<>(UUID.randomUUID(), TransportApiRequestMsg.newBuilder().setValidateX509CertRequestMsg(msg).build());
-        doProcess(transportType, protoMsg, callback);
+        doProcess(transportType, protoMsg, true, callback);
     }
 
     @Override
     public void process(DeviceTransportType transportType, TransportProtos.ValidateOrCreateDeviceX509CertRequestMsg msg, TransportServiceCallback<ValidateDeviceCredentialsResponse> callback) {
         log.trace("Processing msg: {}", msg);
         TbProtoQueueMsg<TransportApiRequestMsg> protoMsg = new TbProtoQueueMsg<>(UUID.randomUUID(), TransportApiRequestMsg.newBuilder().setValidateOrCreateX509CertRequestMsg(msg).build());
-        doProcess(transportType, protoMsg, callback);
+        // not cached, since the request may provision a new device
+        doProcess(transportType, protoMsg, false, callback);
     }
 
-    private void doProcess(DeviceTransportType transportType, TbProtoQueueMsg<TransportApiRequestMsg> protoMsg,
+    private void doProcess(DeviceTransportType transportType, TbProtoQueueMsg<TransportApiRequestMsg> protoMsg, boolean cacheable,
                            TransportServiceCallback<ValidateDeviceCredentialsResponse> callback) {
-        ListenableFuture<ValidateDeviceCredentialsResponse> response = Futures.transform(transportApiRequestTemplate.send(protoMsg), tmp -> {
-            TransportProtos.ValidateDeviceCredentialsResponseMsg msg = tmp.getValue().getValidateCredResponseMsg();
+        ListenableFuture<TransportProtos.ValidateDeviceCredentialsResponseMsg> responseMsg;
+        TransportProtos.ValidateDeviceCredentialsResponseMsg cachedMsg = cacheable ? credentialsCache.get(protoMsg.getValue()) : null;
+        if (cachedMsg != null) {
+            responseMsg = Futures.immediateFuture(cachedMsg);
+        } else {
+            long cacheVersion = credentialsCache.getVersion();
+            responseMsg = Futures.transform(transportApiRequestTemplate.send(protoMsg), tmp -> {
+                TransportProtos.ValidateDeviceCredentialsResponseMsg msg = tmp.getValue().getValidateCredResponseMsg();
+                if (cacheable) {
+                    credentialsCache.put(protoMsg.getValue(), msg, cacheVersion);
+                }
+                return msg;
+            }, MoreExecutors.directExecutor());
+        }
+        ListenableFuture<ValidateDeviceCredentialsResponse> response = Futures.transform(responseMsg, msg -> {
             ValidateDeviceCredentialsResponse.ValidateDeviceCredentialsResponseBuilder result = ValidateDeviceCredentialsResponse.builder();
             if (msg.hasDeviceInfo()) {
                 result.credentials(msg.getCredentialsBody());
@@ -806,6 +846,7 @@ public class DefaultTransportService extends TransportActivityManager implements
             currentSession.getScheduledFuture().cancel(false);
         }
         sessions.remove(toSessionId(sessionInfo));
+        onStateRemoval(toSessionId(sessionInfo));
     }
 
     @Override
@@ -925,14 +966,17 @@ public class DefaultTransportService extends TransportActivityManager implements
                 UUID entityUuid = new UUID(msg.getEntityIdMSB(), msg.getEntityIdLSB());
                 if (EntityType.DEVICE_PROFILE.equals(entityType)) {
                     deviceProfileCache.evict(new DeviceProfileId(new UUID(msg.getEntityIdMSB(), msg.getEntityIdLSB())));
+                    credentialsCache.evict(new DeviceProfileId(entityUuid));
                 } else if (EntityType.TENANT_PROFILE.equals(entityType)) {
                     tenantProfileCache.remove(new TenantProfileId(entityUuid));
                 } else if (EntityType.TENANT.equals(entityType)) {
                     TenantId tenantId = TenantId.fromUUID(entityUuid);
                     rateLimitService.remove(tenantId);
                     partitionService.removeTenant(tenantId);
+                    credentialsCache.evict(tenantId);
                 } else if (EntityType.DEVICE.equals(entityType)) {
                     rateLimitService.remove(new DeviceId(entityUuid));
+                    credentialsCache.evict(new DeviceId(entityUuid));
                     onDeviceDeleted(new DeviceId(entityUuid));
                 }
             } else if (toSessionMsg.hasResourceUpdateMsg()) {
@@ -993,6 +1037,7 @@ public class DefaultTransportService extends TransportActivityManager implements
             case DEVICEPROFILE:
                 DeviceProfile deviceProfile = deviceProfileCache.put(msg.getDeviceProfile());
                 log.debug("On device profile update: {}", deviceProfile);
+                credentialsCache.evict(deviceProfile.getId());
                 onProfileUpdate(deviceProfile);
                 break;
             case TENANTPROFILE:
@@ -1012,7 +1057,13 @@ public class DefaultTransportService extends TransportActivityManager implements
                 //TODO: if transport is disabled, we should close all sessions and not to check credentials.
                 break;
             case DEVICE:
-                onDeviceUpdate(ProtoUtils.fromProto(msg.getDevice()));
+                Device device = ProtoUtils.fromProto(msg.getDevice());
+                credentialsCache.evict(device.getId());
+                onDeviceUpdate(device);
+                break;
+            case DEVICECREDENTIALS:
+                TransportProtos.DeviceCredentialsProto deviceCredentials = msg.getDeviceCredentials();
+                credentialsCache.evict(new DeviceId(new UUID(deviceCredentials.getDeviceIdMSB(), deviceCredentials.getDeviceIdLSB())));
                 break;
             default:
                 log.warn("UNKNOWN entity update type: [{}]", msg.getEntityUpdateCase());
@@ -1269,5 +1320,8 @@ public class DefaultTransportService extends TransportActivityManager implements
                     .map(kv -> kv.getKey() + " [" + kv.getValue() + "]").collect(Collectors.joining(", "));
             log.info("Transport Stats: {}", values);
         }
+        if (statsEnabled) {
+            batchingProducers.forEach(TbQueueBatchingProducer::printStats);
+        }
     }
 }
@@ -57,6 +57,11 @@ public abstract class TransportActivityManager extends AbstractActivityManager<U
         return sessionReportTimeout;
     }
 
+    @Override
+    protected long getInactivityTimeoutMillis() {
+        return sessionInactivityTimeout;
+    }
+
     @Override
     protected ActivityStrategy getStrategy() {
         return reportingStrategyType.toStrategy();
@@ -91,6 +96,11 @@ public abstract class TransportActivityManager extends AbstractActivityManager<U
         return state;
     }
 
+    @Override
+    protected boolean isStateDerived(UUID sessionId, TransportProtos.SessionInfoProto sessionInfo) {
+        return sessionInfo != null && sessionInfo.getGwSessionIdMSB() != 0L && sessionInfo.getGwSessionIdLSB() != 0L;
+    }
+
     @Override
     protected boolean hasExpired(long lastRecordedTime) {
         return (getCurrentTimeMillis() - sessionInactivityTimeout) > lastRecordedTime;
@@ -131,6 +141,7 @@ public abstract class TransportActivityManager extends AbstractActivityManager<U
         });
     }
 
+    @Override
     protected long getCurrentTimeMillis() {
         return System.currentTimeMillis();
     }
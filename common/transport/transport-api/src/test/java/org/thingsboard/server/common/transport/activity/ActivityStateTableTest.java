@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport.activity;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.transport.activity.strategy.ActivityStrategy;
+import org.thingsboard.server.common.transport.activity.strategy.LastEventActivityStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ActivityStateTableTest {
+
+    private final ActivityStateTable<String, String> table = new ActivityStateTable<>();
+
+    @Test
+    public void givenActivity_whenForEachPending_thenSlotIsVisitedOnce() {
+        table.onActivity("a", "meta", 100L, LastEventActivityStrategy::getInstance, false);
+        table.onActivity("a", "meta", 50L, LastEventActivityStrategy::getInstance, false);
+
+        List<Integer> visited = pending();
+
+        assertThat(visited).hasSize(1);
+        int slot = visited.get(0);
+        assertThat(table.getKey(slot)).isEqualTo("a");
+        assertThat(table.getMetadata(slot)).isEqualTo("meta");
+        assertThat(table.getLastRecordedTime(slot)).isEqualTo(100L);
+        assertThat(pending()).isEmpty();
+    }
+
+    @Test
+    public void givenDerivedState_whenForEachPending_thenSlotIsVisitedEachTime() {
+        table.onActivity("a", "meta", 100L, LastEventActivityStrategy::getInstance, true);
+
+        assertThat(pending()).hasSize(1);
+        assertThat(pending()).hasSize(1);
+    }
+
+    @Test
+    public void givenRemovedKey_whenNewKeyAdded_thenSlotIsReused() {
+        table.onActivity("a", "meta", 100L, LastEventActivityStrategy::getInstance, false);
+        int slot = pending().get(0);
+
+        assertThat(table.remove("a", slot)).isTrue();
+        assertThat(table.contains("a")).isFalse();
+        assertThat(table.getKey(slot)).isNull();
+
+        table.onActivity("b", "meta", 200L, LastEventActivityStrategy::getInstance, false);
+
+        assertThat(pending()).containsExactly(slot);
+        assertThat(table.getKey(slot)).isEqualTo("b");
+        assertThat(table.getLastReportedTime(slot)).isZero();
+        assertThat(table.capacity()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenReportedTime_whenOnActivityWithSameTime_thenNothingToReport() {
+        assertThat(table.onActivity("a", "meta", 100L, () -> new TestStrategy(true), false)).isEqualTo(100L);
+        table.updateLastReportedTime("a", 100L);
+
+        assertThat(table.onActivity("a", "meta", 100L, () -> new TestStrategy(true), false)).isZero();
+        assertThat(table.onActivity("a", "meta", 150L, () -> new TestStrategy(true), false)).isEqualTo(150L);
+    }
+
+    @Test
+    public void givenExpirationTime_whenAdvanceExpiryWheel_thenSlotIsDueAfterExpiration() {
+        var wheel = new ActivityExpiryWheel(10L, 100L);
+        List<Integer> due = new ArrayList<>();
+        wheel.advance(0, due::add);
+        wheel.schedule(7, 95L, 0);
+
+        wheel.advance(9, due::add);
+        assertThat(due).isEmpty();
+        assertThat(wheel.isScheduled(7)).isTrue();
+
+        wheel.advance(10, due::add);
+        assertThat(due).containsExactly(7);
+        assertThat(wheel.isScheduled(7)).isFalse();
+    }
+
+    private List<Integer> pending() {
+        List<Integer> slots = new ArrayList<>();
+        table.forEachPending(slots::add);
+        return slots;
+    }
+
+    private record TestStrategy(boolean reportOnActivity) implements ActivityStrategy {
+
+        @Override
+        public boolean onActivity() {
+            return reportOnActivity;
+        }
+
+        @Override
+        public boolean onReportingPeriodEnd() {
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport.service;
+
+import io.micrometer.core.instrument.Counter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.DeviceProfileId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.gen.transport.TransportProtos.TransportApiRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceCredentialsResponseMsg;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DefaultTransportCredentialsCacheTest {
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+    private final DeviceProfileId deviceProfileId = new DeviceProfileId(UUID.randomUUID());
+
+    private StatsFactory statsFactory;
+    private DefaultTransportCredentialsCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        statsFactory = mock(StatsFactory.class);
+        when(statsFactory.createStatsCounter(anyString(), anyString())).thenAnswer(invocation ->
+                new StatsCounter(new AtomicInteger(), mock(Counter.class), invocation.getArgument(1)));
+        cache = new DefaultTransportCredentialsCache(true, 1000, 300, 10, false, statsFactory);
+    }
+
+    @Test
+    public void testValidationResultIsCached() {
+        TransportApiRequestMsg request = tokenRequest("token");
+        ValidateDeviceCredentialsResponseMsg response = deviceResponse();
+        assertThat(cache.get(request)).isNull();
+
+        cache.put(request, response, cache.getVersion());
+
+        assertThat(cache.get(request)).isEqualTo(response);
+        assertThat(cache.get(tokenRequest("other"))).isNull();
+    }
+
+    @Test
+    public void testValidationResultIsEvictedOnDeviceProfileOrTenantUpdate() {
+        TransportApiRequestMsg request = tokenRequest("token");
+
+        cache.put(request, deviceResponse(), cache.getVersion());
+        cache.evict(deviceId);
+        assertThat(cache.get(request)).isNull();
+
+        cache.put(request, deviceResponse(), cache.getVersion());
+        cache.evict(deviceProfileId);
+        assertThat(cache.get(request)).isNull();
+
+        cache.put(request, deviceResponse(), cache.getVersion());
+        cache.evict(tenantId);
+        assertThat(cache.get(request)).isNull();
+
+        cache.put(request, deviceResponse(), cache.getVersion());
+        cache.evict(new DeviceId(UUID.randomUUID()));
+        assertThat(cache.get(request)).isNotNull();
+    }
+
+    @Test
+    public void testResponseReceivedBeforeEvictionIsNotCached() {
+        TransportApiRequestMsg request = tokenRequest("token");
+        long version = cache.getVersion();
+
+        cache.evict(deviceId);
+        cache.put(request, deviceResponse(), version);
+
+        assertThat(cache.get(request)).isNull();
+    }
+
+    @Test
+    public void testUnknownCredentialsAreEvictedOnAnyDeviceUpdate() {
+        TransportApiRequestMsg request = tokenRequest("unknown");
+        ValidateDeviceCredentialsResponseMsg response = ValidateDeviceCredentialsResponseMsg.getDefaultInstance();
+
+        cache.put(request, response, cache.getVersion());
+        cache.evict(deviceProfileId);
+        assertThat(cache.get(request)).isEqualTo(response);
+
+        cache.evict(new DeviceId(UUID.randomUUID()));
+        assertThat(cache.get(request)).isNull();
+    }
+
+    @Test
+    public void testDisabledCache() {
+        cache = new DefaultTransportCredentialsCache(false, 1000, 300, 10, false, statsFactory);
+        TransportApiRequestMsg request = tokenRequest("token");
+
+        cache.put(request, deviceResponse(), cache.getVersion());
+
+        assertThat(cache.get(request)).isNull();
+    }
+
+    private static TransportApiRequestMsg tokenRequest(String token) {
+        return TransportApiRequestMsg.newBuilder()
+                .setValidateTokenRequestMsg(TransportProtos.ValidateDeviceTokenRequestMsg.newBuilder().setToken(token))
+                .build();
+    }
+
+    private ValidateDeviceCredentialsResponseMsg deviceResponse() {
+        return ValidateDeviceCredentialsResponseMsg.newBuilder()
+                .setDeviceInfo(TransportProtos.DeviceInfoProto.newBuilder()
+                        .setTenantIdMSB(tenantId.getId().getMostSignificantBits())
+                        .setTenantIdLSB(tenantId.getId().getLeastSignificantBits())
+                        .setDeviceIdMSB(deviceId.getId().getMostSignificantBits())
+                        .setDeviceIdLSB(deviceId.getId().getLeastSignificantBits())
+                        .setDeviceProfileIdMSB(deviceProfileId.getId().getMostSignificantBits())
+                        .setDeviceProfileIdLSB(deviceProfileId.getId().getLeastSignificantBits())
+                        .setDeviceName("device"))
+                .build();
+    }
+
+}
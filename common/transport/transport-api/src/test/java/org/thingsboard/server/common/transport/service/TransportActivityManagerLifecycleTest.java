@@ -0,0 +1,206 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.transport.SessionMsgListener;
+import org.thingsboard.server.common.transport.TransportServiceCallback;
+import org.thingsboard.server.common.transport.activity.strategy.ActivityStrategyType;
+import org.thingsboard.server.gen.transport.TransportProtos;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Runs the activity manager through consecutive reporting periods with a controlled clock.
+ */
+public class TransportActivityManagerLifecycleTest {
+
+    private static final long REPORTING_PERIOD = 1000L;
+    private static final long INACTIVITY_TIMEOUT = 5000L;
+
+    private final UUID SESSION_ID = UUID.fromString("1306648a-9b26-11ee-b9d1-0242ac120002");
+    private final UUID GW_SESSION_ID = UUID.fromString("2306648a-9b26-11ee-b9d1-0242ac120002");
+
+    private TransportActivityManager manager;
+    private long currentTime;
+    private final AtomicInteger failuresToReport = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() {
+        manager = mock(TransportActivityManager.class, withSettings().useConstructor().defaultAnswer(CALLS_REAL_METHODS));
+        ReflectionTestUtils.setField(manager, "sessionReportTimeout", REPORTING_PERIOD);
+        ReflectionTestUtils.setField(manager, "sessionInactivityTimeout", INACTIVITY_TIMEOUT);
+        ReflectionTestUtils.setField(manager, "reportingStrategyType", ActivityStrategyType.LAST);
+        currentTime = 100 * REPORTING_PERIOD;
+        doAnswer(inv -> currentTime).when(manager).getCurrentTimeMillis();
+        doAnswer(inv -> {
+            TransportServiceCallback<Void> callback = inv.getArgument(2);
+            if (failuresToReport.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+                callback.onError(new RuntimeException("Queue is unavailable"));
+            } else {
+                callback.onSuccess(null);
+            }
+            return null;
+        }).when(manager).process(any(TransportProtos.SessionInfoProto.class), any(TransportProtos.SubscriptionInfoProto.class), any());
+    }
+
+    @Test
+    void givenIdleSession_whenReportingPeriodsEnd_thenExpiresOnceAfterInactivityTimeout() {
+        // GIVEN
+        SessionMsgListener listener = registerSession(SESSION_ID, sessionInfo(SESSION_ID));
+        long activityTime = currentTime;
+        manager.onActivity(SESSION_ID, sessionInfo(SESSION_ID), activityTime);
+
+        // WHEN-THEN
+        while (currentTime < activityTime + INACTIVITY_TIMEOUT) {
+            endReportingPeriod();
+            verify(listener, never()).onRemoteSessionCloseCommand(any(), any());
+        }
+        assertThat(manager.sessions).containsKey(SESSION_ID);
+
+        endReportingPeriod();
+        verify(listener).onRemoteSessionCloseCommand(SESSION_ID, TransportActivityManager.SESSION_EXPIRED_NOTIFICATION_PROTO);
+        assertThat(manager.sessions).doesNotContainKey(SESSION_ID);
+        assertThat(manager.getLastRecordedTime(SESSION_ID)).isZero();
+
+        for (int i = 0; i < 10; i++) {
+            endReportingPeriod();
+        }
+        verify(listener).onRemoteSessionCloseCommand(any(), any());
+        verify(manager).process(any(TransportProtos.SessionInfoProto.class), argThat(lastActivityTime(activityTime)), any());
+    }
+
+    @Test
+    void givenSubDeviceOfGatewayWithOverwrittenActivityTime_whenGatewayIsActive_thenSubDeviceDoesNotExpire() {
+        // GIVEN
+        registerSession(GW_SESSION_ID, sessionInfo(GW_SESSION_ID));
+        manager.sessions.get(GW_SESSION_ID).setOverwriteActivityTime(true);
+        TransportProtos.SessionInfoProto subDeviceSessionInfo = sessionInfo(SESSION_ID).toBuilder()
+                .setGwSessionIdMSB(GW_SESSION_ID.getMostSignificantBits())
+                .setGwSessionIdLSB(GW_SESSION_ID.getLeastSignificantBits())
+                .build();
+        SessionMsgListener subDeviceListener = registerSession(SESSION_ID, subDeviceSessionInfo);
+        manager.onActivity(SESSION_ID, subDeviceSessionInfo, currentTime);
+
+        // WHEN
+        for (int i = 0; i < 4 * INACTIVITY_TIMEOUT / REPORTING_PERIOD; i++) {
+            manager.onActivity(GW_SESSION_ID, sessionInfo(GW_SESSION_ID), currentTime);
+            endReportingPeriod();
+        }
+
+        // THEN
+        verify(subDeviceListener, never()).onRemoteSessionCloseCommand(any(), any());
+        assertThat(manager.sessions).containsKey(SESSION_ID);
+        assertThat(manager.getLastRecordedTime(SESSION_ID)).isEqualTo(manager.getLastRecordedTime(GW_SESSION_ID));
+    }
+
+    @Test
+    void givenDeregisteredSessionWithUnreportedActivity_whenReportingPeriodEnds_thenLastActivityReportedAndStateRemoved() {
+        // GIVEN
+        registerSession(SESSION_ID, sessionInfo(SESSION_ID));
+        manager.onActivity(SESSION_ID, sessionInfo(SESSION_ID), currentTime);
+        endReportingPeriod();
+        long lastActivityTime = currentTime;
+        manager.onActivity(SESSION_ID, sessionInfo(SESSION_ID), lastActivityTime);
+
+        // WHEN
+        deregisterSession(SESSION_ID);
+        endReportingPeriod();
+
+        // THEN
+        verify(manager).process(eq(sessionInfo(SESSION_ID)), argThat(lastActivityTime(lastActivityTime)), any());
+        assertThat(manager.getLastRecordedTime(SESSION_ID)).isZero();
+    }
+
+    @Test
+    void givenDeregisteredIdleSession_whenReportingPeriodEnds_thenStateRemovedWithoutReport() {
+        // GIVEN
+        registerSession(SESSION_ID, sessionInfo(SESSION_ID));
+        manager.onActivity(SESSION_ID, sessionInfo(SESSION_ID), currentTime);
+        endReportingPeriod();
+
+        // WHEN
+        deregisterSession(SESSION_ID);
+        endReportingPeriod();
+
+        // THEN
+        assertThat(manager.getLastRecordedTime(SESSION_ID)).isZero();
+        verify(manager, times(1)).process(any(TransportProtos.SessionInfoProto.class), any(TransportProtos.SubscriptionInfoProto.class), any());
+    }
+
+    @Test
+    void givenFailedReportOnReportingPeriodEnd_whenNextReportingPeriodEnds_thenReportRetried() {
+        // GIVEN
+        registerSession(SESSION_ID, sessionInfo(SESSION_ID));
+        long activityTime = currentTime;
+        manager.onActivity(SESSION_ID, sessionInfo(SESSION_ID), activityTime);
+        failuresToReport.set(1);
+
+        // WHEN
+        endReportingPeriod();
+        endReportingPeriod();
+        endReportingPeriod();
+
+        // THEN
+        verify(manager, times(2)).process(any(TransportProtos.SessionInfoProto.class), argThat(lastActivityTime(activityTime)), any());
+        verify(manager, times(2)).process(any(TransportProtos.SessionInfoProto.class), any(TransportProtos.SubscriptionInfoProto.class), any());
+    }
+
+    private void endReportingPeriod() {
+        currentTime += REPORTING_PERIOD;
+        manager.onReportingPeriodEnd();
+    }
+
+    private SessionMsgListener registerSession(UUID sessionId, TransportProtos.SessionInfoProto sessionInfo) {
+        SessionMsgListener listener = mock(SessionMsgListener.class);
+        manager.sessions.put(sessionId, new SessionMetaData(sessionInfo, TransportProtos.SessionType.ASYNC, listener));
+        return listener;
+    }
+
+    // the same as DefaultTransportService.deregisterSession does
+    private void deregisterSession(UUID sessionId) {
+        manager.sessions.remove(sessionId);
+        ReflectionTestUtils.invokeMethod(manager, "onStateRemoval", sessionId);
+    }
+
+    private static TransportProtos.SessionInfoProto sessionInfo(UUID sessionId) {
+        return TransportProtos.SessionInfoProto.newBuilder()
+                .setSessionIdMSB(sessionId.getMostSignificantBits())
+                .setSessionIdLSB(sessionId.getLeastSignificantBits())
+                .build();
+    }
+
+    private static ArgumentMatcher<TransportProtos.SubscriptionInfoProto> lastActivityTime(long time) {
+        return subscriptionInfo -> subscriptionInfo != null && subscriptionInfo.getLastActivityTime() == time;
+    }
+
+}
@@ -30,6 +30,7 @@ import org.thingsboard.server.common.transport.SessionMsgListener;
 import org.thingsboard.server.common.transport.TransportServiceCallback;
 import org.thingsboard.server.common.transport.activity.ActivityReportCallback;
 import org.thingsboard.server.common.transport.activity.ActivityState;
+import org.thingsboard.server.common.transport.activity.ActivityStateTable;
 import org.thingsboard.server.common.transport.activity.strategy.ActivityStrategy;
 import org.thingsboard.server.common.transport.activity.strategy.ActivityStrategyType;
 import org.thingsboard.server.gen.transport.TransportProtos;
@@ -68,7 +69,7 @@ public class TransportActivityManagerTest {
     @Test
     void givenFirstActivityForAlreadyRemovedSessionAndFirstEventReportingStrategy_whenOnActivity_thenShouldRecordActivityAndReport() {
         // GIVEN
-        ConcurrentMap<UUID, Object> states = new ConcurrentHashMap<>();
+        ActivityStateTable<UUID, TransportProtos.SessionInfoProto> states = new ActivityStateTable<>();
         ReflectionTestUtils.setField(transportServiceMock, "states", states);
 
         var strategyMock = mock(ActivityStrategy.class);
@@ -88,7 +89,7 @@ public class TransportActivityManagerTest {
         transportServiceMock.onActivity(SESSION_ID, sessionInfo, activityTime);
 
         // THEN
-        assertThat(states).containsKey(SESSION_ID);
+        assertThat(states.contains(SESSION_ID)).isTrue();
         assertThat(transportServiceMock.getLastRecordedTime(SESSION_ID)).isEqualTo(activityTime);
         verify(transportServiceMock).reportActivity(eq(SESSION_ID), eq(sessionInfo), eq(activityTime), any(ActivityReportCallback.class));
     }
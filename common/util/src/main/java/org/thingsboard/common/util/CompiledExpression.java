@@ -0,0 +1,267 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.common.util;
+
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.operator.Operators;
+import net.objecthunter.exp4j.shuntingyard.ShuntingYard;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Arithmetic expression compiled into a tree of closures.
+ * <p>
+ * The expression is parsed by exp4j with the same functions and operators as {@link ExpressionUtils#createExpression},
+ * but is evaluated without the exp4j operand stack and variables map: variable values are passed by index,
+ * and constant subexpressions are folded at compile time. The instance holds no evaluation state,
+ * so it can be shared between threads. Expressions that can not be compiled are evaluated by exp4j.
+ */
+public final class CompiledExpression {
+
+    private static final Map<String, Double> CONSTANTS = Map.of(
+            "pi", Math.PI,
+            "π", Math.PI,
+            "e", Math.E,
+            "φ", 1.61803398874d
+    );
+
+    private final List<String> variables;
+    private final Node root;
+    private final ThreadLocal<Expression> fallback;
+
+    private CompiledExpression(List<String> variables, Node root, ThreadLocal<Expression> fallback) {
+        this.variables = variables;
+        this.root = root;
+        this.fallback = fallback;
+    }
+
+    static CompiledExpression compile(String expression, List<String> variables) {
+        List<String> variablesCopy = List.copyOf(variables);
+        Node root;
+        try {
+            // the exp4j expression is built to apply exactly the same validation
+            ExpressionUtils.createExpression(expression, new HashSet<>(variablesCopy));
+            root = compile(toRpn(expression, variablesCopy), variablesCopy);
+        } catch (Exception e) {
+            root = null;
+        }
+        if (root != null) {
+            return new CompiledExpression(variablesCopy, root, null);
+        }
+        return new CompiledExpression(variablesCopy, null, ThreadLocal.withInitial(() ->
+                ExpressionUtils.createExpression(expression, new HashSet<>(variablesCopy))));
+    }
+
+    /**
+     * @param values values of the variables, in the order of {@link #getVariables()}
+     */
+    public double evaluate(double... values) {
+        if (root != null) {
+            return root.evaluate(values);
+        }
+        Expression expression = fallback.get();
+        for (int i = 0; i < variables.size(); i++) {
+            expression.setVariable(variables.get(i), values[i]);
+        }
+        return expression.evaluate();
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    public boolean isCompiled() {
+        return root != null;
+    }
+
+    public void destroy() {
+        if (fallback != null) {
+            fallback.remove();
+        }
+    }
+
+    private static Token[] toRpn(String expression, List<String> variables) {
+        Map<String, Function> functions = new HashMap<>();
+        for (Function function : ExpressionUtils.userDefinedFunctions) {
+            functions.put(function.getName(), function);
+        }
+        Set<String> variableNames = new HashSet<>(variables);
+        variableNames.addAll(CONSTANTS.keySet());
+        return ShuntingYard.convertToRPN(expression, functions, Collections.emptyMap(), variableNames, true);
+    }
+
+    private static Node compile(Token[] tokens, List<String> variables) {
+        Deque<Node> stack = new ArrayDeque<>();
+        for (Token token : tokens) {
+            switch (token.getType()) {
+                case Token.TOKEN_NUMBER -> stack.push(new Constant(((NumberToken) token).getValue()));
+                case Token.TOKEN_VARIABLE -> stack.push(variable(((VariableToken) token).getName(), variables));
+                case Token.TOKEN_OPERATOR -> {
+                    Operator operator = ((OperatorToken) token).getOperator();
+                    int numOperands = operator.getNumOperands();
+                    if (stack.size() < numOperands) {
+                        throw new IllegalArgumentException("Invalid number of operands available for '" + operator.getSymbol() + "' operator");
+                    }
+                    if (numOperands == 2) {
+                        Node right = stack.pop();
+                        Node left = stack.pop();
+                        stack.push(fold(binary(operator, left, right), left, right));
+                    } else if (numOperands == 1) {
+                        Node operand = stack.pop();
+                        stack.push(fold(unary(operator, operand), operand));
+                    } else {
+                        throw new IllegalArgumentException("Unsupported number of operands for '" + operator.getSymbol() + "' operator");
+                    }
+                }
+                case Token.TOKEN_FUNCTION -> {
+                    Function function = ((FunctionToken) token).getFunction();
+                    int numArguments = function.getNumArguments();
+                    if (stack.size() < numArguments) {
+                        throw new IllegalArgumentException("Invalid number of arguments available for '" + function.getName() + "' function");
+                    }
+                    Node[] args = new Node[numArguments];
+                    for (int i = numArguments - 1; i >= 0; i--) {
+                        args[i] = stack.pop();
+                    }
+                    stack.push(fold(function(function, args), args));
+                }
+                default -> throw new IllegalArgumentException("Unexpected token type: " + token.getType());
+            }
+        }
+        if (stack.size() != 1) {
+            throw new IllegalArgumentException("Invalid number of items on the output queue. Might be caused by an invalid number of arguments for a function.");
+        }
+        return stack.pop();
+    }
+
+    private static Node variable(String name, List<String> variables) {
+        int idx = variables.indexOf(name);
+        if (idx >= 0) {
+            return values -> values[idx];
+        }
+        Double constant = CONSTANTS.get(name);
+        if (constant == null) {
+            throw new IllegalArgumentException("Unknown variable: " + name);
+        }
+        return new Constant(constant);
+    }
+
+    private static Node binary(Operator operator, Node left, Node right) {
+        if (isBuiltin(operator)) {
+            switch (operator.getSymbol()) {
+                case "+":
+                    return values -> left.evaluate(values) + right.evaluate(values);
+                case "-":
+                    return values -> left.evaluate(values) - right.evaluate(values);
+                case "*":
+                    return values -> left.evaluate(values) * right.evaluate(values);
+                default:
+                    break;
+            }
+        }
+        // division and modulo keep the exp4j checks, e.g. for division by zero
+        return values -> operator.apply(left.evaluate(values), right.evaluate(values));
+    }
+
+    private static Node unary(Operator operator, Node operand) {
+        if (isBuiltin(operator)) {
+            switch (operator.getSymbol()) {
+                case "-":
+                    return values -> -operand.evaluate(values);
+                case "+":
+                    return operand;
+                default:
+                    break;
+            }
+        }
+        return values -> operator.apply(operand.evaluate(values));
+    }
+
+    private static Node function(Function function, Node[] args) {
+        return switch (args.length) {
+            case 0 -> values -> function.apply();
+            case 1 -> {
+                Node arg = args[0];
+                yield values -> function.apply(arg.evaluate(values));
+            }
+            case 2 -> {
+                Node arg0 = args[0];
+                Node arg1 = args[1];
+                yield values -> function.apply(arg0.evaluate(values), arg1.evaluate(values));
+            }
+            default -> values -> {
+                double[] argValues = new double[args.length];
+                for (int i = 0; i < args.length; i++) {
+                    argValues[i] = args[i].evaluate(values);
+                }
+                return function.apply(argValues);
+            };
+        };
+    }
+
+    private static boolean isBuiltin(Operator operator) {
+        String symbol = operator.getSymbol();
+        return symbol.length() == 1 && operator == Operators.getBuiltinOperator(symbol.charAt(0), operator.getNumOperands());
+    }
+
+    private static Node fold(Node node, Node... operands) {
+        if (operands.length == 0) {
+            return node;
+        }
+        for (Node operand : operands) {
+            if (!(operand instanceof Constant)) {
+                return node;
+            }
+        }
+        try {
+            return new Constant(node.evaluate(null));
+        } catch (RuntimeException e) {
+            // e.g. division by zero, which must fail on evaluation
+            return node;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Node {
+
+        double evaluate(double[] values);
+
+    }
+
+    private record Constant(double value) implements Node {
+
+        @Override
+        public double evaluate(double[] values) {
+            return value;
+        }
+
+    }
+
+}
@@ -87,4 +87,8 @@ public class ExpressionUtils {
                 .build();
     }
 
+    public static CompiledExpression compileExpression(String expression, List<String> variables) {
+        return CompiledExpression.compile(expression, variables);
+    }
+
 }
@@ -15,6 +15,8 @@
  */
 package org.thingsboard.common.util.geo;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
@@ -22,12 +24,12 @@ import lombok.NonNull;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 import org.locationtech.jts.geom.util.GeometryFixer;
-import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
 import org.locationtech.spatial4j.distance.DistanceUtils;
-import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.SpatialRelation;
 import org.locationtech.spatial4j.shape.jts.JtsGeometry;
 
@@ -38,40 +40,54 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class GeoUtil {
 
-    private static final SpatialContext distCtx = SpatialContext.GEO;
     private static final JtsSpatialContext jtsCtx;
 
+    /*
+     * Parsing a polygon definition and building its geometry is much more expensive than the check itself,
+     * so the prepared geometries are cached by the definition string. Prepared geometries are thread-safe.
+     */
+    private static final Cache<String, PreparedGeometry> preparedPolygons = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
+
     static {
         JtsSpatialContextFactory factory = new JtsSpatialContextFactory();
         factory.normWrapLongitude = true;
         jtsCtx = factory.newSpatialContext();
     }
 
-    public static synchronized double distance(Coordinates x, Coordinates y, RangeUnit unit) {
-        Point xLL = distCtx.getShapeFactory().pointXY(x.getLongitude(), x.getLatitude());
-        Point yLL = distCtx.getShapeFactory().pointXY(y.getLongitude(), y.getLatitude());
-        return unit.fromKm(distCtx.getDistCalc().distance(xLL, yLL) * DistanceUtils.DEG_TO_KM);
+    public static double distance(Coordinates x, Coordinates y, RangeUnit unit) {
+        double distanceRad = DistanceUtils.distHaversineRAD(
+                Math.toRadians(x.getLatitude()), Math.toRadians(x.getLongitude()),
+                Math.toRadians(y.getLatitude()), Math.toRadians(y.getLongitude()));
+        return unit.fromKm(DistanceUtils.radians2Dist(distanceRad, DistanceUtils.EARTH_MEAN_RADIUS_KM));
     }
 
-    public static synchronized boolean contains(@NonNull String polygonInString, @NonNull Coordinates coordinates) {
+    public static boolean contains(@NonNull String polygonInString, @NonNull Coordinates coordinates) {
         if (polygonInString.isEmpty() || polygonInString.isBlank()) {
             throw new RuntimeException("Polygon string can't be empty or null!");
         }
 
+        PreparedGeometry polygon = preparedPolygons.get(polygonInString, GeoUtil::buildPreparedPolygon);
+        var point = jtsCtx.getShapeFactory().getGeometryFactory()
+                .createPoint(new Coordinate(coordinates.getLatitude(), coordinates.getLongitude()));
+
+        return polygon.contains(point);
+    }
+
+    private static PreparedGeometry buildPreparedPolygon(String polygonInString) {
         JsonArray polygonsJson = normalizePolygonsJson(JsonParser.parseString(polygonInString).getAsJsonArray());
         List<Geometry> polygons = buildPolygonsFromJson(polygonsJson);
         Set<Geometry> holes = extractHolesFrom(polygons);
         polygons.removeIf(holes::contains);
 
-        Geometry globalGeometry = unionToGlobalGeometry(polygons, holes);
-        var point = jtsCtx.getShapeFactory().getGeometryFactory()
-                .createPoint(new Coordinate(coordinates.getLatitude(), coordinates.getLongitude()));
-
-        return globalGeometry.contains(point);
+        return PreparedGeometryFactory.prepare(unionToGlobalGeometry(polygons, holes));
     }
 
     private static Geometry unionToGlobalGeometry(List<Geometry> polygons, Set<Geometry> holes) {
@@ -18,9 +18,11 @@ package org.thingsboard.common.util;
 import net.objecthunter.exp4j.Expression;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.within;
 
 class ExpressionUtilsTest {
@@ -131,4 +133,56 @@ class ExpressionUtilsTest {
                 .map(net.objecthunter.exp4j.function.Function::getName))
                 .contains("ln", "lg", "logab");
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenCompiledExpression_whenEvaluated_thenMatchesExp4jResult() {
+        List<String> variables = List.of("a", "b", "c");
+        double[] values = {3.5, -2.0, 10.0};
+        List<String> expressions = List.of(
+                "a + b * c",
+                "(a + b) * c",
+                "-a + +b - -c",
+                "a ^ 2 ^ 0.5",
+                "a / b % c",
+                "2a + 3(b - 1)",
+                "sqrt(abs(b)) + pow(a, 2) + logab(2, c)",
+                "ln(c) + lg(c) + sin(pi / 2) + e",
+                "floor(a) + ceil(a) + signum(b)",
+                "(1 + 2) * 3 + a"
+        );
+        for (String expressionStr : expressions) {
+            CompiledExpression compiled = ExpressionUtils.compileExpression(expressionStr, variables);
+            assertThat(compiled.isCompiled()).as(expressionStr).isTrue();
+
+            Expression expected = ExpressionUtils.createExpression(expressionStr, Set.copyOf(variables));
+            for (int i = 0; i < variables.size(); i++) {
+                expected.setVariable(variables.get(i), values[i]);
+            }
+            assertThat(compiled.evaluate(values)).as(expressionStr).isCloseTo(expected.evaluate(), within(EPSILON));
+        }
+    }
+
+    @Test
+    void givenCompiledExpression_whenDivisionByZero_thenThrowsOnEvaluation() {
+        CompiledExpression compiled = ExpressionUtils.compileExpression("x / 0", List.of("x"));
+        assertThatThrownBy(() -> compiled.evaluate(1.0)).isInstanceOf(ArithmeticException.class);
+
+        CompiledExpression constant = ExpressionUtils.compileExpression("1 / 0", List.of());
+        assertThatThrownBy(constant::evaluate).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void givenCompiledExpression_whenEvaluatedWithDifferentValues_thenDoesNotKeepState() {
+        CompiledExpression compiled = ExpressionUtils.compileExpression("x * y", List.of("x", "y"));
+        assertThat(compiled.evaluate(2.0, 3.0)).isEqualTo(6.0);
+        assertThat(compiled.evaluate(4.0, 5.0)).isEqualTo(20.0);
+    }
+
+    @Test
+    void givenInvalidExpression_whenCompiled_thenFailsOnEvaluationAsExp4j() {
+        CompiledExpression compiled = ExpressionUtils.compileExpression("x + unknown", List.of("x"));
+        assertThat(compiled.isCompiled()).isFalse();
+        assertThatThrownBy(() -> compiled.evaluate(1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -39,18 +39,27 @@ import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.HasId;
 import org.thingsboard.server.common.data.id.NameLabelAndCustomerDetails;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.Aggregation;
 import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.query.EntityAggregationAccumulator;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
+import org.thingsboard.server.common.data.query.EntityAggregationKey;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
 import org.thingsboard.server.common.data.query.EntityCountQuery;
 import org.thingsboard.server.common.data.query.EntityData;
 import org.thingsboard.server.common.data.query.EntityDataPageLink;
 import org.thingsboard.server.common.data.query.EntityDataQuery;
+import org.thingsboard.server.common.data.query.EntityDataSortOrder;
 import org.thingsboard.server.common.data.query.EntityFilterType;
 import org.thingsboard.server.common.data.query.EntityKey;
 import org.thingsboard.server.common.data.query.EntityKeyType;
+import org.thingsboard.server.common.data.query.EntityKeyValueType;
 import org.thingsboard.server.common.data.query.EntityListFilter;
 import org.thingsboard.server.common.data.query.EntityNameFilter;
 import org.thingsboard.server.common.data.query.EntityTypeFilter;
+import org.thingsboard.server.common.data.query.FilterPredicateValue;
 import org.thingsboard.server.common.data.query.KeyFilter;
+import org.thingsboard.server.common.data.query.NumericFilterPredicate;
 import org.thingsboard.server.common.data.query.RelationsQueryFilter;
 import org.thingsboard.server.common.data.query.TsValue;
 import org.thingsboard.server.common.msg.edqs.EdqsApiService;
@@ -88,6 +97,8 @@ public class BaseEntityService extends AbstractEntityService implements EntitySe
     public static final CustomerId NULL_CUSTOMER_ID = new CustomerId(NULL_UUID);
 
     private static final int MAX_ENTITY_IDS_SIZE = 1024;
+    private static final int AGGREGATION_PAGE_SIZE = 1024;
+    private static final EntityKey CREATED_TIME_KEY = new EntityKey(EntityKeyType.ENTITY_FIELD, "createdTime");
     private static final Set<EntityFilterType> EXCLUDED_TYPES_FROM_OPTIMIZATION = Set.of(
             EntityFilterType.ENTITY_LIST, EntityFilterType.SINGLE_ENTITY, EntityFilterType.RELATIONS_QUERY);
 
@@ -200,6 +211,108 @@ public class BaseEntityService extends AbstractEntityService implements EntitySe
         return new PageData<>(entities, entityDataByQuery.getTotalPages(), entityDataByQuery.getTotalElements(), entityDataByQuery.hasNext());
     }
 
+    @Override
+    public List<EntityAggregationData> aggregateEntitiesByQuery(TenantId tenantId, CustomerId customerId, EntityAggregationQuery query) {
+        log.trace("Executing aggregateEntitiesByQuery, tenantId [{}], customerId [{}], query [{}]", tenantId, customerId, query);
+        validateId(tenantId, id -> INCORRECT_TENANT_ID + id);
+        validateId(customerId, id -> INCORRECT_CUSTOMER_ID + id);
+        validateEntityAggregationQuery(query);
+
+        if (edqsService.isApiEnabled() && validForEdqs(query) && !tenantId.isSysTenantId()) {
+            EdqsRequest request = EdqsRequest.builder()
+                    .entityAggregationQuery(query)
+                    .build();
+            EdqsResponse response = processEdqsRequest(tenantId, customerId, request);
+            return response.getEntityAggregationQueryResult();
+        } else {
+            return aggregateEntitiesByQueryInternal(tenantId, customerId, query);
+        }
+    }
+
+    /*
+     * Pages through the entities in createdTime descending order using the last seen createdTime as the keyset
+     * instead of offsets, so that entities created or deleted during the scan do not shift the pages. Entities with
+     * equal createdTime have no defined order, so the next page includes the boundary createdTime again and skips
+     * the ids already seen with it.
+     */
+    private List<EntityAggregationData> aggregateEntitiesByQueryInternal(TenantId tenantId, CustomerId customerId, EntityAggregationQuery query) {
+        List<EntityKey> keys = new ArrayList<>();
+        keys.add(CREATED_TIME_KEY);
+        if (query.getGroupByKey() != null) {
+            keys.add(query.getGroupByKey());
+        }
+        for (EntityAggregationKey aggregation : query.getAggregations()) {
+            keys.add(aggregation.getKey());
+        }
+        List<EntityKey> entityFields = keys.stream().filter(key -> key.getType() == EntityKeyType.ENTITY_FIELD).distinct().toList();
+        List<EntityKey> latestValues = keys.stream().filter(key -> key.getType() != EntityKeyType.ENTITY_FIELD).distinct().toList();
+        EntityDataSortOrder sortOrder = new EntityDataSortOrder(CREATED_TIME_KEY, EntityDataSortOrder.Direction.DESC);
+
+        EntityAggregationAccumulator accumulator = new EntityAggregationAccumulator(query.getAggregations());
+        long boundaryCreatedTime = Long.MAX_VALUE;
+        Set<EntityId> boundaryIds = new HashSet<>();
+        int pageSize = AGGREGATION_PAGE_SIZE;
+        while (true) {
+            List<KeyFilter> keyFilters = new ArrayList<>();
+            if (query.getKeyFilters() != null) {
+                keyFilters.addAll(query.getKeyFilters());
+            }
+            if (boundaryCreatedTime != Long.MAX_VALUE) {
+                keyFilters.add(createdTimeNotAfter(boundaryCreatedTime));
+            }
+            EntityDataQuery dataQuery = new EntityDataQuery(query.getEntityFilter(), new EntityDataPageLink(pageSize, 0, null, sortOrder),
+                    entityFields, latestValues, keyFilters);
+            PageData<EntityData> page = entityQueryDao.findEntityDataByQuery(tenantId, customerId, dataQuery);
+            boolean progress = false;
+            for (EntityData entityData : page.getData()) {
+                if (boundaryIds.contains(entityData.getEntityId())) {
+                    continue;
+                }
+                progress = true;
+                long createdTime = Long.parseLong(getLatestValue(entityData, CREATED_TIME_KEY));
+                if (createdTime < boundaryCreatedTime) {
+                    boundaryCreatedTime = createdTime;
+                    boundaryIds.clear();
+                }
+                boundaryIds.add(entityData.getEntityId());
+
+                String groupValue = query.getGroupByKey() != null ? getLatestValue(entityData, query.getGroupByKey()) : null;
+                EntityAggregationAccumulator.Group group = accumulator.getGroup(groupValue);
+                group.addEntity();
+                for (int i = 0; i < query.getAggregations().size(); i++) {
+                    EntityKey key = query.getAggregations().get(i).getKey();
+                    Double value = EntityAggregationAccumulator.toNumber(getLatestValue(entityData, key));
+                    if (value != null) {
+                        group.addValue(i, value);
+                    }
+                }
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            // more entities share the boundary createdTime than fit in the page
+            pageSize = progress ? AGGREGATION_PAGE_SIZE : pageSize * 2;
+        }
+        return accumulator.getResult();
+    }
+
+    private static KeyFilter createdTimeNotAfter(long createdTime) {
+        NumericFilterPredicate predicate = new NumericFilterPredicate();
+        predicate.setOperation(NumericFilterPredicate.NumericOperation.LESS_OR_EQUAL);
+        predicate.setValue(new FilterPredicateValue<>((double) createdTime));
+        KeyFilter keyFilter = new KeyFilter();
+        keyFilter.setKey(CREATED_TIME_KEY);
+        keyFilter.setValueType(EntityKeyValueType.NUMERIC);
+        keyFilter.setPredicate(predicate);
+        return keyFilter;
+    }
+
+    private static String getLatestValue(EntityData entityData, EntityKey key) {
+        Map<String, TsValue> values = entityData.getLatest() != null ? entityData.getLatest().get(key.getType()) : null;
+        TsValue tsValue = values != null ? values.get(key.getKey()) : null;
+        return tsValue != null && StringUtils.isNotEmpty(tsValue.getValue()) ? tsValue.getValue() : null;
+    }
+
     private boolean validForEdqs(EntityCountQuery query) { // for compatibility with PE
         return true;
     }
@@ -344,6 +457,21 @@ public class BaseEntityService extends AbstractEntityService implements EntitySe
         }
     }
 
+    private static void validateEntityAggregationQuery(EntityAggregationQuery query) {
+        validateEntityCountQuery(query);
+        if (CollectionUtils.isEmpty(query.getAggregations())) {
+            throw new IncorrectParameterException("Query aggregations must be specified.");
+        }
+        for (EntityAggregationKey aggregation : query.getAggregations()) {
+            if (aggregation.getKey() == null || aggregation.getAggregation() == null) {
+                throw new IncorrectParameterException("Aggregation key and function must be specified.");
+            }
+            if (aggregation.getAggregation() == Aggregation.NONE) {
+                throw new IncorrectParameterException("Unsupported aggregation function: " + aggregation.getAggregation());
+            }
+        }
+    }
+
     private static void validateEntityDataQuery(EntityDataQuery query) {
         validateEntityCountQuery(query);
         validateEntityDataPageLink(query.getPageLink());
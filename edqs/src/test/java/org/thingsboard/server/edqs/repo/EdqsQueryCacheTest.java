@@ -0,0 +1,165 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.edqs.repo;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.thingsboard.server.common.data.query.EntityDataSortOrder;
+import org.thingsboard.server.common.data.query.EntityKeyType;
+import org.thingsboard.server.common.data.query.EntityTypeFilter;
+import org.thingsboard.server.common.stats.DummyEdqsStatsService;
+import org.thingsboard.server.edqs.query.DataKey;
+import org.thingsboard.server.edqs.query.EdqsDataQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EdqsQueryCacheTest {
+
+    private static final int TEMPERATURE_KEY_ID = 1000001;
+    private static final int HUMIDITY_KEY_ID = 1000002;
+
+    private EdqsQueryCache cache;
+    private EdqsDataQuery query;
+    private AtomicInteger computations;
+
+    @Before
+    public void setUp() {
+        cache = new EdqsQueryCache(1000, 60, new DummyEdqsStatsService());
+        query = buildQuery(10);
+        computations = new AtomicInteger();
+    }
+
+    @Test
+    public void testResultIsCachedUntilUsedKeyChanges() {
+        Assert.assertEquals(1, query());
+        Assert.assertEquals(1, query());
+
+        cache.onKeyChanged(HUMIDITY_KEY_ID);
+        Assert.assertEquals(1, query());
+
+        cache.onKeyChanged(TEMPERATURE_KEY_ID);
+        Assert.assertEquals(2, query());
+        Assert.assertEquals(2, query());
+    }
+
+    @Test
+    public void testResultIsInvalidatedOnEntitiesChange() {
+        Assert.assertEquals(1, query());
+        cache.onEntitiesChanged();
+        Assert.assertEquals(2, query());
+    }
+
+    @Test
+    public void testResultIsNotCachedIfDataChangedDuringComputation() {
+        int result = cache.get(null, query, false, r -> 1, () -> {
+            cache.onKeyChanged(TEMPERATURE_KEY_ID);
+            return computations.incrementAndGet();
+        });
+        Assert.assertEquals(1, result);
+        Assert.assertEquals(2, query());
+    }
+
+    @Test
+    public void testResultIsNotCachedOverGlobalLimitAndWeightIsReleasedOnClear() {
+        AtomicLong totalWeight = new AtomicLong();
+        EdqsQueryCache tenantCache = new EdqsQueryCache(1000, 60, totalWeight, 10, new DummyEdqsStatsService());
+        EdqsQueryCache otherTenantCache = new EdqsQueryCache(1000, 60, totalWeight, 10, new DummyEdqsStatsService());
+
+        tenantCache.get(null, query, false, r -> 8, computations::incrementAndGet);
+        Assert.assertEquals(8, totalWeight.get());
+
+        Assert.assertEquals(2, (int) otherTenantCache.get(null, query, false, r -> 8, computations::incrementAndGet));
+        Assert.assertEquals(3, (int) otherTenantCache.get(null, query, false, r -> 8, computations::incrementAndGet));
+        Assert.assertEquals(8, totalWeight.get());
+
+        tenantCache.clear();
+        Assert.assertEquals(0, totalWeight.get());
+
+        otherTenantCache.get(null, query, false, r -> 8, computations::incrementAndGet);
+        Assert.assertEquals(4, (int) otherTenantCache.get(null, query, false, r -> 8, computations::incrementAndGet));
+        Assert.assertEquals(8, totalWeight.get());
+    }
+
+    @Test
+    public void testWeightIsReleasedOnInvalidation() {
+        AtomicLong totalWeight = new AtomicLong();
+        EdqsQueryCache tenantCache = new EdqsQueryCache(1000, 60, totalWeight, 100, new DummyEdqsStatsService());
+
+        tenantCache.get(null, query, false, r -> 8, computations::incrementAndGet);
+        Assert.assertEquals(8, totalWeight.get());
+        tenantCache.onKeyChanged(HUMIDITY_KEY_ID);
+        Assert.assertEquals(8, totalWeight.get());
+        tenantCache.onKeyChanged(TEMPERATURE_KEY_ID);
+        Assert.assertEquals(0, totalWeight.get());
+
+        tenantCache.get(null, query, false, r -> 8, computations::incrementAndGet);
+        Assert.assertEquals(8, totalWeight.get());
+        tenantCache.onEntitiesChanged();
+        Assert.assertEquals(0, totalWeight.get());
+    }
+
+    @Test
+    public void testConcurrentPutsDoNotExceedGlobalLimit() throws Exception {
+        AtomicLong totalWeight = new AtomicLong();
+        EdqsQueryCache tenantCache = new EdqsQueryCache(100000, 60, totalWeight, 50, new DummyEdqsStatsService());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                EdqsDataQuery pageQuery = buildQuery(i + 1);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return tenantCache.get(null, pageQuery, false, r -> 10, computations::incrementAndGet);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertTrue(totalWeight.get() <= 50);
+    }
+
+    private static EdqsDataQuery buildQuery(int pageSize) {
+        return EdqsDataQuery.builder()
+                .entityFilter(new EntityTypeFilter())
+                .keyFilters(Collections.emptyList())
+                .pageSize(pageSize)
+                .sortKey(new DataKey(EntityKeyType.ENTITY_FIELD, "createdTime", null))
+                .sortDirection(EntityDataSortOrder.Direction.DESC)
+                .entityFields(Collections.emptyList())
+                .latestValues(List.of(new DataKey(EntityKeyType.TIME_SERIES, "temperature", TEMPERATURE_KEY_ID)))
+                .build();
+    }
+
+    private int query() {
+        return cache.get(null, query, false, r -> 1, computations::incrementAndGet);
+    }
+
+}
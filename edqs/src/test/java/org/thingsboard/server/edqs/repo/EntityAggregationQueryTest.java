@@ -0,0 +1,113 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.edqs.repo;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.edqs.LatestTsKv;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.kv.Aggregation;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.DoubleDataEntry;
+import org.thingsboard.server.common.data.kv.StringDataEntry;
+import org.thingsboard.server.common.data.query.EntityAggregationData;
+import org.thingsboard.server.common.data.query.EntityAggregationKey;
+import org.thingsboard.server.common.data.query.EntityAggregationQuery;
+import org.thingsboard.server.common.data.query.EntityKey;
+import org.thingsboard.server.common.data.query.EntityKeyType;
+import org.thingsboard.server.common.data.query.EntityTypeFilter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class EntityAggregationQueryTest extends AbstractEDQTest {
+
+    private static final EntityKey STATE_KEY = new EntityKey(EntityKeyType.TIME_SERIES, "state");
+    private static final EntityKey TEMPERATURE_KEY = new EntityKey(EntityKeyType.TIME_SERIES, "temperature");
+
+    @Before
+    public void setUp() {
+        createDeviceWithTelemetry("Device-1", "enabled", 20.0);
+        createDeviceWithTelemetry("Device-2", "enabled", 26.0);
+        createDeviceWithTelemetry("Device-3", "disabled", 19.0);
+        createDeviceWithTelemetry("Device-4", "disabled", null);
+    }
+
+    @Test
+    public void testAggregateWithoutGroupBy() {
+        var result = repository.aggregateEntitiesByQuery(tenantId, null, getQuery(null), false);
+
+        Assert.assertEquals(1, result.size());
+        EntityAggregationData data = result.get(0);
+        Assert.assertNull(data.getGroupValue());
+        Assert.assertEquals(4, data.getCount());
+        Assert.assertEquals(List.of(19.0, 26.0, 65.0 / 3, 3.0), data.getValues());
+    }
+
+    @Test
+    public void testAggregateWithGroupBy() {
+        Map<String, EntityAggregationData> result = repository.aggregateEntitiesByQuery(tenantId, null, getQuery(STATE_KEY), false)
+                .stream().collect(Collectors.toMap(EntityAggregationData::getGroupValue, Function.identity()));
+
+        Assert.assertEquals(2, result.size());
+        EntityAggregationData enabled = result.get("enabled");
+        Assert.assertEquals(2, enabled.getCount());
+        Assert.assertEquals(List.of(20.0, 26.0, 23.0, 2.0), enabled.getValues());
+
+        EntityAggregationData disabled = result.get("disabled");
+        Assert.assertEquals(2, disabled.getCount());
+        Assert.assertEquals(List.of(19.0, 19.0, 19.0, 1.0), disabled.getValues());
+    }
+
+    @Test
+    public void testEmptyGroupValueIsGroupedWithMissingValue() {
+        createDeviceWithTelemetry("Device-5", "", 30.0);
+        DeviceId deviceId = new DeviceId(createDevice("Device-6"));
+        addOrUpdate(new LatestTsKv(deviceId, new BasicTsKvEntry(42, new DoubleDataEntry("temperature", 10.0)), 0L));
+
+        List<EntityAggregationData> result = repository.aggregateEntitiesByQuery(tenantId, null, getQuery(STATE_KEY), false);
+
+        Assert.assertEquals(3, result.size());
+        EntityAggregationData noState = result.stream().filter(data -> data.getGroupValue() == null).findFirst().orElseThrow();
+        Assert.assertEquals(2, noState.getCount());
+        Assert.assertEquals(List.of(10.0, 30.0, 20.0, 2.0), noState.getValues());
+    }
+
+    private EntityAggregationQuery getQuery(EntityKey groupByKey) {
+        EntityTypeFilter filter = new EntityTypeFilter();
+        filter.setEntityType(EntityType.DEVICE);
+        List<EntityAggregationKey> aggregations = List.of(
+                new EntityAggregationKey(TEMPERATURE_KEY, Aggregation.MIN),
+                new EntityAggregationKey(TEMPERATURE_KEY, Aggregation.MAX),
+                new EntityAggregationKey(TEMPERATURE_KEY, Aggregation.AVG),
+                new EntityAggregationKey(TEMPERATURE_KEY, Aggregation.COUNT));
+        return new EntityAggregationQuery(filter, Collections.emptyList(), groupByKey, aggregations);
+    }
+
+    private void createDeviceWithTelemetry(String name, String state, Double temperature) {
+        DeviceId deviceId = new DeviceId(createDevice(name));
+        addOrUpdate(new LatestTsKv(deviceId, new BasicTsKvEntry(42, new StringDataEntry("state", state)), 0L));
+        if (temperature != null) {
+            addOrUpdate(new LatestTsKv(deviceId, new BasicTsKvEntry(42, new DoubleDataEntry("temperature", temperature)), 0L));
+        }
+    }
+
+}
@@ -117,6 +117,46 @@ public class RelationsQueryFilterTest extends AbstractEDQTest {
 
     }
 
+    @Test
+    public void testFindTenantDevicesWithSharedChildren() {
+        UUID root = createAsset("T ROOT");
+        UUID ta1 = createAsset("T A1");
+        UUID ta2 = createAsset("T A2");
+        UUID ta3 = createAsset("T A3");
+        UUID da1 = createDevice("T D1");
+
+        // ROOT --Contains--> A1, A2; A1, A2 --Contains--> A3; A3 --Contains--> D1; D1 --Contains--> ROOT.
+        createRelation(EntityType.ASSET, root, EntityType.ASSET, ta1, "Contains");
+        createRelation(EntityType.ASSET, root, EntityType.ASSET, ta2, "Contains");
+        createRelation(EntityType.ASSET, ta1, EntityType.ASSET, ta3, "Contains");
+        createRelation(EntityType.ASSET, ta2, EntityType.ASSET, ta3, "Contains");
+        createRelation(EntityType.ASSET, ta3, EntityType.DEVICE, da1, "Contains");
+        createRelation(EntityType.DEVICE, da1, EntityType.ASSET, root, "Contains");
+
+        PageData<QueryResult> relationsResult = filter(null, new AssetId(root), 3, false,
+                new RelationEntityTypeFilter("Contains", Arrays.asList(EntityType.DEVICE, EntityType.ASSET)));
+        Assert.assertEquals(4, relationsResult.getData().size());
+        Assert.assertTrue(checkContains(relationsResult, ta1));
+        Assert.assertTrue(checkContains(relationsResult, ta2));
+        Assert.assertTrue(checkContains(relationsResult, ta3));
+        Assert.assertTrue(checkContains(relationsResult, da1));
+
+        relationsResult = filter(null, new AssetId(root), 0, false,
+                new RelationEntityTypeFilter("Contains", Arrays.asList(EntityType.DEVICE, EntityType.ASSET)));
+        Assert.assertEquals(5, relationsResult.getData().size());
+        Assert.assertTrue(checkContains(relationsResult, root));
+
+        relationsResult = filter(null, new AssetId(root), 2, true,
+                new RelationEntityTypeFilter("Contains", Arrays.asList(EntityType.DEVICE, EntityType.ASSET)));
+        Assert.assertEquals(1, relationsResult.getData().size());
+        Assert.assertTrue(checkContains(relationsResult, ta3));
+
+        relationsResult = filter(null, new AssetId(root), 3, true,
+                new RelationEntityTypeFilter("Contains", Arrays.asList(EntityType.DEVICE, EntityType.ASSET)));
+        Assert.assertEquals(1, relationsResult.getData().size());
+        Assert.assertTrue(checkContains(relationsResult, da1));
+    }
+
     @Test
     public void testFindCustomerDevices() {
         UUID ta1 = createAsset("T A1");
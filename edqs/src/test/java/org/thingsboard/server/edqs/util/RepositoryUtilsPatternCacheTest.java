@@ -0,0 +1,48 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.edqs.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.query.FilterPredicateValue;
+import org.thingsboard.server.common.data.query.StringFilterPredicate;
+import org.thingsboard.server.common.data.query.StringFilterPredicate.StringOperation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryUtilsPatternCacheTest {
+
+    @Test
+    public void testSqlLikePatternsCacheIsBounded() {
+        for (int i = 0; i < RepositoryUtils.SQL_LIKE_PATTERNS_CACHE_SIZE * 3; i++) {
+            assertThat(RepositoryUtils.checkKeyFilter("device " + i, containsFilter("ice " + i))).isTrue();
+            assertThat(RepositoryUtils.checkKeyFilter("device " + i, containsFilter("sensor " + i))).isFalse();
+        }
+
+        Cache<?, ?> patterns = (Cache<?, ?>) ReflectionTestUtils.getField(RepositoryUtils.class, "sqlLikePatterns");
+        patterns.cleanUp();
+        assertThat(patterns.estimatedSize()).isLessThanOrEqualTo(RepositoryUtils.SQL_LIKE_PATTERNS_CACHE_SIZE);
+    }
+
+    private static StringFilterPredicate containsFilter(String value) {
+        StringFilterPredicate predicate = new StringFilterPredicate();
+        predicate.setOperation(StringOperation.CONTAINS);
+        predicate.setValue(new FilterPredicateValue<>(value));
+        return predicate;
+    }
+
+}
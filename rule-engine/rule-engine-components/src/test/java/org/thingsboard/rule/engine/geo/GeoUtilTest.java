@@ -21,6 +21,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.thingsboard.common.util.geo.Coordinates;
 import org.thingsboard.common.util.geo.GeoUtil;
+import org.thingsboard.common.util.geo.RangeUnit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @ExtendWith(MockitoExtension.class)
 public class GeoUtilTest {
@@ -162,4 +167,27 @@ public class GeoUtilTest {
                 );
     }
 
+    @Test
+    public void testDistance() {
+        Coordinates kyiv = new Coordinates(50.4501, 30.5234);
+        Coordinates lviv = new Coordinates(49.8397, 24.0297);
+        Assertions.assertEquals(0.0, GeoUtil.distance(kyiv, kyiv, RangeUnit.METER), 1e-9);
+        Assertions.assertEquals(467.5, GeoUtil.distance(kyiv, lviv, RangeUnit.KILOMETER), 0.1);
+        Assertions.assertEquals(GeoUtil.distance(kyiv, lviv, RangeUnit.METER), GeoUtil.distance(lviv, kyiv, RangeUnit.METER), 1e-6);
+    }
+
+    @Test
+    public void testPointsInPolygonsConcurrently() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < 100; j++) {
+                    Assertions.assertTrue(GeoUtil.contains(SAND_CLOCK_WITH_HOLE_IN_CENTER, POINT_INSIDE_SAND_CLOCK_NEAR_BORDER));
+                    Assertions.assertFalse(GeoUtil.contains(SAND_CLOCK_WITH_HOLE_IN_CENTER, POINT_INSIDE_SAND_CLOCK_CENTER));
+                }
+            }));
+        }
+        futures.forEach(CompletableFuture::join);
+    }
+
 }
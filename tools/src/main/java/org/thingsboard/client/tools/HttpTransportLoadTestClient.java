@@ -0,0 +1,142 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is intended for manual comparison of the servlet and the Netty based HTTP device transports.
+ * <p>
+ * Each of the comma-separated base urls is loaded in turn with telemetry requests of the given device and
+ * the throughput and latency percentiles are printed. For example:
+ * <pre>
+ * java -Durls=http://localhost:8081,http://localhost:8082 -Dtoken=A1_TEST_TOKEN -Dconcurrency=64 -Dduration=60 HttpTransportLoadTestClient
+ * </pre>
+ */
+@Slf4j
+public class HttpTransportLoadTestClient {
+
+    private static final String PAYLOAD = "{\"temperature\":42.0,\"humidity\":73,\"active\":true}";
+
+    public static void main(String[] args) throws Exception {
+        String[] urls = System.getProperty("urls", "http://localhost:8081,http://localhost:8082").split(",");
+        String token = System.getProperty("token", "A1_TEST_TOKEN");
+        int concurrency = Integer.getInteger("concurrency", 64);
+        int warmUpSeconds = Integer.getInteger("warmup", 10);
+        int durationSeconds = Integer.getInteger("duration", 60);
+
+        for (String url : urls) {
+            URI uri = URI.create(url.trim() + "/api/v1/" + token + "/telemetry");
+            run(uri, concurrency, warmUpSeconds);
+            Result result = run(uri, concurrency, durationSeconds);
+            log.info("[{}] requests: {}, errors: {}, req/s: {}, p50: {} ms, p99: {} ms, max: {} ms", url, result.count, result.errors,
+                    String.format("%.1f", result.count / (double) durationSeconds),
+                    millis(result.percentile(0.5)), millis(result.percentile(0.99)), millis(result.percentile(1.0)));
+        }
+        System.exit(0);
+    }
+
+    private static Result run(URI uri, int concurrency, int durationSeconds) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(PAYLOAD))
+                .build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Result>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(executor.submit(() -> {
+                    Result result = new Result();
+                    while (System.nanoTime() < deadline) {
+                        long startTs = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                result.errors++;
+                            }
+                        } catch (Exception e) {
+                            result.errors++;
+                        }
+                        result.add(System.nanoTime() - startTs);
+                    }
+                    return result;
+                }));
+            }
+            Result total = new Result();
+            for (Future<Result> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
+    private static class Result {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void add(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.latencies[i]);
+            }
+            errors += other.errors;
+        }
+
+        long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+        }
+
+    }
+
+}
@@ -102,7 +102,8 @@ export class MqttDeviceProfileTransportConfigurationComponent implements Control
           deviceRpcRequestProtoSchema: [defaultRpcRequestSchema, Validators.required],
           deviceRpcResponseProtoSchema: [defaultRpcResponseSchema, Validators.required],
           enableCompatibilityWithJsonPayloadFormat: [false, Validators.required],
-          useJsonPayloadFormatForDefaultDownlinkTopics: [false, Validators.required]
+          useJsonPayloadFormatForDefaultDownlinkTopics: [false, Validators.required],
+          enableTelemetryPassThrough: [false, Validators.required]
         })
       }, {validators: this.uniqueDeviceTopicValidator}
     );
@@ -193,7 +194,8 @@ export class MqttDeviceProfileTransportConfigurationComponent implements Control
         deviceRpcRequestProtoSchema: defaultRpcRequestSchema,
         deviceRpcResponseProtoSchema: defaultRpcResponseSchema,
         enableCompatibilityWithJsonPayloadFormat: false,
-        useJsonPayloadFormatForDefaultDownlinkTopics: false
+        useJsonPayloadFormatForDefaultDownlinkTopics: false,
+        enableTelemetryPassThrough: false
       }, {emitEvent: false});
     }
     if (type === TransportPayloadType.PROTOBUF && !this.disabled) {
@@ -203,6 +205,7 @@ export class MqttDeviceProfileTransportConfigurationComponent implements Control
       transportPayloadTypeForm.get('deviceRpcResponseProtoSchema').enable({emitEvent: false});
       transportPayloadTypeForm.get('enableCompatibilityWithJsonPayloadFormat').enable({emitEvent: false});
       transportPayloadTypeForm.get('useJsonPayloadFormatForDefaultDownlinkTopics').enable({emitEvent: false});
+      transportPayloadTypeForm.get('enableTelemetryPassThrough').enable({emitEvent: false});
     } else {
       transportPayloadTypeForm.get('deviceTelemetryProtoSchema').disable({emitEvent: false});
       transportPayloadTypeForm.get('deviceAttributesProtoSchema').disable({emitEvent: false});
@@ -210,6 +213,7 @@ export class MqttDeviceProfileTransportConfigurationComponent implements Control
       transportPayloadTypeForm.get('deviceRpcResponseProtoSchema').disable({emitEvent: false});
       transportPayloadTypeForm.get('enableCompatibilityWithJsonPayloadFormat').disable({emitEvent: false});
       transportPayloadTypeForm.get('useJsonPayloadFormatForDefaultDownlinkTopics').disable({emitEvent: false});
+      transportPayloadTypeForm.get('enableTelemetryPassThrough').disable({emitEvent: false});
     }
   }
 
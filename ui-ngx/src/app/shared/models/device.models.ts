@@ -262,6 +262,7 @@ export interface MqttDeviceProfileTransportConfiguration {
     transportPayloadType?: TransportPayloadType;
     enableCompatibilityWithJsonPayloadFormat?: boolean;
     useJsonPayloadFormatForDefaultDownlinkTopics?: boolean;
+    enableTelemetryPassThrough?: boolean;
   };
   [key: string]: any;
 }
@@ -387,6 +388,7 @@ export const createDeviceProfileTransportConfiguration = (type: DeviceTransportT
             transportPayloadType: TransportPayloadType.JSON,
             enableCompatibilityWithJsonPayloadFormat: false,
             useJsonPayloadFormatForDefaultDownlinkTopics: false,
+            enableTelemetryPassThrough: false,
           }
         };
         transportConfiguration = {...mqttTransportConfiguration, type: DeviceTransportType.MQTT};